@@ -0,0 +1,53 @@
+package de.adito.aditoweb.nbm.help;
+
+import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.INodeJSEnvironment;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Benchmarks the creation of the jsdoc.json of a project, the template is parsed and written again with Gson for every rendering
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class JSDocConfigBenchmark
+{
+  private Path userDirectory;
+  private HelpActionShowDocumentation action;
+  private INodeJSEnvironment environment;
+  private Path destination;
+
+  @Setup
+  public void setup() throws Exception
+  {
+    // the jsdoc.json is written into the cache directory of the IDE, which is a temporary directory here
+    userDirectory = Files.createTempDirectory("help-benchmark");
+    System.setProperty("netbeans.user", userDirectory.toString());
+    destination = userDirectory.resolve("documentation");
+
+    action = mock(HelpActionShowDocumentation.class, withSettings().useConstructor().defaultAnswer(CALLS_REAL_METHODS).stubOnly());
+    environment = mock(INodeJSEnvironment.class, withSettings().stubOnly());
+    // the modules are resolved in the bundled toolchain, so the environment is never asked
+    doReturn(userDirectory.resolve("toolchain")).when(action).getBundledToolchain();
+  }
+
+  @TearDown
+  public void tearDown()
+  {
+    FileUtils.deleteQuietly(userDirectory.toFile());
+  }
+
+  @Benchmark
+  public String moveAndOverwriteJSDocContent() throws Exception
+  {
+    return action.moveAndOverwriteJSDocContent("/projects/benchmark", "benchmark", environment, destination);
+  }
+}
@@ -0,0 +1,81 @@
+package de.adito.aditoweb.nbm.help;
+
+import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Benchmarks the parsing of the "npm list --json" outputs, that are used to verify the toolchain and the jdito-types of a project.
+ * The outputs are several megabytes large, like the ones of a global npm prefix with many installed packages.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class NpmListBenchmark
+{
+  /**
+   * number of top level packages in the output, every one of them has 39 transitive dependencies
+   */
+  @Param({"100", "500"})
+  public int packages;
+
+  private HelpActionShowDocumentation action;
+  private INodeJSEnvironment environment;
+  private INodeJSExecutor globalExecutor;
+  private INodeJSExecutor projectExecutor;
+
+  @Setup
+  public void setup() throws Exception
+  {
+    // stub only mocks do not record their invocations, otherwise the memory would grow with every invocation
+    action = mock(HelpActionShowDocumentation.class, withSettings().useConstructor().defaultAnswer(CALLS_REAL_METHODS).stubOnly());
+    environment = mock(INodeJSEnvironment.class, withSettings().stubOnly());
+
+    Map<String, String> toolchain = new LinkedHashMap<>();
+    for (String requiredPackage : HelpActionShowDocumentation.REQUIRED_PACKAGES)
+    {
+      String version = HelpActionShowDocumentation.getPackageVersion(requiredPackage);
+      toolchain.put(HelpActionShowDocumentation.getPackageName(requiredPackage), version != null ? version : "1.0.0");
+    }
+    globalExecutor = createExecutor(NpmListOutput.create(toolchain, packages));
+    projectExecutor = createExecutor(NpmListOutput.create(Map.of("@aditosoftware/jdito-types", "2023.2.0"), packages));
+  }
+
+  @Benchmark
+  public List<String> verifyPackageInstallation() throws Exception
+  {
+    return action.verifyPackageInstallation(environment, globalExecutor, HelpActionShowDocumentation.REQUIRED_PACKAGES);
+  }
+
+  @Benchmark
+  public boolean checkProjectJDitoTypes() throws Exception
+  {
+    return action.checkProjectJDitoTypes(environment, projectExecutor);
+  }
+
+  /**
+   * @param pOutput output of every npm call
+   * @return an executor, that returns the given output without starting a process
+   */
+  private INodeJSExecutor createExecutor(String pOutput) throws Exception
+  {
+    INodeJSExecutor executor = mock(INodeJSExecutor.class, withSettings().stubOnly());
+    byte[] output = pOutput.getBytes(StandardCharsets.UTF_8);
+    doAnswer(pInvocation -> {
+      OutputStream outputStream = pInvocation.getArgument(2);
+      outputStream.write(output);
+      return CompletableFuture.completedFuture(0);
+    }).when(executor).executeAsync(any(), any(), any(), any(), any(), any());
+    return executor;
+  }
+}
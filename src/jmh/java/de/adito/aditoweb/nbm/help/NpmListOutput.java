@@ -0,0 +1,73 @@
+package de.adito.aditoweb.nbm.help;
+
+import lombok.NonNull;
+
+import java.util.*;
+
+/**
+ * Creates the output of "npm list --json" for the benchmarks. The dependency trees are generated with a fixed seed, so every run and every commit
+ * parses exactly the same content.
+ */
+final class NpmListOutput
+{
+  private static final long SEED = 4711;
+  private static final int FAN_OUT = 3;
+  private static final int DEPTH = 3;
+
+  private NpmListOutput()
+  {
+  }
+
+  /**
+   * @param pInstalled packages, that are installed in the given version in addition to the generated ones
+   * @param pPackages  number of generated top level packages, every one of them has a dependency tree of {@value DEPTH} levels
+   * @return the output of npm list, including the execution path in the first line
+   */
+  @NonNull
+  static String create(@NonNull Map<String, String> pInstalled, int pPackages)
+  {
+    Random random = new Random(SEED);
+    StringBuilder output = new StringBuilder("/usr/local/lib\n{\n  \"name\": \"lib\",\n  \"dependencies\": {");
+    boolean first = true;
+    for (Map.Entry<String, String> installed : pInstalled.entrySet())
+    {
+      appendPackage(output, random, installed.getKey(), installed.getValue(), 2, DEPTH, first);
+      first = false;
+    }
+    for (int i = 0; i < pPackages; i++)
+    {
+      appendPackage(output, random, "package-" + i, createVersion(random), 2, DEPTH, first);
+      first = false;
+    }
+    return output.append("\n  }\n}\n").toString();
+  }
+
+  /**
+   * Appends one package with its dependencies, formatted like npm does
+   */
+  private static void appendPackage(@NonNull StringBuilder pOutput, @NonNull Random pRandom, @NonNull String pName, @NonNull String pVersion,
+                                    int pIndent, int pDepth, boolean pFirst)
+  {
+    String indent = "  ".repeat(pIndent);
+    pOutput.append(pFirst ? "\n" : ",\n")
+        .append(indent).append("\"").append(pName).append("\": {\n")
+        .append(indent).append("  \"version\": \"").append(pVersion).append("\",\n")
+        .append(indent).append("  \"resolved\": \"https://registry.npmjs.org/").append(pName).append("/-/")
+        .append(pName.substring(pName.lastIndexOf('/') + 1)).append("-").append(pVersion).append(".tgz\",\n")
+        .append(indent).append("  \"overridden\": false");
+    if (pDepth > 0)
+    {
+      pOutput.append(",\n").append(indent).append("  \"dependencies\": {");
+      for (int i = 0; i < FAN_OUT; i++)
+        appendPackage(pOutput, pRandom, "dependency-" + pRandom.nextInt(100_000), createVersion(pRandom), pIndent + 2, pDepth - 1, i == 0);
+      pOutput.append("\n").append(indent).append("  }");
+    }
+    pOutput.append("\n").append(indent).append("}");
+  }
+
+  @NonNull
+  private static String createVersion(@NonNull Random pRandom)
+  {
+    return pRandom.nextInt(20) + "." + pRandom.nextInt(50) + "." + pRandom.nextInt(100);
+  }
+}
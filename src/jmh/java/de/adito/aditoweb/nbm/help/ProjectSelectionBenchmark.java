@@ -0,0 +1,100 @@
+package de.adito.aditoweb.nbm.help;
+
+import de.adito.aditoweb.nbm.nbide.nbaditointerface.common.IProjectQuery;
+import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.INodeJSExecutor;
+import org.mockito.MockedStatic;
+import org.netbeans.api.project.Project;
+import org.openide.nodes.Node;
+import org.openide.util.Lookup;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Benchmarks the resolution of the selected projects, which is done by the IDE every time the selection changes.
+ * Only the project of the last selected node has NodeJS, so {@link HelpActionShowDocumentation#enable(Node[])} has to look at every node.
+ * The projects of the nodes and the availability of NodeJS are cached by the {@link ProjectSelectionCache} after the first invocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ProjectSelectionBenchmark
+{
+  private static final int PROJECTS = 20;
+
+  /**
+   * number of selected nodes, every tenth node does not belong to a project
+   */
+  @Param({"10", "1000", "10000"})
+  public int nodes;
+
+  private HelpActionShowDocumentation action;
+  private MockedStatic<IProjectQuery> projectQueryStatic;
+  private Node[] selection;
+
+  @Setup
+  public void setup()
+  {
+    // the lookup of a project is needed to cache the availability of NodeJS
+    Lookup lookup = mock(Lookup.class, withSettings().stubOnly());
+    doAnswer(pInvocation -> mock(Lookup.Result.class, withSettings().stubOnly())).when(lookup).lookupResult(any());
+    List<Project> projects = new ArrayList<>();
+    for (int i = 0; i < PROJECTS; i++)
+    {
+      Project project = mock(Project.class, withSettings().stubOnly());
+      doReturn(lookup).when(project).getLookup();
+      projects.add(project);
+    }
+
+    // the projects of the nodes are looked up in a map, a stubbing per node would make Mockito slower than the code that is measured
+    Map<Node, Project> projectsOfNodes = new IdentityHashMap<>();
+    selection = new Node[nodes];
+    for (int i = 0; i < nodes; i++)
+    {
+      selection[i] = mock(Node.class, withSettings().stubOnly());
+      if (i == nodes - 1)
+        projectsOfNodes.put(selection[i], projects.get(PROJECTS - 1));
+      else if (i % 10 != 0)
+        projectsOfNodes.put(selection[i], projects.get(i % (PROJECTS - 1)));
+    }
+
+    IProjectQuery projectQuery = mock(IProjectQuery.class, withSettings().stubOnly());
+    doAnswer(pInvocation -> projectsOfNodes.get(pInvocation.getArgument(0)))
+        .when(projectQuery).findProjects(any(), eq(IProjectQuery.ReturnType.MULTIPLE_TO_NULL));
+    // static mocks are bound to the thread, the setup of a thread scoped state runs in the thread of the benchmark
+    projectQueryStatic = mockStatic(IProjectQuery.class, withSettings().stubOnly());
+    projectQueryStatic.when(IProjectQuery::getInstance).thenReturn(projectQuery);
+
+    action = mock(HelpActionShowDocumentation.class, withSettings().useConstructor().defaultAnswer(CALLS_REAL_METHODS).stubOnly());
+    doReturn(new ProjectSelectionCache()).when(action).getProjectSelectionCache();
+    INodeJSExecutor executor = mock(INodeJSExecutor.class, withSettings().stubOnly());
+    Project projectWithNodeJS = projects.get(PROJECTS - 1);
+    doAnswer(pInvocation -> pInvocation.getArgument(0) == projectWithNodeJS ? executor : null).when(action).getNodeJSExecutor(any());
+  }
+
+  @TearDown
+  public void tearDown()
+  {
+    projectQueryStatic.close();
+  }
+
+  @Benchmark
+  public List<Project> findSelectedProjects()
+  {
+    return action.findSelectedProjects(selection).collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public boolean enable()
+  {
+    return action.enable(selection);
+  }
+}
@@ -0,0 +1,300 @@
+package de.adito.aditoweb.nbm.help;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.reactivex.rxjava3.annotations.Nullable;
+import lombok.NonNull;
+import org.apache.commons.io.FileUtils;
+import org.openide.modules.Places;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.*;
+import java.util.stream.*;
+import java.util.zip.*;
+
+/**
+ * Toolchain (jsdoc, its plugins and the template) that is shipped with the module as zip archive, built by the maven profile "bundled-toolchain".
+ * The archive is extracted once into a cache directory named after its checksum, so the documentation can be rendered without network access
+ * and without installing anything into the global npm prefix. Only NodeJS itself has to be available. A module built without the profile does not
+ * contain the archive, the toolchain is installed with npm then. The toolchains of other versions of the module are only removed, when they were
+ * not used for a long time, because another IDE instance may still run such a version.
+ */
+class BundledToolchain
+{
+  private static final Logger LOGGER = Logger.getLogger(BundledToolchain.class.getName());
+  private static final String ARCHIVE_RESOURCE = "de/adito/aditoweb/nbm/help/toolchain.zip";
+  private static final String CHECKSUM_RESOURCE = ARCHIVE_RESOURCE + ".sha256";
+  private static final String TEMP_PREFIX = ".tmp-";
+  // written as last file, a directory without it is the leftover of an aborted extraction. Its modification time marks the last usage.
+  private static final String COMPLETE_MARKER = ".complete";
+  private static final long MAX_UNUSED_MILLIS = TimeUnit.DAYS.toMillis(30);
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final Path root;
+  private final ClassLoader classLoader;
+  private volatile Path directory;
+  // the archive is only extracted once, a failed extraction is not repeated until the IDE restarts
+  private boolean resolved;
+  private IOException failure;
+
+  @VisibleForTesting
+  BundledToolchain(@NonNull Path pRoot, @NonNull ClassLoader pClassLoader)
+  {
+    root = pRoot;
+    classLoader = pClassLoader;
+  }
+
+  /**
+   * @return the toolchain of this module
+   */
+  @NonNull
+  static BundledToolchain getInstance()
+  {
+    return Holder.INSTANCE;
+  }
+
+  /**
+   * Returns the directory of the extracted toolchain, the archive is extracted if this was not done before
+   *
+   * @return the directory that contains the "node_modules" of the toolchain or null, if the module does not contain a toolchain
+   * @throws IOException if the archive could not be extracted or does not match its checksum
+   */
+  @Nullable
+  Path getDirectory() throws IOException
+  {
+    Path extracted = directory;
+    if (extracted != null)
+    {
+      markUsed(extracted);
+      return extracted;
+    }
+
+    synchronized (this)
+    {
+      if (!resolved)
+      {
+        resolved = true;
+        try
+        {
+          String checksum = readChecksum();
+          if (checksum != null)
+            directory = extract(checksum);
+        }
+        catch (IOException pE)
+        {
+          LOGGER.log(Level.WARNING, "could not extract the bundled toolchain", pE);
+          failure = pE;
+        }
+      }
+      if (failure != null)
+        throw failure;
+      return directory;
+    }
+  }
+
+  /**
+   * @return the expected SHA-256 checksum of the archive or null, if the module does not contain the archive
+   */
+  @Nullable
+  private String readChecksum() throws IOException
+  {
+    try (InputStream input = classLoader.getResourceAsStream(CHECKSUM_RESOURCE))
+    {
+      if (input == null || classLoader.getResource(ARCHIVE_RESOURCE) == null)
+        return null;
+      // the file may contain the name of the archive after the checksum
+      String[] content = new String(input.readAllBytes(), StandardCharsets.US_ASCII).trim().split("\\s+");
+      if (!content[0].matches("[0-9a-fA-F]{64}"))
+        throw new IOException("invalid checksum of the bundled toolchain: " + content[0]);
+      return content[0].toLowerCase(Locale.ROOT);
+    }
+  }
+
+  /**
+   * Extracts the archive into a temporary directory, verifies it and moves it to the directory of the given checksum.
+   * The archive is streamed, so it is never held in memory or copied to disk as a whole.
+   *
+   * @param pChecksum expected SHA-256 checksum of the archive
+   * @return the directory of the toolchain
+   */
+  @NonNull
+  private Path extract(@NonNull String pChecksum) throws IOException
+  {
+    Path target = root.resolve(pChecksum);
+    if (Files.isRegularFile(target.resolve(COMPLETE_MARKER)))
+    {
+      markUsed(target);
+      return target;
+    }
+
+    long start = System.currentTimeMillis();
+    Files.createDirectories(root);
+    Path tempDirectory = Files.createTempDirectory(root, TEMP_PREFIX);
+    try
+    {
+      MessageDigest digest = createDigest();
+      try (InputStream archive = Objects.requireNonNull(classLoader.getResourceAsStream(ARCHIVE_RESOURCE));
+           DigestInputStream digestInput = new DigestInputStream(new BufferedInputStream(archive, BUFFER_SIZE), digest))
+      {
+        // the zip stream checks the CRC of every entry, the checksum of the whole archive is checked afterwards
+        ZipInputStream zipInput = new ZipInputStream(digestInput);
+        ZipEntry entry;
+        while ((entry = zipInput.getNextEntry()) != null)
+          extractEntry(zipInput, entry, tempDirectory);
+        // the central directory is not read by the zip stream, but it is part of the checksum
+        digestInput.transferTo(OutputStream.nullOutputStream());
+      }
+
+      String actualChecksum = toHex(digest.digest());
+      if (!actualChecksum.equals(pChecksum))
+        throw new IOException("the bundled toolchain is corrupt, its checksum is " + actualChecksum + " instead of " + pChecksum);
+
+      Files.createFile(tempDirectory.resolve(COMPLETE_MARKER));
+      publish(tempDirectory, target);
+      LOGGER.info("extracted bundled toolchain into " + target + " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+    finally
+    {
+      FileUtils.deleteQuietly(tempDirectory.toFile());
+    }
+
+    markUsed(target);
+    removeUnusedVersions(pChecksum);
+    return target;
+  }
+
+  /**
+   * Moves the completely extracted toolchain to its directory
+   *
+   * @param pTempDirectory directory the archive was extracted to
+   * @param pTarget        directory of the toolchain
+   */
+  private static void publish(@NonNull Path pTempDirectory, @NonNull Path pTarget) throws IOException
+  {
+    if (Files.isRegularFile(pTarget.resolve(COMPLETE_MARKER)))
+    {
+      // another IDE instance extracted the same toolchain in the meantime
+      LOGGER.fine("bundled toolchain " + pTarget.getFileName() + " was extracted concurrently");
+      return;
+    }
+
+    // an incomplete directory of an aborted extraction is replaced
+    FileUtils.deleteQuietly(pTarget.toFile());
+    try
+    {
+      Files.move(pTempDirectory, pTarget, StandardCopyOption.ATOMIC_MOVE);
+    }
+    catch (FileAlreadyExistsException | DirectoryNotEmptyException pE)
+    {
+      LOGGER.fine("bundled toolchain " + pTarget.getFileName() + " was extracted concurrently");
+    }
+  }
+
+  /**
+   * @param pZipInput      stream of the archive, positioned at the content of the entry
+   * @param pEntry         entry of the archive
+   * @param pTempDirectory directory the archive is extracted to
+   */
+  private static void extractEntry(@NonNull ZipInputStream pZipInput, @NonNull ZipEntry pEntry, @NonNull Path pTempDirectory) throws IOException
+  {
+    Path file = pTempDirectory.resolve(pEntry.getName()).normalize();
+    // an entry must never be written outside of the target directory
+    if (!file.startsWith(pTempDirectory) || file.equals(pTempDirectory))
+      throw new IOException("invalid entry in the bundled toolchain: " + pEntry.getName());
+
+    if (pEntry.isDirectory())
+      Files.createDirectories(file);
+    else
+    {
+      Files.createDirectories(file.getParent());
+      Files.copy(pZipInput, file);
+    }
+  }
+
+  /**
+   * Marks the toolchain as used, so no other IDE instance removes it
+   *
+   * @param pDirectory directory of the extracted toolchain
+   */
+  private static void markUsed(@NonNull Path pDirectory)
+  {
+    try
+    {
+      Files.setLastModifiedTime(pDirectory.resolve(COMPLETE_MARKER), FileTime.fromMillis(System.currentTimeMillis()));
+    }
+    catch (IOException pE)
+    {
+      LOGGER.log(Level.FINE, "could not mark the bundled toolchain " + pDirectory + " as used", pE);
+    }
+  }
+
+  /**
+   * Removes the toolchains of other versions of the module, that were not used for a long time. Other IDE instances may still use a toolchain of
+   * another version or extract it right now, so recently used toolchains and extractions are kept.
+   *
+   * @param pCurrentChecksum checksum of the current toolchain
+   */
+  private void removeUnusedVersions(@NonNull String pCurrentChecksum) throws IOException
+  {
+    long minLastUsed = System.currentTimeMillis() - MAX_UNUSED_MILLIS;
+    List<Path> unused;
+    try (Stream<Path> entries = Files.list(root))
+    {
+      unused = entries.filter(pPath -> !pPath.getFileName().toString().equals(pCurrentChecksum))
+          .filter(pPath -> getLastUsed(pPath) < minLastUsed)
+          .collect(Collectors.toList());
+    }
+    for (Path other : unused)
+    {
+      LOGGER.info("removing unused bundled toolchain " + other);
+      FileUtils.deleteQuietly(other.toFile());
+    }
+  }
+
+  /**
+   * @param pDirectory directory of a toolchain or of a running extraction
+   * @return the last usage of the toolchain, the directory itself counts for an aborted or running extraction
+   */
+  private static long getLastUsed(@NonNull Path pDirectory)
+  {
+    File marker = pDirectory.resolve(COMPLETE_MARKER).toFile();
+    return marker.isFile() ? marker.lastModified() : pDirectory.toFile().lastModified();
+  }
+
+  @NonNull
+  private static MessageDigest createDigest()
+  {
+    try
+    {
+      return MessageDigest.getInstance("SHA-256");
+    }
+    catch (NoSuchAlgorithmException pE)
+    {
+      // every java platform has to support SHA-256
+      throw new IllegalStateException(pE);
+    }
+  }
+
+  @NonNull
+  private static String toHex(@NonNull byte[] pBytes)
+  {
+    StringBuilder hex = new StringBuilder(pBytes.length * 2);
+    for (byte value : pBytes)
+      hex.append(Character.forDigit((value >> 4) & 0xF, 16)).append(Character.forDigit(value & 0xF, 16));
+    return hex.toString();
+  }
+
+  /**
+   * Lazy holder, so the cache directory is only resolved when the toolchain is used for the first time
+   */
+  private static class Holder
+  {
+    private static final BundledToolchain INSTANCE = new BundledToolchain(Places.getCacheSubdirectory("help/toolchain").toPath(),
+                                                                          BundledToolchain.class.getClassLoader());
+  }
+}
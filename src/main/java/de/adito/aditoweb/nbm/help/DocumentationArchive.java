@@ -0,0 +1,411 @@
+package de.adito.aditoweb.nbm.help;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.reactivex.rxjava3.annotations.Nullable;
+import lombok.NonNull;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.*;
+import java.util.zip.*;
+
+/**
+ * Rendered documentation packed into a single zip file. The jsdoc output consists of thousands of small files, that are slow to write, scan and
+ * delete on some disks, the archive is just one file. Text files are stored deflated, so they can be sent to the browser as gzip without compressing
+ * them again. The central directory is read once, so every entry is served with one read of its data. The file is only open while an entry is read,
+ * it is neither kept open nor mapped into memory, because Windows cannot delete such a file and the store could never remove an unused archive.
+ * Packing is optional and has to be enabled with the system property {@value #ENABLED_PROPERTY}.
+ */
+final class DocumentationArchive
+{
+  /**
+   * Name of the archive in the directory of a stored documentation
+   */
+  static final String FILE_NAME = "documentations.zip";
+
+  private static final String ENABLED_PROPERTY = "de.adito.aditoweb.nbm.help.packedDocumentation";
+  private static final String INDEX_FILE = "index.html";
+  private static final Set<String> COMPRESSED_EXTENSIONS = Set.of("html", "htm", "js", "mjs", "css", "json", "map", "txt", "md", "xml", "svg");
+  private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+  private static final int CENTRAL_DIRECTORY_SIGNATURE = 0x02014b50;
+  private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+  private static final int END_OF_CENTRAL_DIRECTORY_LENGTH = 22;
+  private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+  private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+  private static final int LOCAL_HEADER_LENGTH = 30;
+
+  private final Path file;
+  private final Map<String, Entry> entries;
+
+  private DocumentationArchive(@NonNull Path pFile, @NonNull Map<String, Entry> pEntries)
+  {
+    file = pFile;
+    entries = pEntries;
+  }
+
+  /**
+   * @return true, if rendered documentations should be packed into an archive
+   */
+  static boolean isEnabled()
+  {
+    return Boolean.getBoolean(ENABLED_PROPERTY);
+  }
+
+  /**
+   * @param pDocumentation directory or archive of a documentation
+   * @return true, if the documentation is packed into an archive
+   */
+  static boolean isArchive(@NonNull Path pDocumentation)
+  {
+    return Files.isRegularFile(pDocumentation);
+  }
+
+  /**
+   * Packs all files of a directory into an archive
+   *
+   * @param pDirectory directory of the rendered documentation
+   * @param pArchive   archive that should be written
+   * @throws IOException if a file could not be read or the archive could not be written
+   */
+  static void pack(@NonNull Path pDirectory, @NonNull Path pArchive) throws IOException
+  {
+    List<Path> files;
+    try (Stream<Path> walk = Files.walk(pDirectory))
+    {
+      files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+    }
+
+    try (ZipOutputStream output = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(pArchive))))
+    {
+      output.setLevel(Deflater.BEST_COMPRESSION);
+      for (Path file : files)
+      {
+        byte[] bytes = Files.readAllBytes(file);
+        ZipEntry entry = new ZipEntry(pDirectory.relativize(file).toString().replace('\\', '/'));
+        if (!COMPRESSED_EXTENSIONS.contains(getExtension(entry.getName())))
+        {
+          // images and fonts are already compressed, they are stored as they are
+          CRC32 crc = new CRC32();
+          crc.update(bytes);
+          entry.setMethod(ZipEntry.STORED);
+          entry.setSize(bytes.length);
+          entry.setCompressedSize(bytes.length);
+          entry.setCrc(crc.getValue());
+        }
+        output.putNextEntry(entry);
+        output.write(bytes);
+        output.closeEntry();
+      }
+    }
+  }
+
+  /**
+   * Reads the central directory of an archive
+   *
+   * @param pArchive archive written by {@link #pack(Path, Path)}
+   * @return the archive
+   * @throws IOException if the archive could not be read or is not a valid zip file
+   */
+  @NonNull
+  static DocumentationArchive open(@NonNull Path pArchive) throws IOException
+  {
+    try (FileChannel channel = FileChannel.open(pArchive, StandardOpenOption.READ))
+    {
+      if (channel.size() > Integer.MAX_VALUE)
+        throw new IOException("documentation archive is too large: " + pArchive);
+      return new DocumentationArchive(pArchive, readEntries(channel, (int) channel.size()));
+    }
+    catch (IndexOutOfBoundsException | IllegalArgumentException pE)
+    {
+      throw new IOException("invalid documentation archive: " + pArchive, pE);
+    }
+  }
+
+  /**
+   * Reads the central directory. The position of the data of every entry is taken from its local header, because the length of the extra
+   * field may differ from the one in the central directory.
+   */
+  @NonNull
+  private static Map<String, Entry> readEntries(@NonNull FileChannel pChannel, int pSize) throws IOException
+  {
+    int tailLength = Math.min(pSize, END_OF_CENTRAL_DIRECTORY_LENGTH + MAX_COMMENT_LENGTH);
+    ByteBuffer tail = read(pChannel, pSize - tailLength, tailLength);
+    int end = findEndOfCentralDirectory(tail);
+    int directorySize = tail.getInt(end + 12);
+    int directoryOffset = tail.getInt(end + 16);
+    if (directorySize < 0 || directoryOffset < 0 || (long) directoryOffset + directorySize > pSize)
+      throw new IOException("invalid end of central directory in documentation archive");
+
+    ByteBuffer directory = read(pChannel, directoryOffset, directorySize);
+    Map<String, Entry> entries = new HashMap<>();
+    int position = 0;
+    while (position < directorySize)
+    {
+      if (directory.getInt(position) != CENTRAL_DIRECTORY_SIGNATURE)
+        throw new IOException("invalid central directory in documentation archive");
+      int method = directory.getShort(position + 10) & 0xFFFF;
+      long crc = directory.getInt(position + 16) & 0xFFFFFFFFL;
+      int compressedSize = directory.getInt(position + 20);
+      int size = directory.getInt(position + 24);
+      int nameLength = directory.getShort(position + 28) & 0xFFFF;
+      int extraLength = directory.getShort(position + 30) & 0xFFFF;
+      int commentLength = directory.getShort(position + 32) & 0xFFFF;
+      int localHeaderOffset = directory.getInt(position + 42);
+      String name = readName(directory, position + 46, nameLength);
+      position += 46 + nameLength + extraLength + commentLength;
+
+      if (name.endsWith("/"))
+        continue;
+      ByteBuffer localHeader = read(pChannel, localHeaderOffset, LOCAL_HEADER_LENGTH);
+      if (localHeader.getInt(0) != LOCAL_HEADER_SIGNATURE || (method != ZipEntry.STORED && method != ZipEntry.DEFLATED))
+        throw new IOException("unsupported entry in documentation archive: " + name);
+      int offset = localHeaderOffset + LOCAL_HEADER_LENGTH + (localHeader.getShort(26) & 0xFFFF) + (localHeader.getShort(28) & 0xFFFF);
+      entries.put(name, new Entry(name, offset, compressedSize, size, crc, method == ZipEntry.DEFLATED));
+    }
+    return entries;
+  }
+
+  /**
+   * Reads a part of the archive
+   *
+   * @param pChannel  channel of the archive
+   * @param pPosition position of the part in the archive
+   * @param pLength   length of the part
+   * @return the part, in the byte order of zip files
+   * @throws IOException if the part could not be read or the archive ends before
+   */
+  @NonNull
+  private static ByteBuffer read(@NonNull FileChannel pChannel, long pPosition, int pLength) throws IOException
+  {
+    if (pPosition < 0 || pLength < 0)
+      throw new IOException("invalid position in documentation archive");
+    ByteBuffer buffer = ByteBuffer.allocate(pLength).order(ByteOrder.LITTLE_ENDIAN);
+    while (buffer.hasRemaining())
+      if (pChannel.read(buffer, pPosition + buffer.position()) < 0)
+        throw new IOException("unexpected end of documentation archive");
+    return buffer.flip();
+  }
+
+  private static int findEndOfCentralDirectory(@NonNull ByteBuffer pContent) throws IOException
+  {
+    int minPosition = Math.max(0, pContent.limit() - END_OF_CENTRAL_DIRECTORY_LENGTH - MAX_COMMENT_LENGTH);
+    for (int position = pContent.limit() - END_OF_CENTRAL_DIRECTORY_LENGTH; position >= minPosition; position--)
+      if (pContent.getInt(position) == END_OF_CENTRAL_DIRECTORY_SIGNATURE)
+        return position;
+    throw new IOException("documentation archive has no central directory");
+  }
+
+  @NonNull
+  private static String readName(@NonNull ByteBuffer pContent, int pPosition, int pLength)
+  {
+    byte[] name = new byte[pLength];
+    pContent.duplicate().position(pPosition).get(name);
+    return new String(name, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Finds the entry for the path of a request. Directories are resolved to their index.html.
+   *
+   * @param pRelativePath path relative to the documentation, without a leading slash
+   * @return the entry or null, if there is no such entry
+   */
+  @Nullable
+  Entry find(@NonNull String pRelativePath)
+  {
+    String name = normalize(pRelativePath);
+    if (name == null)
+      return null;
+    if (name.isEmpty() || name.endsWith("/"))
+      return entries.get(name + INDEX_FILE);
+    Entry entry = entries.get(name);
+    return entry != null ? entry : entries.get(name + "/" + INDEX_FILE);
+  }
+
+  /**
+   * @return the number of files in the archive
+   */
+  int size()
+  {
+    return entries.size();
+  }
+
+  /**
+   * @param pEntry entry of this archive
+   * @return the data of the entry as it is stored in the archive, i.e. raw deflate data for a compressed entry
+   * @throws IOException if the archive could not be read
+   */
+  @NonNull
+  ByteBuffer getData(@NonNull Entry pEntry) throws IOException
+  {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+    {
+      return read(channel, pEntry.offset, pEntry.compressedSize);
+    }
+  }
+
+  /**
+   * @param pEntry entry of this archive
+   * @return the uncompressed content of the entry
+   * @throws IOException if the archive could not be read or the entry could not be inflated
+   */
+  @NonNull
+  byte[] read(@NonNull Entry pEntry) throws IOException
+  {
+    ByteBuffer data = getData(pEntry);
+    byte[] bytes = new byte[pEntry.size];
+    if (!pEntry.compressed)
+    {
+      data.get(bytes);
+      return bytes;
+    }
+
+    byte[] compressed = new byte[data.remaining()];
+    data.get(compressed);
+    Inflater inflater = new Inflater(true);
+    try
+    {
+      inflater.setInput(compressed);
+      int length = 0;
+      while (length < bytes.length && !inflater.finished())
+      {
+        int inflated = inflater.inflate(bytes, length, bytes.length - length);
+        if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+          throw new IOException("truncated entry in documentation archive: " + pEntry.name);
+        length += inflated;
+      }
+      return bytes;
+    }
+    catch (DataFormatException pE)
+    {
+      throw new IOException("corrupt entry in documentation archive: " + pEntry.name, pE);
+    }
+    finally
+    {
+      inflater.end();
+    }
+  }
+
+  /**
+   * Returns a compressed entry as gzip stream, the deflate data of the archive is wrapped with the gzip header and trailer
+   *
+   * @param pEntry compressed entry of this archive
+   * @return the buffers that have to be sent one after another
+   * @throws IOException if the archive could not be read
+   */
+  @NonNull
+  ByteBuffer[] getGzipData(@NonNull Entry pEntry) throws IOException
+  {
+    ByteBuffer trailer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+    trailer.putInt((int) pEntry.crc).putInt(pEntry.size).flip();
+    return new ByteBuffer[]{ByteBuffer.wrap(GZIP_HEADER), getData(pEntry), trailer};
+  }
+
+  /**
+   * @param pRelativePath path relative to the documentation
+   * @return the path without "." and ".." segments or null, if it points outside of the documentation
+   */
+  @VisibleForTesting
+  @Nullable
+  static String normalize(@NonNull String pRelativePath)
+  {
+    Deque<String> segments = new ArrayDeque<>();
+    String[] parts = pRelativePath.replace('\\', '/').split("/", -1);
+    for (String part : parts)
+    {
+      if (part.isEmpty() || part.equals("."))
+        continue;
+      if (part.equals(".."))
+      {
+        if (segments.isEmpty())
+          return null;
+        segments.removeLast();
+      }
+      else
+        segments.addLast(part);
+    }
+    String normalized = String.join("/", segments);
+    // a trailing slash marks a directory
+    return !normalized.isEmpty() && parts[parts.length - 1].isEmpty() ? normalized + "/" : normalized;
+  }
+
+  @NonNull
+  private static String getExtension(@NonNull String pName)
+  {
+    int extensionIndex = pName.lastIndexOf('.');
+    return extensionIndex < 0 ? "" : pName.substring(extensionIndex + 1).toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * File in the archive
+   */
+  static class Entry
+  {
+    private final String name;
+    private final int offset;
+    private final int compressedSize;
+    private final int size;
+    private final long crc;
+    private final boolean compressed;
+    private final String eTag;
+
+    private Entry(@NonNull String pName, int pOffset, int pCompressedSize, int pSize, long pCrc, boolean pCompressed)
+    {
+      name = pName;
+      offset = pOffset;
+      compressedSize = pCompressedSize;
+      size = pSize;
+      crc = pCrc;
+      compressed = pCompressed;
+      // the content of an archive never changes, so the checksum and the size identify it
+      eTag = "\"" + Long.toHexString(pCrc) + "-" + Integer.toHexString(pSize) + "\"";
+    }
+
+    /**
+     * @return the path of the file in the archive
+     */
+    @NonNull
+    String getName()
+    {
+      return name;
+    }
+
+    /**
+     * @return the uncompressed size
+     */
+    int getSize()
+    {
+      return size;
+    }
+
+    /**
+     * @return the size of the gzip stream of a compressed entry
+     */
+    int getGzipSize()
+    {
+      return GZIP_HEADER.length + compressedSize + 8;
+    }
+
+    /**
+     * @return true, if the entry is stored deflated
+     */
+    boolean isCompressed()
+    {
+      return compressed;
+    }
+
+    /**
+     * @param pGzip true for the gzip variant of the entry
+     * @return the ETag of the entry
+     */
+    @NonNull
+    String getETag(boolean pGzip)
+    {
+      return pGzip ? eTag.substring(0, eTag.length() - 1) + "-gz\"" : eTag;
+    }
+  }
+}
@@ -0,0 +1,121 @@
+package de.adito.aditoweb.nbm.help;
+
+import io.reactivex.rxjava3.annotations.Nullable;
+import lombok.NonNull;
+import org.apache.commons.io.FileUtils;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.Enumeration;
+import java.util.zip.*;
+
+/**
+ * Portable documentation, that was rendered outside the IDE by the {@link DocumentationCli}. A bundle is a zip archive named after the
+ * {@link DocumentationRenderer#getSourceFingerprint(String) source fingerprint}, so it only matches projects with the same jdito-types and
+ * jsdoc configuration. If the system property "de.adito.aditoweb.nbm.help.bundles" points to a directory with bundles, e.g. a network share of the
+ * build machine, the IDE imports a matching bundle instead of rendering the documentation itself.
+ */
+final class DocumentationBundle
+{
+  static final String DIRECTORY_PROPERTY = "de.adito.aditoweb.nbm.help.bundles";
+  private static final String EXTENSION = ".zip";
+  private static final String TEMP_PREFIX = ".tmp-";
+
+  private DocumentationBundle()
+  {
+  }
+
+  /**
+   * @param pSourceFingerprint fingerprint of the sources of the documentation
+   * @return the bundle for the fingerprint in the directory of the system property or null, if there is none
+   */
+  @Nullable
+  static Path find(@NonNull String pSourceFingerprint)
+  {
+    String directory = System.getProperty(DIRECTORY_PROPERTY);
+    if (directory == null || directory.isBlank())
+      return null;
+    Path bundle = getFile(Paths.get(directory), pSourceFingerprint);
+    return Files.isRegularFile(bundle) ? bundle : null;
+  }
+
+  /**
+   * @param pDirectory         directory of the bundles
+   * @param pSourceFingerprint fingerprint of the sources of the documentation
+   * @return the file of the bundle for the fingerprint, it may not exist
+   */
+  @NonNull
+  static Path getFile(@NonNull Path pDirectory, @NonNull String pSourceFingerprint)
+  {
+    return pDirectory.resolve(pSourceFingerprint + EXTENSION);
+  }
+
+  /**
+   * Packs a rendered documentation into a bundle. The bundle is written next to its final location and moved there when it is complete,
+   * so the IDE never imports a partially written bundle.
+   *
+   * @param pDocumentation     directory of the rendered documentation
+   * @param pDirectory         directory of the bundles
+   * @param pSourceFingerprint fingerprint of the sources of the documentation
+   * @return the bundle
+   * @throws IOException if the bundle could not be written
+   */
+  @NonNull
+  static Path create(@NonNull Path pDocumentation, @NonNull Path pDirectory, @NonNull String pSourceFingerprint) throws IOException
+  {
+    Files.createDirectories(pDirectory);
+    Path bundle = getFile(pDirectory, pSourceFingerprint);
+    Path tempFile = Files.createTempFile(pDirectory, TEMP_PREFIX, EXTENSION);
+    try
+    {
+      DocumentationArchive.pack(pDocumentation, tempFile);
+      Files.move(tempFile, bundle, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    finally
+    {
+      Files.deleteIfExists(tempFile);
+    }
+    return bundle;
+  }
+
+  /**
+   * Extracts a bundle into the directory of a documentation
+   *
+   * @param pBundle bundle written by {@link #create(Path, Path, String)}
+   * @param pTarget directory the documentation should be extracted to
+   * @throws IOException if the bundle could not be read or contains invalid entries
+   */
+  static void extract(@NonNull Path pBundle, @NonNull Path pTarget) throws IOException
+  {
+    Path target = pTarget.toAbsolutePath().normalize();
+    try (ZipFile zipFile = new ZipFile(pBundle.toFile()))
+    {
+      Enumeration<? extends ZipEntry> entries = zipFile.entries();
+      while (entries.hasMoreElements())
+      {
+        ZipEntry entry = entries.nextElement();
+        Path file = target.resolve(entry.getName()).normalize();
+        // an entry must never be written outside of the target directory
+        if (!file.startsWith(target) || file.equals(target))
+          throw new IOException("invalid entry in the documentation bundle " + pBundle + ": " + entry.getName());
+
+        if (entry.isDirectory())
+          Files.createDirectories(file);
+        else
+        {
+          Files.createDirectories(file.getParent());
+          try (InputStream input = zipFile.getInputStream(entry))
+          {
+            Files.copy(input, file);
+          }
+        }
+      }
+    }
+    catch (IOException pE)
+    {
+      // the store must not keep a partially extracted documentation
+      FileUtils.deleteQuietly(pTarget.toFile());
+      throw pE;
+    }
+  }
+}
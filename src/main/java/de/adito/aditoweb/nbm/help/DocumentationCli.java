@@ -0,0 +1,171 @@
+package de.adito.aditoweb.nbm.help;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.reactivex.rxjava3.annotations.Nullable;
+import lombok.NonNull;
+import org.apache.commons.io.FileUtils;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Renders the documentation of a project without the IDE, e.g. on a build machine, and writes it as {@link DocumentationBundle} into an output
+ * directory. The IDE imports the bundle instead of rendering the documentation, if the output directory is configured with the system property
+ * "de.adito.aditoweb.nbm.help.bundles". Only NodeJS and a directory with the installed toolchain (jsdoc, its plugins and the template) are needed:
+ * <pre>
+ * java -cp &lt;module jar and its libraries&gt; de.adito.aditoweb.nbm.help.DocumentationCli
+ *      --project &lt;project&gt; --toolchain &lt;directory with node_modules&gt; --output &lt;bundle directory&gt; [--node &lt;node executable&gt;]
+ * </pre>
+ * This class must not use any NetBeans API.
+ */
+public final class DocumentationCli
+{
+  @VisibleForTesting
+  static final int EXIT_OK = 0;
+  @VisibleForTesting
+  static final int EXIT_FAILURE = 1;
+  @VisibleForTesting
+  static final int EXIT_USAGE = 2;
+  private static final long JSDOC_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(15);
+  private static final String USAGE = "usage: DocumentationCli --project <project> --toolchain <directory with node_modules> --output <bundle directory>"
+      + " [--node <node executable>]";
+
+  private final PrintStream out;
+
+  @VisibleForTesting
+  DocumentationCli(@NonNull PrintStream pOut)
+  {
+    out = pOut;
+  }
+
+  public static void main(String[] pArgs)
+  {
+    System.exit(new DocumentationCli(System.out).run(pArgs));
+  }
+
+  /**
+   * @param pArgs arguments of the command line
+   * @return the exit code
+   */
+  @VisibleForTesting
+  int run(@NonNull String[] pArgs)
+  {
+    Options options = Options.parse(pArgs);
+    if (options == null)
+    {
+      out.println(USAGE);
+      return EXIT_USAGE;
+    }
+
+    try
+    {
+      Path bundle = render(options);
+      out.println("documentation bundle: " + bundle);
+      return EXIT_OK;
+    }
+    catch (InterruptedException pE)
+    {
+      Thread.currentThread().interrupt();
+      out.println("rendering was interrupted");
+      return EXIT_FAILURE;
+    }
+    catch (IOException | TimeoutException pE)
+    {
+      out.println("could not render the documentation: " + pE.getMessage());
+      return EXIT_FAILURE;
+    }
+  }
+
+  /**
+   * Renders the documentation of the project and packs it into a bundle. If there already is a bundle for the sources, nothing is rendered.
+   *
+   * @param pOptions options of the command line
+   * @return the bundle
+   */
+  @NonNull
+  private Path render(@NonNull Options pOptions) throws IOException, InterruptedException, TimeoutException
+  {
+    String projectPath = pOptions.project.toAbsolutePath().toString().replace('\\', '/');
+    String version = DocumentationRenderer.readJDitoTypesVersion(projectPath);
+    if (!DocumentationRenderer.isSupported(version))
+      throw new IOException("the project does not contain supported jdito-types, version " + version + " is installed");
+
+    String sourceFingerprint = DocumentationRenderer.getSourceFingerprint(projectPath);
+    Path bundle = DocumentationBundle.getFile(pOptions.output, sourceFingerprint);
+    if (Files.isRegularFile(bundle))
+    {
+      out.println("documentation is up to date");
+      return bundle;
+    }
+
+    Path nodeModules = pOptions.toolchain.toAbsolutePath().resolve("node_modules");
+    Path workDirectory = Files.createTempDirectory("jdito-documentation");
+    try
+    {
+      Path documentation = workDirectory.resolve("documentation");
+      DocumentationRenderer.createConfiguration(projectPath, (pModule, pInnerPath) -> nodeModules.resolve(pModule).resolve(pInnerPath).toString(),
+                                                documentation)
+          .write(workDirectory.resolve(JSDocConfiguration.FILE_NAME));
+
+      List<String> args = new ArrayList<>();
+      args.add(nodeModules.resolve("jsdoc").resolve("jsdoc.js").toString());
+      args.addAll(Arrays.asList(DocumentationRenderer.getJSDocArguments(workDirectory.toString().replace('\\', '/'))));
+      int exitCode = new LocalNode(pOptions.node).execute(JSDOC_TIMEOUT_MILLIS, out::println, args.toArray(new String[0]));
+      //jsdoc also exits with an error, if single files could not be parsed. The documentation of all other files is still usable.
+      if (!Files.isDirectory(documentation))
+        throw new IOException("jsdoc exited with code " + exitCode + " without rendering the documentation");
+      if (exitCode != 0)
+        out.println("jsdoc exited with code " + exitCode);
+
+      SearchIndex.create(documentation);
+      return DocumentationBundle.create(documentation, pOptions.output, sourceFingerprint);
+    }
+    finally
+    {
+      FileUtils.deleteQuietly(workDirectory.toFile());
+    }
+  }
+
+  /**
+   * Options of the command line
+   */
+  @VisibleForTesting
+  static class Options
+  {
+    final Path project;
+    final Path toolchain;
+    final Path output;
+    final String node;
+
+    private Options(@NonNull Path pProject, @NonNull Path pToolchain, @NonNull Path pOutput, @NonNull String pNode)
+    {
+      project = pProject;
+      toolchain = pToolchain;
+      output = pOutput;
+      node = pNode;
+    }
+
+    /**
+     * @param pArgs arguments of the command line
+     * @return the options or null, if the arguments are invalid
+     */
+    @Nullable
+    static Options parse(@NonNull String[] pArgs)
+    {
+      Map<String, String> values = new HashMap<>();
+      for (int i = 0; i < pArgs.length; i++)
+      {
+        String name = pArgs[i];
+        if (!Set.of("--project", "--toolchain", "--output", "--node").contains(name) || i + 1 >= pArgs.length || values.containsKey(name))
+          return null;
+        values.put(name, pArgs[++i]);
+      }
+      if (!values.containsKey("--project") || !values.containsKey("--toolchain") || !values.containsKey("--output"))
+        return null;
+      return new Options(Paths.get(values.get("--project")), Paths.get(values.get("--toolchain")), Paths.get(values.get("--output")),
+                         values.getOrDefault("--node", "node"));
+    }
+  }
+}
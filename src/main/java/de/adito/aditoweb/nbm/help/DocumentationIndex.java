@@ -0,0 +1,106 @@
+package de.adito.aditoweb.nbm.help;
+
+import com.google.common.annotations.VisibleForTesting;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Start page for the documentations of several projects. Projects with identical jdito-types share one rendered documentation, so every distinct
+ * documentation is mounted once and the page lists all projects that use it.
+ */
+class DocumentationIndex
+{
+  private static final String INDEX_FILE = "index.html";
+
+  private final Map<Path, String> mountNames = new LinkedHashMap<>();
+  private final Map<String, Path> mounts = new LinkedHashMap<>();
+  private final Map<String, List<String>> projects = new LinkedHashMap<>();
+
+  /**
+   * Adds the documentation of a project to the index
+   *
+   * @param pProjectName   name of the project
+   * @param pDocumentation directory of the rendered documentation of the project
+   */
+  void add(@NonNull String pProjectName, @NonNull Path pDocumentation)
+  {
+    Path documentation = pDocumentation.toAbsolutePath().normalize();
+    String mountName = mountNames.computeIfAbsent(documentation, pDoc -> createMountName(pProjectName));
+    mounts.put(mountName, documentation);
+    projects.computeIfAbsent(mountName, pName -> new ArrayList<>()).add(pProjectName);
+  }
+
+  /**
+   * @return the distinct documentations, the key is the name they are mounted with below the start page
+   */
+  @NonNull
+  Map<String, Path> getMounts()
+  {
+    return Collections.unmodifiableMap(mounts);
+  }
+
+  /**
+   * Writes the start page into a directory below the given one. The directory is named after the content, so start pages of other
+   * selections, that may still be served, are not overwritten.
+   *
+   * @param pParent directory for the start pages
+   * @return the directory that contains the start page
+   * @throws IOException if the start page could not be written
+   */
+  @NonNull
+  Path write(@NonNull Path pParent) throws IOException
+  {
+    String html = toHtml();
+    Path directory = pParent.resolve(new Fingerprint().add(html).build());
+    Path indexFile = directory.resolve(INDEX_FILE);
+    if (!Files.isRegularFile(indexFile))
+    {
+      Files.createDirectories(directory);
+      Files.write(indexFile, html.getBytes(StandardCharsets.UTF_8));
+    }
+    return directory;
+  }
+
+  /**
+   * @return the html of the start page
+   */
+  @VisibleForTesting
+  @NonNull
+  String toHtml()
+  {
+    StringBuilder html = new StringBuilder()
+        .append("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"utf-8\">\n<title>JDito Documentation</title>\n</head>\n<body>\n")
+        .append("<h1>JDito Documentation</h1>\n<ul>\n");
+    projects.forEach((pMountName, pProjects) -> html
+        .append("<li><a href=\"").append(escape(pMountName)).append("/\">")
+        .append(escape(String.join(", ", pProjects)))
+        .append("</a></li>\n"));
+    return html.append("</ul>\n</body>\n</html>\n").toString();
+  }
+
+  /**
+   * @param pProjectName name of the first project of a documentation
+   * @return a name for the mount, that can be used as path segment and is not used by another documentation
+   */
+  @NonNull
+  private String createMountName(@NonNull String pProjectName)
+  {
+    String name = pProjectName.replaceAll("[^A-Za-z0-9._-]", "_");
+    if (name.isEmpty() || name.startsWith("."))
+      name = "project" + name;
+    String uniqueName = name;
+    for (int i = 2; mounts.containsKey(uniqueName); i++)
+      uniqueName = name + "-" + i;
+    return uniqueName;
+  }
+
+  @NonNull
+  private static String escape(@NonNull String pText)
+  {
+    return pText.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+  }
+}
@@ -0,0 +1,287 @@
+package de.adito.aditoweb.nbm.help;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.reactivex.rxjava3.annotations.Nullable;
+import lombok.NonNull;
+import org.netbeans.api.project.Project;
+import org.netbeans.api.project.ui.OpenProjects;
+import org.openide.filesystems.*;
+import org.openide.util.RequestProcessor;
+import org.openide.util.actions.SystemAction;
+
+import java.beans.*;
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.*;
+
+/**
+ * Renders the documentation of the open projects in the background, whenever a project is opened or its jdito-types or jsdoc overrides change. The
+ * "Show Documentation" action then only has to serve the prepared documentation. Pre-rendering can be disabled with the system property {@value #ENABLED_PROPERTY}.
+ */
+class DocumentationPrerenderer implements PropertyChangeListener
+{
+  private static final Logger LOGGER = Logger.getLogger(DocumentationPrerenderer.class.getName());
+  private static final String ENABLED_PROPERTY = "de.adito.aditoweb.nbm.help.prerender";
+  private static final String JDITO_TYPES_PATH = "node_modules/@aditosoftware/jdito-types";
+  // npm writes a lot of files while updating a package, so the rendering waits until the package did not change for a while
+  private static final int CHANGE_DELAY_MILLIS = 5_000;
+  private static final DocumentationPrerenderer INSTANCE = new DocumentationPrerenderer();
+
+  private final RequestProcessor processor = new RequestProcessor(DocumentationPrerenderer.class.getName(), 1, true);
+  private final Map<Project, ProjectWatcher> watchers = new HashMap<>();
+  private boolean started;
+
+  /**
+   * @return the pre-renderer for the open projects
+   */
+  @NonNull
+  static DocumentationPrerenderer getInstance()
+  {
+    return INSTANCE;
+  }
+
+  /**
+   * Starts to watch the open projects and pre-renders their documentation
+   */
+  synchronized void start()
+  {
+    if (started || !Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true")))
+      return;
+    started = true;
+
+    OpenProjects openProjects = OpenProjects.getDefault();
+    openProjects.addPropertyChangeListener(this);
+    // the projects are opened asynchronously on startup, so wait for them in the background
+    processor.post(() -> {
+      try
+      {
+        updateWatchers(Arrays.asList(openProjects.openProjects().get()));
+      }
+      catch (InterruptedException pE)
+      {
+        Thread.currentThread().interrupt();
+      }
+      catch (Exception pE)
+      {
+        LOGGER.log(Level.INFO, "could not determine the open projects", pE);
+      }
+    });
+  }
+
+  /**
+   * Stops watching the projects and cancels the pending renderings
+   */
+  synchronized void stop()
+  {
+    if (!started)
+      return;
+    started = false;
+
+    OpenProjects.getDefault().removePropertyChangeListener(this);
+    watchers.values().forEach(ProjectWatcher::dispose);
+    watchers.clear();
+  }
+
+  /**
+   * @param pProject project
+   * @return the pre-rendered documentation of the project or null, if it is not rendered yet or its jdito-types or jsdoc overrides changed in the
+   * meantime
+   */
+  @Nullable
+  synchronized Path getDocumentation(@NonNull Project pProject)
+  {
+    ProjectWatcher watcher = watchers.get(pProject);
+    Path documentation = watcher != null ? watcher.documentation : null;
+    if (documentation == null || !Files.exists(documentation))
+      return null;
+    // the documentation is served again, so its entry in the store must not be removed as unused
+    DocumentationStore.getInstance().markUsed(documentation);
+    return documentation;
+  }
+
+  /**
+   * Remembers the documentation of a project, that was rendered by the action. It is only remembered if the project is watched, because otherwise
+   * a change of its jdito-types would go unnoticed.
+   *
+   * @param pProject       project
+   * @param pDocumentation rendered documentation of the project
+   */
+  synchronized void documentationRendered(@NonNull Project pProject, @NonNull Path pDocumentation)
+  {
+    ProjectWatcher watcher = watchers.get(pProject);
+    if (watcher != null)
+      watcher.documentation = pDocumentation;
+  }
+
+  /**
+   * Renders the documentation of a project again, because its NodeJS environment changed
+   *
+   * @param pProject project
+   */
+  synchronized void environmentChanged(@NonNull Project pProject)
+  {
+    ProjectWatcher watcher = watchers.get(pProject);
+    if (watcher != null)
+      watcher.changed();
+  }
+
+  @Override
+  public void propertyChange(PropertyChangeEvent pEvent)
+  {
+    if (OpenProjects.PROPERTY_OPEN_PROJECTS.equals(pEvent.getPropertyName()))
+      updateWatchers(Arrays.asList(OpenProjects.getDefault().getOpenProjects()));
+  }
+
+  /**
+   * Watches all given projects and stops watching the projects that were closed
+   *
+   * @param pOpenProjects all projects that are currently open
+   */
+  @VisibleForTesting
+  synchronized void updateWatchers(@NonNull Collection<Project> pOpenProjects)
+  {
+    if (!started)
+      return;
+
+    watchers.entrySet().removeIf(pEntry -> {
+      if (pOpenProjects.contains(pEntry.getKey()))
+        return false;
+      pEntry.getValue().dispose();
+      return true;
+    });
+
+    for (Project project : pOpenProjects)
+      watchers.computeIfAbsent(project, ProjectWatcher::new);
+  }
+
+  /**
+   * Renders the documentation of the given project, if it can be rendered. The rendering runs without an action of the user, so a missing toolchain
+   * is not installed, i.e. npm never installs packages into the global installation of the user. The action installs it, when it is executed.
+   *
+   * @param pProject project
+   * @return the rendered documentation or null, if the project does not support the documentation or the toolchain is not installed yet
+   * @throws Exception if the documentation could not be rendered
+   */
+  @VisibleForTesting
+  @Nullable
+  Path prerender(@NonNull Project pProject) throws Exception
+  {
+    HelpActionShowDocumentation action = SystemAction.get(HelpActionShowDocumentation.class);
+    if (action.getNodeJSExecutor(pProject) == null)
+      return null;
+    return action.prepareDocumentation(pProject, null, false);
+  }
+
+  /**
+   * Watches the jdito-types and the jsdoc overrides of a project and renders its documentation with low priority, when the project is opened or
+   * one of them changed. Both are part of the fingerprint of the sources, so a documentation rendered before a change must not be served anymore.
+   */
+  private class ProjectWatcher extends FileChangeAdapter
+  {
+    private final Project project;
+    private final File jditoTypes;
+    private final File overrides;
+    private final RequestProcessor.Task task;
+    private final AtomicInteger changeCount = new AtomicInteger();
+    private volatile Path documentation;
+
+    private ProjectWatcher(@NonNull Project pProject)
+    {
+      project = pProject;
+      File projectDirectory = FileUtil.toFile(pProject.getProjectDirectory());
+      jditoTypes = projectDirectory != null ? new File(projectDirectory, JDITO_TYPES_PATH) : null;
+      overrides = projectDirectory != null ? new File(projectDirectory, JSDocConfiguration.PROJECT_OVERRIDES_FILE_NAME) : null;
+      task = processor.create(this::render);
+      task.setPriority(Thread.MIN_PRIORITY);
+      if (jditoTypes != null)
+      {
+        FileUtil.addRecursiveListener(this, jditoTypes);
+        // the overrides are also noticed, if they are created or deleted
+        FileUtil.addFileChangeListener(this, overrides);
+        task.schedule(0);
+      }
+    }
+
+    private void render()
+    {
+      try
+      {
+        // the symbol index for the quick documentation does not need NodeJS and is built first, because it is much faster
+        SymbolIndexCache.getInstance().get(project.getProjectDirectory().getPath());
+      }
+      catch (IOException pE)
+      {
+        LOGGER.log(Level.INFO, "could not index the jdito-types of " + project.getProjectDirectory().getPath(), pE);
+      }
+
+      try
+      {
+        int changeCountBeforeRendering = changeCount.get();
+        Path rendered = prerender(project);
+        if (rendered != null)
+          LOGGER.info("pre-rendered the documentation of " + project.getProjectDirectory().getPath());
+        // a change during the rendering schedules a new rendering, the outdated result must not be served until then
+        if (changeCount.get() == changeCountBeforeRendering)
+          documentation = rendered;
+      }
+      catch (InterruptedException pE)
+      {
+        Thread.currentThread().interrupt();
+      }
+      catch (Exception pE)
+      {
+        // the action shows the error, if the user really wants to see the documentation
+        LOGGER.log(Level.INFO, "could not pre-render the documentation of " + project.getProjectDirectory().getPath(), pE);
+      }
+    }
+
+    private void changed()
+    {
+      changeCount.incrementAndGet();
+      documentation = null;
+      task.schedule(CHANGE_DELAY_MILLIS);
+    }
+
+    private void dispose()
+    {
+      if (jditoTypes != null)
+      {
+        FileUtil.removeRecursiveListener(this, jditoTypes);
+        FileUtil.removeFileChangeListener(this, overrides);
+      }
+      task.cancel();
+    }
+
+    @Override
+    public void fileFolderCreated(FileEvent pEvent)
+    {
+      changed();
+    }
+
+    @Override
+    public void fileDataCreated(FileEvent pEvent)
+    {
+      changed();
+    }
+
+    @Override
+    public void fileChanged(FileEvent pEvent)
+    {
+      changed();
+    }
+
+    @Override
+    public void fileDeleted(FileEvent pEvent)
+    {
+      changed();
+    }
+
+    @Override
+    public void fileRenamed(FileRenameEvent pEvent)
+    {
+      changed();
+    }
+  }
+}
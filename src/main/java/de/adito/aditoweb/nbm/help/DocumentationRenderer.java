@@ -0,0 +1,170 @@
+package de.adito.aditoweb.nbm.help;
+
+import com.google.gson.*;
+import io.reactivex.rxjava3.annotations.Nullable;
+import lombok.NonNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Everything the rendering of the documentation needs, that does not depend on the IDE: the fingerprint of the sources, the jsdoc.json of a project
+ * and the arguments of jsdoc. It is used by the IDE and by the {@link DocumentationCli}, so both render the same documentation for the same sources.
+ * This class must not use any NetBeans API.
+ */
+final class DocumentationRenderer
+{
+  static final String SUPPORTED_JDITO_VERSION = "2023";
+  static final String JDITO_TYPES = "@aditosoftware/jdito-types";
+  static final String BETTER_DOCS = "better-docs";
+  private static final Pattern JSDOC_SOURCE_PATTERN = Pattern.compile("\\.(ts|js)$");
+
+  private DocumentationRenderer()
+  {
+  }
+
+  /**
+   * @param pVersion installed version of the jdito-types
+   * @return true, if the documentation can be rendered for this version
+   */
+  static boolean isSupported(@Nullable String pVersion)
+  {
+    return pVersion != null && pVersion.startsWith(SUPPORTED_JDITO_VERSION);
+  }
+
+  /**
+   * Reads the version of the jdito-types from their package.json, without asking npm
+   *
+   * @param pProjectPath path of the project
+   * @return the version or null, if the jdito-types are not installed
+   * @throws IOException if the package.json could not be read
+   */
+  @Nullable
+  static String readJDitoTypesVersion(@NonNull String pProjectPath) throws IOException
+  {
+    Path packageJson = Paths.get(pProjectPath, "node_modules", JDITO_TYPES, "package.json");
+    if (!Files.isRegularFile(packageJson))
+      return null;
+
+    try (Reader reader = Files.newBufferedReader(packageJson, StandardCharsets.UTF_8))
+    {
+      JsonElement version = JsonParser.parseReader(reader).getAsJsonObject().get("version");
+      return version == null || version.isJsonNull() ? null : version.getAsString();
+    }
+    catch (JsonParseException | IllegalStateException pE)
+    {
+      throw new IOException("invalid package.json of the jdito-types: " + packageJson, pE);
+    }
+  }
+
+  /**
+   * Creates the fingerprint of the sources of the documentation: the content of the jdito-types, the jsdoc.json template, the jsdoc overrides of
+   * the project and the search script.
+   *
+   * @param pProjectPath path of the project
+   * @return the fingerprint of the sources
+   * @throws IOException if a file could not be read
+   */
+  @NonNull
+  static String getSourceFingerprint(@NonNull String pProjectPath) throws IOException
+  {
+    return new Fingerprint()
+        .addContent(getSourceDirectory(pProjectPath))
+        .add(readResource(JSDocConfiguration.TEMPLATE_RESOURCE))
+        .add(JSDocConfiguration.readProjectOverrides(pProjectPath))
+        .add(readResource(SearchIndex.SCRIPT_RESOURCE))
+        .build();
+  }
+
+  /**
+   * Creates the jsdoc.json of a project: the template of this module merged with the overrides of the project and the paths of the project and
+   * the toolchain. The base url is relative, so the rendered output does not depend on the host and port of the server.
+   *
+   * @param pProjectPath path of the project
+   * @param pToolchain   resolves the paths of the modules of the toolchain
+   * @param pDestination directory the documentation should be rendered into
+   * @return the configuration
+   * @throws IOException if the overrides of the project are invalid
+   */
+  @NonNull
+  static JSDocConfiguration createConfiguration(@NonNull String pProjectPath, @NonNull ModuleResolver pToolchain, @NonNull Path pDestination)
+      throws IOException
+  {
+    return JSDocConfiguration.fromTemplate()
+        .merge(JSDocConfiguration.readProjectOverrides(pProjectPath))
+        .setSources(pProjectPath + "/node_modules/" + JDITO_TYPES + "/dist")
+        .setPlugin(BETTER_DOCS + "/category", pToolchain.resolve(BETTER_DOCS, "category.js"))
+        .setPlugin(BETTER_DOCS + "/typescript", pToolchain.resolve(BETTER_DOCS, "typescript"))
+        .setTemplate(pToolchain.resolve("clean-jsdoc-theme", ""))
+        .setDestination(pDestination)
+        .setThemeOption("base_url", "./");
+  }
+
+  /**
+   * @param pConfigurationDirectory directory that contains the jsdoc.json
+   * @return the arguments of jsdoc, its verbose output names every parsed file
+   */
+  @NonNull
+  static String[] getJSDocArguments(@NonNull String pConfigurationDirectory)
+  {
+    return new String[]{"--configure", pConfigurationDirectory + "/" + JSDocConfiguration.FILE_NAME, "--verbose"};
+  }
+
+  /**
+   * Counts the files of the jdito-types, that jsdoc is going to parse
+   *
+   * @param pProjectPath path of the project
+   * @return the number of files
+   * @throws IOException if the files could not be listed
+   */
+  static int countSourceFiles(@NonNull String pProjectPath) throws IOException
+  {
+    Path dist = getSourceDirectory(pProjectPath);
+    if (!Files.isDirectory(dist))
+      return 0;
+    try (Stream<Path> files = Files.walk(dist))
+    {
+      return (int) files.filter(Files::isRegularFile)
+          .filter(pFile -> JSDOC_SOURCE_PATTERN.matcher(pFile.getFileName().toString()).find())
+          .count();
+    }
+  }
+
+  /**
+   * @param pProjectPath path of the project
+   * @return the dist directory of the jdito-types, the sources of the documentation
+   */
+  @NonNull
+  private static Path getSourceDirectory(@NonNull String pProjectPath)
+  {
+    return Paths.get(pProjectPath, "node_modules", JDITO_TYPES, "dist");
+  }
+
+  @NonNull
+  private static String readResource(@NonNull String pResource) throws IOException
+  {
+    try (InputStream input = Objects.requireNonNull(DocumentationRenderer.class.getClassLoader().getResourceAsStream(pResource)))
+    {
+      return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  /**
+   * Resolves the path of a module of the toolchain, e.g. the npm installation of the IDE or the toolchain directory of the CLI
+   */
+  @FunctionalInterface
+  interface ModuleResolver
+  {
+    /**
+     * @param pModule    name of the module
+     * @param pInnerPath path inside of the module, may be empty
+     * @return the absolute path
+     */
+    @NonNull
+    String resolve(@NonNull String pModule, @NonNull String pInnerPath);
+  }
+}
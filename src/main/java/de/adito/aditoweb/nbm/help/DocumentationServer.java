@@ -0,0 +1,775 @@
+package de.adito.aditoweb.nbm.help;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.gson.*;
+import io.reactivex.rxjava3.annotations.Nullable;
+import lombok.NonNull;
+
+import java.io.*;
+import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.*;
+
+/**
+ * Static file server for the rendered documentation that runs inside the IDE. It only listens on the loopback address and only answers GET and HEAD
+ * requests. The files are written to the socket with {@link FileChannel#transferTo(long, long, WritableByteChannel)}, so their content is never
+ * copied into the JVM. Additional directories can be mounted below the root, e.g. the documentations of several projects below a common start page.
+ * A request for "search?q=..." in the root or a mount is answered from the {@link SearchIndex} of that directory. The root and the mounts may also be
+ * a {@link DocumentationArchive}, its entries are served directly from memory and compressed entries are sent as gzip, if the client accepts it.
+ * The {@link SymbolLinks} of the served documentations resolve a jdito symbol to the path of its page, so the browser can be opened directly at it.
+ */
+class DocumentationServer implements Closeable
+{
+  private static final Logger LOGGER = Logger.getLogger(DocumentationServer.class.getName());
+  private static final int KEEP_ALIVE_TIMEOUT_MILLIS = 15_000;
+  private static final int MAX_HEADER_LENGTH = 16 * 1024;
+  private static final String DEFAULT_MIME_TYPE = "application/octet-stream";
+  private static final String SEARCH_PATH = "search";
+  private static final int MAX_SEARCH_RESULTS = 50;
+  private static final Map<String, String> MIME_TYPES = Map.ofEntries(
+      Map.entry("html", "text/html; charset=utf-8"),
+      Map.entry("htm", "text/html; charset=utf-8"),
+      Map.entry("js", "text/javascript; charset=utf-8"),
+      Map.entry("mjs", "text/javascript; charset=utf-8"),
+      Map.entry("css", "text/css; charset=utf-8"),
+      Map.entry("json", "application/json; charset=utf-8"),
+      Map.entry("map", "application/json; charset=utf-8"),
+      Map.entry("txt", "text/plain; charset=utf-8"),
+      Map.entry("md", "text/markdown; charset=utf-8"),
+      Map.entry("xml", "application/xml; charset=utf-8"),
+      Map.entry("svg", "image/svg+xml"),
+      Map.entry("png", "image/png"),
+      Map.entry("jpg", "image/jpeg"),
+      Map.entry("jpeg", "image/jpeg"),
+      Map.entry("gif", "image/gif"),
+      Map.entry("ico", "image/x-icon"),
+      Map.entry("woff", "font/woff"),
+      Map.entry("woff2", "font/woff2"),
+      Map.entry("ttf", "font/ttf"),
+      Map.entry("eot", "application/vnd.ms-fontobject"));
+
+  private final Path root;
+  private final Map<String, Path> mounts;
+  private final ServerSocketChannel serverChannel;
+  private final ExecutorService connectionExecutor;
+  private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+  // the served documentations do not change, so their search indexes are only loaded once
+  private final Map<Path, SearchIndex> searchIndexes = new ConcurrentHashMap<>();
+  private final Map<Path, SymbolLinks> symbolLinks = new ConcurrentHashMap<>();
+  private final Map<Path, DocumentationArchive> archives = new ConcurrentHashMap<>();
+  private volatile long lastRequestMillis = System.currentTimeMillis();
+
+  private DocumentationServer(@NonNull Path pRoot, @NonNull Map<String, Path> pMounts, @NonNull ServerSocketChannel pServerChannel)
+  {
+    root = pRoot.toAbsolutePath().normalize();
+    mounts = normalize(pMounts);
+    serverChannel = pServerChannel;
+    AtomicInteger threadCount = new AtomicInteger();
+    connectionExecutor = Executors.newCachedThreadPool(pRunnable -> {
+      Thread thread = new Thread(pRunnable, "Documentation Server " + getPort() + " #" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Starts a new server on a free port of the loopback address
+   *
+   * @param pRoot directory whose files should be served
+   * @return the running server
+   * @throws IOException if the server could not be started
+   */
+  @NonNull
+  static DocumentationServer start(@NonNull Path pRoot) throws IOException
+  {
+    return start(pRoot, Map.of());
+  }
+
+  /**
+   * Starts a new server on a free port of the loopback address
+   *
+   * @param pRoot   directory whose files should be served
+   * @param pMounts directories that are served below the root, the key is the name of the mount ("/name/...")
+   * @return the running server
+   * @throws IOException if the server could not be started
+   */
+  @NonNull
+  static DocumentationServer start(@NonNull Path pRoot, @NonNull Map<String, Path> pMounts) throws IOException
+  {
+    ServerSocketChannel serverChannel = ServerSocketChannel.open();
+    try (StageTimings.Stage stage = StageTimings.stage("port allocation"))
+    {
+      serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+      stage.succeeded();
+    }
+    catch (IOException pE)
+    {
+      serverChannel.close();
+      throw pE;
+    }
+
+    DocumentationServer server = new DocumentationServer(pRoot, pMounts, serverChannel);
+    Thread acceptThread = new Thread(server::acceptConnections, "Documentation Server " + server.getPort());
+    acceptThread.setDaemon(true);
+    acceptThread.start();
+    return server;
+  }
+
+  /**
+   * @return the port the server is listening on
+   */
+  int getPort()
+  {
+    return serverChannel.socket().getLocalPort();
+  }
+
+  /**
+   * @return the directory whose files are served
+   */
+  @NonNull
+  Path getRoot()
+  {
+    return root;
+  }
+
+  /**
+   * @return the directories that are served below the root, the key is the name of the mount
+   */
+  @NonNull
+  Map<String, Path> getMounts()
+  {
+    return mounts;
+  }
+
+  /**
+   * Finds the page of a jdito symbol in the served documentations. The root is searched first, then the mounts in their order.
+   *
+   * @param pSymbol qualified symbol, e.g. "neon.openContext"
+   * @return the path of the page with the anchor of the symbol relative to the root, e.g. "neon.html#.openContext", or null, if no served
+   * documentation contains the symbol
+   */
+  @Nullable
+  String findSymbol(@NonNull String pSymbol)
+  {
+    String url = getSymbolLinks(root).find(pSymbol);
+    if (url != null)
+      return url;
+    for (Map.Entry<String, Path> mount : mounts.entrySet())
+    {
+      url = getSymbolLinks(mount.getValue()).find(pSymbol);
+      if (url != null)
+        return mount.getKey() + "/" + url;
+    }
+    return null;
+  }
+
+  /**
+   * @param pRoot   directory whose files should be served
+   * @param pMounts directories that are served below the root
+   * @return true, if this server serves exactly the given directories
+   */
+  boolean serves(@NonNull Path pRoot, @NonNull Map<String, Path> pMounts)
+  {
+    return root.equals(pRoot.toAbsolutePath().normalize()) && mounts.equals(normalize(pMounts));
+  }
+
+  /**
+   * @return true, if the server still accepts connections
+   */
+  boolean isRunning()
+  {
+    return serverChannel.isOpen();
+  }
+
+  /**
+   * @return the time in milliseconds since the last request, 0 if there is still an open connection
+   */
+  long getIdleMillis()
+  {
+    if (!connections.isEmpty())
+      return 0;
+    return System.currentTimeMillis() - lastRequestMillis;
+  }
+
+  @Override
+  public void close() throws IOException
+  {
+    serverChannel.close();
+    connectionExecutor.shutdownNow();
+    for (SocketChannel connection : connections)
+      connection.close();
+    // the archives keep no file open, the store can remove them as soon as they are unused
+    archives.clear();
+  }
+
+  private void acceptConnections()
+  {
+    while (serverChannel.isOpen())
+    {
+      try
+      {
+        SocketChannel connection = serverChannel.accept();
+        connections.add(connection);
+        connectionExecutor.execute(() -> handleConnection(connection));
+      }
+      catch (ClosedChannelException pE)
+      {
+        // server was closed
+        return;
+      }
+      catch (RejectedExecutionException | IOException pE)
+      {
+        if (serverChannel.isOpen())
+          LOGGER.log(Level.WARNING, "documentation server could not accept a connection", pE);
+      }
+    }
+  }
+
+  /**
+   * Answers the requests of a connection as long as the client keeps it alive
+   *
+   * @param pConnection connection to the client
+   */
+  private void handleConnection(@NonNull SocketChannel pConnection)
+  {
+    try (pConnection)
+    {
+      Socket socket = pConnection.socket();
+      // the timeout only applies to the stream of the socket, that is why the requests are read from the stream
+      socket.setSoTimeout(KEEP_ALIVE_TIMEOUT_MILLIS);
+      InputStream inputStream = new BufferedInputStream(socket.getInputStream());
+      Request request;
+      while ((request = readRequest(inputStream)) != null)
+      {
+        long startNanos = System.nanoTime();
+        boolean keepAlive = respond(pConnection, request);
+        ServerLog.getInstance().log("server " + getPort(), request.method + " " + request.target + " " + request.status + " "
+            + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) + " ms");
+        if (!keepAlive)
+          break;
+      }
+    }
+    catch (SocketTimeoutException | ClosedChannelException pE)
+    {
+      // idle keep-alive connection or server shutdown
+    }
+    catch (IOException pE)
+    {
+      LOGGER.log(Level.FINE, "documentation server connection failed", pE);
+    }
+    finally
+    {
+      connections.remove(pConnection);
+    }
+  }
+
+  /**
+   * Reads the request line and the headers of the next request
+   *
+   * @param pInputStream stream of the connection
+   * @return the request or null, if the client closed the connection
+   * @throws IOException if the request could not be read
+   */
+  @VisibleForTesting
+  @Nullable
+  static Request readRequest(@NonNull InputStream pInputStream) throws IOException
+  {
+    String requestLine = readLine(pInputStream);
+    // browsers may send empty lines between requests
+    while (requestLine != null && requestLine.isEmpty())
+      requestLine = readLine(pInputStream);
+    if (requestLine == null)
+      return null;
+
+    String[] parts = requestLine.split(" ");
+    if (parts.length != 3)
+      throw new IOException("invalid request line: " + requestLine);
+
+    Map<String, String> headers = new HashMap<>();
+    int headerLength = 0;
+    String line;
+    while ((line = readLine(pInputStream)) != null && !line.isEmpty())
+    {
+      headerLength += line.length();
+      if (headerLength > MAX_HEADER_LENGTH)
+        throw new IOException("request headers too long");
+      int separator = line.indexOf(':');
+      if (separator > 0)
+        headers.put(line.substring(0, separator).trim().toLowerCase(Locale.ROOT), line.substring(separator + 1).trim());
+    }
+    return new Request(parts[0], parts[1], parts[2], headers);
+  }
+
+  @Nullable
+  private static String readLine(@NonNull InputStream pInputStream) throws IOException
+  {
+    StringBuilder line = new StringBuilder();
+    int read;
+    while ((read = pInputStream.read()) != -1)
+    {
+      if (read == '\n')
+        return line.toString();
+      if (read != '\r')
+        line.append((char) read);
+      if (line.length() > MAX_HEADER_LENGTH)
+        throw new IOException("request line too long");
+    }
+    return line.length() == 0 ? null : line.toString();
+  }
+
+  /**
+   * Writes the response to the given request
+   *
+   * @param pConnection connection to the client
+   * @param pRequest    request of the client
+   * @return true, if the connection should be kept alive
+   * @throws IOException if the response could not be written
+   */
+  private boolean respond(@NonNull SocketChannel pConnection, @NonNull Request pRequest) throws IOException
+  {
+    lastRequestMillis = System.currentTimeMillis();
+    boolean keepAlive = pRequest.isKeepAlive();
+    boolean head = "HEAD".equals(pRequest.method);
+    if (!head && !"GET".equals(pRequest.method))
+    {
+      writeStatus(pConnection, pRequest, "405 Method Not Allowed", false);
+      return false;
+    }
+
+    Path file;
+    try
+    {
+      String path = pRequest.getPath();
+      // the documentation links relative to its directory, so a mount has to be requested with a trailing slash
+      if (mounts.containsKey(path.replaceFirst("^/+", "")))
+      {
+        writeHeaders(pConnection, pRequest, "301 Moved Permanently", keepAlive, "Location: " + path + "/", "Content-Length: 0");
+        return keepAlive;
+      }
+      Path searchDirectory = getSearchDirectory(path);
+      if (searchDirectory != null)
+      {
+        respondSearch(pConnection, pRequest, searchDirectory, keepAlive, head);
+        return keepAlive;
+      }
+      Path base = getBase(path.replaceFirst("^/+", ""));
+      if (DocumentationArchive.isArchive(base))
+      {
+        respondArchiveEntry(pConnection, pRequest, getArchive(base), getRelativePath(path), keepAlive, head);
+        return keepAlive;
+      }
+      file = resolve(path);
+    }
+    catch (IllegalArgumentException pE)
+    {
+      // malformed escape sequence in the path
+      file = null;
+    }
+    if (file == null)
+    {
+      writeStatus(pConnection, pRequest, "404 Not Found", keepAlive);
+      return keepAlive;
+    }
+
+    long size = Files.size(file);
+    String eTag = getETag(size, Files.getLastModifiedTime(file).toMillis());
+    if (eTag.equals(pRequest.headers.get("if-none-match")))
+    {
+      writeHeaders(pConnection, pRequest, "304 Not Modified", keepAlive, "ETag: " + eTag);
+      return keepAlive;
+    }
+
+    writeHeaders(pConnection, pRequest, "200 OK", keepAlive,
+                 "Content-Type: " + getMimeType(file.getFileName().toString()),
+                 "Content-Length: " + size,
+                 "ETag: " + eTag,
+                 "Cache-Control: no-cache");
+    if (!head)
+    {
+      try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.READ))
+      {
+        long position = 0;
+        while (position < size)
+          position += fileChannel.transferTo(position, size - position, pConnection);
+      }
+    }
+    return keepAlive;
+  }
+
+  /**
+   * Resolves the path of a request to a file below the root or below a mount, if the first segment of the path is the name of a mount.
+   * Directories are resolved to their index.html.
+   *
+   * @param pRequestPath decoded path of the request
+   * @return the file or null, if there is no such file below the root or the mount
+   */
+  @VisibleForTesting
+  @Nullable
+  Path resolve(@NonNull String pRequestPath)
+  {
+    Path base = getBase(pRequestPath.replaceFirst("^/+", ""));
+    String relativePath = getRelativePath(pRequestPath);
+
+    Path file;
+    try
+    {
+      file = base.resolve(relativePath).normalize();
+    }
+    catch (InvalidPathException pE)
+    {
+      return null;
+    }
+
+    // never serve anything outside of the root or the mount
+    if (!file.startsWith(base))
+      return null;
+    if (Files.isDirectory(file))
+      file = file.resolve("index.html");
+    return Files.isRegularFile(file) ? file : null;
+  }
+
+  /**
+   * @param pRelativePath path of the request without the leading slash
+   * @return the mount, if the first segment of the path is the name of a mount, otherwise the root
+   */
+  @NonNull
+  private Path getBase(@NonNull String pRelativePath)
+  {
+    int separatorIndex = pRelativePath.indexOf('/');
+    Path mount = separatorIndex > 0 ? mounts.get(pRelativePath.substring(0, separatorIndex)) : null;
+    return mount != null ? mount : root;
+  }
+
+  /**
+   * @param pRequestPath decoded path of the request
+   * @return the directory whose documentation should be searched or null, if the request is not a search
+   */
+  @Nullable
+  private Path getSearchDirectory(@NonNull String pRequestPath)
+  {
+    Path base = getBase(pRequestPath.replaceFirst("^/+", ""));
+    // a file named like the search path is still served
+    return SEARCH_PATH.equals(getRelativePath(pRequestPath)) && !Files.exists(base.resolve(SEARCH_PATH)) ? base : null;
+  }
+
+  /**
+   * @param pRequestPath decoded path of the request
+   * @return the path relative to the root or to the mount, if the first segment of the path is the name of a mount
+   */
+  @NonNull
+  private String getRelativePath(@NonNull String pRequestPath)
+  {
+    String relativePath = pRequestPath.replaceFirst("^/+", "");
+    if (getBase(relativePath) != root)
+      relativePath = relativePath.substring(relativePath.indexOf('/') + 1);
+    return relativePath;
+  }
+
+  /**
+   * Answers a request with an entry of an archive. The ETags are precomputed, compressed entries are sent without compressing them again.
+   *
+   * @param pConnection   connection to the client
+   * @param pRequest      request of the client
+   * @param pArchive      archive of the documentation or null, if it could not be opened
+   * @param pRelativePath path of the request relative to the archive
+   * @param pKeepAlive    true, if the connection should be kept alive
+   * @param pHead         true, if only the headers should be written
+   * @throws IOException if the response could not be written
+   */
+  private void respondArchiveEntry(@NonNull SocketChannel pConnection, @NonNull Request pRequest, @Nullable DocumentationArchive pArchive,
+                                   @NonNull String pRelativePath, boolean pKeepAlive, boolean pHead) throws IOException
+  {
+    DocumentationArchive.Entry entry = pArchive != null ? pArchive.find(pRelativePath) : null;
+    if (entry == null)
+    {
+      writeStatus(pConnection, pRequest, "404 Not Found", pKeepAlive);
+      return;
+    }
+
+    boolean gzip = entry.isCompressed() && pRequest.acceptsGzip();
+    String eTag = entry.getETag(gzip);
+    List<String> headers = new ArrayList<>(List.of("ETag: " + eTag));
+    if (entry.isCompressed())
+      headers.add("Vary: Accept-Encoding");
+    if (eTag.equals(pRequest.headers.get("if-none-match")))
+    {
+      writeHeaders(pConnection, pRequest, "304 Not Modified", pKeepAlive, headers.toArray(new String[0]));
+      return;
+    }
+
+    headers.add("Content-Type: " + getMimeType(entry.getName()));
+    headers.add("Content-Length: " + (gzip ? entry.getGzipSize() : entry.getSize()));
+    headers.add("Cache-Control: no-cache");
+    if (gzip)
+      headers.add("Content-Encoding: gzip");
+    writeHeaders(pConnection, pRequest, "200 OK", pKeepAlive, headers.toArray(new String[0]));
+    if (pHead)
+      return;
+
+    ByteBuffer[] content;
+    if (gzip)
+      content = pArchive.getGzipData(entry);
+    else if (entry.isCompressed())
+      content = new ByteBuffer[]{ByteBuffer.wrap(pArchive.read(entry))};
+    else
+      content = new ByteBuffer[]{pArchive.getData(entry)};
+    for (ByteBuffer buffer : content)
+      while (buffer.hasRemaining())
+        pConnection.write(buffer);
+  }
+
+  /**
+   * @param pFile file of the archive
+   * @return the opened archive or null, if it could not be opened
+   */
+  @Nullable
+  private DocumentationArchive getArchive(@NonNull Path pFile)
+  {
+    // the served documentations do not change, so every archive is only opened once
+    return archives.computeIfAbsent(pFile, pArchive -> {
+      try
+      {
+        return DocumentationArchive.open(pArchive);
+      }
+      catch (IOException pE)
+      {
+        LOGGER.log(Level.WARNING, "could not open the documentation archive " + pArchive, pE);
+        return null;
+      }
+    });
+  }
+
+  /**
+   * Answers a search with the matching entries of the search index as json array
+   *
+   * @param pConnection    connection to the client
+   * @param pRequest       request with the query in the parameter "q"
+   * @param pDocumentation directory of the documentation that should be searched
+   * @param pKeepAlive     true, if the connection should be kept alive
+   * @param pHead          true, if only the headers should be written
+   * @throws IOException if the response could not be written
+   */
+  private void respondSearch(@NonNull SocketChannel pConnection, @NonNull Request pRequest, @NonNull Path pDocumentation, boolean pKeepAlive,
+                             boolean pHead) throws IOException
+  {
+    String query = pRequest.getQueryParameter("q");
+    JsonArray results = new JsonArray();
+    if (query != null)
+    {
+      for (SearchIndex.Result result : getSearchIndex(pDocumentation).search(query, MAX_SEARCH_RESULTS))
+      {
+        JsonObject jsonResult = new JsonObject();
+        jsonResult.addProperty("title", result.getTitle());
+        jsonResult.addProperty("url", result.getUrl());
+        jsonResult.addProperty("description", result.getDescription());
+        results.add(jsonResult);
+      }
+    }
+
+    byte[] content = new Gson().toJson(results).getBytes(StandardCharsets.UTF_8);
+    writeHeaders(pConnection, pRequest, "200 OK", pKeepAlive,
+                 "Content-Type: " + MIME_TYPES.get("json"),
+                 "Content-Length: " + content.length,
+                 "Cache-Control: no-cache");
+    if (!pHead)
+    {
+      ByteBuffer buffer = ByteBuffer.wrap(content);
+      while (buffer.hasRemaining())
+        pConnection.write(buffer);
+    }
+  }
+
+  /**
+   * @param pDocumentation directory or archive of the documentation
+   * @return the search index of the documentation, an empty one if it could not be loaded
+   */
+  @NonNull
+  private SearchIndex getSearchIndex(@NonNull Path pDocumentation)
+  {
+    return searchIndexes.computeIfAbsent(pDocumentation, pDirectory -> {
+      try
+      {
+        if (DocumentationArchive.isArchive(pDirectory))
+        {
+          DocumentationArchive archive = getArchive(pDirectory);
+          DocumentationArchive.Entry entry = archive != null ? archive.find(SearchIndex.FILE_NAME) : null;
+          if (entry != null)
+            return SearchIndex.read(new ByteArrayInputStream(archive.read(entry)));
+          return new SearchIndex.Builder().build();
+        }
+        return SearchIndex.load(pDirectory);
+      }
+      catch (IOException pE)
+      {
+        LOGGER.log(Level.WARNING, "could not load the search index of " + pDirectory, pE);
+        return new SearchIndex.Builder().build();
+      }
+    });
+  }
+
+  /**
+   * @param pDocumentation directory or archive of the documentation
+   * @return the symbol links of the documentation, empty ones if they could not be loaded
+   */
+  @NonNull
+  private SymbolLinks getSymbolLinks(@NonNull Path pDocumentation)
+  {
+    return symbolLinks.computeIfAbsent(pDocumentation, pDirectory -> {
+      try
+      {
+        if (DocumentationArchive.isArchive(pDirectory))
+        {
+          DocumentationArchive archive = getArchive(pDirectory);
+          DocumentationArchive.Entry entry = archive != null ? archive.find(SymbolLinks.FILE_NAME) : null;
+          if (entry != null)
+            return SymbolLinks.read(new ByteArrayInputStream(archive.read(entry)));
+          return new SymbolLinks.Builder().build();
+        }
+        return SymbolLinks.load(pDirectory);
+      }
+      catch (IOException pE)
+      {
+        LOGGER.log(Level.WARNING, "could not load the symbol links of " + pDirectory, pE);
+        return new SymbolLinks.Builder().build();
+      }
+    });
+  }
+
+  /**
+   * @param pFileName name of the file
+   * @return the mime type for the extension of the file
+   */
+  @VisibleForTesting
+  @NonNull
+  static String getMimeType(@NonNull String pFileName)
+  {
+    int extensionIndex = pFileName.lastIndexOf('.');
+    if (extensionIndex < 0)
+      return DEFAULT_MIME_TYPE;
+    return MIME_TYPES.getOrDefault(pFileName.substring(extensionIndex + 1).toLowerCase(Locale.ROOT), DEFAULT_MIME_TYPE);
+  }
+
+  @NonNull
+  private static Map<String, Path> normalize(@NonNull Map<String, Path> pMounts)
+  {
+    // the order of the mounts is kept, it decides which documentation a symbol is found in first
+    Map<String, Path> normalized = new LinkedHashMap<>();
+    pMounts.forEach((pName, pDirectory) -> normalized.put(pName, pDirectory.toAbsolutePath().normalize()));
+    return Collections.unmodifiableMap(normalized);
+  }
+
+  @NonNull
+  private static String getETag(long pSize, long pLastModified)
+  {
+    return "\"" + Long.toHexString(pSize) + "-" + Long.toHexString(pLastModified) + "\"";
+  }
+
+  private static void writeStatus(@NonNull SocketChannel pConnection, @NonNull Request pRequest, @NonNull String pStatus, boolean pKeepAlive)
+      throws IOException
+  {
+    writeHeaders(pConnection, pRequest, pStatus, pKeepAlive, "Content-Length: 0");
+  }
+
+  private static void writeHeaders(@NonNull SocketChannel pConnection, @NonNull Request pRequest, @NonNull String pStatus, boolean pKeepAlive,
+                                   @NonNull String... pHeaders) throws IOException
+  {
+    // remembered for the log of the request
+    pRequest.status = pStatus;
+    StringBuilder response = new StringBuilder("HTTP/1.1 ").append(pStatus).append("\r\n");
+    for (String header : pHeaders)
+      response.append(header).append("\r\n");
+    response.append("Connection: ").append(pKeepAlive ? "keep-alive" : "close").append("\r\n\r\n");
+
+    ByteBuffer buffer = ByteBuffer.wrap(response.toString().getBytes(StandardCharsets.ISO_8859_1));
+    while (buffer.hasRemaining())
+      pConnection.write(buffer);
+  }
+
+  /**
+   * Request line and headers of a http request
+   */
+  @VisibleForTesting
+  static class Request
+  {
+    private final String method;
+    private final String target;
+    private final String version;
+    private final Map<String, String> headers;
+    private String status;
+
+    Request(@NonNull String pMethod, @NonNull String pTarget, @NonNull String pVersion, @NonNull Map<String, String> pHeaders)
+    {
+      method = pMethod;
+      target = pTarget;
+      version = pVersion;
+      headers = pHeaders;
+    }
+
+    /**
+     * @return the decoded path of the request target, without the query
+     */
+    @NonNull
+    String getPath()
+    {
+      int queryIndex = target.indexOf('?');
+      String path = queryIndex < 0 ? target : target.substring(0, queryIndex);
+      // a "+" is only a space in the query, not in the path
+      return URLDecoder.decode(path.replace("+", "%2B"), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param pName name of the parameter
+     * @return the decoded value of the first parameter with the given name in the query of the request target or null, if there is none
+     */
+    @Nullable
+    String getQueryParameter(@NonNull String pName)
+    {
+      int queryIndex = target.indexOf('?');
+      if (queryIndex < 0)
+        return null;
+      for (String parameter : target.substring(queryIndex + 1).split("&"))
+      {
+        int separator = parameter.indexOf('=');
+        String name = separator < 0 ? parameter : parameter.substring(0, separator);
+        if (pName.equals(name))
+        {
+          try
+          {
+            return URLDecoder.decode(separator < 0 ? "" : parameter.substring(separator + 1), StandardCharsets.UTF_8);
+          }
+          catch (IllegalArgumentException pE)
+          {
+            // malformed escape sequence
+            return null;
+          }
+        }
+      }
+      return null;
+    }
+
+    /**
+     * @return true, if the client accepts a gzip compressed response
+     */
+    boolean acceptsGzip()
+    {
+      return headers.getOrDefault("accept-encoding", "").toLowerCase(Locale.ROOT).contains("gzip");
+    }
+
+    /**
+     * @return true, if the client wants to keep the connection alive. This is the default since HTTP/1.1
+     */
+    boolean isKeepAlive()
+    {
+      String connection = headers.getOrDefault("connection", "");
+      if ("HTTP/1.1".equals(version))
+        return !"close".equalsIgnoreCase(connection);
+      return "keep-alive".equalsIgnoreCase(connection);
+    }
+  }
+}
@@ -0,0 +1,156 @@
+package de.adito.aditoweb.nbm.help;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.reactivex.rxjava3.annotations.Nullable;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.*;
+
+/**
+ * Keeps the running documentation servers, so every project gets at most one server that is reused by every "Show Documentation" action.
+ * Servers that did not answer a request for the configured idle time (system property {@value #IDLE_TIMEOUT_PROPERTY}, in minutes, 0 to keep them
+ * running) are stopped, all others are stopped when the module is unloaded or the IDE exits.
+ */
+class DocumentationServerRegistry
+{
+  private static final Logger LOGGER = Logger.getLogger(DocumentationServerRegistry.class.getName());
+  private static final String IDLE_TIMEOUT_PROPERTY = "de.adito.aditoweb.nbm.help.serverIdleTimeout";
+  private static final int DEFAULT_IDLE_TIMEOUT_MINUTES = 30;
+  private static final DocumentationServerRegistry INSTANCE = new DocumentationServerRegistry(
+      TimeUnit.MINUTES.toMillis(Integer.getInteger(IDLE_TIMEOUT_PROPERTY, DEFAULT_IDLE_TIMEOUT_MINUTES)));
+
+  private final Map<String, DocumentationServer> servers = new HashMap<>();
+  private final long idleTimeoutMillis;
+  private ScheduledExecutorService idleCheckExecutor;
+
+  @VisibleForTesting
+  DocumentationServerRegistry(long pIdleTimeoutMillis)
+  {
+    idleTimeoutMillis = pIdleTimeoutMillis;
+  }
+
+  /**
+   * @return the registry of the running documentation servers
+   */
+  @NonNull
+  static DocumentationServerRegistry getInstance()
+  {
+    return INSTANCE;
+  }
+
+  /**
+   * Returns the running server for the given key, if it serves the given directory. Otherwise a new server is started and registered.
+   *
+   * @param pKey  key of the server, e.g. the path of the project
+   * @param pRoot directory that should be served
+   * @return the running server
+   * @throws IOException if the server could not be started
+   */
+  @NonNull
+  DocumentationServer getOrStart(@NonNull String pKey, @NonNull Path pRoot) throws IOException
+  {
+    return getOrStart(pKey, pRoot, Map.of());
+  }
+
+  /**
+   * Returns the running server for the given key, if it serves the given directories. Otherwise a new server is started and registered.
+   *
+   * @param pKey    key of the server, e.g. the paths of the projects
+   * @param pRoot   directory that should be served
+   * @param pMounts directories that should be served below the root, the key is the name of the mount
+   * @return the running server
+   * @throws IOException if the server could not be started
+   */
+  @NonNull
+  synchronized DocumentationServer getOrStart(@NonNull String pKey, @NonNull Path pRoot, @NonNull Map<String, Path> pMounts) throws IOException
+  {
+    DocumentationServer server = servers.get(pKey);
+    if (server != null && server.isRunning() && server.serves(pRoot, pMounts))
+      return server;
+
+    if (server != null)
+      close(pKey, server);
+
+    server = DocumentationServer.start(pRoot, pMounts);
+    servers.put(pKey, server);
+    scheduleIdleCheck();
+    LOGGER.info("started documentation server for " + pKey + " on port " + server.getPort());
+    return server;
+  }
+
+  /**
+   * @param pKey key of the server
+   * @return the running server for the given key or null, if there is none
+   */
+  @Nullable
+  synchronized DocumentationServer find(@NonNull String pKey)
+  {
+    DocumentationServer server = servers.get(pKey);
+    return server != null && server.isRunning() ? server : null;
+  }
+
+  /**
+   * Stops all servers that were idle for longer than the idle timeout
+   */
+  @VisibleForTesting
+  synchronized void closeIdleServers()
+  {
+    servers.entrySet().removeIf(pEntry -> {
+      DocumentationServer server = pEntry.getValue();
+      if (server.isRunning() && server.getIdleMillis() < idleTimeoutMillis)
+        return false;
+      close(pEntry.getKey(), server);
+      return true;
+    });
+    if (servers.isEmpty() && idleCheckExecutor != null)
+    {
+      idleCheckExecutor.shutdown();
+      idleCheckExecutor = null;
+    }
+  }
+
+  /**
+   * Stops all servers
+   */
+  synchronized void closeAll()
+  {
+    servers.forEach(this::close);
+    servers.clear();
+    if (idleCheckExecutor != null)
+    {
+      idleCheckExecutor.shutdownNow();
+      idleCheckExecutor = null;
+    }
+  }
+
+  private void scheduleIdleCheck()
+  {
+    if (idleTimeoutMillis <= 0 || idleCheckExecutor != null)
+      return;
+
+    idleCheckExecutor = Executors.newSingleThreadScheduledExecutor(pRunnable -> {
+      Thread thread = new Thread(pRunnable, "Documentation Server Idle Check");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long period = Math.max(TimeUnit.SECONDS.toMillis(10), idleTimeoutMillis / 4);
+    idleCheckExecutor.scheduleAtFixedRate(this::closeIdleServers, period, period, TimeUnit.MILLISECONDS);
+  }
+
+  private void close(@NonNull String pKey, @NonNull DocumentationServer pServer)
+  {
+    try
+    {
+      pServer.close();
+      LOGGER.info("stopped documentation server for " + pKey);
+    }
+    catch (IOException pE)
+    {
+      LOGGER.log(Level.WARNING, "could not stop the documentation server for " + pKey, pE);
+    }
+  }
+}
@@ -0,0 +1,232 @@
+package de.adito.aditoweb.nbm.help;
+
+import com.google.common.annotations.VisibleForTesting;
+import lombok.NonNull;
+import org.apache.commons.io.FileUtils;
+import org.openide.modules.Places;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.*;
+import java.util.stream.*;
+
+/**
+ * Content-addressed store for rendered documentations. Every documentation is stored under the fingerprint of its input, so projects with the same
+ * input share one rendering and one copy on disk. A documentation is rendered into a temporary directory and moved into the store when it is
+ * complete, so the store never contains partial renderings. A rendering without an index page, e.g. of a failed jsdoc run, is not stored at all,
+ * otherwise it would be served until the input changes. If enabled, the rendered files are packed into a {@link DocumentationArchive}, so the store
+ * only contains one file per documentation.
+ */
+class DocumentationStore
+{
+  private static final Logger LOGGER = Logger.getLogger(DocumentationStore.class.getName());
+  private static final String TEMP_PREFIX = ".tmp-";
+  private static final String DOCUMENTATION_DIRECTORY = "documentations";
+  private static final String INDEX_FILE = "index.html";
+  private static final long MAX_UNUSED_MILLIS = TimeUnit.DAYS.toMillis(30);
+
+  private final Path root;
+  private final boolean packed;
+  private final Map<String, Object> locks = new ConcurrentHashMap<>();
+  private boolean tempDirectoriesRemoved;
+
+  @VisibleForTesting
+  DocumentationStore(@NonNull Path pRoot)
+  {
+    this(pRoot, false);
+  }
+
+  /**
+   * @param pRoot   directory of the store
+   * @param pPacked true, if the rendered documentations should be packed into an archive
+   */
+  @VisibleForTesting
+  DocumentationStore(@NonNull Path pRoot, boolean pPacked)
+  {
+    root = pRoot;
+    packed = pPacked;
+  }
+
+  /**
+   * @return the store in the help cache directory
+   */
+  @NonNull
+  static DocumentationStore getInstance()
+  {
+    return Holder.INSTANCE;
+  }
+
+  /**
+   * Returns the documentation for the given key. If it is not in the store yet, it gets rendered first.
+   * Concurrent calls with the same key render the documentation only once.
+   *
+   * @param pKey      fingerprint of the input of the documentation
+   * @param pRenderer renders the documentation into the given directory
+   * @return the directory or the {@link DocumentationArchive} of the documentation, that can be served
+   * @throws IOException          if the documentation could not be rendered (or the rendering did not create an index page) or stored
+   * @throws InterruptedException if the rendering was interrupted
+   * @throws TimeoutException     if the rendering timed out
+   */
+  @NonNull
+  Path getOrRender(@NonNull String pKey, @NonNull IRenderer pRenderer) throws IOException, InterruptedException, TimeoutException
+  {
+    Path entry = root.resolve(pKey);
+    synchronized (locks.computeIfAbsent(pKey, pK -> new Object()))
+    {
+      if (!Files.isDirectory(entry))
+      {
+        removeTempDirectories();
+        Path tempEntry = Files.createDirectories(root.resolve(TEMP_PREFIX + pKey + "-" + UUID.randomUUID()));
+        try
+        {
+          Path documentation = tempEntry.resolve(DOCUMENTATION_DIRECTORY);
+          pRenderer.render(documentation);
+          if (!Files.isRegularFile(documentation.resolve(INDEX_FILE)))
+            throw new IOException("the rendering of documentation " + pKey + " did not create " + INDEX_FILE + ", it is not stored");
+          if (packed)
+          {
+            DocumentationArchive.pack(documentation, tempEntry.resolve(DocumentationArchive.FILE_NAME));
+            FileUtils.deleteQuietly(documentation.toFile());
+          }
+          publish(tempEntry, entry);
+        }
+        finally
+        {
+          FileUtils.deleteQuietly(tempEntry.toFile());
+        }
+        removeUnusedEntries(pKey);
+      }
+      else
+      {
+        LOGGER.info("documentation " + pKey + " is already rendered, skipping jsdoc");
+      }
+
+      // the modification time marks the last usage of an entry
+      Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+    }
+    // entries that were stored before packing was enabled or disabled are still served as they are
+    Path archive = entry.resolve(DocumentationArchive.FILE_NAME);
+    return Files.isRegularFile(archive) ? archive : entry.resolve(DOCUMENTATION_DIRECTORY);
+  }
+
+  /**
+   * Marks the entry of a documentation as used, that is handed out again without {@link #getOrRender(String, IRenderer)}, e.g. a pre-rendered
+   * documentation. Otherwise the entry could be removed as unused while it is still served.
+   *
+   * @param pDocumentation directory or archive of the documentation, as returned by {@link #getOrRender(String, IRenderer)}
+   */
+  void markUsed(@NonNull Path pDocumentation)
+  {
+    Path entry = pDocumentation.toAbsolutePath().normalize().getParent();
+    if (entry == null || !root.toAbsolutePath().normalize().equals(entry.getParent()) || !Files.isDirectory(entry))
+      return;
+    try
+    {
+      Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+    }
+    catch (IOException pE)
+    {
+      LOGGER.log(Level.FINE, "could not mark the documentation " + entry.getFileName() + " as used", pE);
+    }
+  }
+
+  /**
+   * @param pKey fingerprint of the input of the documentation
+   * @return true, if the documentation for the key is already in the store
+   */
+  boolean contains(@NonNull String pKey)
+  {
+    return Files.isDirectory(root.resolve(pKey));
+  }
+
+  /**
+   * Moves a completely rendered documentation into the store
+   *
+   * @param pTempEntry temporary directory of the rendering
+   * @param pEntry     directory in the store
+   * @throws IOException if the documentation could not be moved
+   */
+  private void publish(@NonNull Path pTempEntry, @NonNull Path pEntry) throws IOException
+  {
+    try
+    {
+      Files.move(pTempEntry, pEntry, StandardCopyOption.ATOMIC_MOVE);
+    }
+    catch (FileAlreadyExistsException | DirectoryNotEmptyException pE)
+    {
+      // another IDE instance stored the same documentation in the meantime
+      LOGGER.fine("documentation " + pEntry.getFileName() + " was stored concurrently");
+    }
+  }
+
+  /**
+   * Removes the leftovers of renderings that were aborted by an IDE exit. This is only done once, before the first rendering of this IDE.
+   */
+  private synchronized void removeTempDirectories() throws IOException
+  {
+    if (tempDirectoriesRemoved || !Files.isDirectory(root))
+      return;
+    tempDirectoriesRemoved = true;
+
+    try (Stream<Path> entries = Files.list(root))
+    {
+      entries.filter(pPath -> pPath.getFileName().toString().startsWith(TEMP_PREFIX))
+          .forEach(pPath -> FileUtils.deleteQuietly(pPath.toFile()));
+    }
+  }
+
+  /**
+   * Removes all documentations that were not used for a long time, e.g. because the jdito-types of every project were updated
+   *
+   * @param pCurrentKey key of the documentation that is currently in use
+   */
+  private void removeUnusedEntries(@NonNull String pCurrentKey) throws IOException
+  {
+    long minLastUsed = System.currentTimeMillis() - MAX_UNUSED_MILLIS;
+    List<Path> unused;
+    try (Stream<Path> entries = Files.list(root))
+    {
+      unused = entries.filter(Files::isDirectory)
+          .filter(pPath -> !pPath.getFileName().toString().startsWith(TEMP_PREFIX))
+          .filter(pPath -> !pPath.getFileName().toString().equals(pCurrentKey))
+          .filter(pPath -> pPath.toFile().lastModified() < minLastUsed)
+          .collect(Collectors.toList());
+    }
+
+    for (Path entry : unused)
+    {
+      LOGGER.info("removing unused documentation " + entry);
+      FileUtils.deleteQuietly(entry.toFile());
+      // e.g. a file that is still open on Windows, the entry is removed with the next cleanup
+      if (Files.exists(entry))
+        LOGGER.warning("could not remove the unused documentation " + entry);
+    }
+  }
+
+  /**
+   * Renders a documentation
+   */
+  @FunctionalInterface
+  interface IRenderer
+  {
+    /**
+     * @param pOutput directory the documentation has to be rendered into
+     * @throws IOException          if the documentation could not be rendered
+     * @throws InterruptedException if the rendering was interrupted
+     * @throws TimeoutException     if the rendering timed out
+     */
+    void render(@NonNull Path pOutput) throws IOException, InterruptedException, TimeoutException;
+  }
+
+  /**
+   * Lazy holder, so the cache directory is only resolved when the store is used for the first time
+   */
+  private static class Holder
+  {
+    private static final DocumentationStore INSTANCE = new DocumentationStore(Places.getCacheSubdirectory("help/store").toPath(),
+                                                                              DocumentationArchive.isEnabled());
+  }
+}
@@ -0,0 +1,114 @@
+package de.adito.aditoweb.nbm.help;
+
+import com.google.common.hash.*;
+import io.reactivex.rxjava3.annotations.Nullable;
+import lombok.NonNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.List;
+import java.util.stream.*;
+
+/**
+ * Builder for a hash over values and file states. It is used to detect if anything changed since the last run without asking npm.
+ */
+final class Fingerprint
+{
+  private final Hasher hasher = Hashing.sha256().newHasher();
+
+  /**
+   * Adds a value to the fingerprint
+   *
+   * @param pValue value, null is treated as its own value
+   * @return this fingerprint
+   */
+  @NonNull
+  Fingerprint add(@Nullable String pValue)
+  {
+    hasher.putString(String.valueOf(pValue), StandardCharsets.UTF_8).putByte((byte) 0);
+    return this;
+  }
+
+  /**
+   * Adds the path, the size and the modification time of a file to the fingerprint.
+   * A file that does not exist is added as well, so the fingerprint changes as soon as it gets created.
+   *
+   * @param pFile file whose state should be part of the fingerprint
+   * @return this fingerprint
+   */
+  @NonNull
+  Fingerprint addFileState(@NonNull File pFile)
+  {
+    add(pFile.getAbsolutePath());
+    hasher.putLong(pFile.length()).putLong(pFile.lastModified());
+    return this;
+  }
+
+  /**
+   * Adds the state of all files in a directory (recursively) to the fingerprint, see {@link #addFileState(File)}.
+   * This is much faster than {@link #addContent(Path)}, because the files are not read.
+   *
+   * @param pDirectory directory whose files should be part of the fingerprint
+   * @return this fingerprint
+   * @throws IOException if the directory could not be listed
+   */
+  @NonNull
+  Fingerprint addFileStates(@NonNull Path pDirectory) throws IOException
+  {
+    if (!Files.isDirectory(pDirectory))
+      return add("missing:" + pDirectory.toAbsolutePath());
+
+    List<Path> files;
+    try (Stream<Path> walk = Files.walk(pDirectory))
+    {
+      files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+    }
+    files.forEach(pFile -> addFileState(pFile.toFile()));
+    return this;
+  }
+
+  /**
+   * Adds the content of a file or of all files in a directory (recursively) to the fingerprint.
+   * The files of a directory are added with their relative path in a stable order, so renaming or moving a file changes the fingerprint as well.
+   *
+   * @param pPath file or directory whose content should be part of the fingerprint
+   * @return this fingerprint
+   * @throws IOException if a file could not be read
+   */
+  @NonNull
+  Fingerprint addContent(@NonNull Path pPath) throws IOException
+  {
+    if (!Files.exists(pPath))
+      return add("missing:" + pPath.toAbsolutePath());
+
+    List<Path> files;
+    try (Stream<Path> walk = Files.walk(pPath))
+    {
+      files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+    }
+
+    byte[] buffer = new byte[8192];
+    for (Path file : files)
+    {
+      add(pPath.relativize(file).toString().replace('\\', '/'));
+      hasher.putLong(Files.size(file));
+      try (InputStream inputStream = Files.newInputStream(file))
+      {
+        int read;
+        while ((read = inputStream.read(buffer)) > 0)
+          hasher.putBytes(buffer, 0, read);
+      }
+    }
+    return this;
+  }
+
+  /**
+   * @return hex representation of the hash over all added values
+   */
+  @NonNull
+  String build()
+  {
+    return hasher.hash().toString();
+  }
+}
@@ -0,0 +1,251 @@
+package de.adito.aditoweb.nbm.help;
+
+import com.google.common.annotations.VisibleForTesting;
+import de.adito.aditoweb.nbm.nbide.nbaditointerface.common.IProjectQuery;
+import de.adito.notification.INotificationFacade;
+import io.reactivex.rxjava3.annotations.Nullable;
+import lombok.NonNull;
+import org.netbeans.api.project.Project;
+import org.openide.awt.*;
+import org.openide.nodes.Node;
+import org.openide.util.*;
+import org.openide.util.actions.NodeAction;
+import org.openide.windows.WindowManager;
+
+import javax.swing.*;
+import javax.swing.text.*;
+import java.awt.*;
+import java.util.List;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Shows the documentation of a single jdito-types symbol, e.g. "neon.openContext", without rendering the whole documentation with NodeJS.
+ * The symbol is looked up in the {@link SymbolIndex} of the project, the selected text of the focused editor is suggested.
+ */
+@NbBundle.Messages("ACTION_quickDocumentation_displayName=Quick Documentation")
+@ActionID(category = "Help", id = "de.adito.aditoweb.nbm.help.HelpActionQuickDocumentation")
+@ActionRegistration(displayName = "#ACTION_quickDocumentation_displayName", iconBase = "de/adito/aditoweb/nbm/help/openBook.png")
+@ActionReference(path = "Menu/Help", position = 1451)
+public class HelpActionQuickDocumentation extends NodeAction
+{
+  private static final String TITLE = "Quick Documentation";
+  private static final int MAX_RESULTS = 20;
+
+  @Override
+  protected boolean asynchronous()
+  {
+    return true;
+  }
+
+  @Override
+  public String getName()
+  {
+    return TITLE;
+  }
+
+  @Override
+  public HelpCtx getHelpCtx()
+  {
+    return null;
+  }
+
+  @Override
+  protected String iconResource()
+  {
+    return "de/adito/aditoweb/nbm/help/openBook.png";
+  }
+
+  @Override
+  protected boolean enable(Node[] nodes)
+  {
+    // the index is built in java, so NodeJS is not needed
+    return findSelectedProject(nodes) != null;
+  }
+
+  @Override
+  protected void performAction(Node[] nodes)
+  {
+    try
+    {
+      Project project = findSelectedProject(nodes);
+      if (project == null)
+        return;
+
+      String query = onEDT(() -> (String) JOptionPane.showInputDialog(getParent(), "JDito symbol, e.g. neon.openContext", TITLE,
+                                                                    JOptionPane.QUESTION_MESSAGE, null, null, getSelectedSymbol()));
+      if (query == null || query.isBlank())
+        return;
+
+      List<SymbolIndex.Symbol> symbols = findSymbols(SymbolIndexCache.getInstance().get(project.getProjectDirectory().getPath()), query.trim());
+      onEDT(() -> {
+        if (symbols.isEmpty())
+          JOptionPane.showMessageDialog(getParent(), "No documentation found for \"" + query.trim() + "\"", TITLE, JOptionPane.INFORMATION_MESSAGE);
+        else
+          JOptionPane.showMessageDialog(getParent(), createDocumentationPane(toHtml(symbols)), TITLE, JOptionPane.PLAIN_MESSAGE);
+        return null;
+      });
+    }
+    catch (Exception ex)
+    {
+      INotificationFacade.INSTANCE.error(ex);
+    }
+  }
+
+  /**
+   * Finds the symbols for a query. The symbols with exactly this name are preferred, otherwise all symbols starting with it are returned.
+   *
+   * @param pIndex index of the jdito-types
+   * @param pQuery name or prefix of the name of the symbol
+   * @return the symbols, that match the query
+   */
+  @VisibleForTesting
+  @NonNull
+  static List<SymbolIndex.Symbol> findSymbols(@NonNull SymbolIndex pIndex, @NonNull String pQuery)
+  {
+    List<SymbolIndex.Symbol> symbols = pIndex.find(pQuery);
+    return symbols.isEmpty() ? pIndex.findByPrefix(pQuery, MAX_RESULTS) : symbols;
+  }
+
+  /**
+   * @param pSymbols symbols that should be shown
+   * @return the documentation of the symbols as html
+   */
+  @VisibleForTesting
+  @NonNull
+  static String toHtml(@NonNull List<SymbolIndex.Symbol> pSymbols)
+  {
+    StringBuilder html = new StringBuilder("<html><body>");
+    for (SymbolIndex.Symbol symbol : pSymbols)
+    {
+      html.append("<h3>").append(escape(symbol.getName())).append("</h3>")
+          .append("<pre>").append(escape(symbol.getSignature())).append("</pre>");
+      for (String line : symbol.getDocumentation().split("\n"))
+      {
+        String escapedLine = escape(line);
+        // tags like @param are highlighted
+        if (line.startsWith("@"))
+          escapedLine = escapedLine.replaceFirst("^(@\\w+)", "<b>$1</b>");
+        html.append(escapedLine).append("<br>");
+      }
+      html.append("<p><i>").append(escape(symbol.getSource())).append("</i></p>");
+    }
+    return html.append("</body></html>").toString();
+  }
+
+  /**
+   * Returns the symbol that is selected in the focused editor. Without a selection the word at the caret is taken.
+   * Has to be called on the EDT.
+   *
+   * @return the symbol or null, if no text component is focused
+   */
+  @Nullable
+  static String getSelectedSymbol()
+  {
+    Component focusOwner = KeyboardFocusManager.getCurrentKeyboardFocusManager().getPermanentFocusOwner();
+    if (!(focusOwner instanceof JTextComponent))
+      return null;
+
+    JTextComponent textComponent = (JTextComponent) focusOwner;
+    String selectedText = textComponent.getSelectedText();
+    if (selectedText != null && !selectedText.isBlank())
+      return selectedText.trim();
+
+    try
+    {
+      Document document = textComponent.getDocument();
+      String text = document.getText(0, document.getLength());
+      return getSymbolAt(text, textComponent.getCaretPosition());
+    }
+    catch (BadLocationException pE)
+    {
+      return null;
+    }
+  }
+
+  /**
+   * @param pText     text of the editor
+   * @param pPosition position of the caret
+   * @return the qualified symbol at the position, e.g. "neon.openContext" or null, if there is no symbol
+   */
+  @VisibleForTesting
+  @Nullable
+  static String getSymbolAt(@NonNull String pText, int pPosition)
+  {
+    int start = Math.min(Math.max(pPosition, 0), pText.length());
+    int end = start;
+    while (start > 0 && isSymbolCharacter(pText.charAt(start - 1)))
+      start--;
+    while (end < pText.length() && isSymbolCharacter(pText.charAt(end)))
+      end++;
+    String symbol = pText.substring(start, end).replaceAll("^\\.+|\\.+$", "");
+    return symbol.isEmpty() ? null : symbol;
+  }
+
+  private static boolean isSymbolCharacter(char pCharacter)
+  {
+    return Character.isJavaIdentifierPart(pCharacter) || pCharacter == '.';
+  }
+
+  @NonNull
+  private static JComponent createDocumentationPane(@NonNull String pHtml)
+  {
+    JEditorPane editorPane = new JEditorPane("text/html", pHtml);
+    editorPane.setEditable(false);
+    editorPane.setCaretPosition(0);
+    JScrollPane scrollPane = new JScrollPane(editorPane);
+    scrollPane.setPreferredSize(new Dimension(640, 420));
+    return scrollPane;
+  }
+
+  @Nullable
+  private static Component getParent()
+  {
+    return WindowManager.getDefault().getMainWindow();
+  }
+
+  @Nullable
+  private static Project findSelectedProject(@Nullable Node[] pNodes)
+  {
+    if (pNodes == null)
+      return null;
+    return Arrays.stream(pNodes)
+        .map(pNode -> IProjectQuery.getInstance().findProjects(pNode, IProjectQuery.ReturnType.MULTIPLE_TO_NULL))
+        .filter(Objects::nonNull)
+        .findFirst()
+        .orElse(null);
+  }
+
+  /**
+   * Executes the given code on the EDT and waits for its result
+   */
+  @Nullable
+  static <T> T onEDT(@NonNull Callable<T> pCode) throws Exception
+  {
+    if (SwingUtilities.isEventDispatchThread())
+      return pCode.call();
+
+    AtomicReference<T> result = new AtomicReference<>();
+    AtomicReference<Exception> error = new AtomicReference<>();
+    SwingUtilities.invokeAndWait(() -> {
+      try
+      {
+        result.set(pCode.call());
+      }
+      catch (Exception pE)
+      {
+        error.set(pE);
+      }
+    });
+    if (error.get() != null)
+      throw error.get();
+    return result.get();
+  }
+
+  @NonNull
+  private static String escape(@NonNull String pText)
+  {
+    return pText.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+  }
+}
@@ -1,16 +1,11 @@
 package de.adito.aditoweb.nbm.help;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.gson.*;
-import com.google.gson.stream.JsonWriter;
 import de.adito.aditoweb.nbm.nbide.nbaditointerface.common.IProjectQuery;
 import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.*;
 import de.adito.notification.INotificationFacade;
 import io.reactivex.rxjava3.annotations.Nullable;
-import io.reactivex.rxjava3.core.Observable;
 import lombok.NonNull;
-import org.apache.commons.io.FileUtils;
-import org.json.JSONObject;
 import org.netbeans.api.progress.ProgressHandle;
 import org.netbeans.api.project.Project;
 import org.openide.awt.*;
@@ -26,9 +21,10 @@ import java.net.*;
 import java.nio.file.*;
 import java.util.List;
 import java.util.*;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.logging.Logger;
+import java.util.function.Consumer;
+import java.util.logging.*;
 import java.util.stream.*;
 
 
@@ -47,9 +43,39 @@ public class HelpActionShowDocumentation extends NodeAction
   @VisibleForTesting
   protected static final Logger LOGGER = Logger.getLogger(HelpActionShowDocumentation.class.getName());
 
-  private static final String SUPPORTED_JDITO_VERSION = "2023";
-  private static final String JDITO_TYPES = "@aditosoftware/jdito-types";
-  private static final String BETTER_DOCS = "better-docs";
+  private static final String TOOLCHAIN_VERIFICATION_KEY = "toolchain";
+  private static final String JDITO_TYPES_VERIFICATION_KEY = "jditoTypes.";
+  private static final String JSDOC_PARSING_PREFIX = "Parsing ";
+
+  //timeouts of the single stages, so a hanging npm or jsdoc can not block the action forever
+  @VisibleForTesting
+  static final long NPM_LIST_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(2);
+  @VisibleForTesting
+  static final long NPM_INSTALL_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+  @VisibleForTesting
+  static final long JSDOC_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(15);
+  //only the first run for a project waits for its NodeJS environment, afterwards the latest one is kept
+  private static final long NODEJS_ENVIRONMENT_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+  //work units of the progress bar, the rendering takes the biggest part and progresses with every parsed file
+  private static final int WORK_UNITS = 100;
+  private static final int WORK_UNIT_VERIFY = 5;
+  private static final int WORK_UNIT_RENDER_START = 20;
+  private static final int WORK_UNIT_RENDER_END = 95;
+
+  //renders the documentations of several projects, jsdoc is cpu bound so more renderings than cores would only slow down each other
+  private static final RequestProcessor PROJECT_PROCESSOR = new RequestProcessor(HelpActionShowDocumentation.class.getName(),
+                                                                                 Runtime.getRuntime().availableProcessors(), true);
+  //the toolchain is shared by all projects, so only one project at a time may verify and install it
+  private static final Object TOOLCHAIN_LOCK = new Object();
+
+  /**
+   * npm packages that have to be installed globally to render the documentation, if the {@link PrivateToolchain} is disabled.
+   * Every package is pinned ("package@version") to the version of the manifest of the toolchain (toolchain/package.json).
+   */
+  @VisibleForTesting
+  static final List<String> REQUIRED_PACKAGES = List.of("jsdoc-mermaid@1.0.0", DocumentationRenderer.BETTER_DOCS + "@2.7.3", "clean-jsdoc-theme@4.2.7",
+                                                        "jsdoc@3.6.11", "jsdoc-plugin-typescript@2.2.1");
 
   @Override
   protected boolean asynchronous()
@@ -78,78 +104,65 @@ public class HelpActionShowDocumentation extends NodeAction
   @Override
   protected boolean enable(Node[] nodes)
   {
-    // modularized project will also be seen as different projects as long as you click on entities, best case you click on the project itself
-    List<Project> projects = findSelectedProjects(nodes)
-        .collect(Collectors.toList());
-
-    if (projects.size() != 1)
-    {
-      return false;
-    }
-
-    Project project = projects.get(0);
-
-    INodeJSExecutor executor = getNodeJSExecutor(project);
-
-    // Enable only if a single project is selected and NodeJS is installed
-    return executor != null;
+    // modularized projects are seen as different projects as long as you click on entities, their documentations are rendered together then
+    // Enable only if at least one of the selected projects has NodeJS installed. This runs on every change of the selection, so the availability is
+    // cached per project and only queried again when the NodeJS executor or provider of the project changes
+    return findSelectedProjects(nodes)
+        .anyMatch(pProject -> getProjectSelectionCache().isNodeJSAvailable(pProject, pP -> getNodeJSExecutor(pP) != null));
   }
 
   @Override
   protected void performAction(Node[] nodes)
   {
-    final AtomicInteger port = new AtomicInteger(-1);
-    try (ServerSocket portSocket = new ServerSocket(0))
-    {
-      port.set(portSocket.getLocalPort());
-    }
-    catch (IOException ioException)
-    {
-      INotificationFacade.INSTANCE.error(ioException);
-    }
-    if (port.get() == -1)
-    {
-      INotificationFacade.INSTANCE.notify("No port available", "No port was available at the time of executing the 'Show Documentation' action", false, null);
-      return;
-    }
-
-    //Set ProgressHandle inside the try-block to automatically close it when finished
-    try (ProgressHandle handle = ProgressHandle.createHandle("Rendering JSDoc Documentation"))
+    //the symbol is read before the rendering, the user may focus something else in the meantime
+    String symbol = getSelectedSymbol();
+    //the pipeline can be cancelled from the progress bar, that kills the currently running process
+    PipelineCancellation cancellation = new PipelineCancellation();
+    //Set ProgressHandle inside the try-block to automatically close it when finished. The durations of all stages are logged at the end of the run
+    try (StageTimings timings = StageTimings.start("Show Documentation");
+         ProgressHandle handle = ProgressHandle.createHandle("Rendering JSDoc Documentation", cancellation))
     {
 
       //start ProgressHandle (Loading bar)
       handle.start();
       handle.switchToIndeterminate();
 
-      //Scan over every selected "node" and only get the first project
-      Project project = findSelectedProjects(nodes).findFirst().orElseThrow();
-      String projectName = project.getProjectDirectory().getName();
-      String projectPath = project.getProjectDirectory().getPath();
-
-      INodeJSExecutor executor = getNodeJSExecutor(project);
-      INodeJSEnvironment nodeJsEnv = getNodeJSEnvironment(project);
-
-      //set ProgressHandle (loading bar) to have X steps to completion
-      handle.switchToDeterminate(16);
+      //Scan over every selected "node" and take every project with NodeJS
+      List<Project> projects = findSelectedProjects(nodes)
+          .filter(pProject -> getNodeJSExecutor(pProject) != null)
+          .collect(Collectors.toList());
+      //projects that failed were already reported, only the projects with unsupported jdito-types are collected for one common message
+      List<Project> unsupported = new ArrayList<>();
+      Map<Project, Path> documentations = projects.size() == 1 ? getDocumentation(projects.get(0), handle, unsupported)
+                                                               : prepareDocumentations(projects, handle, unsupported);
 
-      if (checkProjectJDitoTypes(nodeJsEnv, executor))
+      if (!unsupported.isEmpty())
       {
-        //installing all needed modules via npm
-        executeInstall(nodeJsEnv, executor, handle, "jsdoc-mermaid", 1);
-        executeInstall(nodeJsEnv, executor, handle, BETTER_DOCS, 3);
-        executeInstall(nodeJsEnv, executor, handle, "clean-jsdoc-theme", 5);
-        executeInstall(nodeJsEnv, executor, handle, "jsdoc@3.6.11", 7);
-        executeInstall(nodeJsEnv, executor, handle, "http-server", 9);
-        executeInstall(nodeJsEnv, executor, handle, "jsdoc-plugin-typescript", 11);
-
-        handle.progress("Rendering JSDoc Documentation", 13);
-
-        //copy the file included in the .jar to the .aditodesigner/version/help/project folder and change the content to fit each project
-        String jsDocPath = moveAndOverwriteJSDocContent(projectPath, port.get(), projectName, nodeJsEnv);
+        String unsupportedProjects = unsupported.stream()
+            .map(pProject -> pProject.getProjectDirectory().getName())
+            .collect(Collectors.joining(", "));
+        INotificationFacade.INSTANCE.notify(
+            "JDito-Types outdated",
+            "Your installed JDito-types are not supported (" + unsupportedProjects + "). Update your JDito-types dependency to 2023.0.0 or later.",
+            false,
+            null
+        );
+      }
 
-        executeJSDoc(nodeJsEnv, executor, jsDocPath);
-        executeHttpServer(handle, nodeJsEnv, executor, jsDocPath, port.get());
-        openBrowserWithURI(port.get());
+      if (!documentations.isEmpty())
+      {
+        int port;
+        String link;
+        try (StagePipeline pipeline = new StagePipeline("serving the documentation of " + documentations.size() + " project(s)"))
+        {
+          DocumentationServer server = pipeline.run("server", () -> executeHttpServer(handle, documentations));
+          port = server.getPort();
+          link = symbol != null ? server.findSymbol(symbol) : null;
+          pipeline.run("browser", () -> {
+            openBrowserWithURI(port, link);
+            return null;
+          });
+        }
 
         try
         {
@@ -157,7 +170,7 @@ public class HelpActionShowDocumentation extends NodeAction
               "Local HTTP-Server",
               "localhost:" + port,
               false,
-              new OpenBrowser(port.get())
+              new OpenBrowser(port, link)
           );
         }
         catch (Exception pE)
@@ -165,49 +178,279 @@ public class HelpActionShowDocumentation extends NodeAction
           INotificationFacade.INSTANCE.error(pE);
         }
       }
+    }
+    catch (InterruptedException ex)
+    {
+      if (cancellation.isCancelled())
+        LOGGER.info("Show Documentation was cancelled");
       else
-      {
-        INotificationFacade.INSTANCE.notify(
-            "JDito-Types outdated",
-            "Your installed JDito-types are not supported. Update your JDito-types dependency to 2023.0.0 or later.",
-            false,
-            null
-        );
-      }
+        INotificationFacade.INSTANCE.error(ex);
     }
     catch (Exception ex)
     {
       INotificationFacade.INSTANCE.error(ex);
     }
+    finally
+    {
+      cancellation.done();
+    }
+  }
+
+  /**
+   * Returns the documentation of a single project. It may already be rendered in the background, then it only has to be served.
+   *
+   * @param pProject     project whose documentation should be shown
+   * @param pHandle      ProgressHandle for the progress bar
+   * @param pUnsupported the project is added to it, if its jdito-types are not supported
+   * @return the documentation of the project or an empty map, if the jdito-types of the project are not supported
+   * @throws IOException          if an error occurred
+   * @throws InterruptedException if the rendering was cancelled
+   * @throws TimeoutException     if the timeout killed the process
+   */
+  @NonNull
+  private Map<Project, Path> getDocumentation(@NonNull Project pProject, @NonNull ProgressHandle pHandle, @NonNull Collection<Project> pUnsupported)
+      throws IOException, InterruptedException, TimeoutException
+  {
+    Path documentation = DocumentationPrerenderer.getInstance().getDocumentation(pProject);
+    if (documentation == null)
+    {
+      //set ProgressHandle (loading bar) to have X steps to completion
+      pHandle.switchToDeterminate(WORK_UNITS);
+      documentation = prepareDocumentation(pProject, pHandle);
+    }
+
+    if (documentation == null)
+    {
+      pUnsupported.add(pProject);
+      return Map.of();
+    }
+    DocumentationPrerenderer.getInstance().documentationRendered(pProject, documentation);
+    return Map.of(pProject, documentation);
+  }
+
+  /**
+   * Prepares the documentations of several projects in parallel, with at most one rendering per core. Projects with identical jdito-types share
+   * one rendering, see {@link #renderDocumentation}. A project that fails is reported and skipped, so it does not hide the other documentations.
+   *
+   * @param pProjects    projects whose documentations should be shown
+   * @param pHandle      ProgressHandle for the progress bar, it progresses with every finished project
+   * @param pUnsupported the projects, whose jdito-types are not supported, are added to it. Projects that failed are not added, they were reported
+   * @return the documentation of every project, whose jdito-types are supported and that did not fail, in the order of the given projects
+   * @throws InterruptedException if the rendering was cancelled
+   */
+  @VisibleForTesting
+  @NonNull
+  protected Map<Project, Path> prepareDocumentations(@NonNull List<Project> pProjects, @NonNull ProgressHandle pHandle,
+                                                     @NonNull Collection<Project> pUnsupported) throws InterruptedException
+  {
+    pHandle.switchToDeterminate(pProjects.size());
+    AtomicInteger finishedProjects = new AtomicInteger();
+    Map<Project, Future<Path>> futures = new LinkedHashMap<>();
+    Map<Project, Path> documentations = new LinkedHashMap<>();
+    try (StagePipeline pipeline = new StagePipeline("documentation of " + pProjects.size() + " projects", PROJECT_PROCESSOR))
+    {
+      for (Project project : pProjects)
+      {
+        String projectName = project.getProjectDirectory().getName();
+        futures.put(project, pipeline.start(projectName, () -> {
+          try
+          {
+            Path documentation = DocumentationPrerenderer.getInstance().getDocumentation(project);
+            return documentation != null ? documentation : prepareDocumentation(project, null);
+          }
+          finally
+          {
+            pHandle.progress(projectName, finishedProjects.incrementAndGet());
+          }
+        }));
+      }
+
+      for (Map.Entry<Project, Future<Path>> future : futures.entrySet())
+      {
+        try
+        {
+          Path documentation = StagePipeline.await(future.getValue());
+          if (documentation != null)
+          {
+            DocumentationPrerenderer.getInstance().documentationRendered(future.getKey(), documentation);
+            documentations.put(future.getKey(), documentation);
+          }
+          else
+            pUnsupported.add(future.getKey());
+        }
+        catch (IOException | TimeoutException | RuntimeException pE)
+        {
+          INotificationFacade.INSTANCE.error(pE);
+        }
+      }
+    }
+    return documentations;
+  }
+
+  /**
+   * Verifies the jdito-types and the toolchain of the project and renders its documentation, if it is not rendered yet
+   *
+   * @param pProject project whose documentation should be prepared
+   * @param pHandle  ProgressHandle for the progress bar
+   * @return the directory of the rendered documentation or null, if the jdito-types of the project are not supported
+   * @throws IOException          if an error occurred
+   * @throws InterruptedException if the timeout killed the process
+   * @throws TimeoutException     if the timeout killed the process
+   */
+  @VisibleForTesting
+  @Nullable
+  protected Path prepareDocumentation(@NonNull Project pProject, @Nullable ProgressHandle pHandle) throws IOException, InterruptedException, TimeoutException
+  {
+    return prepareDocumentation(pProject, pHandle, true);
+  }
+
+  /**
+   * Verifies the jdito-types and the toolchain of the project and renders its documentation, if it is not rendered yet
+   *
+   * @param pProject          project whose documentation should be prepared
+   * @param pHandle           ProgressHandle for the progress bar
+   * @param pInstallToolchain true, if a missing toolchain should be installed. Otherwise the documentation is only rendered, if the toolchain is
+   *                          already installed, so npm never installs anything without an action of the user
+   * @return the directory of the rendered documentation or null, if the jdito-types of the project are not supported or the toolchain is missing
+   * and must not be installed
+   * @throws IOException          if an error occurred
+   * @throws InterruptedException if the timeout killed the process
+   * @throws TimeoutException     if the timeout killed the process
+   */
+  @VisibleForTesting
+  @Nullable
+  protected Path prepareDocumentation(@NonNull Project pProject, @Nullable ProgressHandle pHandle, boolean pInstallToolchain)
+      throws IOException, InterruptedException, TimeoutException
+  {
+    String projectName = pProject.getProjectDirectory().getName();
+    String projectPath = pProject.getProjectDirectory().getPath();
+
+    INodeJSExecutor executor = getNodeJSExecutor(pProject);
+    INodeJSEnvironment nodeJsEnv = getNodeJSEnvironment(pProject);
+    if (executor == null || nodeJsEnv == null)
+      throw new IOException("NodeJS is not available for the project " + projectName);
+
+    //the stages only join where they depend on each other: the jdito-types check, the toolchain verification and hashing the jdito-types overlap
+    try (StagePipeline pipeline = new StagePipeline("documentation of " + projectName))
+    {
+      Future<Boolean> jditoTypesSupported = pipeline.start("jdito-types check", () -> checkProjectJDitoTypes(nodeJsEnv, executor, projectPath));
+      Future<String> sourceFingerprint = pipeline.start("source fingerprint", () -> getSourceFingerprint(projectPath));
+      //a toolchain bundled with the module is extracted once and needs neither npm nor network access. Otherwise the toolchain is installed
+      //into the private npm prefix of the module or, if disabled, all needed modules are verified globally with one npm call
+      Future<Boolean> toolchain = pipeline.start("toolchain verification", () -> {
+        if (getBundledToolchain() != null)
+          return true;
+        if (!pInstallToolchain)
+          return isToolchainInstalled(nodeJsEnv, executor, REQUIRED_PACKAGES);
+        executeInstall(nodeJsEnv, executor, pHandle, REQUIRED_PACKAGES, WORK_UNIT_VERIFY);
+        if (Thread.interrupted())
+          throw new InterruptedException("the installation of the toolchain was cancelled");
+        return true;
+      });
+
+      //closing the pipeline cancels the other stages, the documentation is not rendered anyway
+      if (!StagePipeline.await(jditoTypesSupported) || !StagePipeline.await(toolchain))
+        return null;
+
+      if (pHandle != null)
+        pHandle.progress("Rendering JSDoc Documentation", WORK_UNIT_RENDER_START);
+      String fingerprint = StagePipeline.await(sourceFingerprint);
+      return pipeline.run("render", () -> renderDocumentation(nodeJsEnv, executor, pHandle, projectPath, fingerprint));
+    }
   }
 
   protected Stream<Project> findSelectedProjects(Node[] nodes)
   {
-    return Arrays.stream(nodes).map(pNode -> IProjectQuery.getInstance().findProjects(pNode, IProjectQuery.ReturnType.MULTIPLE_TO_NULL)).filter(Objects::nonNull).distinct();
+    ProjectSelectionCache cache = getProjectSelectionCache();
+    return Arrays.stream(nodes)
+        .map(pNode -> cache.getProject(pNode, pN -> IProjectQuery.getInstance().findProjects(pN, IProjectQuery.ReturnType.MULTIPLE_TO_NULL)))
+        .filter(Objects::nonNull)
+        .distinct();
+  }
+
+  /**
+   * @return the cache for the projects of the selected nodes and the availability of NodeJS
+   */
+  @VisibleForTesting
+  @NonNull
+  protected ProjectSelectionCache getProjectSelectionCache()
+  {
+    return ProjectSelectionCache.getInstance();
   }
 
   /**
-   * private method to write into the log and set progress handle to new workunit. Checks and installs given npm packages
+   * private method to write into the log and set progress handle to new workunit. Installs the {@link PrivateToolchain}, if it is not installed yet.
+   * If it is disabled, checks all given npm packages of the global installation at once and installs the missing ones with a single npm call
    *
    * @param pNodeJsEnvironment environment for NodeJS
    * @param pExecutor          executor for NodeJS
    * @param pHandle            ProgressHandle for the progress bar
-   * @param pPackage           npm package that should be installed
-   * @param pPackageNumber     workunit for the ProgressHandle
+   * @param pPackages          npm packages that should be installed, optionally pinned to a version ("package@version")
+   * @param pWorkUnit          workunit for the ProgressHandle
    */
   @VisibleForTesting
-  void executeInstall(@NonNull INodeJSEnvironment pNodeJsEnvironment, @NonNull INodeJSExecutor pExecutor, @Nullable ProgressHandle pHandle, @NonNull String pPackage, int pPackageNumber)
+  void executeInstall(@NonNull INodeJSEnvironment pNodeJsEnvironment, @NonNull INodeJSExecutor pExecutor, @Nullable ProgressHandle pHandle,
+                      @NonNull List<String> pPackages, int pWorkUnit)
+  {
+    synchronized (TOOLCHAIN_LOCK)
+    {
+      executeInstallLocked(pNodeJsEnvironment, pExecutor, pHandle, pPackages, pWorkUnit);
+    }
+  }
+
+  private void executeInstallLocked(@NonNull INodeJSEnvironment pNodeJsEnvironment, @NonNull INodeJSExecutor pExecutor, @Nullable ProgressHandle pHandle,
+                                    @NonNull List<String> pPackages, int pWorkUnit)
   {
     try
     {
-      String stringPackage = pPackage.replaceAll("@.+", "");
-      pHandle.progress("verifying " + stringPackage, pPackageNumber);
-      if (!verifyPackageInstallation(pNodeJsEnvironment, pExecutor, stringPackage))
+      //the private prefix is named after the hash of its manifest, so npm is only executed to install it
+      PrivateToolchain privateToolchain = getPrivateToolchain();
+      if (privateToolchain != null)
+      {
+        if (privateToolchain.getDirectory() == null)
+          installPrivateToolchain(pNodeJsEnvironment, pExecutor, pHandle, privateToolchain, pWorkUnit);
+        return;
+      }
+
+      //nothing changed since the last successful verification, so npm does not have to be asked at all
+      if (getVerificationCache().isVerified(TOOLCHAIN_VERIFICATION_KEY, getToolchainFingerprint(pNodeJsEnvironment, pPackages)))
+        return;
+
+      if (pHandle != null)
+        pHandle.progress("verifying " + String.join(", ", pPackages), pWorkUnit);
+      List<String> missingPackages = verifyPackageInstallationTimed(pNodeJsEnvironment, pExecutor, pPackages);
+      if (!missingPackages.isEmpty())
       {
-        pHandle.progress("installing " + stringPackage, ++pPackageNumber);
-        String result = pExecutor.executeSync(pNodeJsEnvironment, INodeJSExecBase.packageManager(), -1, "i", stringPackage, "-g");
-        LOGGER.info(result);
+        if (pHandle != null)
+          pHandle.progress("installing " + String.join(", ", missingPackages), pWorkUnit + 5);
+
+        //every package is installed with its pinned version, so an outdated installation gets replaced as well. The global installation has no
+        //lockfile, so only the top level packages are pinned
+        List<String> params = new ArrayList<>();
+        params.add("i");
+        params.addAll(missingPackages);
+        params.add("-g");
+        try (StageTimings.Stage stage = StageTimings.stage("npm install"))
+        {
+          int exitCode = StreamingExecution.execute(pNodeJsEnvironment, pExecutor, INodeJSExecBase.packageManager(), NPM_INSTALL_TIMEOUT_MILLIS,
+                                                    LOGGER::info, params.toArray(new String[0]));
+          if (exitCode != 0)
+            LOGGER.warning("npm install exited with code " + exitCode);
+          else
+            stage.succeeded();
+        }
+
+        //only a successful installation may be remembered
+        missingPackages = verifyPackageInstallationTimed(pNodeJsEnvironment, pExecutor, pPackages);
       }
+
+      if (missingPackages.isEmpty())
+        getVerificationCache().setVerified(TOOLCHAIN_VERIFICATION_KEY, getToolchainFingerprint(pNodeJsEnvironment, pPackages));
+    }
+    catch (InterruptedException e)
+    {
+      //the pipeline was cancelled, so the following stages must not run
+      Thread.currentThread().interrupt();
     }
     catch (Exception e)
     {
@@ -216,7 +459,113 @@ public class HelpActionShowDocumentation extends NodeAction
   }
 
   /**
-   * get the absolute path of a installed module from npm
+   * Checks if the toolchain is installed, without installing anything. The {@link PrivateToolchain} is installed, if the directory of its manifest
+   * exists. If it is disabled, all given npm packages of the global installation are checked at once.
+   *
+   * @param pNodeJsEnvironment environment for NodeJS
+   * @param pExecutor          executor for NodeJS
+   * @param pPackages          npm packages that should be installed, optionally pinned to a version ("package@version")
+   * @return true, if the toolchain is installed
+   * @throws IOException          if an error occurred
+   * @throws InterruptedException if the pipeline was cancelled, npm is killed then
+   * @throws TimeoutException     if the timeout killed the process
+   */
+  @VisibleForTesting
+  boolean isToolchainInstalled(@NonNull INodeJSEnvironment pNodeJsEnvironment, @NonNull INodeJSExecutor pExecutor, @NonNull List<String> pPackages)
+      throws IOException, InterruptedException, TimeoutException
+  {
+    synchronized (TOOLCHAIN_LOCK)
+    {
+      PrivateToolchain privateToolchain = getPrivateToolchain();
+      if (privateToolchain != null)
+        return privateToolchain.getDirectory() != null;
+
+      String fingerprint = getToolchainFingerprint(pNodeJsEnvironment, pPackages);
+      if (getVerificationCache().isVerified(TOOLCHAIN_VERIFICATION_KEY, fingerprint))
+        return true;
+      if (!verifyPackageInstallationTimed(pNodeJsEnvironment, pExecutor, pPackages).isEmpty())
+        return false;
+      getVerificationCache().setVerified(TOOLCHAIN_VERIFICATION_KEY, fingerprint);
+      return true;
+    }
+  }
+
+  private void installPrivateToolchain(@NonNull INodeJSEnvironment pNodeJsEnvironment, @NonNull INodeJSExecutor pExecutor, @Nullable ProgressHandle pHandle,
+                                       @NonNull PrivateToolchain pToolchain, int pWorkUnit) throws IOException, InterruptedException, TimeoutException
+  {
+    if (pHandle != null)
+      pHandle.progress("installing the documentation toolchain", pWorkUnit + 5);
+    try (StageTimings.Stage stage = StageTimings.stage("npm install"))
+    {
+      pToolchain.install(pArgs -> StreamingExecution.execute(pNodeJsEnvironment, pExecutor, INodeJSExecBase.packageManager(), NPM_INSTALL_TIMEOUT_MILLIS,
+                                                             LOGGER::info, pArgs));
+      stage.succeeded();
+    }
+  }
+
+  /**
+   * Calls {@link #verifyPackageInstallation} as its own stage of the run
+   */
+  @NonNull
+  private List<String> verifyPackageInstallationTimed(@NonNull INodeJSEnvironment pNodeJsEnvironment, @NonNull INodeJSExecutor pExecutor,
+                                                      @NonNull List<String> pPackages) throws IOException, InterruptedException, TimeoutException
+  {
+    try (StageTimings.Stage stage = StageTimings.stage("npm list"))
+    {
+      List<String> missingPackages = verifyPackageInstallation(pNodeJsEnvironment, pExecutor, pPackages);
+      stage.succeeded();
+      return missingPackages;
+    }
+  }
+
+  /**
+   * Creates the fingerprint of the installed toolchain. It contains the NodeJS executable and the package.json of every given package,
+   * including its path in the toolchain directory, so an update of NodeJS or of one of the packages changes the fingerprint.
+   *
+   * @param pNodeJsEnvironment environment for NodeJS
+   * @param pPackages          npm packages of the toolchain
+   * @return the fingerprint of the toolchain
+   */
+  @VisibleForTesting
+  @NonNull
+  protected String getToolchainFingerprint(@NonNull INodeJSEnvironment pNodeJsEnvironment, @NonNull List<String> pPackages)
+  {
+    Fingerprint fingerprint = new Fingerprint().addFileState(pNodeJsEnvironment.resolveExecBase(INodeJSExecBase.node()));
+    for (String npmPackage : pPackages)
+      fingerprint.add(npmPackage).addFileState(new File(getAbsolutePathOfModule(pNodeJsEnvironment, getPackageName(npmPackage), "package.json")));
+    return fingerprint.build();
+  }
+
+  /**
+   * Creates the fingerprint of the jdito-types of a project. It contains the NodeJS executable and the package.json of the jdito-types.
+   *
+   * @param pNodeJsEnvironment environment for NodeJS
+   * @param pProjectPath       path of the project
+   * @return the fingerprint of the jdito-types
+   */
+  @VisibleForTesting
+  @NonNull
+  protected String getJDitoTypesFingerprint(@NonNull INodeJSEnvironment pNodeJsEnvironment, @NonNull String pProjectPath)
+  {
+    return new Fingerprint()
+        .addFileState(pNodeJsEnvironment.resolveExecBase(INodeJSExecBase.node()))
+        .addFileState(new File(pProjectPath, "node_modules/" + DocumentationRenderer.JDITO_TYPES + "/package.json"))
+        .build();
+  }
+
+  /**
+   * @return the cache for the results of the npm verifications
+   */
+  @VisibleForTesting
+  @NonNull
+  protected VerificationCache getVerificationCache()
+  {
+    return VerificationCache.getInstance();
+  }
+
+  /**
+   * get the absolute path of a installed module from npm. The modules of the toolchain bundled with this module are preferred, then the ones of
+   * the {@link PrivateToolchain}.
    *
    * @param pNodeEnv   nodejs env
    * @param pModule    module name
@@ -225,93 +574,191 @@ public class HelpActionShowDocumentation extends NodeAction
    */
   protected String getAbsolutePathOfModule(@NonNull INodeJSEnvironment pNodeEnv, @NonNull String pModule, @NonNull String pInnerPath)
   {
+    Path toolchain = getToolchainDirectory();
+    if (toolchain != null)
+      return toolchain.resolve("node_modules").resolve(pModule).resolve(pInnerPath).toAbsolutePath().toString();
     return pNodeEnv.resolveExecBase(INodeJSExecBase.module(pModule, pInnerPath.isEmpty() ? "" : pInnerPath)).getAbsolutePath();
   }
 
   /**
-   * Check if the JSDoc JSON file exists, move it to the cache folder and replace the content with correct paths
+   * @return the directory of the bundled or the private toolchain or null, if the modules are resolved in the global npm installation
+   */
+  @Nullable
+  private Path getToolchainDirectory()
+  {
+    Path bundledToolchain = getBundledToolchain();
+    if (bundledToolchain != null)
+      return bundledToolchain;
+
+    PrivateToolchain privateToolchain = getPrivateToolchain();
+    try
+    {
+      return privateToolchain != null ? privateToolchain.getDirectory() : null;
+    }
+    catch (IOException pE)
+    {
+      LOGGER.log(Level.WARNING, "could not read the manifest of the toolchain", pE);
+      return null;
+    }
+  }
+
+  /**
+   * @return the toolchain in the private npm prefix of this module or null, if the toolchain should be installed globally
+   */
+  @VisibleForTesting
+  @Nullable
+  protected PrivateToolchain getPrivateToolchain()
+  {
+    return PrivateToolchain.isEnabled() ? PrivateToolchain.getInstance() : null;
+  }
+
+  /**
+   * @return the directory of the toolchain bundled with this module or null, if the module does not contain one or it could not be extracted.
+   * The toolchain is installed with npm then.
+   */
+  @VisibleForTesting
+  @Nullable
+  protected Path getBundledToolchain()
+  {
+    try
+    {
+      return BundledToolchain.getInstance().getDirectory();
+    }
+    catch (IOException pE)
+    {
+      //the failure was already logged by the extraction
+      LOGGER.log(Level.FINE, "bundled toolchain is not available, installing it with npm", pE);
+      return null;
+    }
+  }
+
+  /**
+   * Writes the jsdoc.json of the project next to the destination, i.e. into the temporary entry of the {@link DocumentationStore}, that only this
+   * rendering uses. Projects are rendered in parallel and different projects may have the same name, so a shared folder could be overwritten
+   * while jsdoc reads it. The configuration is the template of this module merged with the overrides of the project
+   * (see {@link DocumentationRenderer#createConfiguration}) and the paths of the project and the toolchain.
    *
-   * @param pPath original path of the jsdoc.json
-   * @param pPort random port for the webserver
+   * @param pPath        path of the project
+   * @param pNodeEnv     NodeJS environment
+   * @param pDestination directory the documentation should be rendered into
    * @return String of the path where the jsdoc.json is stored
-   * @throws IOException if no resources can be found
+   * @throws IOException if the overrides of the project are invalid or the file could not be written
    */
   @VisibleForTesting
   @NonNull
-  protected String moveAndOverwriteJSDocContent(@NonNull String pPath, int pPort, @NonNull String pProjectName, @NonNull INodeJSEnvironment pNodeEnv) throws IOException
+  protected String moveAndOverwriteJSDocContent(@NonNull String pPath, @NonNull INodeJSEnvironment pNodeEnv, @NonNull Path pDestination) throws IOException
   {
-    //create cache directory with a subpath with the name of the project
-    Path newPath = Places.getCacheSubdirectory("help/" + pProjectName).toPath();
-
-    Gson gson = new Gson();
+    Path newPath = pDestination.toAbsolutePath().getParent();
 
-    // Read the JSON from the input file
-    try (InputStream input = this.getClass().getClassLoader().getResourceAsStream("de/adito/aditoweb/nbm/help/jsdoc.json");
-         InputStreamReader reader = new InputStreamReader(Objects.requireNonNull(input)))
-    {
-      JsonObject rootObject = gson.fromJson(reader, JsonObject.class);
+    DocumentationRenderer.createConfiguration(pPath, (pModule, pInnerPath) -> getAbsolutePathOfModule(pNodeEnv, pModule, pInnerPath), pDestination)
+        .write(newPath.resolve(JSDocConfiguration.FILE_NAME));
+    return newPath.toString().replaceAll("\\\\", "/");
+  }
 
+  /**
+   * Executes the "npm list" command once for all given packages and determines, which of them are not installed.
+   * If a package is pinned to a version ("package@version"), an installation with another version counts as missing.
+   *
+   * @param pExecutor          NodeJS Executor
+   * @param pNodeJsEnvironment NodeJS environment
+   * @param pPackages          packages that should be checked, optionally pinned to a version
+   * @return the packages (as given in pPackages) that are not installed or not installed in the pinned version
+   */
+  @VisibleForTesting
+  @NonNull
+  protected List<String> verifyPackageInstallation(@NonNull INodeJSEnvironment pNodeJsEnvironment, @NonNull INodeJSExecutor pExecutor,
+                                                   @NonNull List<String> pPackages) throws IOException, InterruptedException, TimeoutException
+  {
+    //execute npm list with --json and all package names to validate which of the packages are installed
+    List<String> params = new ArrayList<>();
+    params.add("list");
+    pPackages.stream().map(HelpActionShowDocumentation::getPackageName).forEach(params::add);
+    params.add("-g");
+    params.add("--json");
+    String result = executeNpmList(pNodeJsEnvironment, pExecutor, params.toArray(new String[0]));
 
-      // Change the value of the "source" key
-      JsonArray includeArray = rootObject.getAsJsonObject("source").getAsJsonArray("include");
-      includeArray.remove(0); //in the given JSON there is already a line that needs to be removed.
-      includeArray.add(pPath + "/node_modules/@aditosoftware/jdito-types/dist");
-      //includeArray.add(pPath + "/process/"); //comment this in, if you want trouble, and make it double
+    //the output is streamed and only read until all packages are found, the execution path in the first line is skipped
+    Set<String> packageNames = pPackages.stream().map(HelpActionShowDocumentation::getPackageName).collect(Collectors.toSet());
+    Map<String, String> installedVersions = NpmListReader.readVersions(result, packageNames);
 
-      // Change the value of the "plugins" key
-      JsonArray pluginsArray = rootObject.getAsJsonArray("plugins");
-      pluginsArray.set(2, gson.toJsonTree(getAbsolutePathOfModule(pNodeEnv, BETTER_DOCS, "category.js")));
-      pluginsArray.set(3, gson.toJsonTree(getAbsolutePathOfModule(pNodeEnv, BETTER_DOCS, "typescript")));
+    return pPackages.stream()
+        .filter(pPackage -> !isInstalled(installedVersions, pPackage))
+        .collect(Collectors.toList());
+  }
 
-      // Change the value of the "opts" key
-      rootObject.getAsJsonObject("opts").addProperty("template", getAbsolutePathOfModule(pNodeEnv, "clean-jsdoc-theme", ""));
-      rootObject.getAsJsonObject("opts").addProperty("destination", newPath + "/docs/documentations/");
+  /**
+   * Checks if the given package is contained in the top level "dependencies" of a "npm list" result.
+   * Other npm installations may have a dependency on this exact package, so only the top level (global) installation is checked.
+   *
+   * @param pInstalledVersions versions of the top level dependencies of the npm list result, see {@link NpmListReader#readVersions}
+   * @param pPackage           package that should be checked, optionally pinned to a version
+   * @return true, if the package is installed in the pinned version (or any version, if it is not pinned)
+   */
+  private static boolean isInstalled(@NonNull Map<String, String> pInstalledVersions, @NonNull String pPackage)
+  {
+    String installedVersion = pInstalledVersions.get(getPackageName(pPackage));
+    if (installedVersion == null)
+      return false;
 
-      // Change the value of the "theme_opts" key
-      rootObject.getAsJsonObject("opts").getAsJsonObject("theme_opts").addProperty("base_url", "localhost:" + pPort + "/");
+    String pinnedVersion = getPackageVersion(pPackage);
+    return pinnedVersion == null || pinnedVersion.equals(installedVersion);
+  }
 
-      // Write the updated JSON to a different location
-      try (FileWriter fileWriter = new FileWriter(Paths.get(newPath.toString(), "/jsdoc.json").toFile()))
-      {
-        JsonWriter jsonWriter = new JsonWriter(fileWriter);
-        jsonWriter.setIndent("    ");
-        gson.toJson(rootObject, jsonWriter);
-      }
-    }
-    //delete cache subdirectory on exit
-    FileUtils.forceDeleteOnExit(Places.getCacheSubdirectory("help/" + pProjectName));
+  /**
+   * Returns the name of a package that may be pinned to a version, e.g. "jsdoc" for "jsdoc@3.6.11" or "@scope/name" for "@scope/name@1.0.0"
+   *
+   * @param pPackage package, optionally pinned to a version
+   * @return the name of the package without the version
+   */
+  @VisibleForTesting
+  @NonNull
+  static String getPackageName(@NonNull String pPackage)
+  {
+    // a leading @ belongs to the scope of the package and not to the version
+    int versionIndex = pPackage.lastIndexOf('@');
+    return versionIndex > 0 ? pPackage.substring(0, versionIndex) : pPackage;
+  }
 
-    return newPath.toString().replaceAll("\\\\", "/");
+  /**
+   * Returns the pinned version of a package, e.g. "3.6.11" for "jsdoc@3.6.11"
+   *
+   * @param pPackage package, optionally pinned to a version
+   * @return the pinned version or null, if the package is not pinned
+   */
+  @VisibleForTesting
+  @Nullable
+  static String getPackageVersion(@NonNull String pPackage)
+  {
+    int versionIndex = pPackage.lastIndexOf('@');
+    return versionIndex > 0 ? pPackage.substring(versionIndex + 1) : null;
   }
 
   /**
-   * Executes the "npm list" command and determines, if all the given packages are installed.
-   * It does not handle outdated packages - it just verifies, if it is installed.
+   * checks if the currently installed jdito types of the given project are valid for this plugin.
+   * npm is only executed if the jdito-types changed since the last successful check.
    *
-   * @param pExecutor          NodeJS Executor
    * @param pNodeJsEnvironment NodeJS environment
-   * @param pPackage           packages that should be checked
-   * @return boolean depending if the dependency exists
+   * @param pExecutor          NodeJS Executor
+   * @param pProjectPath       path of the project
+   * @return boolean if the jdito types are correct
+   * @throws IOException          if an error occurred
+   * @throws InterruptedException if the timeout killed the process
+   * @throws TimeoutException     if the timeout killed the process
    */
   @VisibleForTesting
-  protected boolean verifyPackageInstallation(@NonNull INodeJSEnvironment pNodeJsEnvironment, @NonNull INodeJSExecutor pExecutor, @NonNull String pPackage) throws IOException, InterruptedException, TimeoutException
+  protected boolean checkProjectJDitoTypes(@NonNull INodeJSEnvironment pNodeJsEnvironment, @NonNull INodeJSExecutor pExecutor, @NonNull String pProjectPath)
+      throws IOException, InterruptedException, TimeoutException
   {
-    //execute npm list with --json to validate if the package is installed or not
-    String result = pExecutor.executeSync(pNodeJsEnvironment, INodeJSExecBase.packageManager(), -1, false, "list", pPackage, "-g", "--json");
+    String key = JDITO_TYPES_VERIFICATION_KEY + pProjectPath;
+    String fingerprint = getJDitoTypesFingerprint(pNodeJsEnvironment, pProjectPath);
+    if (getVerificationCache().isVerified(key, fingerprint))
+      return true;
 
-    //remove first line of "result" because npm list returns the execution path as well
-    JSONObject obj = new JSONObject(result.substring(result.indexOf("\n") + 1));
-    //search for the dependencies node and save it again in obj -> nullpointer possible if not
-    obj = obj.optJSONObject("dependencies");
-
-    if (obj != null)
-      //it could be that there are other npm installations with a dependency on this exact package.
-      //so we only check for the globally installed package
-      //maybe check for the wanted version as well but not neccessary now
-      return obj.optJSONObject(pPackage) != null;
-    else
-      //if no installation is found, return false
-      return false;
+    boolean supported = checkProjectJDitoTypes(pNodeJsEnvironment, pExecutor);
+    //unsupported jdito-types are not remembered, the user is asked to update them anyway
+    if (supported)
+      getVerificationCache().setVerified(key, fingerprint);
+    return supported;
   }
 
   /**
@@ -328,70 +775,304 @@ public class HelpActionShowDocumentation extends NodeAction
   protected boolean checkProjectJDitoTypes(@NonNull INodeJSEnvironment pNodeJsEnvironment, @NonNull INodeJSExecutor pExecutor) throws IOException, InterruptedException, TimeoutException
   {
     // Execute npm list with --json to validate if the package is installed or not
-    String result = pExecutor.executeSync(pNodeJsEnvironment, INodeJSExecBase.packageManager(), -1, false, "list", JDITO_TYPES, "--json");
+    String result = executeNpmList(pNodeJsEnvironment, pExecutor, "list", DocumentationRenderer.JDITO_TYPES, "--json");
+
+    // The execution path in the first line is skipped, reading stops as soon as the jdito-types are found
+    String version = NpmListReader.readVersions(result, Set.of(DocumentationRenderer.JDITO_TYPES)).get(DocumentationRenderer.JDITO_TYPES);
+    return DocumentationRenderer.isSupported(version);
+  }
+
+  /**
+   * Executes "npm list" like the other stages of the pipeline, so it is killed if the user cancels the progress or the timeout is exceeded.
+   * npm exits with an error code if a package is missing, so the exit code is ignored and only the standard output is returned.
+   *
+   * @param pNodeJsEnvironment NodeJS environment
+   * @param pExecutor          NodeJS Executor
+   * @param pParams            parameters for npm
+   * @return the standard output of npm
+   * @throws IOException          if npm could not be started
+   * @throws InterruptedException if the pipeline was cancelled, npm is killed then
+   * @throws TimeoutException     if the timeout killed the process
+   */
+  @NonNull
+  private static String executeNpmList(@NonNull INodeJSEnvironment pNodeJsEnvironment, @NonNull INodeJSExecutor pExecutor, @NonNull String... pParams)
+      throws IOException, InterruptedException, TimeoutException
+  {
+    StringBuffer output = new StringBuffer();
+    StreamingExecution.execute(pNodeJsEnvironment, pExecutor, INodeJSExecBase.packageManager(), NPM_LIST_TIMEOUT_MILLIS,
+                               pLine -> output.append(pLine).append('\n'), LOGGER::fine, pParams);
+    return output.toString();
+  }
+
+  /**
+   * Returns the jdito symbol, that is selected in the focused editor, so the documentation can be opened at its page
+   *
+   * @return the symbol or null, if there is none
+   */
+  @Nullable
+  private String getSelectedSymbol()
+  {
+    try
+    {
+      return HelpActionQuickDocumentation.onEDT(HelpActionQuickDocumentation::getSelectedSymbol);
+    }
+    catch (InterruptedException pE)
+    {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+    catch (Exception pE)
+    {
+      LOGGER.log(Level.FINE, "could not read the selected symbol", pE);
+      return null;
+    }
+  }
 
-    // Remove first line of "result" because npm list returns the execution path as well
-    JSONObject obj = new JSONObject(result.substring(result.indexOf("\n") + 1));
-    // Search for the dependencies node and save it again in obj -> nullpointer possible if not
-    JSONObject dependencies = obj.optJSONObject("dependencies");
-    JSONObject jditoTypes = dependencies != null ? dependencies.optJSONObject(JDITO_TYPES) : null;
-    return jditoTypes != null && jditoTypes.optString("version", "").startsWith(SUPPORTED_JDITO_VERSION);
+  /**
+   * @param pPort port of the documentation server
+   * @param pLink path of the page relative to the root of the server, see {@link DocumentationServer#findSymbol(String)}, or null for the root
+   * @return the uri of the page on the local http-server
+   * @throws URISyntaxException if the link is not a valid path
+   */
+  @VisibleForTesting
+  @NonNull
+  static URI getDocumentationURI(int pPort, @Nullable String pLink) throws URISyntaxException
+  {
+    if (pLink == null)
+      return new URI("http://localhost:" + pPort);
+    int anchorIndex = pLink.indexOf('#');
+    String path = "/" + (anchorIndex < 0 ? pLink : pLink.substring(0, anchorIndex));
+    String anchor = anchorIndex < 0 ? null : pLink.substring(anchorIndex + 1);
+    return new URI("http", null, "localhost", pPort, path, null, anchor);
   }
 
   /**
    * Opens the standard browser of the user and directs them to the local http-server with the given port
    *
-   * @param pPort available port that has been selected by the serversocket
+   * @param pPort port of the documentation server
+   * @param pLink path of the page relative to the root of the server or null to open the root
+   */
+  private void openBrowserWithURI(int pPort, @Nullable String pLink) throws URISyntaxException, IOException
+  {
+    Desktop.getDesktop().browse(getDocumentationURI(pPort, pLink));
+  }
+
+  /**
+   * Returns the rendered documentation for the jdito-types of the project. The documentation is only rendered, if there is no documentation with the
+   * same input in the {@link DocumentationStore} yet, so projects with the same jdito-types share one rendering. If there is a
+   * {@link DocumentationBundle} for the sources, it is imported instead of rendering the documentation.
+   *
+   * @param pNodeJsEnv         NodeJS environment
+   * @param pNodeJsExecutor    NodeJS Executor
+   * @param pHandle            ProgressHandle for the progress bar
+   * @param pProjectPath       path of the project
+   * @param pSourceFingerprint fingerprint of the jdito-types and the jsdoc.json template, see {@link #getSourceFingerprint(String)}
+   * @return the directory of the rendered documentation
+   * @throws IOException          if an error occurred
+   * @throws InterruptedException if the timeout killed the process
+   * @throws TimeoutException     if the timeout killed the process
    */
-  private void openBrowserWithURI(int pPort) throws URISyntaxException, IOException
+  @VisibleForTesting
+  @NonNull
+  protected Path renderDocumentation(@NonNull INodeJSEnvironment pNodeJsEnv, @NonNull INodeJSExecutor pNodeJsExecutor, @Nullable ProgressHandle pHandle,
+                                     @NonNull String pProjectPath, @NonNull String pSourceFingerprint)
+      throws IOException, InterruptedException, TimeoutException
   {
-    Desktop.getDesktop().browse(new URI("http://localhost:" + pPort));
+    return getDocumentationStore().getOrRender(getRenderFingerprint(pNodeJsEnv, pSourceFingerprint), pOutput -> {
+      //a bundle that was rendered by the build machine for the same sources replaces the rendering
+      Path bundle = DocumentationBundle.find(pSourceFingerprint);
+      if (bundle != null)
+      {
+        try (StageTimings.Stage stage = StageTimings.stage("bundle import"))
+        {
+          DocumentationBundle.extract(bundle, pOutput);
+          stage.succeeded();
+        }
+        return;
+      }
+
+      //the jsdoc.json of the project is written into the temporary entry of this rendering and is not stored with the documentation
+      String jsDocPath;
+      try (StageTimings.Stage stage = StageTimings.stage("config write"))
+      {
+        jsDocPath = moveAndOverwriteJSDocContent(pProjectPath, pNodeJsEnv, pOutput);
+        stage.succeeded();
+      }
+      try (StageTimings.Stage stage = StageTimings.stage("jsdoc"))
+      {
+        executeJSDoc(pNodeJsEnv, pNodeJsExecutor, pHandle, jsDocPath, DocumentationRenderer.countSourceFiles(pProjectPath));
+        stage.succeeded();
+      }
+      finally
+      {
+        Files.deleteIfExists(Paths.get(jsDocPath, JSDocConfiguration.FILE_NAME));
+      }
+      //the search of the theme loads the data of the whole documentation in the browser, so the documentation server answers the search instead
+      if (Files.isDirectory(pOutput))
+      {
+        try (StageTimings.Stage stage = StageTimings.stage("search index"))
+        {
+          SearchIndex.create(pOutput);
+          stage.succeeded();
+        }
+      }
+    });
   }
 
   /**
-   * executes the JSDoc command
+   * Creates the fingerprint of the sources of the documentation: the content of the jdito-types, the jsdoc.json template, the jsdoc overrides of
+   * the project and the search script.
+   * Reading the jdito-types takes a while, so this is done while the toolchain is verified.
+   *
+   * @param pProjectPath path of the project
+   * @return the fingerprint of the sources
+   * @throws IOException if a file could not be read
+   */
+  @VisibleForTesting
+  @NonNull
+  protected String getSourceFingerprint(@NonNull String pProjectPath) throws IOException
+  {
+    return DocumentationRenderer.getSourceFingerprint(pProjectPath);
+  }
+
+  /**
+   * Creates the fingerprint of everything the rendered documentation depends on: the sources and the installed toolchain.
+   * It does not contain anything project specific, so it can be used as key for the shared {@link DocumentationStore}.
+   *
+   * @param pNodeJsEnv         NodeJS environment
+   * @param pSourceFingerprint fingerprint of the jdito-types and the jsdoc.json template, see {@link #getSourceFingerprint(String)}
+   * @return the fingerprint of the rendering input
+   */
+  @VisibleForTesting
+  @NonNull
+  protected String getRenderFingerprint(@NonNull INodeJSEnvironment pNodeJsEnv, @NonNull String pSourceFingerprint)
+  {
+    return new Fingerprint()
+        .add(pSourceFingerprint)
+        .add(getToolchainFingerprint(pNodeJsEnv, REQUIRED_PACKAGES))
+        .build();
+  }
+
+  /**
+   * @return the store for the rendered documentations
+   */
+  @VisibleForTesting
+  @NonNull
+  protected DocumentationStore getDocumentationStore()
+  {
+    return DocumentationStore.getInstance();
+  }
+
+  /**
+   * executes the JSDoc command. Its verbose output is streamed, every parsed file advances the progress bar.
+   * If enabled, the documentation is rendered by the warm {@link JSDocWorker} instead of a new jsdoc process.
    *
    * @param pNodeJsEnv      NodeJS environment
    * @param pNodeJsExecutor NodeJS Executor
+   * @param pHandle         ProgressHandle for the progress bar
    * @param pJSDocPath      path to jsdoc
+   * @param pFileCount      number of files jsdoc is going to parse
    * @throws IOException          if an error occurred
-   * @throws InterruptedException if the timeout killed the process
+   * @throws InterruptedException if the rendering was cancelled, jsdoc is killed then
    * @throws TimeoutException     if the timeout killed the process
    */
   @VisibleForTesting
-  protected void executeJSDoc(@NonNull INodeJSEnvironment pNodeJsEnv, @NonNull INodeJSExecutor pNodeJsExecutor, @NonNull String pJSDocPath) throws IOException, InterruptedException, TimeoutException
+  protected void executeJSDoc(@NonNull INodeJSEnvironment pNodeJsEnv, @NonNull INodeJSExecutor pNodeJsExecutor, @Nullable ProgressHandle pHandle,
+                              @NonNull String pJSDocPath, int pFileCount) throws IOException, InterruptedException, TimeoutException
   {
-    //executing the jsdoc command to render the html files
-    String result = pNodeJsExecutor.executeSync(pNodeJsEnv, INodeJSExecBase.node(), -1,
-                                                pNodeJsEnv.resolveExecBase(INodeJSExecBase.module("jsdoc", "jsdoc.js")).getAbsolutePath(), "--configure", pJSDocPath + "/jsdoc.json", "--verbose");
-    LOGGER.info(result);
+    AtomicInteger parsedFiles = new AtomicInteger();
+    Consumer<String> lineConsumer = pLine -> {
+      LOGGER.fine(pLine);
+      if (pHandle != null && pLine.startsWith(JSDOC_PARSING_PREFIX))
+        pHandle.progress(pLine, getRenderWorkUnit(parsedFiles.incrementAndGet(), pFileCount));
+    };
+    String[] args = DocumentationRenderer.getJSDocArguments(pJSDocPath);
+
+    //the warm worker keeps the toolchain loaded, if it is busy or not available a new jsdoc process renders the html files
+    Integer exitCode = null;
+    if (JSDocWorker.isEnabled())
+      exitCode = JSDocWorker.render(pNodeJsEnv, pNodeJsExecutor, getToolchainFingerprint(pNodeJsEnv, REQUIRED_PACKAGES),
+                                    getAbsolutePathOfModule(pNodeJsEnv, "jsdoc", ""), JSDOC_TIMEOUT_MILLIS, lineConsumer, args);
+    if (exitCode == null)
+    {
+      List<String> params = new ArrayList<>();
+      params.add(getAbsolutePathOfModule(pNodeJsEnv, "jsdoc", "jsdoc.js"));
+      params.addAll(Arrays.asList(args));
+      exitCode = StreamingExecution.execute(pNodeJsEnv, pNodeJsExecutor, INodeJSExecBase.node(), JSDOC_TIMEOUT_MILLIS, lineConsumer,
+                                            params.toArray(new String[0]));
+    }
+
+    //jsdoc also exits with an error, if single files could not be parsed. The documentation of all other files is still usable.
+    if (exitCode != 0)
+      LOGGER.warning("jsdoc exited with code " + exitCode + " after parsing " + parsedFiles.get() + " of " + pFileCount + " files");
   }
 
   /**
-   * opens the http-server
+   * @param pParsedFiles number of files jsdoc already parsed
+   * @param pFileCount   number of files jsdoc is going to parse
+   * @return the work unit of the progress bar for the given number of parsed files
+   */
+  @VisibleForTesting
+  static int getRenderWorkUnit(int pParsedFiles, int pFileCount)
+  {
+    if (pFileCount <= 0)
+      return WORK_UNIT_RENDER_START;
+    int renderUnits = WORK_UNIT_RENDER_END - WORK_UNIT_RENDER_START;
+    return WORK_UNIT_RENDER_START + Math.min(renderUnits, renderUnits * pParsedFiles / pFileCount);
+  }
+
+  /**
+   * opens the documentation server inside the IDE, that serves the rendered documentation on a free port.
+   * If the project already has a running server for this documentation, that server is reused.
+   *
+   * @param pHandle        handle for progress
+   * @param pProjectPath   path of the project
+   * @param pDocumentation directory of the rendered documentation
+   * @return the running server
+   * @throws IOException if the server could not be started
+   */
+  @VisibleForTesting
+  @NonNull
+  protected DocumentationServer executeHttpServer(@NonNull ProgressHandle pHandle, @NonNull String pProjectPath, @NonNull Path pDocumentation)
+      throws IOException
+  {
+    pHandle.progress("Opening HTTP-Server", WORK_UNIT_RENDER_END);
+    return DocumentationServerRegistry.getInstance().getOrStart(pProjectPath, pDocumentation);
+  }
+
+  /**
+   * opens the documentation server for the given documentations. A single documentation is served directly, several documentations are served
+   * below a start page that links all of them.
    *
    * @param pHandle         handle for progress
-   * @param pNodeJsEnv      environment
-   * @param pNodeJsExecutor executor
-   * @param pJSDocPath      path
-   * @param pPort           port
-   * @throws IOException if an error occurred
+   * @param pDocumentations rendered documentations of the projects
+   * @return the running server
+   * @throws IOException if the server could not be started
    */
   @VisibleForTesting
-  protected void executeHttpServer(@NonNull ProgressHandle pHandle, @NonNull INodeJSEnvironment pNodeJsEnv, @NonNull INodeJSExecutor pNodeJsExecutor, @NonNull String pJSDocPath, int pPort) throws IOException
+  @NonNull
+  protected DocumentationServer executeHttpServer(@NonNull ProgressHandle pHandle, @NonNull Map<Project, Path> pDocumentations) throws IOException
   {
-    pHandle.progress("Opening HTTP-Server", 16);
-    try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream())
+    if (pDocumentations.size() == 1)
     {
-      //opening a local server to view the htmls with a random port
-      String result = String.valueOf(pNodeJsExecutor.executeAsync(pNodeJsEnv, INodeJSExecBase.node(), outputStream, null, null,
-                                                                  pNodeJsEnv.resolveExecBase(INodeJSExecBase.module("http-server", "bin/http-server")).getAbsolutePath(), pJSDocPath + "/docs/documentations", "-p", "" + pPort));
-      LOGGER.info(result);
+      Map.Entry<Project, Path> documentation = pDocumentations.entrySet().iterator().next();
+      return executeHttpServer(pHandle, documentation.getKey().getProjectDirectory().getPath(), documentation.getValue());
     }
+
+    pHandle.progress("Opening HTTP-Server");
+    DocumentationIndex index = new DocumentationIndex();
+    pDocumentations.forEach((pProject, pDocumentation) -> index.add(pProject.getProjectDirectory().getName(), pDocumentation));
+    Path root = index.write(Places.getCacheSubdirectory("help/index").toPath());
+    //the selection of projects is the key, so selecting the same projects again reuses the server
+    String key = pDocumentations.keySet().stream()
+        .map(pProject -> pProject.getProjectDirectory().getPath())
+        .sorted()
+        .collect(Collectors.joining(File.pathSeparator));
+    return DocumentationServerRegistry.getInstance().getOrStart(key, root, index.getMounts());
   }
 
   /**
-   * Get the NodeJS Environemnt for the given project
+   * Get the NodeJS Environemnt for the given project. The environments of the project are only subscribed once, see {@link NodeJSEnvironmentCache}.
    *
    * @param pProject project that should be used
    * @return returns the NodeJS Environment of the project
@@ -403,17 +1084,18 @@ public class HelpActionShowDocumentation extends NodeAction
     if (pProject == null)
       return null;
 
-    Optional<INodeJSProvider> nodeJSProvider = INodeJSProvider.findInstance(pProject);
-
-    if (!nodeJSProvider.isPresent())
-      return null;
-
-    Observable<Optional<INodeJSEnvironment>> nodeJSEnvironment = nodeJSProvider.get().current();
+    return NodeJSEnvironmentCache.getInstance().get(pProject, NODEJS_ENVIRONMENT_TIMEOUT_MILLIS);
+  }
 
-    if (Boolean.TRUE.equals(nodeJSEnvironment.isEmpty().blockingGet()))
-      return null;
-    else
-      return nodeJSEnvironment.blockingFirst().orElse(null);
+  /**
+   * Forgets the verifications of the toolchain and of the jdito-types of a project, e.g. because the NodeJS environment of the project changed
+   *
+   * @param pProjectPath path of the project
+   */
+  static void invalidateVerifications(@NonNull String pProjectPath)
+  {
+    VerificationCache.getInstance().invalidate(TOOLCHAIN_VERIFICATION_KEY);
+    VerificationCache.getInstance().invalidate(JDITO_TYPES_VERIFICATION_KEY + pProjectPath);
   }
 
   /**
@@ -435,10 +1117,12 @@ public class HelpActionShowDocumentation extends NodeAction
   private class OpenBrowser implements ActionListener
   {
     private final int port;
+    private final String link;
 
-    private OpenBrowser(int pPort)
+    private OpenBrowser(int pPort, @Nullable String pLink)
     {
       port = pPort;
+      link = pLink;
     }
 
     @Override
@@ -446,7 +1130,7 @@ public class HelpActionShowDocumentation extends NodeAction
     {
       try
       {
-        openBrowserWithURI(port);
+        openBrowserWithURI(port, link);
       }
       catch (Exception pException)
       {
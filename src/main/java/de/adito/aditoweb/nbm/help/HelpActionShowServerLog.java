@@ -0,0 +1,42 @@
+package de.adito.aditoweb.nbm.help;
+
+import org.openide.awt.*;
+import org.openide.util.NbBundle;
+import org.openide.windows.WindowManager;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.nio.file.Path;
+
+/**
+ * Shows the {@link ServerLog}, i.e. the requests of the documentation servers and the output of the jsdoc worker
+ */
+@NbBundle.Messages("ACTION_showServerLog_displayName=Documentation Server Log")
+@ActionID(category = "Help", id = "de.adito.aditoweb.nbm.help.HelpActionShowServerLog")
+@ActionRegistration(displayName = "#ACTION_showServerLog_displayName")
+@ActionReference(path = "Menu/Help", position = 1452)
+public class HelpActionShowServerLog implements ActionListener
+{
+  private static final String TITLE = "Documentation Server Log";
+
+  @Override
+  public void actionPerformed(ActionEvent pEvent)
+  {
+    ServerLog log = ServerLog.getInstance();
+    JTextArea textArea = new JTextArea(String.join("\n", log.getLines()));
+    textArea.setEditable(false);
+    textArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, textArea.getFont().getSize()));
+    //the most recent lines are shown first
+    textArea.setCaretPosition(textArea.getDocument().getLength());
+    JScrollPane scrollPane = new JScrollPane(textArea);
+    scrollPane.setPreferredSize(new Dimension(800, 420));
+
+    JPanel panel = new JPanel(new BorderLayout(0, 8));
+    panel.add(scrollPane, BorderLayout.CENTER);
+    Path directory = log.getDirectory();
+    panel.add(new JLabel(directory != null ? "Log files: " + directory : "Only the most recent lines are kept in memory"), BorderLayout.SOUTH);
+
+    JOptionPane.showMessageDialog(WindowManager.getDefault().getMainWindow(), panel, TITLE, JOptionPane.PLAIN_MESSAGE);
+  }
+}
@@ -0,0 +1,18 @@
+package de.adito.aditoweb.nbm.help;
+
+import org.openide.modules.OnStart;
+
+/**
+ * Starts the background services of the help module, when the module is loaded
+ */
+@OnStart
+public class HelpModuleStart implements Runnable
+{
+  @Override
+  public void run()
+  {
+    ProjectSelectionCache.getInstance().start();
+    NodeJSEnvironmentCache.getInstance().start();
+    DocumentationPrerenderer.getInstance().start();
+  }
+}
@@ -0,0 +1,20 @@
+package de.adito.aditoweb.nbm.help;
+
+import org.openide.modules.OnStop;
+
+/**
+ * Releases everything the help module started, when the module is unloaded or the IDE exits
+ */
+@OnStop
+public class HelpModuleStop implements Runnable
+{
+  @Override
+  public void run()
+  {
+    DocumentationPrerenderer.getInstance().stop();
+    ProjectSelectionCache.getInstance().stop();
+    NodeJSEnvironmentCache.getInstance().stop();
+    DocumentationServerRegistry.getInstance().closeAll();
+    JSDocWorker.stop();
+  }
+}
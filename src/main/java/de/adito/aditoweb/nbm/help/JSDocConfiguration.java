@@ -0,0 +1,291 @@
+package de.adito.aditoweb.nbm.help;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.gson.*;
+import com.google.gson.stream.JsonWriter;
+import io.reactivex.rxjava3.annotations.Nullable;
+import lombok.NonNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.*;
+
+/**
+ * Configuration of jsdoc, written as "jsdoc.json". The template of this module is parsed only once, every configuration starts as a copy of it.
+ * A project can override parts of the template with a "jsdoc.override.json" in its directory, objects are merged and all other values replaced.
+ * The values the rendering depends on (sources, plugins, template and destination) are set by name afterwards, so they cannot be overridden.
+ * Keys this class does not know, e.g. options of the theme, are kept as they are.
+ */
+final class JSDocConfiguration
+{
+  static final String FILE_NAME = "jsdoc.json";
+  static final String PROJECT_OVERRIDES_FILE_NAME = "jsdoc.override.json";
+  static final String TEMPLATE_RESOURCE = "de/adito/aditoweb/nbm/help/jsdoc.json";
+  private static final Gson GSON = new Gson();
+  private static final String INDENT = "    ";
+
+  private final JsonObject root;
+
+  private JSDocConfiguration(@NonNull JsonObject pRoot)
+  {
+    root = pRoot;
+  }
+
+  /**
+   * @return a new configuration with the content of the template of this module
+   */
+  @NonNull
+  static JSDocConfiguration fromTemplate()
+  {
+    return new JSDocConfiguration(Holder.TEMPLATE.deepCopy());
+  }
+
+  /**
+   * @param pJson content of a jsdoc.json
+   * @return the configuration with the given content
+   * @throws IOException if the content is not a json object
+   */
+  @VisibleForTesting
+  @NonNull
+  static JSDocConfiguration parse(@NonNull String pJson) throws IOException
+  {
+    return new JSDocConfiguration(parseObject(pJson, "jsdoc configuration"));
+  }
+
+  /**
+   * @param pProjectPath path of the project
+   * @return the content of the override file of the project or null, if the project does not have one
+   * @throws IOException if the file could not be read
+   */
+  @Nullable
+  static String readProjectOverrides(@NonNull String pProjectPath) throws IOException
+  {
+    Path file = Paths.get(pProjectPath, PROJECT_OVERRIDES_FILE_NAME);
+    return Files.isRegularFile(file) ? Files.readString(file, StandardCharsets.UTF_8) : null;
+  }
+
+  /**
+   * Merges the given overrides into this configuration. Objects are merged recursively, all other values (including arrays) are replaced and
+   * a null value removes the key.
+   *
+   * @param pOverrides content of an override file, nothing is merged if it is null
+   * @return this configuration
+   * @throws IOException if the overrides are not a json object
+   */
+  @NonNull
+  JSDocConfiguration merge(@Nullable String pOverrides) throws IOException
+  {
+    if (pOverrides != null && !pOverrides.isBlank())
+      merge(root, parseObject(pOverrides, PROJECT_OVERRIDES_FILE_NAME));
+    return this;
+  }
+
+  /**
+   * @param pSources files and directories jsdoc should parse
+   * @return this configuration
+   */
+  @NonNull
+  JSDocConfiguration setSources(@NonNull String... pSources)
+  {
+    getObject(root, "source").add("include", GSON.toJsonTree(pSources));
+    return this;
+  }
+
+  /**
+   * Sets the path of a plugin. The plugin is identified by its name, e.g. "better-docs/category" replaces "node_modules/better-docs/category".
+   * A plugin that is not configured yet, is added.
+   *
+   * @param pName name of the plugin
+   * @param pPath path jsdoc should load the plugin from
+   * @return this configuration
+   */
+  @NonNull
+  JSDocConfiguration setPlugin(@NonNull String pName, @NonNull String pPath)
+  {
+    JsonArray plugins = root.has("plugins") && root.get("plugins").isJsonArray() ? root.getAsJsonArray("plugins") : new JsonArray();
+    root.add("plugins", plugins);
+    for (int i = 0; i < plugins.size(); i++)
+    {
+      String plugin = plugins.get(i).isJsonPrimitive() ? plugins.get(i).getAsString() : "";
+      if (plugin.equals(pName) || plugin.endsWith("/" + pName))
+      {
+        plugins.set(i, new JsonPrimitive(pPath));
+        return this;
+      }
+    }
+    plugins.add(pPath);
+    return this;
+  }
+
+  /**
+   * @param pTemplate path of the template jsdoc should render with
+   * @return this configuration
+   */
+  @NonNull
+  JSDocConfiguration setTemplate(@NonNull String pTemplate)
+  {
+    getObject(root, "opts").addProperty("template", pTemplate);
+    return this;
+  }
+
+  /**
+   * @param pDestination directory jsdoc should render into
+   * @return this configuration
+   */
+  @NonNull
+  JSDocConfiguration setDestination(@NonNull Path pDestination)
+  {
+    getObject(root, "opts").addProperty("destination", pDestination.toString().replace('\\', '/') + "/");
+    return this;
+  }
+
+  /**
+   * @param pName  name of the option of the theme
+   * @param pValue value of the option
+   * @return this configuration
+   */
+  @NonNull
+  JSDocConfiguration setThemeOption(@NonNull String pName, @NonNull String pValue)
+  {
+    getObject(getObject(root, "opts"), "theme_opts").addProperty(pName, pValue);
+    return this;
+  }
+
+  /**
+   * @return the files and directories jsdoc parses
+   */
+  @NonNull
+  List<String> getSources()
+  {
+    return getStrings(getObject(root, "source").get("include"));
+  }
+
+  /**
+   * @return the plugins jsdoc loads
+   */
+  @NonNull
+  List<String> getPlugins()
+  {
+    return getStrings(root.get("plugins"));
+  }
+
+  /**
+   * @param pName name of the option of the theme
+   * @return the value of the option or null, if it is not set
+   */
+  @Nullable
+  String getThemeOption(@NonNull String pName)
+  {
+    JsonElement value = getObject(getObject(root, "opts"), "theme_opts").get(pName);
+    return value != null && value.isJsonPrimitive() ? value.getAsString() : null;
+  }
+
+  /**
+   * @return the configuration as it is written to the jsdoc.json
+   */
+  @NonNull
+  byte[] toBytes()
+  {
+    StringWriter writer = new StringWriter();
+    JsonWriter jsonWriter = new JsonWriter(writer);
+    jsonWriter.setIndent(INDENT);
+    GSON.toJson(root, jsonWriter);
+    return writer.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Writes the configuration into the given file. Every rendering writes its configuration into its own directory, so nobody else reads the file
+   * while it is written.
+   *
+   * @param pFile jsdoc.json
+   * @throws IOException if the file could not be written
+   */
+  void write(@NonNull Path pFile) throws IOException
+  {
+    Files.createDirectories(pFile.toAbsolutePath().getParent());
+    Files.write(pFile, toBytes());
+  }
+
+  /**
+   * Merges the overrides into the target, see {@link #merge(String)}
+   */
+  private static void merge(@NonNull JsonObject pTarget, @NonNull JsonObject pOverrides)
+  {
+    for (Map.Entry<String, JsonElement> override : pOverrides.entrySet())
+    {
+      JsonElement value = override.getValue();
+      JsonElement current = pTarget.get(override.getKey());
+      if (value.isJsonNull())
+        pTarget.remove(override.getKey());
+      else if (value.isJsonObject() && current != null && current.isJsonObject())
+        merge(current.getAsJsonObject(), value.getAsJsonObject());
+      else
+        pTarget.add(override.getKey(), value.deepCopy());
+    }
+  }
+
+  /**
+   * @return the object with the given name, it is created if it does not exist or is not an object
+   */
+  @NonNull
+  private static JsonObject getObject(@NonNull JsonObject pParent, @NonNull String pName)
+  {
+    JsonElement element = pParent.get(pName);
+    if (element != null && element.isJsonObject())
+      return element.getAsJsonObject();
+    JsonObject object = new JsonObject();
+    pParent.add(pName, object);
+    return object;
+  }
+
+  @NonNull
+  private static List<String> getStrings(@Nullable JsonElement pArray)
+  {
+    if (pArray == null || !pArray.isJsonArray())
+      return List.of();
+    return StreamSupport.stream(pArray.getAsJsonArray().spliterator(), false)
+        .filter(JsonElement::isJsonPrimitive)
+        .map(JsonElement::getAsString)
+        .collect(Collectors.toList());
+  }
+
+  @NonNull
+  private static JsonObject parseObject(@NonNull String pJson, @NonNull String pDescription) throws IOException
+  {
+    try
+    {
+      JsonElement element = JsonParser.parseString(pJson);
+      if (!element.isJsonObject())
+        throw new IOException("the " + pDescription + " is not a json object");
+      return element.getAsJsonObject();
+    }
+    catch (JsonParseException pE)
+    {
+      throw new IOException("the " + pDescription + " is not valid json", pE);
+    }
+  }
+
+  /**
+   * Lazy holder, so the template is parsed once when the first configuration is created
+   */
+  private static class Holder
+  {
+    private static final JsonObject TEMPLATE = readTemplate();
+
+    @NonNull
+    private static JsonObject readTemplate()
+    {
+      try (InputStream input = Objects.requireNonNull(JSDocConfiguration.class.getClassLoader().getResourceAsStream(TEMPLATE_RESOURCE)))
+      {
+        return parseObject(new String(input.readAllBytes(), StandardCharsets.UTF_8), "jsdoc template");
+      }
+      catch (IOException pE)
+      {
+        // the template is part of this module
+        throw new UncheckedIOException(pE);
+      }
+    }
+  }
+}
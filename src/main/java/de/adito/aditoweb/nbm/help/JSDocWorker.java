@@ -0,0 +1,363 @@
+package de.adito.aditoweb.nbm.help;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.gson.*;
+import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.*;
+import io.reactivex.rxjava3.annotations.Nullable;
+import lombok.NonNull;
+import org.openide.modules.Places;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.logging.*;
+
+/**
+ * Long-lived NodeJS process that keeps jsdoc, its plugins and the template loaded, so a rendering does not pay for the start of NodeJS and for
+ * loading the toolchain every time. The worker is optional and has to be enabled with the system property {@value #ENABLED_PROPERTY}.
+ * It renders one documentation at a time. If it is busy, not available or dies, the caller falls back to a one-shot jsdoc process.
+ */
+class JSDocWorker implements Closeable
+{
+  private static final Logger LOGGER = Logger.getLogger(JSDocWorker.class.getName());
+  private static final String ENABLED_PROPERTY = "de.adito.aditoweb.nbm.help.jsdocWorker";
+  private static final String SCRIPT_RESOURCE = "de/adito/aditoweb/nbm/help/jsdoc-worker.js";
+  private static final String DONE_MARKER = "@@jsdoc-worker:done:";
+
+  private static JSDocWorker instance;
+  // a toolchain that the worker failed with is rendered with one-shot processes, until the toolchain changes
+  private static String failedToolchain;
+
+  private final String toolchain;
+  private final RequestStream requests = new RequestStream();
+  private final ReentrantLock renderLock = new ReentrantLock();
+  private final AtomicInteger requestIds = new AtomicInteger();
+  private final StreamingExecution.StartedProcess process;
+  private volatile Consumer<String> lineConsumer;
+  private volatile int currentRequestId;
+  private volatile CompletableFuture<Integer> currentRequest;
+
+  /**
+   * Starts the NodeJS process of a worker
+   *
+   * @param pNodeJsEnvironment environment for NodeJS
+   * @param pExecutor          executor for NodeJS
+   * @param pToolchain         fingerprint of the toolchain
+   * @param pScript            file of the worker script
+   * @param pJSDocDirectory    directory of the jsdoc module
+   * @throws IOException if the process could not be started
+   */
+  @VisibleForTesting
+  JSDocWorker(@NonNull INodeJSEnvironment pNodeJsEnvironment, @NonNull INodeJSExecutor pExecutor, @NonNull String pToolchain,
+              @NonNull String pScript, @NonNull String pJSDocDirectory) throws IOException
+  {
+    toolchain = pToolchain;
+    process = StreamingExecution.start(() -> pExecutor.executeAsync(pNodeJsEnvironment, INodeJSExecBase.node(), new LineOutputStream(this::onOutput),
+                                                                    new LineOutputStream(this::onOutput), requests, pScript, pJSDocDirectory),
+                                       new String[]{pScript, pJSDocDirectory});
+    process.getFuture().whenComplete((pExitCode, pError) -> {
+      CompletableFuture<Integer> request = currentRequest;
+      if (request != null)
+        request.completeExceptionally(new IOException("jsdoc worker exited with code " + pExitCode, pError));
+    });
+  }
+
+  /**
+   * @return true, if the documentation should be rendered with the worker
+   */
+  static boolean isEnabled()
+  {
+    return Boolean.getBoolean(ENABLED_PROPERTY);
+  }
+
+  /**
+   * Renders a documentation with the worker of the given toolchain. The worker is started, if there is none for the toolchain yet.
+   *
+   * @param pNodeJsEnvironment environment for NodeJS
+   * @param pExecutor          executor for NodeJS
+   * @param pToolchain         fingerprint of the toolchain, the worker is restarted when it changes
+   * @param pJSDocDirectory    directory of the jsdoc module
+   * @param pTimeoutMillis     maximum time the rendering may take
+   * @param pLineConsumer      consumer for every line of the output of jsdoc
+   * @param pArgs              command line arguments for jsdoc
+   * @return the exit code of jsdoc or null, if the worker is busy or not available. The documentation has to be rendered with a one-shot process then.
+   * @throws InterruptedException if the thread was interrupted, the worker was killed then
+   * @throws TimeoutException     if the rendering exceeded the timeout, the worker was killed then
+   */
+  @Nullable
+  static Integer render(@NonNull INodeJSEnvironment pNodeJsEnvironment, @NonNull INodeJSExecutor pExecutor, @NonNull String pToolchain,
+                        @NonNull String pJSDocDirectory, long pTimeoutMillis, @NonNull Consumer<String> pLineConsumer, @NonNull String... pArgs)
+      throws InterruptedException, TimeoutException
+  {
+    JSDocWorker worker;
+    try
+    {
+      worker = obtain(pNodeJsEnvironment, pExecutor, pToolchain, pJSDocDirectory);
+    }
+    catch (IOException pE)
+    {
+      LOGGER.log(Level.INFO, "could not start the jsdoc worker", pE);
+      failed(pToolchain, null);
+      return null;
+    }
+    if (worker == null || !worker.renderLock.tryLock())
+      return null;
+
+    try
+    {
+      return worker.render(pTimeoutMillis, pLineConsumer, pArgs);
+    }
+    catch (IOException pE)
+    {
+      LOGGER.log(Level.INFO, "jsdoc worker failed, falling back to a jsdoc process per rendering", pE);
+      failed(pToolchain, worker);
+      return null;
+    }
+    finally
+    {
+      worker.renderLock.unlock();
+    }
+  }
+
+  /**
+   * Stops the worker, if there is one
+   */
+  static synchronized void stop()
+  {
+    if (instance != null)
+    {
+      instance.close();
+      instance = null;
+    }
+  }
+
+  /**
+   * @return the running worker for the given toolchain or null, if the worker failed with this toolchain
+   */
+  @Nullable
+  private static synchronized JSDocWorker obtain(@NonNull INodeJSEnvironment pNodeJsEnvironment, @NonNull INodeJSExecutor pExecutor,
+                                                 @NonNull String pToolchain, @NonNull String pJSDocDirectory) throws IOException
+  {
+    if (pToolchain.equals(failedToolchain))
+      return null;
+    if (instance != null && instance.isRunning() && instance.toolchain.equals(pToolchain))
+      return instance;
+
+    stop();
+    instance = new JSDocWorker(pNodeJsEnvironment, pExecutor, pToolchain, writeScript().toString(), pJSDocDirectory);
+    LOGGER.info("started jsdoc worker");
+    return instance;
+  }
+
+  private static synchronized void failed(@NonNull String pToolchain, @Nullable JSDocWorker pWorker)
+  {
+    failedToolchain = pToolchain;
+    if (pWorker != null && pWorker == instance)
+      stop();
+  }
+
+  /**
+   * NodeJS can only execute a script from a file, so the script is copied from the module into the cache directory
+   *
+   * @return the file of the script
+   */
+  @NonNull
+  private static Path writeScript() throws IOException
+  {
+    Path scriptFile = Places.getCacheSubdirectory("help").toPath().resolve("jsdoc-worker.js");
+    try (InputStream input = Objects.requireNonNull(JSDocWorker.class.getClassLoader().getResourceAsStream(SCRIPT_RESOURCE)))
+    {
+      Files.copy(input, scriptFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+    return scriptFile;
+  }
+
+  /**
+   * @return true, if the NodeJS process of the worker is still running
+   */
+  private boolean isRunning()
+  {
+    return !process.getFuture().isDone();
+  }
+
+  /**
+   * Sends a render request to the worker and waits for its end
+   *
+   * @param pTimeoutMillis maximum time the rendering may take
+   * @param pLineConsumer  consumer for every line of the output of jsdoc
+   * @param pArgs          command line arguments for jsdoc
+   * @return the exit code of jsdoc
+   * @throws IOException          if the worker is not running or exited during the rendering
+   * @throws InterruptedException if the thread was interrupted, the worker was killed then
+   * @throws TimeoutException     if the rendering exceeded the timeout, the worker was killed then
+   */
+  @VisibleForTesting
+  int render(long pTimeoutMillis, @NonNull Consumer<String> pLineConsumer, @NonNull String... pArgs)
+      throws IOException, InterruptedException, TimeoutException
+  {
+    CompletableFuture<Integer> request = new CompletableFuture<>();
+    int requestId = requestIds.incrementAndGet();
+    lineConsumer = pLineConsumer;
+    currentRequestId = requestId;
+    currentRequest = request;
+    if (!isRunning())
+      throw new IOException("jsdoc worker is not running");
+
+    try
+    {
+      requests.send(createRequest(requestId, pArgs));
+      return request.get(pTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+    catch (TimeoutException | InterruptedException pE)
+    {
+      // the state of jsdoc is unknown after an aborted rendering, so the worker can not be used anymore
+      synchronized (JSDocWorker.class)
+      {
+        if (instance == this)
+          instance = null;
+      }
+      close();
+      throw pE;
+    }
+    catch (ExecutionException pE)
+    {
+      throw new IOException(pE.getCause());
+    }
+    finally
+    {
+      currentRequest = null;
+      lineConsumer = null;
+    }
+  }
+
+  /**
+   * @param pRequestId id of the request
+   * @param pArgs      command line arguments for jsdoc
+   * @return the request as single line of json
+   */
+  @VisibleForTesting
+  @NonNull
+  static String createRequest(int pRequestId, @NonNull String... pArgs)
+  {
+    JsonObject request = new JsonObject();
+    request.addProperty("id", pRequestId);
+    JsonArray args = new JsonArray();
+    Arrays.stream(pArgs).forEach(args::add);
+    request.add("args", args);
+    return new Gson().toJson(request);
+  }
+
+  /**
+   * Handles a line of the output of the worker. The end of a request is marked by a line "@@jsdoc-worker:done:id:exitCode",
+   * every other line is output of jsdoc.
+   *
+   * @param pLine line of the output
+   */
+  private void onOutput(@NonNull String pLine)
+  {
+    if (pLine.startsWith(DONE_MARKER))
+    {
+      String[] result = pLine.substring(DONE_MARKER.length()).split(":");
+      CompletableFuture<Integer> request = currentRequest;
+      if (request != null && result.length == 2 && String.valueOf(currentRequestId).equals(result[0]))
+        request.complete(Integer.parseInt(result[1].trim()));
+      return;
+    }
+
+    //output between two renderings is kept in the bounded log, the worker runs for the whole session
+    Consumer<String> consumer = lineConsumer;
+    if (consumer != null)
+      consumer.accept(pLine);
+    else
+      ServerLog.getInstance().log("jsdoc worker", pLine);
+  }
+
+  /**
+   * Stops the worker. Closing its input lets an idle worker exit, a busy one is killed.
+   */
+  @Override
+  public void close()
+  {
+    requests.close();
+    if (!process.getFuture().isDone())
+      process.destroy();
+    LOGGER.info("stopped jsdoc worker");
+  }
+
+  /**
+   * Standard input of the worker. The requests are queued, because the executor reads the input on its own thread.
+   */
+  private static class RequestStream extends InputStream
+  {
+    private static final byte[] END = new byte[0];
+
+    private final BlockingQueue<byte[]> queue = new LinkedBlockingQueue<>();
+    private byte[] current = new byte[0];
+    private int position;
+    private boolean closed;
+
+    /**
+     * @param pRequest request that is sent as one line
+     */
+    void send(@NonNull String pRequest)
+    {
+      queue.add((pRequest + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public synchronized int read() throws IOException
+    {
+      if (!fill())
+        return -1;
+      return current[position++] & 0xFF;
+    }
+
+    @Override
+    public synchronized int read(@NonNull byte[] pBytes, int pOffset, int pLength) throws IOException
+    {
+      if (pLength == 0)
+        return 0;
+      if (!fill())
+        return -1;
+      int length = Math.min(pLength, current.length - position);
+      System.arraycopy(current, position, pBytes, pOffset, length);
+      position += length;
+      return length;
+    }
+
+    @Override
+    public void close()
+    {
+      queue.add(END);
+    }
+
+    /**
+     * Waits for the next request, if the current one was read completely
+     *
+     * @return false, if the stream was closed
+     */
+    private boolean fill() throws IOException
+    {
+      while (!closed && position >= current.length)
+      {
+        try
+        {
+          current = queue.take();
+          position = 0;
+          closed = current == END;
+        }
+        catch (InterruptedException pE)
+        {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException();
+        }
+      }
+      return !closed;
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package de.adito.aditoweb.nbm.help;
+
+import lombok.NonNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Stream that splits the output of a process into lines and passes every complete line to a consumer, while the process is still running
+ */
+class LineOutputStream extends OutputStream
+{
+  private final Consumer<String> lineConsumer;
+  private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+
+  /**
+   * @param pLineConsumer consumer for every line, without the line separator
+   */
+  LineOutputStream(@NonNull Consumer<String> pLineConsumer)
+  {
+    lineConsumer = pLineConsumer;
+  }
+
+  @Override
+  public synchronized void write(int pByte)
+  {
+    if (pByte == '\n')
+      flushLine();
+    else if (pByte != '\r')
+      line.write(pByte);
+  }
+
+  @Override
+  public synchronized void write(@NonNull byte[] pBytes, int pOffset, int pLength)
+  {
+    int start = pOffset;
+    int end = pOffset + pLength;
+    for (int i = pOffset; i < end; i++)
+    {
+      if (pBytes[i] == '\n' || pBytes[i] == '\r')
+      {
+        line.write(pBytes, start, i - start);
+        if (pBytes[i] == '\n')
+          flushLine();
+        start = i + 1;
+      }
+    }
+    line.write(pBytes, start, end - start);
+  }
+
+  /**
+   * Passes the last line to the consumer, even if it is not terminated by a line separator
+   */
+  @Override
+  public synchronized void close()
+  {
+    if (line.size() > 0)
+      flushLine();
+  }
+
+  private void flushLine()
+  {
+    String completeLine = new String(line.toByteArray(), StandardCharsets.UTF_8);
+    line.reset();
+    lineConsumer.accept(completeLine);
+  }
+}
@@ -0,0 +1,87 @@
+package de.adito.aditoweb.nbm.help;
+
+import lombok.NonNull;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Executes scripts with a NodeJS executable of the local machine. It replaces the NodeJS environment of the IDE, where the IDE is not running,
+ * e.g. in the {@link DocumentationCli} on a build machine.
+ */
+final class LocalNode
+{
+  private final String executable;
+
+  /**
+   * @param pExecutable path of the node executable or just "node", if it is on the path
+   */
+  LocalNode(@NonNull String pExecutable)
+  {
+    executable = pExecutable;
+  }
+
+  /**
+   * Executes a script and streams its output line by line. The error output is merged into the output.
+   * If the timeout elapses or the calling thread is interrupted, the process and all of its children are killed.
+   *
+   * @param pTimeoutMillis timeout of the process in milliseconds
+   * @param pLineConsumer  consumer for every line of the output
+   * @param pArgs          script and its arguments
+   * @return the exit code of the process
+   * @throws IOException          if the process could not be started
+   * @throws InterruptedException if the calling thread was interrupted
+   * @throws TimeoutException     if the process did not finish in time
+   */
+  int execute(long pTimeoutMillis, @NonNull Consumer<String> pLineConsumer, @NonNull String... pArgs)
+      throws IOException, InterruptedException, TimeoutException
+  {
+    List<String> command = new ArrayList<>();
+    command.add(executable);
+    command.addAll(Arrays.asList(pArgs));
+    Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+
+    Thread reader = new Thread(() -> readLines(process.getInputStream(), pLineConsumer), "node output");
+    reader.setDaemon(true);
+    reader.start();
+    try
+    {
+      if (!process.waitFor(pTimeoutMillis, TimeUnit.MILLISECONDS))
+      {
+        destroy(process);
+        throw new TimeoutException("node did not finish within " + pTimeoutMillis + " ms: " + String.join(" ", command));
+      }
+      // the remaining output is read, before the exit code is returned
+      reader.join();
+      return process.exitValue();
+    }
+    catch (InterruptedException pE)
+    {
+      destroy(process);
+      throw pE;
+    }
+  }
+
+  private static void readLines(@NonNull InputStream pOutput, @NonNull Consumer<String> pLineConsumer)
+  {
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(pOutput, Charset.defaultCharset())))
+    {
+      String line;
+      while ((line = reader.readLine()) != null)
+        pLineConsumer.accept(line);
+    }
+    catch (IOException pE)
+    {
+      // the stream is closed, when the process is killed
+    }
+  }
+
+  private static void destroy(@NonNull Process pProcess)
+  {
+    pProcess.descendants().forEach(ProcessHandle::destroyForcibly);
+    pProcess.destroyForcibly();
+  }
+}
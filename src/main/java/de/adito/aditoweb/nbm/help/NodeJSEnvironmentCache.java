@@ -0,0 +1,201 @@
+package de.adito.aditoweb.nbm.help;
+
+import com.google.common.annotations.VisibleForTesting;
+import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.*;
+import io.reactivex.rxjava3.annotations.Nullable;
+import io.reactivex.rxjava3.core.Observable;
+import io.reactivex.rxjava3.disposables.Disposable;
+import lombok.NonNull;
+import org.netbeans.api.project.Project;
+import org.netbeans.api.project.ui.OpenProjects;
+
+import java.beans.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.logging.*;
+
+/**
+ * Holds the NodeJS environment of every project. The environments of a project are subscribed once and the latest one is kept, so it can be read
+ * without blocking and without resolving it again for every run of the action. When the environment of a project changes, everything that was
+ * cached for the previous one is invalidated. The subscriptions of closed projects are released.
+ */
+class NodeJSEnvironmentCache implements PropertyChangeListener
+{
+  private static final Logger LOGGER = Logger.getLogger(NodeJSEnvironmentCache.class.getName());
+  private static final NodeJSEnvironmentCache INSTANCE = new NodeJSEnvironmentCache(NodeJSEnvironmentCache::invalidate);
+
+  private final Consumer<Project> changeListener;
+  private final Map<Project, Subscription> subscriptions = new HashMap<>();
+  private boolean started;
+
+  /**
+   * @param pChangeListener is called with the project, whose environment changed after it was resolved
+   */
+  @VisibleForTesting
+  NodeJSEnvironmentCache(@NonNull Consumer<Project> pChangeListener)
+  {
+    changeListener = pChangeListener;
+  }
+
+  /**
+   * @return the environments of the projects of the IDE
+   */
+  @NonNull
+  static NodeJSEnvironmentCache getInstance()
+  {
+    return INSTANCE;
+  }
+
+  /**
+   * Starts to listen to the open projects, the subscriptions of closed projects are released
+   */
+  synchronized void start()
+  {
+    if (started)
+      return;
+    started = true;
+    OpenProjects.getDefault().addPropertyChangeListener(this);
+  }
+
+  /**
+   * Stops to listen to the open projects and releases all subscriptions
+   */
+  synchronized void stop()
+  {
+    if (!started)
+      return;
+    started = false;
+    OpenProjects.getDefault().removePropertyChangeListener(this);
+    retain(List.of());
+  }
+
+  /**
+   * Returns the latest environment of a project. Only the first call for a project waits until the provider published its first environment.
+   *
+   * @param pProject       project
+   * @param pTimeoutMillis maximum time to wait for the first environment
+   * @return the environment or null, if the project has no NodeJS environment
+   */
+  @Nullable
+  INodeJSEnvironment get(@NonNull Project pProject, long pTimeoutMillis)
+  {
+    Subscription subscription = subscribe(pProject);
+    if (subscription == null)
+      return null;
+    try
+    {
+      if (!subscription.firstEnvironment.await(pTimeoutMillis, TimeUnit.MILLISECONDS))
+        LOGGER.info("the NodeJS environment of " + pProject.getProjectDirectory().getPath() + " was not published within " + pTimeoutMillis + " ms");
+    }
+    catch (InterruptedException pE)
+    {
+      Thread.currentThread().interrupt();
+    }
+    return subscription.environment;
+  }
+
+  /**
+   * @param pProject project
+   * @return the latest environment of the project or null, if it has none or it was not published yet. This method never blocks.
+   */
+  @Nullable
+  INodeJSEnvironment getLatest(@NonNull Project pProject)
+  {
+    Subscription subscription = subscribe(pProject);
+    return subscription != null ? subscription.environment : null;
+  }
+
+  @Override
+  public void propertyChange(PropertyChangeEvent pEvent)
+  {
+    if (OpenProjects.PROPERTY_OPEN_PROJECTS.equals(pEvent.getPropertyName()))
+      retain(Arrays.asList(OpenProjects.getDefault().getOpenProjects()));
+  }
+
+  /**
+   * Releases the subscriptions of all projects, that are not open anymore
+   *
+   * @param pOpenProjects all projects that are currently open
+   */
+  @VisibleForTesting
+  synchronized void retain(@NonNull Collection<Project> pOpenProjects)
+  {
+    subscriptions.entrySet().removeIf(pEntry -> {
+      if (pOpenProjects.contains(pEntry.getKey()))
+        return false;
+      pEntry.getValue().dispose();
+      return true;
+    });
+  }
+
+  /**
+   * @param pProject project
+   * @return the subscription to the environments of the project or null, if the project has no NodeJS provider
+   */
+  @Nullable
+  private synchronized Subscription subscribe(@NonNull Project pProject)
+  {
+    Subscription subscription = subscriptions.get(pProject);
+    if (subscription == null)
+    {
+      // a provider, that is added to the project later on, is found by the next call
+      Optional<INodeJSProvider> provider = INodeJSProvider.findInstance(pProject);
+      if (provider == null || provider.isEmpty())
+        return null;
+      subscription = new Subscription(pProject, provider.get().current());
+      subscriptions.put(pProject, subscription);
+    }
+    return subscription;
+  }
+
+  /**
+   * Invalidates everything, that was cached for the previous environment of a project: the verifications of the toolchain and the jdito-types,
+   * the warm jsdoc worker and the pre-rendered documentation
+   *
+   * @param pProject project, whose environment changed
+   */
+  private static void invalidate(@NonNull Project pProject)
+  {
+    LOGGER.info("the NodeJS environment of " + pProject.getProjectDirectory().getPath() + " changed");
+    HelpActionShowDocumentation.invalidateVerifications(pProject.getProjectDirectory().getPath());
+    JSDocWorker.stop();
+    DocumentationPrerenderer.getInstance().environmentChanged(pProject);
+  }
+
+  /**
+   * Subscription to the environments of one project, that keeps the latest one
+   */
+  private class Subscription
+  {
+    private final Project project;
+    private final CountDownLatch firstEnvironment = new CountDownLatch(1);
+    private final Disposable disposable;
+    private volatile INodeJSEnvironment environment;
+
+    private Subscription(@NonNull Project pProject, @NonNull Observable<Optional<INodeJSEnvironment>> pEnvironments)
+    {
+      project = pProject;
+      // an error or the end of the environments must not let anyone wait for the first environment
+      disposable = pEnvironments.subscribe(this::update, pError -> {
+        LOGGER.log(Level.WARNING, "could not resolve the NodeJS environment of " + pProject.getProjectDirectory().getPath(), pError);
+        firstEnvironment.countDown();
+      }, firstEnvironment::countDown);
+    }
+
+    private void update(@NonNull Optional<INodeJSEnvironment> pEnvironment)
+    {
+      INodeJSEnvironment previous = environment;
+      environment = pEnvironment.orElse(null);
+      boolean first = firstEnvironment.getCount() > 0;
+      firstEnvironment.countDown();
+      if (!first && !Objects.equals(previous, environment))
+        changeListener.accept(project);
+    }
+
+    private void dispose()
+    {
+      disposable.dispose();
+    }
+  }
+}
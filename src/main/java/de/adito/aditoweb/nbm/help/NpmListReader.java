@@ -0,0 +1,109 @@
+package de.adito.aditoweb.nbm.help;
+
+import com.google.gson.stream.*;
+import lombok.NonNull;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Reads the installed versions of packages from the output of "npm list --json". The output of a global prefix with many packages is several
+ * megabytes large, so it is streamed: only the top level "dependencies" are walked, every other value is skipped without being parsed into objects,
+ * and reading stops as soon as all wanted packages are found.
+ */
+final class NpmListReader
+{
+  private static final String DEPENDENCIES = "dependencies";
+  private static final String VERSION = "version";
+
+  private NpmListReader()
+  {
+  }
+
+  /**
+   * @param pOutput   output of "npm list --json", lines before the json document (e.g. the execution path) are ignored
+   * @param pPackages names of the packages, without versions
+   * @return the installed version of every given package, that is a top level dependency. The version is empty, if npm does not report one.
+   * Packages that are not installed are not contained.
+   * @throws IOException if the output is not a valid json document
+   */
+  @NonNull
+  static Map<String, String> readVersions(@NonNull String pOutput, @NonNull Set<String> pPackages) throws IOException
+  {
+    Map<String, String> versions = new HashMap<>();
+    int start = findDocumentStart(pOutput);
+    if (start < 0 || pPackages.isEmpty())
+      return versions;
+
+    StringReader input = new StringReader(pOutput);
+    input.skip(start);
+    try (JsonReader reader = new JsonReader(input))
+    {
+      reader.beginObject();
+      while (reader.hasNext())
+      {
+        if (reader.nextName().equals(DEPENDENCIES) && reader.peek() == JsonToken.BEGIN_OBJECT)
+        {
+          readDependencies(reader, pPackages, versions);
+          //nothing after the dependencies is needed
+          return versions;
+        }
+        reader.skipValue();
+      }
+    }
+    return versions;
+  }
+
+  /**
+   * Reads the versions of the wanted packages from the "dependencies" object, the reader is positioned at its start
+   */
+  private static void readDependencies(@NonNull JsonReader pReader, @NonNull Set<String> pPackages, @NonNull Map<String, String> pVersions)
+      throws IOException
+  {
+    pReader.beginObject();
+    while (pReader.hasNext())
+    {
+      String name = pReader.nextName();
+      if (pPackages.contains(name) && pReader.peek() == JsonToken.BEGIN_OBJECT)
+      {
+        pVersions.put(name, readVersion(pReader));
+        if (pVersions.size() == pPackages.size())
+          return;
+      }
+      else
+        pReader.skipValue();
+    }
+  }
+
+  /**
+   * Reads the version of a package. The nested dependencies of the package are skipped.
+   *
+   * @return the version or an empty string, if the package has no version
+   */
+  @NonNull
+  private static String readVersion(@NonNull JsonReader pReader) throws IOException
+  {
+    String version = "";
+    pReader.beginObject();
+    while (pReader.hasNext())
+    {
+      JsonToken token;
+      if (pReader.nextName().equals(VERSION) && ((token = pReader.peek()) == JsonToken.STRING || token == JsonToken.NUMBER))
+        version = pReader.nextString();
+      else
+        pReader.skipValue();
+    }
+    pReader.endObject();
+    return version;
+  }
+
+  /**
+   * @param pOutput output of npm
+   * @return the index of the first line, that starts the json document or -1, if there is no json document
+   */
+  private static int findDocumentStart(@NonNull String pOutput)
+  {
+    int index = pOutput.startsWith("{") ? 0 : pOutput.indexOf("\n{");
+    return index <= 0 ? index : index + 1;
+  }
+}
@@ -0,0 +1,43 @@
+package de.adito.aditoweb.nbm.help;
+
+import org.openide.util.Cancellable;
+
+/**
+ * Cancels the pipeline of the "Show Documentation" action from its progress bar. The thread of the pipeline gets interrupted, so the process that is
+ * currently running is killed by {@link StreamingExecution}. Has to be created on the thread that runs the pipeline.
+ */
+class PipelineCancellation implements Cancellable
+{
+  private final Thread thread = Thread.currentThread();
+  private boolean cancelled;
+  private boolean done;
+
+  @Override
+  public synchronized boolean cancel()
+  {
+    if (done)
+      return false;
+    cancelled = true;
+    thread.interrupt();
+    return true;
+  }
+
+  /**
+   * @return true, if the user cancelled the pipeline
+   */
+  synchronized boolean isCancelled()
+  {
+    return cancelled;
+  }
+
+  /**
+   * Marks the pipeline as finished, so it can not be cancelled anymore. A pending interruption of the thread is cleared, because the thread gets
+   * reused for other actions. Has to be called on the thread that runs the pipeline.
+   */
+  synchronized void done()
+  {
+    done = true;
+    //noinspection ResultOfMethodCallIgnored
+    Thread.interrupted();
+  }
+}
@@ -0,0 +1,241 @@
+package de.adito.aditoweb.nbm.help;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.*;
+import io.reactivex.rxjava3.annotations.Nullable;
+import lombok.NonNull;
+import org.apache.commons.io.FileUtils;
+import org.openide.modules.Places;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.*;
+import java.util.stream.*;
+
+/**
+ * Toolchain (jsdoc, its plugins and the template) that npm installs into a private prefix in the cache directory of the module, instead of the
+ * global npm installation of the user. The prefix is installed from the pinned package.json and its package-lock.json shipped with the
+ * module and named after their hash, so checking the installation only compares the hash and never scans an npm tree.
+ * A new version of the module with another manifest gets its own prefix. Other IDE instances may still run another version of the module, so the
+ * prefixes of other versions are only removed, when they were not used for a long time.
+ * With the system property "de.adito.aditoweb.nbm.help.globalToolchain" the toolchain is installed globally as before.
+ */
+class PrivateToolchain
+{
+  static final String GLOBAL_PROPERTY = "de.adito.aditoweb.nbm.help.globalToolchain";
+  private static final Logger LOGGER = Logger.getLogger(PrivateToolchain.class.getName());
+  private static final String MANIFEST_RESOURCE = "de/adito/aditoweb/nbm/help/toolchain/package.json";
+  private static final String LOCKFILE_RESOURCE = "de/adito/aditoweb/nbm/help/toolchain/package-lock.json";
+  private static final String TEMP_PREFIX = ".tmp-";
+  // written as last file, a directory without it is the leftover of an aborted installation. Its modification time marks the last usage.
+  private static final String COMPLETE_MARKER = ".complete";
+  private static final long MAX_UNUSED_MILLIS = TimeUnit.DAYS.toMillis(30);
+
+  private final Path root;
+  private final ClassLoader classLoader;
+  private String manifestHash;
+
+  @VisibleForTesting
+  PrivateToolchain(@NonNull Path pRoot, @NonNull ClassLoader pClassLoader)
+  {
+    root = pRoot;
+    classLoader = pClassLoader;
+  }
+
+  /**
+   * @return the private toolchain of this module
+   */
+  @NonNull
+  static PrivateToolchain getInstance()
+  {
+    return Holder.INSTANCE;
+  }
+
+  /**
+   * @return true, if the toolchain should be installed into the private prefix instead of the global npm installation
+   */
+  static boolean isEnabled()
+  {
+    return !Boolean.getBoolean(GLOBAL_PROPERTY);
+  }
+
+  /**
+   * @return the directory of the installed toolchain, that contains its "node_modules", or null if the toolchain of the current manifest is not
+   * installed yet
+   * @throws IOException if the manifest could not be read
+   */
+  @Nullable
+  Path getDirectory() throws IOException
+  {
+    Path directory = root.resolve(getManifestHash());
+    Path marker = directory.resolve(COMPLETE_MARKER);
+    if (!Files.isRegularFile(marker))
+      return null;
+    markUsed(marker);
+    return directory;
+  }
+
+  /**
+   * Installs the toolchain into a temporary prefix and moves it to the directory of the manifest hash, when npm succeeded.
+   * The lockfile is installed with "npm ci", so exactly the locked versions (including the transitive dependencies) are installed. Without a
+   * lockfile, i.e. in a development build (a release build fails without it, see maven profile release-toolchain), only the top level dependencies
+   * are pinned by the manifest.
+   *
+   * @param pNpm executes npm with the given arguments
+   * @return the directory of the installed toolchain
+   * @throws IOException          if npm failed or the toolchain could not be moved into place
+   * @throws InterruptedException if the installation was cancelled
+   * @throws TimeoutException     if npm timed out
+   */
+  @NonNull
+  synchronized Path install(@NonNull INpm pNpm) throws IOException, InterruptedException, TimeoutException
+  {
+    Path installed = getDirectory();
+    if (installed != null)
+      return installed;
+
+    Path target = root.resolve(getManifestHash());
+    Files.createDirectories(root);
+    Path tempDirectory = Files.createTempDirectory(root, TEMP_PREFIX);
+    try
+    {
+      boolean locked = copyResource(LOCKFILE_RESOURCE, tempDirectory.resolve("package-lock.json"));
+      if (!copyResource(MANIFEST_RESOURCE, tempDirectory.resolve("package.json")))
+        throw new IOException("the module does not contain the manifest of the toolchain: " + MANIFEST_RESOURCE);
+
+      String prefix = tempDirectory.toAbsolutePath().toString();
+      if (!locked)
+        LOGGER.warning("the module does not contain the lockfile of the toolchain, the transitive dependencies are not pinned: " + LOCKFILE_RESOURCE);
+      int exitCode = pNpm.execute(locked ? "ci" : "install", "--prefix", prefix, "--no-audit", "--no-fund");
+      if (exitCode != 0)
+        throw new IOException("npm exited with code " + exitCode + " while installing the toolchain into " + prefix);
+
+      Files.createFile(tempDirectory.resolve(COMPLETE_MARKER));
+      // an incomplete directory of an aborted installation is replaced
+      FileUtils.deleteQuietly(target.toFile());
+      Files.move(tempDirectory, target, StandardCopyOption.ATOMIC_MOVE);
+      LOGGER.info("installed the toolchain into " + target);
+    }
+    finally
+    {
+      FileUtils.deleteQuietly(tempDirectory.toFile());
+    }
+
+    removeUnusedVersions(target.getFileName().toString());
+    return target;
+  }
+
+  /**
+   * @return the hash of the manifest and the lockfile of the toolchain
+   */
+  @NonNull
+  @VisibleForTesting
+  synchronized String getManifestHash() throws IOException
+  {
+    if (manifestHash == null)
+    {
+      Hasher hasher = Hashing.sha256().newHasher();
+      for (String resource : List.of(MANIFEST_RESOURCE, LOCKFILE_RESOURCE))
+      {
+        try (InputStream input = classLoader.getResourceAsStream(resource))
+        {
+          hasher.putBytes(input == null ? new byte[0] : input.readAllBytes()).putByte((byte) 0);
+        }
+      }
+      manifestHash = hasher.hash().toString();
+    }
+    return manifestHash;
+  }
+
+  /**
+   * @return true, if the resource exists and was copied
+   */
+  private boolean copyResource(@NonNull String pResource, @NonNull Path pTarget) throws IOException
+  {
+    try (InputStream input = classLoader.getResourceAsStream(pResource))
+    {
+      if (input == null)
+        return false;
+      Files.copy(input, pTarget);
+      return true;
+    }
+  }
+
+  /**
+   * Marks the toolchain as used, so no other IDE instance removes it
+   *
+   * @param pMarker marker of the complete installation
+   */
+  private static void markUsed(@NonNull Path pMarker)
+  {
+    try
+    {
+      Files.setLastModifiedTime(pMarker, FileTime.fromMillis(System.currentTimeMillis()));
+    }
+    catch (IOException pE)
+    {
+      LOGGER.log(Level.FINE, "could not mark the toolchain " + pMarker.getParent() + " as used", pE);
+    }
+  }
+
+  /**
+   * Removes the toolchains of other versions of the module, that were not used for a long time. Other IDE instances may still use a toolchain of
+   * another version or install it right now, so recently used toolchains and installations are kept.
+   *
+   * @param pCurrentHash hash of the current manifest
+   */
+  private void removeUnusedVersions(@NonNull String pCurrentHash) throws IOException
+  {
+    long minLastUsed = System.currentTimeMillis() - MAX_UNUSED_MILLIS;
+    List<Path> unused;
+    try (Stream<Path> entries = Files.list(root))
+    {
+      unused = entries.filter(pPath -> !pPath.getFileName().toString().equals(pCurrentHash))
+          .filter(pPath -> getLastUsed(pPath) < minLastUsed)
+          .collect(Collectors.toList());
+    }
+    for (Path other : unused)
+    {
+      LOGGER.info("removing unused toolchain " + other);
+      FileUtils.deleteQuietly(other.toFile());
+    }
+  }
+
+  /**
+   * @param pDirectory directory of a toolchain or of a running installation
+   * @return the last usage of the toolchain, the directory itself counts for an aborted or running installation
+   */
+  private static long getLastUsed(@NonNull Path pDirectory)
+  {
+    File marker = pDirectory.resolve(COMPLETE_MARKER).toFile();
+    return marker.isFile() ? marker.lastModified() : pDirectory.toFile().lastModified();
+  }
+
+  /**
+   * Executes npm
+   */
+  @FunctionalInterface
+  interface INpm
+  {
+    /**
+     * @param pArgs arguments of npm
+     * @return the exit code of npm
+     * @throws IOException          if npm could not be executed
+     * @throws InterruptedException if npm was interrupted
+     * @throws TimeoutException     if npm timed out
+     */
+    int execute(@NonNull String... pArgs) throws IOException, InterruptedException, TimeoutException;
+  }
+
+  /**
+   * Lazy holder, so the cache directory is only resolved when the toolchain is used for the first time
+   */
+  private static class Holder
+  {
+    private static final PrivateToolchain INSTANCE = new PrivateToolchain(Places.getCacheSubdirectory("help/npm-toolchain").toPath(),
+                                                                          PrivateToolchain.class.getClassLoader());
+  }
+}
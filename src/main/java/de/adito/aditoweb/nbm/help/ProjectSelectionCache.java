@@ -0,0 +1,192 @@
+package de.adito.aditoweb.nbm.help;
+
+import com.google.common.annotations.VisibleForTesting;
+import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.*;
+import io.reactivex.rxjava3.annotations.Nullable;
+import lombok.NonNull;
+import org.netbeans.api.project.Project;
+import org.netbeans.api.project.ui.OpenProjects;
+import org.openide.nodes.Node;
+import org.openide.util.*;
+
+import java.beans.*;
+import java.lang.ref.*;
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * Caches what the enablement of the "Show Documentation" action needs, so a change of the selection only costs a map lookup per node instead of
+ * a project query and a lookup of the NodeJS executor: the project of every selected node and, per project, if NodeJS is available.
+ * The availability of a project is invalidated by a listener on the lookup of the project, as soon as its NodeJS executor or provider changes.
+ * Everything is dropped when the open projects change, so a closed project is neither kept in memory nor listened to.
+ */
+class ProjectSelectionCache implements PropertyChangeListener
+{
+  private static final ProjectSelectionCache INSTANCE = new ProjectSelectionCache();
+  // marks a node, that does not belong to a project
+  private static final Reference<Project> NO_PROJECT = new WeakReference<>(null);
+
+  // the nodes are weakly referenced, so nodes that are not shown anymore are not kept in memory
+  private final Map<Node, Reference<Project>> projects = new WeakHashMap<>();
+  private final Map<Project, Availability> availabilities = new WeakHashMap<>();
+  private boolean started;
+
+  @VisibleForTesting
+  ProjectSelectionCache()
+  {
+  }
+
+  /**
+   * @return the cache for the selection of the IDE
+   */
+  @NonNull
+  static ProjectSelectionCache getInstance()
+  {
+    return INSTANCE;
+  }
+
+  /**
+   * Starts to listen to the open projects, the cache is cleared whenever they change
+   */
+  synchronized void start()
+  {
+    if (started)
+      return;
+    started = true;
+    OpenProjects.getDefault().addPropertyChangeListener(this);
+  }
+
+  /**
+   * Stops to listen to the open projects and clears the cache
+   */
+  synchronized void stop()
+  {
+    if (!started)
+      return;
+    started = false;
+    OpenProjects.getDefault().removePropertyChangeListener(this);
+    clear();
+  }
+
+  /**
+   * Returns the project of a node. The project is only queried, if the node was not selected before.
+   *
+   * @param pNode  selected node
+   * @param pQuery queries the project of a node
+   * @return the project of the node or null, if the node does not belong to exactly one project
+   */
+  @Nullable
+  Project getProject(@NonNull Node pNode, @NonNull Function<Node, Project> pQuery)
+  {
+    synchronized (this)
+    {
+      Reference<Project> cached = projects.get(pNode);
+      if (cached == NO_PROJECT || (cached != null && cached.get() != null))
+        return cached.get();
+    }
+
+    Project project = pQuery.apply(pNode);
+    synchronized (this)
+    {
+      projects.put(pNode, project == null ? NO_PROJECT : new WeakReference<>(project));
+    }
+    return project;
+  }
+
+  /**
+   * Returns if NodeJS is available for a project. It is only queried again, if the NodeJS executor or provider of the project changed.
+   *
+   * @param pProject project
+   * @param pQuery   queries if NodeJS is available for a project
+   * @return true, if NodeJS is available
+   */
+  boolean isNodeJSAvailable(@NonNull Project pProject, @NonNull Predicate<Project> pQuery)
+  {
+    Availability availability;
+    synchronized (this)
+    {
+      availability = availabilities.get(pProject);
+      if (availability == null)
+      {
+        Lookup lookup = pProject.getLookup();
+        // without a lookup a change could not be noticed, so nothing is cached
+        if (lookup == null)
+          return pQuery.test(pProject);
+        availability = new Availability(lookup);
+        availabilities.put(pProject, availability);
+      }
+    }
+    return availability.get(pProject, pQuery);
+  }
+
+  @Override
+  public void propertyChange(PropertyChangeEvent pEvent)
+  {
+    if (OpenProjects.PROPERTY_OPEN_PROJECTS.equals(pEvent.getPropertyName()))
+      clear();
+  }
+
+  /**
+   * Drops all cached projects and stops to listen to their lookups
+   */
+  @VisibleForTesting
+  synchronized void clear()
+  {
+    projects.clear();
+    availabilities.values().forEach(Availability::dispose);
+    availabilities.clear();
+  }
+
+  /**
+   * Availability of NodeJS for one project, it is reset by changes of the NodeJS executor or provider in the lookup of the project
+   */
+  private static class Availability implements LookupListener
+  {
+    private final List<Lookup.Result<?>> results;
+    private Boolean available;
+    // counts the changes, so a query that ran concurrently to a change does not store its outdated result
+    private int generation;
+
+    private Availability(@NonNull Lookup pLookup)
+    {
+      results = List.of(pLookup.lookupResult(INodeJSExecutor.class), pLookup.lookupResult(INodeJSProvider.class));
+      for (Lookup.Result<?> result : results)
+      {
+        result.addLookupListener(this);
+        // a result only fires changes after its instances were requested once
+        result.allInstances();
+      }
+    }
+
+    private boolean get(@NonNull Project pProject, @NonNull Predicate<Project> pQuery)
+    {
+      int queriedGeneration;
+      synchronized (this)
+      {
+        if (available != null)
+          return available;
+        queriedGeneration = generation;
+      }
+
+      boolean queried = pQuery.test(pProject);
+      synchronized (this)
+      {
+        if (generation == queriedGeneration)
+          available = queried;
+      }
+      return queried;
+    }
+
+    @Override
+    public synchronized void resultChanged(LookupEvent pEvent)
+    {
+      generation++;
+      available = null;
+    }
+
+    private void dispose()
+    {
+      results.forEach(pResult -> pResult.removeLookupListener(this));
+    }
+  }
+}
@@ -0,0 +1,484 @@
+package de.adito.aditoweb.nbm.help;
+
+import com.google.common.annotations.VisibleForTesting;
+import lombok.NonNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.regex.*;
+import java.util.stream.*;
+
+/**
+ * Inverted index for the search in a rendered documentation. It is built once from the html files after jsdoc rendered them and stored next to
+ * them, so the browser does not have to load and parse the search data of the whole documentation on every page. The index maps every term to
+ * the entries (pages and documented members) that contain it. The terms are sorted, so a query term matches all terms it is a prefix of.
+ * While indexing, every page gets a script that asks the {@link DocumentationServer} for the results instead. The {@link SymbolLinks} are
+ * extracted from the same pages, so every page is only read once.
+ */
+final class SearchIndex
+{
+  /**
+   * Name of the index file in the directory of the documentation
+   */
+  static final String FILE_NAME = "search-index.bin";
+  /**
+   * Name of the search script in the directory of the documentation
+   */
+  static final String SCRIPT_NAME = "docs-search.js";
+  static final String SCRIPT_RESOURCE = "de/adito/aditoweb/nbm/help/" + SCRIPT_NAME;
+
+  private static final int MAGIC = 0x4A445349;
+  private static final int VERSION = 1;
+  private static final int MAX_DESCRIPTION_LENGTH = 200;
+  // the description of a member follows its heading, it is only searched for in the following part of the page
+  private static final int DESCRIPTION_LOOKAHEAD = 4000;
+  private static final Pattern PAGE_HEADING = Pattern.compile("<h1[^>]*>(.*?)</h1>", Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
+  private static final Pattern PAGE_TITLE = Pattern.compile("<title>(.*?)</title>", Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
+  private static final Pattern HEADING = Pattern.compile("<h([1-6])[^>]*\\sid=\"([^\"]+)\"[^>]*>(.*?)</h\\1>", Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
+  private static final Pattern DESCRIPTION = Pattern.compile("<div class=\"description\"[^>]*>(.*?)</div>|<p>(.*?)</p>", Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
+  private static final Pattern TAG = Pattern.compile("<[^>]*>");
+  private static final Pattern TERM_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}_$]+");
+  private static final Pattern CAMEL_CASE = Pattern.compile("(?<=\\p{Ll})(?=\\p{Lu})");
+  private static final Pattern BODY_END = Pattern.compile("</body>", Pattern.CASE_INSENSITIVE);
+
+  private final String[] titles;
+  private final String[] urls;
+  private final String[] descriptions;
+  private final String[] terms;
+  private final int[][] postings;
+
+  private SearchIndex(@NonNull String[] pTitles, @NonNull String[] pUrls, @NonNull String[] pDescriptions, @NonNull String[] pTerms,
+                      @NonNull int[][] pPostings)
+  {
+    titles = pTitles;
+    urls = pUrls;
+    descriptions = pDescriptions;
+    terms = pTerms;
+    postings = pPostings;
+  }
+
+  /**
+   * Indexes all html files of a rendered documentation, adds the search script to every page and writes the index and the {@link SymbolLinks}
+   * next to them
+   *
+   * @param pDocumentation directory of the rendered documentation
+   * @return the index
+   * @throws IOException if a file could not be read or written
+   */
+  @NonNull
+  static SearchIndex create(@NonNull Path pDocumentation) throws IOException
+  {
+    Builder builder = new Builder();
+    SymbolLinks.Builder links = new SymbolLinks.Builder();
+    List<Path> files;
+    try (Stream<Path> walk = Files.walk(pDocumentation))
+    {
+      files = walk.filter(Files::isRegularFile)
+          .filter(pFile -> pFile.getFileName().toString().endsWith(".html"))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+
+    for (Path file : files)
+    {
+      Path relativePath = pDocumentation.relativize(file);
+      String html = Files.readString(file, StandardCharsets.UTF_8);
+      String url = relativePath.toString().replace('\\', '/');
+      index(url, html, builder);
+      SymbolLinks.index(url, html, links);
+      Files.writeString(file, addScript(html, relativePath.getNameCount() - 1), StandardCharsets.UTF_8);
+    }
+
+    try (InputStream input = Objects.requireNonNull(SearchIndex.class.getClassLoader().getResourceAsStream(SCRIPT_RESOURCE)))
+    {
+      Files.copy(input, pDocumentation.resolve(SCRIPT_NAME), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    SearchIndex index = builder.build();
+    try (OutputStream output = Files.newOutputStream(pDocumentation.resolve(FILE_NAME)))
+    {
+      index.write(output);
+    }
+    try (OutputStream output = Files.newOutputStream(pDocumentation.resolve(SymbolLinks.FILE_NAME)))
+    {
+      links.write(output);
+    }
+    return index;
+  }
+
+  /**
+   * Loads the index of a rendered documentation
+   *
+   * @param pDocumentation directory of the rendered documentation
+   * @return the index or an empty index, if the documentation was not indexed
+   * @throws IOException if the index could not be read
+   */
+  @NonNull
+  static SearchIndex load(@NonNull Path pDocumentation) throws IOException
+  {
+    Path file = pDocumentation.resolve(FILE_NAME);
+    if (!Files.isRegularFile(file))
+      return new Builder().build();
+    try (InputStream input = Files.newInputStream(file))
+    {
+      return read(input);
+    }
+  }
+
+  /**
+   * Extracts the entries of a html page: the page itself and every heading with an id, i.e. the documented members
+   *
+   * @param pUrl     url of the page, relative to the documentation
+   * @param pHtml    content of the page
+   * @param pBuilder builder the entries are added to
+   */
+  @VisibleForTesting
+  static void index(@NonNull String pUrl, @NonNull String pHtml, @NonNull Builder pBuilder)
+  {
+    // the heading of the page is the name of the namespace or class, the title also contains the title of the documentation
+    String pageTitle = "";
+    int pageStart = 0;
+    Matcher pageHeading = PAGE_HEADING.matcher(pHtml);
+    Matcher pageTitleTag = PAGE_TITLE.matcher(pHtml);
+    if (pageHeading.find())
+    {
+      pageTitle = toText(pageHeading.group(1));
+      pageStart = pageHeading.end();
+    }
+    else if (pageTitleTag.find())
+      pageTitle = toText(pageTitleTag.group(1));
+    if (pageTitle.isEmpty())
+      pageTitle = pUrl;
+    pBuilder.add(pageTitle, pUrl, getDescription(pHtml, pageStart));
+
+    Matcher heading = HEADING.matcher(pHtml);
+    while (heading.find())
+    {
+      // static and inner members have ids like ".name" or "~name"
+      String name = heading.group(2).replaceFirst("^[.#~]", "");
+      if (name.isEmpty() || "1".equals(heading.group(1)))
+        continue;
+      String signature = toText(heading.group(3));
+      String description = getDescription(pHtml, heading.end());
+      pBuilder.add(pageTitle + "." + name, pUrl + "#" + heading.group(2), description.isEmpty() ? signature : description);
+    }
+  }
+
+  /**
+   * Adds the search script to a page
+   *
+   * @param pHtml  content of the page
+   * @param pDepth number of directories between the page and the root of the documentation
+   * @return the page with the script
+   */
+  @VisibleForTesting
+  @NonNull
+  static String addScript(@NonNull String pHtml, int pDepth)
+  {
+    String script = "<script src=\"" + "../".repeat(pDepth) + SCRIPT_NAME + "\" defer></script>";
+    if (pHtml.contains(script))
+      return pHtml;
+    Matcher bodyEnd = BODY_END.matcher(pHtml);
+    return bodyEnd.find() ? pHtml.substring(0, bodyEnd.start()) + script + pHtml.substring(bodyEnd.start()) : pHtml + script;
+  }
+
+  /**
+   * Searches for entries that contain all terms of the query. A term matches every term of the index that starts with it.
+   * Entries whose title matches the query better come first.
+   *
+   * @param pQuery query, e.g. "neon.openCon"
+   * @param pLimit maximum number of results
+   * @return the matching entries
+   */
+  @NonNull
+  List<Result> search(@NonNull String pQuery, int pLimit)
+  {
+    List<String> queryTerms = tokenize(pQuery, false);
+    if (queryTerms.isEmpty())
+      return List.of();
+
+    BitSet matches = null;
+    for (String queryTerm : queryTerms)
+    {
+      BitSet termMatches = new BitSet(titles.length);
+      for (int i = lowerBound(queryTerm); i < terms.length && terms[i].startsWith(queryTerm); i++)
+        for (int entry : postings[i])
+          termMatches.set(entry);
+      if (matches == null)
+        matches = termMatches;
+      else
+        matches.and(termMatches);
+    }
+
+    String query = pQuery.trim().toLowerCase(Locale.ROOT);
+    return matches.stream()
+        .boxed()
+        .sorted(Comparator.comparingInt((Integer pEntry) -> -getScore(pEntry, query, queryTerms))
+                    .thenComparingInt(pEntry -> titles[pEntry].length())
+                    .thenComparing(pEntry -> titles[pEntry]))
+        .limit(pLimit)
+        .map(pEntry -> new Result(titles[pEntry], urls[pEntry], descriptions[pEntry]))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * @return the number of pages and members in the index
+   */
+  int size()
+  {
+    return titles.length;
+  }
+
+  /**
+   * @param pEntry      index of the entry
+   * @param pQuery      whole query in lower case
+   * @param pQueryTerms terms of the query
+   * @return the relevance of the entry for the query
+   */
+  private int getScore(int pEntry, @NonNull String pQuery, @NonNull List<String> pQueryTerms)
+  {
+    String title = titles[pEntry].toLowerCase(Locale.ROOT);
+    int score = 0;
+    if (title.equals(pQuery))
+      score += 1000;
+    else if (title.endsWith(pQuery) || title.startsWith(pQuery))
+      score += 100;
+    List<String> titleTerms = tokenize(titles[pEntry], true);
+    for (String queryTerm : pQueryTerms)
+    {
+      if (titleTerms.contains(queryTerm))
+        score += 10;
+      else if (titleTerms.stream().anyMatch(pTitleTerm -> pTitleTerm.startsWith(queryTerm)))
+        score += 5;
+    }
+    return score;
+  }
+
+  private int lowerBound(@NonNull String pTerm)
+  {
+    int index = Arrays.binarySearch(terms, pTerm);
+    return index < 0 ? -index - 1 : index;
+  }
+
+  /**
+   * Writes the index in its binary format
+   *
+   * @param pOutputStream stream the index is written to
+   * @throws IOException if the index could not be written
+   */
+  void write(@NonNull OutputStream pOutputStream) throws IOException
+  {
+    DataOutputStream output = new DataOutputStream(new BufferedOutputStream(pOutputStream));
+    output.writeInt(MAGIC);
+    output.writeInt(VERSION);
+    output.writeInt(titles.length);
+    for (int i = 0; i < titles.length; i++)
+    {
+      writeString(output, titles[i]);
+      writeString(output, urls[i]);
+      writeString(output, descriptions[i]);
+    }
+    output.writeInt(terms.length);
+    for (int i = 0; i < terms.length; i++)
+    {
+      writeString(output, terms[i]);
+      output.writeInt(postings[i].length);
+      for (int entry : postings[i])
+        output.writeInt(entry);
+    }
+    output.flush();
+  }
+
+  /**
+   * Reads an index, that was written by {@link #write(OutputStream)}
+   *
+   * @param pInputStream stream the index is read from
+   * @return the index
+   * @throws IOException if the index could not be read or has another format
+   */
+  @NonNull
+  static SearchIndex read(@NonNull InputStream pInputStream) throws IOException
+  {
+    DataInputStream input = new DataInputStream(new BufferedInputStream(pInputStream));
+    if (input.readInt() != MAGIC || input.readInt() != VERSION)
+      throw new IOException("unsupported search index format");
+
+    int entryCount = input.readInt();
+    String[] titles = new String[entryCount];
+    String[] urls = new String[entryCount];
+    String[] descriptions = new String[entryCount];
+    for (int i = 0; i < entryCount; i++)
+    {
+      titles[i] = readString(input);
+      urls[i] = readString(input);
+      descriptions[i] = readString(input);
+    }
+
+    int termCount = input.readInt();
+    String[] terms = new String[termCount];
+    int[][] postings = new int[termCount][];
+    for (int i = 0; i < termCount; i++)
+    {
+      terms[i] = readString(input);
+      postings[i] = new int[input.readInt()];
+      for (int j = 0; j < postings[i].length; j++)
+        postings[i][j] = input.readInt();
+    }
+    return new SearchIndex(titles, urls, descriptions, terms, postings);
+  }
+
+  private static void writeString(@NonNull DataOutputStream pOutput, @NonNull String pValue) throws IOException
+  {
+    byte[] bytes = pValue.getBytes(StandardCharsets.UTF_8);
+    pOutput.writeInt(bytes.length);
+    pOutput.write(bytes);
+  }
+
+  @NonNull
+  private static String readString(@NonNull DataInputStream pInput) throws IOException
+  {
+    byte[] bytes = new byte[pInput.readInt()];
+    pInput.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @param pHtml  content of the page
+   * @param pStart position the description is searched from
+   * @return the text of the description that follows the given position or an empty string
+   */
+  @NonNull
+  private static String getDescription(@NonNull String pHtml, int pStart)
+  {
+    Matcher description = DESCRIPTION.matcher(pHtml).region(pStart, Math.min(pHtml.length(), pStart + DESCRIPTION_LOOKAHEAD));
+    if (!description.find())
+      return "";
+    String text = toText(Objects.requireNonNullElse(description.group(1), description.group(2)));
+    return text.length() > MAX_DESCRIPTION_LENGTH ? text.substring(0, MAX_DESCRIPTION_LENGTH - 3) + "..." : text;
+  }
+
+  /**
+   * @param pHtml part of a html page
+   * @return the text without tags and with single spaces
+   */
+  @NonNull
+  private static String toText(@NonNull String pHtml)
+  {
+    return TAG.matcher(pHtml).replaceAll(" ")
+        .replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"").replace("&#39;", "'").replace("&nbsp;", " ").replace("&amp;", "&")
+        .replaceAll("\\s+", " ")
+        .trim();
+  }
+
+  /**
+   * @param pText          text
+   * @param pWithCamelCase true, if the parts of camel case words should be terms too, e.g. "context" for "openContext"
+   * @return the distinct terms of the text in lower case
+   */
+  @NonNull
+  private static List<String> tokenize(@NonNull String pText, boolean pWithCamelCase)
+  {
+    Set<String> tokens = new LinkedHashSet<>();
+    for (String word : TERM_SEPARATOR.split(pText))
+    {
+      if (word.isEmpty())
+        continue;
+      tokens.add(word.toLowerCase(Locale.ROOT));
+      if (pWithCamelCase)
+        for (String part : CAMEL_CASE.split(word))
+          tokens.add(part.toLowerCase(Locale.ROOT));
+    }
+    return new ArrayList<>(tokens);
+  }
+
+  /**
+   * Collects the entries and creates the inverted index
+   */
+  static class Builder
+  {
+    private final List<String[]> entries = new ArrayList<>();
+    private final SortedMap<String, List<Integer>> postings = new TreeMap<>();
+
+    /**
+     * @param pTitle       title of the entry, e.g. "neon.openContext"
+     * @param pUrl         url of the entry, relative to the documentation
+     * @param pDescription short description of the entry
+     * @return this builder
+     */
+    @NonNull
+    Builder add(@NonNull String pTitle, @NonNull String pUrl, @NonNull String pDescription)
+    {
+      int entry = entries.size();
+      entries.add(new String[]{pTitle, pUrl, pDescription});
+      Set<String> entryTerms = new HashSet<>(tokenize(pTitle, true));
+      entryTerms.addAll(tokenize(pDescription, false));
+      for (String term : entryTerms)
+        postings.computeIfAbsent(term, pTerm -> new ArrayList<>()).add(entry);
+      return this;
+    }
+
+    /**
+     * @return the index of all added entries
+     */
+    @NonNull
+    SearchIndex build()
+    {
+      String[][] columns = new String[3][entries.size()];
+      for (int i = 0; i < entries.size(); i++)
+        for (int column = 0; column < columns.length; column++)
+          columns[column][i] = entries.get(i)[column];
+
+      String[] terms = postings.keySet().toArray(new String[0]);
+      int[][] termPostings = new int[terms.length][];
+      for (int i = 0; i < terms.length; i++)
+        termPostings[i] = postings.get(terms[i]).stream().mapToInt(Integer::intValue).toArray();
+      return new SearchIndex(columns[0], columns[1], columns[2], terms, termPostings);
+    }
+  }
+
+  /**
+   * An entry that matched a query
+   */
+  static class Result
+  {
+    private final String title;
+    private final String url;
+    private final String description;
+
+    private Result(@NonNull String pTitle, @NonNull String pUrl, @NonNull String pDescription)
+    {
+      title = pTitle;
+      url = pUrl;
+      description = pDescription;
+    }
+
+    /**
+     * @return the title, e.g. "neon.openContext"
+     */
+    @NonNull
+    String getTitle()
+    {
+      return title;
+    }
+
+    /**
+     * @return the url, relative to the documentation
+     */
+    @NonNull
+    String getUrl()
+    {
+      return url;
+    }
+
+    /**
+     * @return the short description
+     */
+    @NonNull
+    String getDescription()
+    {
+      return description;
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package de.adito.aditoweb.nbm.help;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.reactivex.rxjava3.annotations.Nullable;
+import lombok.NonNull;
+import org.openide.modules.Places;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.logging.Formatter;
+import java.util.logging.*;
+
+/**
+ * Log of the parts of the documentation that run for the whole IDE session: the requests of the documentation servers and the output of the jsdoc
+ * worker. The lines are kept in a ring buffer of fixed size, so a server that is left open all day uses constant memory. If enabled with the
+ * system property "de.adito.aditoweb.nbm.help.serverLogFiles", the lines are written into size-capped rotating files in the cache directory as well.
+ */
+final class ServerLog
+{
+  private static final Logger LOGGER = Logger.getLogger(ServerLog.class.getName());
+  private static final String FILES_PROPERTY = "de.adito.aditoweb.nbm.help.serverLogFiles";
+  private static final int CAPACITY = 1000;
+  private static final int MAX_LINE_LENGTH = 1000;
+  private static final int FILE_LIMIT_BYTES = 1024 * 1024;
+  private static final int FILE_COUNT = 3;
+  private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
+
+  private final String[] lines;
+  private final Path directory;
+  private final Handler fileHandler;
+  // the next index of the ring buffer and the number of lines in it, guarded by the lines
+  private int next;
+  private int size;
+
+  /**
+   * @param pCapacity  maximum number of lines, the oldest lines are dropped
+   * @param pDirectory directory for the rotating log files or null, if the lines should only be kept in memory
+   * @param pFileLimit maximum size of a log file in bytes
+   */
+  @VisibleForTesting
+  ServerLog(int pCapacity, @Nullable Path pDirectory, int pFileLimit)
+  {
+    lines = new String[pCapacity];
+    Handler handler = null;
+    if (pDirectory != null)
+    {
+      try
+      {
+        Files.createDirectories(pDirectory);
+        // "%" starts a placeholder of the file handler, "%g" is the number of the rotated file
+        handler = new FileHandler(pDirectory.resolve("server").toString().replace("%", "%%") + ".%g.log", pFileLimit, FILE_COUNT, true);
+        handler.setEncoding("UTF-8");
+        handler.setFormatter(new LineFormatter());
+      }
+      catch (IOException | RuntimeException pE)
+      {
+        LOGGER.log(Level.WARNING, "could not create the log files of the documentation server in " + pDirectory, pE);
+      }
+    }
+    fileHandler = handler;
+    directory = handler != null ? pDirectory : null;
+  }
+
+  /**
+   * @return the log of this module
+   */
+  @NonNull
+  static ServerLog getInstance()
+  {
+    return Holder.INSTANCE;
+  }
+
+  /**
+   * Adds a line to the log, the line is shortened if it is too long
+   *
+   * @param pSource source of the line, e.g. the port of the server
+   * @param pLine   line that should be logged
+   */
+  void log(@NonNull String pSource, @NonNull String pLine)
+  {
+    String line = LocalTime.now().format(TIME_FORMAT) + " [" + pSource + "] "
+        + (pLine.length() > MAX_LINE_LENGTH ? pLine.substring(0, MAX_LINE_LENGTH) + "..." : pLine);
+    synchronized (lines)
+    {
+      lines[next] = line;
+      next = (next + 1) % lines.length;
+      size = Math.min(size + 1, lines.length);
+    }
+    if (fileHandler != null)
+      fileHandler.publish(new LogRecord(Level.INFO, line));
+  }
+
+  /**
+   * @return the lines of the log, the oldest first
+   */
+  @NonNull
+  List<String> getLines()
+  {
+    synchronized (lines)
+    {
+      List<String> result = new ArrayList<>(size);
+      for (int i = 0; i < size; i++)
+        result.add(lines[(next - size + i + lines.length) % lines.length]);
+      return result;
+    }
+  }
+
+  /**
+   * @return the directory of the log files or null, if the lines are only kept in memory
+   */
+  @Nullable
+  Path getDirectory()
+  {
+    return directory;
+  }
+
+  /**
+   * Closes the log files
+   */
+  @VisibleForTesting
+  void close()
+  {
+    if (fileHandler != null)
+      fileHandler.close();
+  }
+
+  /**
+   * Writes only the already formatted line
+   */
+  private static class LineFormatter extends Formatter
+  {
+    @Override
+    public String format(LogRecord pRecord)
+    {
+      return pRecord.getMessage() + System.lineSeparator();
+    }
+  }
+
+  /**
+   * Lazy holder, so the cache directory is only resolved when the first line is logged
+   */
+  private static class Holder
+  {
+    private static final ServerLog INSTANCE = new ServerLog(CAPACITY, Boolean.getBoolean(FILES_PROPERTY)
+        ? Places.getCacheSubdirectory("help/logs").toPath() : null, FILE_LIMIT_BYTES);
+  }
+}
@@ -0,0 +1,23 @@
+package de.adito.aditoweb.nbm.help;
+
+import jdk.jfr.*;
+
+/**
+ * Flight recorder event for a stage of the documentation, e.g. the jdito-types check or the jsdoc rendering.
+ * The events of one "Show Documentation" run share the same run id, stages that run in the background have the run id 0.
+ */
+@Name("de.adito.aditoweb.nbm.help.Stage")
+@Label("Documentation Stage")
+@Category({"ADITO", "Help"})
+@Description("Stage of rendering and serving the jsdoc documentation")
+final class StageEvent extends Event
+{
+  @Label("Run")
+  long run;
+
+  @Label("Stage")
+  String stage;
+
+  @Label("Successful")
+  boolean successful;
+}
@@ -0,0 +1,139 @@
+package de.adito.aditoweb.nbm.help;
+
+import lombok.NonNull;
+import org.openide.util.RequestProcessor;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.logging.Logger;
+
+/**
+ * Runs the stages of the documentation pipeline concurrently. A stage is started as soon as its input is available and the result is only awaited
+ * where another stage depends on it, so independent stages overlap. The duration of every stage is logged and recorded in the {@link StageTimings}
+ * of the thread that started it.
+ * Closing the pipeline cancels all stages that are still running, their threads get interrupted and so their processes are killed.
+ */
+final class StagePipeline implements AutoCloseable
+{
+  private static final Logger LOGGER = Logger.getLogger(StagePipeline.class.getName());
+  private static final RequestProcessor PROCESSOR = new RequestProcessor(StagePipeline.class.getName(), 8, true);
+
+  private final ExecutorService executor;
+  private final String name;
+  private final long startNanos = System.nanoTime();
+  private final List<Future<?>> stages = new CopyOnWriteArrayList<>();
+
+  /**
+   * @param pName name of the pipeline for the log
+   */
+  StagePipeline(@NonNull String pName)
+  {
+    this(pName, PROCESSOR);
+  }
+
+  /**
+   * @param pName     name of the pipeline for the log
+   * @param pExecutor executor for the stages, it has to interrupt its threads when a stage gets cancelled
+   */
+  StagePipeline(@NonNull String pName, @NonNull ExecutorService pExecutor)
+  {
+    name = pName;
+    executor = pExecutor;
+  }
+
+  /**
+   * Starts a stage in the background
+   *
+   * @param pStageName name of the stage for the log
+   * @param pStage     stage that should be executed
+   * @param <T>        type of the result of the stage
+   * @return the future result of the stage, that can be awaited with {@link #await(Future)}
+   */
+  @NonNull
+  <T> Future<T> start(@NonNull String pStageName, @NonNull Callable<T> pStage)
+  {
+    //the stage is recorded in the run of the thread that started it
+    StageTimings run = StageTimings.current();
+    Future<T> future = executor.submit(() -> {
+      long stageStartNanos = System.nanoTime();
+      StageTimings previousRun = StageTimings.attach(run);
+      try (StageTimings.Stage stage = StageTimings.stage(pStageName))
+      {
+        T result = pStage.call();
+        stage.succeeded();
+        return result;
+      }
+      finally
+      {
+        StageTimings.attach(previousRun);
+        LOGGER.info(name + ": stage \"" + pStageName + "\" took " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - stageStartNanos) + " ms");
+      }
+    });
+    stages.add(future);
+    return future;
+  }
+
+  /**
+   * Starts a stage and waits for its result
+   *
+   * @param pStageName name of the stage for the log
+   * @param pStage     stage that should be executed
+   * @param <T>        type of the result of the stage
+   * @return the result of the stage
+   * @throws IOException          if the stage failed
+   * @throws InterruptedException if the stage or the waiting thread was interrupted
+   * @throws TimeoutException     if the stage timed out
+   */
+  <T> T run(@NonNull String pStageName, @NonNull Callable<T> pStage) throws IOException, InterruptedException, TimeoutException
+  {
+    return await(start(pStageName, pStage));
+  }
+
+  /**
+   * Waits for the result of a stage. The exceptions of the stage are passed on unchanged.
+   *
+   * @param pStage future result of the stage
+   * @param <T>    type of the result of the stage
+   * @return the result of the stage
+   * @throws IOException          if the stage failed
+   * @throws InterruptedException if the stage or the waiting thread was interrupted
+   * @throws TimeoutException     if the stage timed out
+   */
+  static <T> T await(@NonNull Future<T> pStage) throws IOException, InterruptedException, TimeoutException
+  {
+    try
+    {
+      return pStage.get();
+    }
+    catch (CancellationException pE)
+    {
+      throw new InterruptedException("stage was cancelled");
+    }
+    catch (ExecutionException pE)
+    {
+      Throwable cause = pE.getCause();
+      if (cause instanceof IOException)
+        throw (IOException) cause;
+      if (cause instanceof InterruptedException)
+        throw (InterruptedException) cause;
+      if (cause instanceof TimeoutException)
+        throw (TimeoutException) cause;
+      if (cause instanceof RuntimeException)
+        throw (RuntimeException) cause;
+      if (cause instanceof Error)
+        throw (Error) cause;
+      throw new IOException(cause);
+    }
+  }
+
+  /**
+   * Cancels all stages that are still running
+   */
+  @Override
+  public void close()
+  {
+    stages.forEach(pStage -> pStage.cancel(true));
+    LOGGER.info(name + " took " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) + " ms");
+  }
+}
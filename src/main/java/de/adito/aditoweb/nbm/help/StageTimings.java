@@ -0,0 +1,244 @@
+package de.adito.aditoweb.nbm.help;
+
+import io.reactivex.rxjava3.annotations.Nullable;
+import lombok.NonNull;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Timings of the stages of one "Show Documentation" run. Every stage emits a {@link StageEvent} for the flight recorder and is recorded in the run
+ * of its thread, the {@link StagePipeline} passes the run on to the threads of its stages. When the run is closed, a summary of all durations is
+ * logged and the run is kept in a small history, so cold and warm runs can be compared.
+ */
+final class StageTimings implements AutoCloseable
+{
+  private static final Logger LOGGER = Logger.getLogger(StageTimings.class.getName());
+  private static final int HISTORY_SIZE = 20;
+  private static final Deque<StageTimings> HISTORY = new ArrayDeque<>(HISTORY_SIZE);
+  private static final ThreadLocal<StageTimings> CURRENT = new ThreadLocal<>();
+  private static final AtomicLong RUN_IDS = new AtomicLong();
+
+  private final long id = RUN_IDS.incrementAndGet();
+  private final String name;
+  private final Instant start = Instant.now();
+  private final long startNanos = System.nanoTime();
+  private final List<Timing> timings = new CopyOnWriteArrayList<>();
+  private volatile long durationNanos = -1;
+
+  private StageTimings(@NonNull String pName)
+  {
+    name = pName;
+  }
+
+  /**
+   * Starts a run, the stages of the current thread are recorded in it until it is closed
+   *
+   * @param pName name of the run for the log
+   * @return the run
+   */
+  @NonNull
+  static StageTimings start(@NonNull String pName)
+  {
+    StageTimings run = new StageTimings(pName);
+    CURRENT.set(run);
+    return run;
+  }
+
+  /**
+   * @return the run of the current thread or null, if the stages of this thread are not recorded
+   */
+  @Nullable
+  static StageTimings current()
+  {
+    return CURRENT.get();
+  }
+
+  /**
+   * Sets the run of the current thread, used to pass a run on to another thread
+   *
+   * @param pRun run of the current thread, null if the stages should not be recorded
+   * @return the previous run of the thread, that should be restored afterwards
+   */
+  @Nullable
+  static StageTimings attach(@Nullable StageTimings pRun)
+  {
+    StageTimings previous = CURRENT.get();
+    if (pRun == null)
+      CURRENT.remove();
+    else
+      CURRENT.set(pRun);
+    return previous;
+  }
+
+  /**
+   * Starts a stage in the current thread, it ends when the returned stage is closed.
+   * Without a run the stage is only visible in the flight recorder.
+   *
+   * @param pStageName name of the stage
+   * @return the running stage
+   */
+  @NonNull
+  static Stage stage(@NonNull String pStageName)
+  {
+    return new Stage(current(), pStageName);
+  }
+
+  /**
+   * @return the most recent runs, the oldest first
+   */
+  @NonNull
+  static List<StageTimings> getHistory()
+  {
+    synchronized (HISTORY)
+    {
+      return new ArrayList<>(HISTORY);
+    }
+  }
+
+  /**
+   * @return the name of the run
+   */
+  @NonNull
+  String getName()
+  {
+    return name;
+  }
+
+  /**
+   * @return the time the run was started
+   */
+  @NonNull
+  Instant getStart()
+  {
+    return start;
+  }
+
+  /**
+   * @return the duration of the whole run in milliseconds or -1, if the run is not finished yet
+   */
+  long getDurationMillis()
+  {
+    return durationNanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(durationNanos);
+  }
+
+  /**
+   * @return the finished stages of the run, in the order they were started
+   */
+  @NonNull
+  List<Timing> getTimings()
+  {
+    return timings.stream()
+        .sorted(Comparator.comparingLong((Timing pTiming) -> pTiming.startNanos))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * @return one line with the durations of the run and all of its stages
+   */
+  @NonNull
+  String getSummary()
+  {
+    String stages = getTimings().stream()
+        .map(pTiming -> pTiming.getStage() + " " + pTiming.getDurationMillis() + " ms" + (pTiming.isSuccessful() ? "" : " (failed)"))
+        .collect(Collectors.joining(", "));
+    return name + " #" + id + " took " + getDurationMillis() + " ms" + (stages.isEmpty() ? "" : ": " + stages);
+  }
+
+  /**
+   * Finishes the run, logs its summary and adds it to the history
+   */
+  @Override
+  public void close()
+  {
+    if (CURRENT.get() == this)
+      CURRENT.remove();
+    if (durationNanos >= 0)
+      return;
+
+    durationNanos = System.nanoTime() - startNanos;
+    LOGGER.info(getSummary());
+    synchronized (HISTORY)
+    {
+      if (HISTORY.size() == HISTORY_SIZE)
+        HISTORY.removeFirst();
+      HISTORY.addLast(this);
+    }
+  }
+
+  /**
+   * Duration of a finished stage
+   */
+  static class Timing
+  {
+    private final String stage;
+    private final long startNanos;
+    private final long durationNanos;
+    private final boolean successful;
+
+    private Timing(@NonNull String pStage, long pStartNanos, long pDurationNanos, boolean pSuccessful)
+    {
+      stage = pStage;
+      startNanos = pStartNanos;
+      durationNanos = pDurationNanos;
+      successful = pSuccessful;
+    }
+
+    @NonNull
+    String getStage()
+    {
+      return stage;
+    }
+
+    long getDurationMillis()
+    {
+      return TimeUnit.NANOSECONDS.toMillis(durationNanos);
+    }
+
+    boolean isSuccessful()
+    {
+      return successful;
+    }
+  }
+
+  /**
+   * Running stage, it has to be closed when the stage is finished. A stage that is closed without {@link #succeeded()} counts as failed.
+   */
+  static class Stage implements AutoCloseable
+  {
+    private final StageTimings run;
+    private final StageEvent event = new StageEvent();
+    private final long startNanos = System.nanoTime();
+    private boolean successful;
+
+    private Stage(@Nullable StageTimings pRun, @NonNull String pStageName)
+    {
+      run = pRun;
+      event.run = pRun != null ? pRun.id : 0;
+      event.stage = pStageName;
+      event.begin();
+    }
+
+    /**
+     * Marks the stage as successful
+     */
+    void succeeded()
+    {
+      successful = true;
+    }
+
+    @Override
+    public void close()
+    {
+      long durationNanos = System.nanoTime() - startNanos;
+      event.successful = successful;
+      event.commit();
+      if (run != null)
+        run.timings.add(new Timing(event.stage, startNanos, durationNanos, successful));
+    }
+  }
+}
@@ -0,0 +1,201 @@
+package de.adito.aditoweb.nbm.help;
+
+import com.google.common.annotations.VisibleForTesting;
+import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.*;
+import io.reactivex.rxjava3.annotations.Nullable;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.logging.*;
+import java.util.stream.Collectors;
+
+/**
+ * Executes NodeJS processes while streaming their output line by line. A process that exceeds its timeout or whose thread gets interrupted, e.g.
+ * because the user cancelled the progress, is killed together with all of its child processes. Only the process that the execution started is killed,
+ * never the processes of other executions that run in parallel.
+ */
+final class StreamingExecution
+{
+  private static final Logger LOGGER = Logger.getLogger(StreamingExecution.class.getName());
+  private static final Object START_LOCK = new Object();
+
+  private StreamingExecution()
+  {
+  }
+
+  /**
+   * Executes a NodeJS process and waits for it to finish
+   *
+   * @param pNodeJsEnvironment environment for NodeJS
+   * @param pExecutor          executor for NodeJS
+   * @param pBase              executable that should be started
+   * @param pTimeoutMillis     maximum time the process may run
+   * @param pLineConsumer      consumer for every line of the standard and the error output, may be called by different threads
+   * @param pParams            parameters for the executable
+   * @return the exit code of the process
+   * @throws IOException          if the process could not be started or failed
+   * @throws InterruptedException if the thread was interrupted, the process was killed then
+   * @throws TimeoutException     if the process exceeded the timeout, the process was killed then
+   */
+  static int execute(@NonNull INodeJSEnvironment pNodeJsEnvironment, @NonNull INodeJSExecutor pExecutor, @NonNull INodeJSExecBase pBase,
+                     long pTimeoutMillis, @NonNull Consumer<String> pLineConsumer, @NonNull String... pParams)
+      throws IOException, InterruptedException, TimeoutException
+  {
+    return execute(pNodeJsEnvironment, pExecutor, pBase, pTimeoutMillis, pLineConsumer, pLineConsumer, pParams);
+  }
+
+  /**
+   * Executes a NodeJS process and waits for it to finish. The standard and the error output are passed to different consumers, so an output that
+   * has to be parsed is not mixed with warnings.
+   *
+   * @param pNodeJsEnvironment environment for NodeJS
+   * @param pExecutor          executor for NodeJS
+   * @param pBase              executable that should be started
+   * @param pTimeoutMillis     maximum time the process may run
+   * @param pOutputConsumer    consumer for every line of the standard output
+   * @param pErrorConsumer     consumer for every line of the error output, may be called by another thread than the consumer of the standard output
+   * @param pParams            parameters for the executable
+   * @return the exit code of the process
+   * @throws IOException          if the process could not be started or failed
+   * @throws InterruptedException if the thread was interrupted, the process was killed then
+   * @throws TimeoutException     if the process exceeded the timeout, the process was killed then
+   */
+  static int execute(@NonNull INodeJSEnvironment pNodeJsEnvironment, @NonNull INodeJSExecutor pExecutor, @NonNull INodeJSExecBase pBase,
+                     long pTimeoutMillis, @NonNull Consumer<String> pOutputConsumer, @NonNull Consumer<String> pErrorConsumer, @NonNull String... pParams)
+      throws IOException, InterruptedException, TimeoutException
+  {
+    try (LineOutputStream outputStream = new LineOutputStream(pOutputConsumer);
+         LineOutputStream errorStream = new LineOutputStream(pErrorConsumer))
+    {
+      StartedProcess process = start(() -> pExecutor.executeAsync(pNodeJsEnvironment, pBase, outputStream, errorStream, null, pParams), pParams);
+      try
+      {
+        Integer exitCode = process.getFuture().get(pTimeoutMillis, TimeUnit.MILLISECONDS);
+        return exitCode == null ? 0 : exitCode;
+      }
+      catch (TimeoutException | InterruptedException pE)
+      {
+        process.destroy();
+        throw pE;
+      }
+      catch (CancellationException pE)
+      {
+        throw new InterruptedException("process was cancelled");
+      }
+      catch (ExecutionException pE)
+      {
+        throw new IOException(pE.getCause());
+      }
+    }
+  }
+
+  /**
+   * Starts a process and determines which child process of the IDE it is. The executor does not expose the process, so it is the child process
+   * that appeared while starting. The processes are started one after another, so several executions in parallel can not be mixed up.
+   *
+   * @param pStarter starts the process with the executor
+   * @param pParams  parameters of the execution, to tell its process apart from processes the IDE started in the meantime
+   * @return the started process
+   * @throws IOException if the process could not be started
+   */
+  @NonNull
+  static StartedProcess start(@NonNull IStarter pStarter, @NonNull String[] pParams) throws IOException
+  {
+    synchronized (START_LOCK)
+    {
+      Set<Long> childrenBefore = getChildProcesses();
+      CompletableFuture<Integer> future = pStarter.start();
+      return new StartedProcess(future, findStartedProcess(childrenBefore, pParams));
+    }
+  }
+
+  /**
+   * @return the ids of the child processes of the IDE, that are currently running
+   */
+  @NonNull
+  private static Set<Long> getChildProcesses()
+  {
+    return ProcessHandle.current().children().map(ProcessHandle::pid).collect(Collectors.toSet());
+  }
+
+  /**
+   * @param pChildrenBefore ids of the child processes of the IDE, that were running before the execution started
+   * @param pParams         parameters of the execution
+   * @return the process of the execution or null, if it can not be determined unambiguously
+   */
+  @VisibleForTesting
+  @Nullable
+  static ProcessHandle findStartedProcess(@NonNull Set<Long> pChildrenBefore, @NonNull String[] pParams)
+  {
+    List<ProcessHandle> candidates = ProcessHandle.current().children()
+        .filter(pProcess -> !pChildrenBefore.contains(pProcess.pid()))
+        // the arguments are not available on every platform, a process without them is only taken if it is the only new one
+        .filter(pProcess -> pProcess.info().arguments()
+            .map(pArguments -> Arrays.asList(pArguments).containsAll(Arrays.asList(pParams)))
+            .orElse(true))
+        .collect(Collectors.toList());
+    if (candidates.size() == 1)
+      return candidates.get(0);
+    LOGGER.log(Level.FINE, "could not determine the process of the execution, {0} candidates", candidates.size());
+    return null;
+  }
+
+  /**
+   * Starts a process with the executor
+   */
+  @FunctionalInterface
+  interface IStarter
+  {
+    /**
+     * @return the exit code of the process, when it is finished
+     * @throws IOException if the process could not be started
+     */
+    @NonNull
+    CompletableFuture<Integer> start() throws IOException;
+  }
+
+  /**
+   * Process, that was started by an execution
+   */
+  static final class StartedProcess
+  {
+    private final CompletableFuture<Integer> future;
+    private final ProcessHandle process;
+
+    private StartedProcess(@NonNull CompletableFuture<Integer> pFuture, @Nullable ProcessHandle pProcess)
+    {
+      future = pFuture;
+      process = pProcess;
+    }
+
+    /**
+     * @return the exit code of the process, when it is finished
+     */
+    @NonNull
+    CompletableFuture<Integer> getFuture()
+    {
+      return future;
+    }
+
+    /**
+     * Cancels the execution and kills its process with all of its child processes. Processes of other executions are never killed, so if the
+     * process of this execution is unknown, it is only cancelled.
+     */
+    void destroy()
+    {
+      future.cancel(true);
+      if (process == null)
+      {
+        LOGGER.info("the process of the execution is unknown, it is only cancelled");
+        return;
+      }
+      LOGGER.log(Level.INFO, "killing process {0} and its child processes", process.pid());
+      // the handle knows the start time of the process, so a process that reuses the id is not killed
+      process.descendants().forEach(ProcessHandle::destroyForcibly);
+      process.destroyForcibly();
+    }
+  }
+}
@@ -0,0 +1,270 @@
+package de.adito.aditoweb.nbm.help;
+
+import lombok.NonNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Compact index of the documented symbols of the jdito-types, e.g. "neon.openContext". The symbols are kept in parallel arrays sorted by name,
+ * so a symbol is found by binary search. All strings are interned in one string table, so signatures, documentations and file names that occur
+ * several times are only stored once, in memory as well as in the persisted index.
+ */
+final class SymbolIndex
+{
+  private static final int MAGIC = 0x4A445358;
+  private static final int VERSION = 1;
+  private static final Comparator<String> NAME_ORDER = Comparator.comparing((String pName) -> pName.toLowerCase(Locale.ROOT))
+      .thenComparing(Comparator.naturalOrder());
+
+  private final String[] names;
+  private final String[] signatures;
+  private final String[] documentations;
+  private final String[] sources;
+
+  private SymbolIndex(@NonNull String[] pNames, @NonNull String[] pSignatures, @NonNull String[] pDocumentations, @NonNull String[] pSources)
+  {
+    names = pNames;
+    signatures = pSignatures;
+    documentations = pDocumentations;
+    sources = pSources;
+  }
+
+  /**
+   * @return the number of symbols in the index
+   */
+  int size()
+  {
+    return names.length;
+  }
+
+  /**
+   * Finds all symbols with the given name, ignoring the case. A name occurs several times, if a function is overloaded.
+   *
+   * @param pName qualified name of the symbol, e.g. "neon.openContext"
+   * @return the symbols with exactly this name or the symbols whose name only differs in case
+   */
+  @NonNull
+  List<Symbol> find(@NonNull String pName)
+  {
+    List<Symbol> symbols = new ArrayList<>();
+    for (int i = lowerBound(pName); i < names.length && names[i].equalsIgnoreCase(pName); i++)
+      symbols.add(getSymbol(i));
+    return symbols;
+  }
+
+  /**
+   * Finds the symbols whose name starts with the given prefix, ignoring the case
+   *
+   * @param pPrefix prefix of the qualified name, e.g. "neon.open"
+   * @param pLimit  maximum number of symbols
+   * @return the symbols in the order of their names
+   */
+  @NonNull
+  List<Symbol> findByPrefix(@NonNull String pPrefix, int pLimit)
+  {
+    String prefix = pPrefix.toLowerCase(Locale.ROOT);
+    List<Symbol> symbols = new ArrayList<>();
+    for (int i = lowerBound(pPrefix); i < names.length && symbols.size() < pLimit && names[i].toLowerCase(Locale.ROOT).startsWith(prefix); i++)
+      symbols.add(getSymbol(i));
+    return symbols;
+  }
+
+  /**
+   * @param pName name
+   * @return the index of the first symbol, that is not sorted before the given name
+   */
+  private int lowerBound(@NonNull String pName)
+  {
+    String name = pName.toLowerCase(Locale.ROOT);
+    int low = 0;
+    int high = names.length;
+    while (low < high)
+    {
+      int middle = (low + high) >>> 1;
+      if (names[middle].toLowerCase(Locale.ROOT).compareTo(name) < 0)
+        low = middle + 1;
+      else
+        high = middle;
+    }
+    return low;
+  }
+
+  @NonNull
+  private Symbol getSymbol(int pIndex)
+  {
+    return new Symbol(names[pIndex], signatures[pIndex], documentations[pIndex], sources[pIndex]);
+  }
+
+  /**
+   * Writes the index in its binary format
+   *
+   * @param pOutputStream stream the index is written to
+   * @throws IOException if the index could not be written
+   */
+  void write(@NonNull OutputStream pOutputStream) throws IOException
+  {
+    Map<String, Integer> stringIds = new LinkedHashMap<>();
+    int[][] columns = {toIds(names, stringIds), toIds(signatures, stringIds), toIds(documentations, stringIds), toIds(sources, stringIds)};
+
+    DataOutputStream output = new DataOutputStream(new BufferedOutputStream(pOutputStream));
+    output.writeInt(MAGIC);
+    output.writeInt(VERSION);
+    output.writeInt(stringIds.size());
+    for (String string : stringIds.keySet())
+    {
+      byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+      output.writeInt(bytes.length);
+      output.write(bytes);
+    }
+    output.writeInt(names.length);
+    for (int[] column : columns)
+      for (int id : column)
+        output.writeInt(id);
+    output.flush();
+  }
+
+  /**
+   * Reads an index, that was written by {@link #write(OutputStream)}
+   *
+   * @param pInputStream stream the index is read from
+   * @return the index
+   * @throws IOException if the index could not be read or has another format
+   */
+  @NonNull
+  static SymbolIndex read(@NonNull InputStream pInputStream) throws IOException
+  {
+    DataInputStream input = new DataInputStream(new BufferedInputStream(pInputStream));
+    if (input.readInt() != MAGIC || input.readInt() != VERSION)
+      throw new IOException("unsupported symbol index format");
+
+    String[] strings = new String[input.readInt()];
+    for (int i = 0; i < strings.length; i++)
+    {
+      byte[] bytes = new byte[input.readInt()];
+      input.readFully(bytes);
+      strings[i] = new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    int size = input.readInt();
+    String[][] columns = new String[4][size];
+    for (String[] column : columns)
+      for (int i = 0; i < size; i++)
+        column[i] = strings[input.readInt()];
+    return new SymbolIndex(columns[0], columns[1], columns[2], columns[3]);
+  }
+
+  @NonNull
+  private static int[] toIds(@NonNull String[] pValues, @NonNull Map<String, Integer> pStringIds)
+  {
+    int[] ids = new int[pValues.length];
+    for (int i = 0; i < pValues.length; i++)
+      ids[i] = pStringIds.computeIfAbsent(pValues[i], pValue -> pStringIds.size());
+    return ids;
+  }
+
+  /**
+   * Collects the symbols and creates the sorted index
+   */
+  static class Builder
+  {
+    private final Map<String, String> strings = new HashMap<>();
+    private final List<String[]> symbols = new ArrayList<>();
+
+    /**
+     * @param pName          qualified name of the symbol
+     * @param pSignature     declaration of the symbol
+     * @param pDocumentation text of the JSDoc comment of the symbol
+     * @param pSource        file the symbol is declared in, relative to the dist directory
+     * @return this builder
+     */
+    @NonNull
+    Builder add(@NonNull String pName, @NonNull String pSignature, @NonNull String pDocumentation, @NonNull String pSource)
+    {
+      symbols.add(new String[]{intern(pName), intern(pSignature), intern(pDocumentation), intern(pSource)});
+      return this;
+    }
+
+    /**
+     * @return the index of all added symbols
+     */
+    @NonNull
+    SymbolIndex build()
+    {
+      symbols.sort((pFirst, pSecond) -> NAME_ORDER.compare(pFirst[0], pSecond[0]));
+      String[][] columns = new String[4][symbols.size()];
+      for (int i = 0; i < symbols.size(); i++)
+        for (int column = 0; column < columns.length; column++)
+          columns[column][i] = symbols.get(i)[column];
+      return new SymbolIndex(columns[0], columns[1], columns[2], columns[3]);
+    }
+
+    @NonNull
+    private String intern(@NonNull String pValue)
+    {
+      return strings.computeIfAbsent(pValue, pKey -> pKey);
+    }
+  }
+
+  /**
+   * A documented symbol of the jdito-types
+   */
+  static class Symbol
+  {
+    private final String name;
+    private final String signature;
+    private final String documentation;
+    private final String source;
+
+    private Symbol(@NonNull String pName, @NonNull String pSignature, @NonNull String pDocumentation, @NonNull String pSource)
+    {
+      name = pName;
+      signature = pSignature;
+      documentation = pDocumentation;
+      source = pSource;
+    }
+
+    /**
+     * @return the qualified name, e.g. "neon.openContext"
+     */
+    @NonNull
+    String getName()
+    {
+      return name;
+    }
+
+    /**
+     * @return the declaration of the symbol
+     */
+    @NonNull
+    String getSignature()
+    {
+      return signature;
+    }
+
+    /**
+     * @return the text of the JSDoc comment
+     */
+    @NonNull
+    String getDocumentation()
+    {
+      return documentation;
+    }
+
+    /**
+     * @return the file the symbol is declared in, relative to the dist directory of the jdito-types
+     */
+    @NonNull
+    String getSource()
+    {
+      return source;
+    }
+
+    @Override
+    public String toString()
+    {
+      return name;
+    }
+  }
+}
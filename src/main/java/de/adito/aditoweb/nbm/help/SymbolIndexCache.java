@@ -0,0 +1,137 @@
+package de.adito.aditoweb.nbm.help;
+
+import com.google.common.annotations.VisibleForTesting;
+import lombok.NonNull;
+import org.openide.modules.Places;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.logging.*;
+import java.util.stream.*;
+
+/**
+ * Provides the {@link SymbolIndex} of the jdito-types of a project. An index is persisted under the fingerprint of the state of the jdito-types,
+ * so it is only built again when they change. The indexes that were used last are kept in memory.
+ */
+class SymbolIndexCache
+{
+  private static final Logger LOGGER = Logger.getLogger(SymbolIndexCache.class.getName());
+  private static final String DIST_PATH = "node_modules/@aditosoftware/jdito-types/dist";
+  private static final String FILE_EXTENSION = ".idx";
+  // part of the key, so the indexes that an older indexer stored are built again
+  private static final String INDEXER_VERSION = "2";
+  private static final int MAX_LOADED_INDEXES = 4;
+  private static final int MAX_STORED_INDEXES = 16;
+
+  private final Path directory;
+  private final Map<String, SymbolIndex> loadedIndexes = new LinkedHashMap<>(MAX_LOADED_INDEXES, 0.75f, true)
+  {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, SymbolIndex> pEldest)
+    {
+      return size() > MAX_LOADED_INDEXES;
+    }
+  };
+
+  @VisibleForTesting
+  SymbolIndexCache(@NonNull Path pDirectory)
+  {
+    directory = pDirectory;
+  }
+
+  /**
+   * @return the cache in the help cache directory
+   */
+  @NonNull
+  static SymbolIndexCache getInstance()
+  {
+    return Holder.INSTANCE;
+  }
+
+  /**
+   * Returns the index of the jdito-types of a project. It is loaded from disk or built, if it is not in memory yet.
+   *
+   * @param pProjectPath path of the project
+   * @return the index of the jdito-types, it is empty if the project has no jdito-types
+   * @throws IOException if the jdito-types could not be read
+   */
+  @NonNull
+  synchronized SymbolIndex get(@NonNull String pProjectPath) throws IOException
+  {
+    Path dist = Paths.get(pProjectPath, DIST_PATH);
+    String key = new Fingerprint().add(INDEXER_VERSION).addFileStates(dist).build();
+    SymbolIndex index = loadedIndexes.get(key);
+    if (index == null)
+    {
+      index = loadOrBuild(key, dist);
+      loadedIndexes.put(key, index);
+    }
+    return index;
+  }
+
+  @NonNull
+  private SymbolIndex loadOrBuild(@NonNull String pKey, @NonNull Path pDist) throws IOException
+  {
+    Path file = directory.resolve(pKey + FILE_EXTENSION);
+    if (Files.isRegularFile(file))
+    {
+      try (InputStream input = Files.newInputStream(file))
+      {
+        return SymbolIndex.read(input);
+      }
+      catch (IOException pE)
+      {
+        LOGGER.log(Level.INFO, "could not read the symbol index " + file + ", building it again", pE);
+      }
+    }
+
+    long start = System.currentTimeMillis();
+    SymbolIndex index = SymbolIndexer.index(pDist);
+    LOGGER.info("indexed " + index.size() + " symbols of " + pDist + " in " + (System.currentTimeMillis() - start) + " ms");
+
+    // written to a temporary file first, so a concurrent IDE never reads a partial index
+    Files.createDirectories(directory);
+    Path tempFile = Files.createTempFile(directory, pKey, ".tmp");
+    try
+    {
+      try (OutputStream output = Files.newOutputStream(tempFile))
+      {
+        index.write(output);
+      }
+      Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    finally
+    {
+      Files.deleteIfExists(tempFile);
+    }
+    removeOldIndexes();
+    return index;
+  }
+
+  /**
+   * Removes the oldest indexes, the jdito-types they were built for are most likely updated in every project
+   */
+  private void removeOldIndexes() throws IOException
+  {
+    List<File> indexes;
+    try (Stream<Path> files = Files.list(directory))
+    {
+      indexes = files.filter(pFile -> pFile.getFileName().toString().endsWith(FILE_EXTENSION))
+          .map(Path::toFile)
+          .sorted(Comparator.comparingLong(File::lastModified).reversed())
+          .collect(Collectors.toList());
+    }
+    for (File index : indexes.subList(Math.min(MAX_STORED_INDEXES, indexes.size()), indexes.size()))
+      if (!index.delete())
+        LOGGER.fine("could not remove the old symbol index " + index);
+  }
+
+  /**
+   * Lazy holder, so the cache directory is only resolved when the cache is used for the first time
+   */
+  private static class Holder
+  {
+    private static final SymbolIndexCache INSTANCE = new SymbolIndexCache(Places.getCacheSubdirectory("help/symbols").toPath());
+  }
+}
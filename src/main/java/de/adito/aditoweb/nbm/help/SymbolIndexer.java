@@ -0,0 +1,241 @@
+package de.adito.aditoweb.nbm.help;
+
+import io.reactivex.rxjava3.annotations.Nullable;
+import lombok.NonNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.regex.*;
+import java.util.stream.*;
+
+/**
+ * Extracts the documented symbols of the jdito-types without NodeJS. The files of the dist directory are streamed line by line, every JSDoc comment
+ * is assigned to the declaration that follows it. The name of a symbol is qualified with the namespaces, modules and classes it is declared in,
+ * an "@memberof" tag overrides them.
+ */
+final class SymbolIndexer
+{
+  private static final Pattern SOURCE_FILE = Pattern.compile("\\.(d\\.ts|ts|js)$");
+  private static final Pattern CONTAINER = Pattern.compile(
+      "^(?:export\\s+)?(?:default\\s+)?(?:declare\\s+)?(?:abstract\\s+)?(?:namespace|module|class|interface|enum)\\s+([A-Za-z_$][\\w$.]*)");
+  private static final Pattern MEMBER = Pattern.compile(
+      "^(?:export\\s+)?(?:default\\s+)?(?:declare\\s+)?(?:(?:public|private|protected|static|readonly|abstract|async)\\s+)*"
+          + "(?:function\\s*\\*?\\s*|const\\s+|let\\s+|var\\s+|type\\s+|get\\s+|set\\s+)?([A-Za-z_$][\\w$]*)\\s*[?!]?\\s*[(:=<;,]");
+  private static final Pattern EXPORT_ASSIGNMENT = Pattern.compile("^(?:module\\.)?exports\\.([A-Za-z_$][\\w$]*)\\s*=");
+  private static final Pattern MEMBER_OF = Pattern.compile("@memberof!?\\s+([\\w$.]+)");
+  private static final Pattern NAME = Pattern.compile("@name\\s+([\\w$.]+)");
+  private static final Set<String> KEYWORDS = Set.of("if", "for", "while", "switch", "return", "catch", "function", "new", "typeof");
+
+  private SymbolIndexer()
+  {
+  }
+
+  /**
+   * Indexes all source files of the given directory
+   *
+   * @param pDist dist directory of the jdito-types
+   * @return the index of the documented symbols
+   * @throws IOException if a file could not be read
+   */
+  @NonNull
+  static SymbolIndex index(@NonNull Path pDist) throws IOException
+  {
+    SymbolIndex.Builder builder = new SymbolIndex.Builder();
+    if (!Files.isDirectory(pDist))
+      return builder.build();
+
+    List<Path> files;
+    try (Stream<Path> walk = Files.walk(pDist))
+    {
+      files = walk.filter(Files::isRegularFile)
+          .filter(pFile -> SOURCE_FILE.matcher(pFile.getFileName().toString()).find())
+          .sorted()
+          .collect(Collectors.toList());
+    }
+
+    // the declaration files and the compiled sources document the same symbols, the declarations are preferred
+    Set<String> indexedNames = new HashSet<>();
+    files.sort(Comparator.comparing((Path pFile) -> !pFile.getFileName().toString().endsWith(".d.ts")));
+    for (Path file : files)
+    {
+      try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8))
+      {
+        index(pDist.relativize(file).toString().replace('\\', '/'), reader, builder, indexedNames);
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Indexes the documented symbols of one file
+   *
+   * @param pSource       path of the file, relative to the dist directory
+   * @param pReader       content of the file
+   * @param pBuilder      builder the symbols are added to
+   * @param pIndexedNames names of the symbols that were already indexed from other files
+   * @throws IOException if the file could not be read
+   */
+  static void index(@NonNull String pSource, @NonNull BufferedReader pReader, @NonNull SymbolIndex.Builder pBuilder,
+                    @NonNull Set<String> pIndexedNames) throws IOException
+  {
+    Set<String> fileNames = new HashSet<>();
+    Deque<Scope> scopes = new ArrayDeque<>();
+    StringBuilder comment = null;
+    String documentation = null;
+    int depth = 0;
+    String line;
+    while ((line = pReader.readLine()) != null)
+    {
+      String trimmed = line.trim();
+      if (comment == null && trimmed.startsWith("/**"))
+      {
+        comment = new StringBuilder();
+        trimmed = trimmed.substring(3);
+      }
+      if (comment != null)
+      {
+        int end = trimmed.indexOf("*/");
+        appendCommentLine(comment, end < 0 ? trimmed : trimmed.substring(0, end));
+        if (end < 0)
+          continue;
+        documentation = comment.toString().trim();
+        comment = null;
+        // the declaration may follow the end of the comment on the same line, e.g. "/** doc */ function foo()"
+        trimmed = trimmed.substring(end + 2).trim();
+      }
+
+      if (trimmed.isEmpty() || trimmed.startsWith("//") || trimmed.startsWith("*") || trimmed.startsWith("@"))
+        continue;
+
+      Matcher container = CONTAINER.matcher(trimmed);
+      boolean isContainer = container.find();
+      String name = isContainer ? container.group(1) : null;
+      if (name == null && documentation != null)
+      {
+        Matcher member = MEMBER.matcher(trimmed);
+        Matcher exportAssignment = EXPORT_ASSIGNMENT.matcher(trimmed);
+        if (exportAssignment.find())
+          name = exportAssignment.group(1);
+        else if (member.find() && !KEYWORDS.contains(member.group(1)))
+          name = member.group(1);
+      }
+
+      String qualifiedName = name != null ? qualify(scopes, name, documentation) : null;
+      if (qualifiedName != null && documentation != null)
+      {
+        // overloads are declared in the same file, the same symbol in another file is a duplicate
+        if (fileNames.contains(qualifiedName) || pIndexedNames.add(qualifiedName))
+        {
+          fileNames.add(qualifiedName);
+          pBuilder.add(qualifiedName, getSignature(trimmed), documentation, pSource);
+        }
+      }
+      documentation = null;
+
+      int lineDepth = depth;
+      depth += countBraces(trimmed);
+      if (isContainer && depth > lineDepth)
+        scopes.push(new Scope(qualifiedName, depth));
+      while (!scopes.isEmpty() && scopes.peek().depth > depth)
+        scopes.pop();
+    }
+  }
+
+  /**
+   * @param pScopes        scopes the symbol is declared in, the innermost first
+   * @param pName          name of the symbol in its declaration
+   * @param pDocumentation JSDoc comment of the symbol, its "@memberof" and "@name" tags override the scopes and the name
+   * @return the qualified name of the symbol
+   */
+  @NonNull
+  private static String qualify(@NonNull Deque<Scope> pScopes, @NonNull String pName, @Nullable String pDocumentation)
+  {
+    String name = pName;
+    String parent = pScopes.isEmpty() ? null : pScopes.peek().name;
+    if (pDocumentation != null)
+    {
+      Matcher nameTag = NAME.matcher(pDocumentation);
+      if (nameTag.find())
+        name = nameTag.group(1);
+      Matcher memberOf = MEMBER_OF.matcher(pDocumentation);
+      if (memberOf.find())
+        parent = memberOf.group(1);
+    }
+    if (parent == null || name.startsWith(parent + "."))
+      return name;
+    return parent + "." + name;
+  }
+
+  /**
+   * @param pDeclaration line of the declaration
+   * @return the declaration without its body and without the keywords, that are not relevant for the documentation
+   */
+  @NonNull
+  private static String getSignature(@NonNull String pDeclaration)
+  {
+    String signature = pDeclaration.replaceFirst("^(?:export\\s+)?(?:default\\s+)?(?:declare\\s+)?", "");
+    int body = signature.indexOf('{');
+    if (body > 0 && !signature.substring(0, body).contains("("))
+      return signature.substring(0, body).trim();
+    if (signature.endsWith("{"))
+      signature = signature.substring(0, signature.length() - 1);
+    return signature.replaceFirst("[;,]$", "").trim();
+  }
+
+  private static void appendCommentLine(@NonNull StringBuilder pComment, @NonNull String pLine)
+  {
+    String line = pLine.trim();
+    if (line.startsWith("*"))
+      line = line.substring(1).trim();
+    if (pComment.length() > 0)
+      pComment.append('\n');
+    pComment.append(line);
+  }
+
+  /**
+   * @param pLine line of code
+   * @return the number of opened minus the number of closed braces, braces in strings and comments are ignored
+   */
+  private static int countBraces(@NonNull String pLine)
+  {
+    int count = 0;
+    char quote = 0;
+    for (int i = 0; i < pLine.length(); i++)
+    {
+      char character = pLine.charAt(i);
+      if (quote != 0)
+      {
+        if (character == '\\')
+          i++;
+        else if (character == quote)
+          quote = 0;
+      }
+      else if (character == '"' || character == '\'' || character == '`')
+        quote = character;
+      else if (character == '/' && i + 1 < pLine.length() && pLine.charAt(i + 1) == '/')
+        break;
+      else if (character == '{')
+        count++;
+      else if (character == '}')
+        count--;
+    }
+    return count;
+  }
+
+  /**
+   * Namespace, module or class that contains the following declarations
+   */
+  private static class Scope
+  {
+    private final String name;
+    private final int depth;
+
+    private Scope(@NonNull String pName, int pDepth)
+    {
+      name = pName;
+      depth = pDepth;
+    }
+  }
+}
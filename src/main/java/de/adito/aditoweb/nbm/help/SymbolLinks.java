@@ -0,0 +1,211 @@
+package de.adito.aditoweb.nbm.help;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.reactivex.rxjava3.annotations.Nullable;
+import lombok.NonNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.regex.*;
+
+/**
+ * Maps the jdito symbols of a rendered documentation to the page and anchor that documents them, so the documentation can be opened directly
+ * at the symbol the user is editing, e.g. "neon.openContext" to "neon.html#.openContext". The links are extracted by the {@link SearchIndex} while
+ * it reads the pages once after rendering and stored next to them. The file only contains every page with the ids of its anchors, the symbols are
+ * derived from them while loading the links into a hash map.
+ */
+final class SymbolLinks
+{
+  /**
+   * Name of the file with the links in the directory of the documentation
+   */
+  static final String FILE_NAME = "symbol-links.bin";
+
+  private static final int MAGIC = 0x4A44534C;
+  private static final int VERSION = 1;
+  // jsdoc renders the global members onto this page, they are documented without a prefix
+  private static final String GLOBAL_PAGE = "global";
+  private static final String MODULE_PREFIX = "module-";
+  private static final Pattern ANCHOR = Pattern.compile("<h[2-6][^>]*\\sid=\"([^\"]+)\"", Pattern.CASE_INSENSITIVE);
+
+  private final Map<String, String> links;
+
+  private SymbolLinks(@NonNull Map<String, String> pLinks)
+  {
+    links = pLinks;
+  }
+
+  /**
+   * Loads the links of a rendered documentation
+   *
+   * @param pDocumentation directory of the rendered documentation
+   * @return the links or empty links, if the documentation was rendered without them
+   * @throws IOException if the links could not be read
+   */
+  @NonNull
+  static SymbolLinks load(@NonNull Path pDocumentation) throws IOException
+  {
+    Path file = pDocumentation.resolve(FILE_NAME);
+    if (!Files.isRegularFile(file))
+      return new Builder().build();
+    try (InputStream input = Files.newInputStream(file))
+    {
+      return read(input);
+    }
+  }
+
+  /**
+   * Extracts the links of a html page: the page itself and every member heading with an id
+   *
+   * @param pUrl     url of the page, relative to the documentation
+   * @param pHtml    content of the page
+   * @param pBuilder builder the links are added to
+   */
+  static void index(@NonNull String pUrl, @NonNull String pHtml, @NonNull Builder pBuilder)
+  {
+    if (!pUrl.endsWith(".html"))
+      return;
+    List<String> anchors = new ArrayList<>();
+    Matcher anchor = ANCHOR.matcher(pHtml);
+    while (anchor.find())
+      anchors.add(anchor.group(1));
+    pBuilder.add(pUrl, anchors);
+  }
+
+  /**
+   * Finds the page of a symbol. If the symbol is not documented itself, e.g. a property of a returned object, the page of the nearest documented
+   * parent is returned.
+   *
+   * @param pSymbol qualified symbol, e.g. "neon.openContext"
+   * @return the url of the symbol relative to the documentation or null, if neither the symbol nor one of its parents is documented
+   */
+  @Nullable
+  String find(@NonNull String pSymbol)
+  {
+    String symbol = pSymbol.trim();
+    while (!symbol.isEmpty())
+    {
+      String url = links.get(symbol);
+      if (url != null)
+        return url;
+      int separator = symbol.lastIndexOf('.');
+      symbol = separator < 0 ? "" : symbol.substring(0, separator);
+    }
+    return null;
+  }
+
+  /**
+   * @return the number of symbols with a link
+   */
+  int size()
+  {
+    return links.size();
+  }
+
+  /**
+   * Reads the links, that were written by {@link Builder#write(OutputStream)}
+   *
+   * @param pInputStream stream the links are read from
+   * @return the links
+   * @throws IOException if the links could not be read or have another format
+   */
+  @NonNull
+  static SymbolLinks read(@NonNull InputStream pInputStream) throws IOException
+  {
+    DataInputStream input = new DataInputStream(new BufferedInputStream(pInputStream));
+    if (input.readInt() != MAGIC || input.readInt() != VERSION)
+      throw new IOException("unsupported symbol links format");
+
+    Builder builder = new Builder();
+    int pageCount = input.readInt();
+    for (int i = 0; i < pageCount; i++)
+    {
+      String url = input.readUTF();
+      List<String> anchors = new ArrayList<>();
+      for (int anchorCount = input.readInt(); anchors.size() < anchorCount; )
+        anchors.add(input.readUTF());
+      builder.add(url, anchors);
+    }
+    return builder.build();
+  }
+
+  /**
+   * @param pUrl url of a page, relative to the documentation
+   * @return the symbol of the page, e.g. "neon" for "neon.html" or an empty string for the page of the global members
+   */
+  @VisibleForTesting
+  @NonNull
+  static String getPageSymbol(@NonNull String pUrl)
+  {
+    String name = pUrl.substring(pUrl.lastIndexOf('/') + 1).replaceFirst("\\.html$", "");
+    if (name.startsWith(MODULE_PREFIX))
+      name = name.substring(MODULE_PREFIX.length());
+    return GLOBAL_PAGE.equals(name) ? "" : name;
+  }
+
+  /**
+   * Collects the pages with their anchors
+   */
+  static class Builder
+  {
+    private final Map<String, List<String>> pages = new LinkedHashMap<>();
+
+    /**
+     * @param pUrl     url of the page, relative to the documentation
+     * @param pAnchors ids of the anchors of the members on the page
+     * @return this builder
+     */
+    @NonNull
+    Builder add(@NonNull String pUrl, @NonNull List<String> pAnchors)
+    {
+      pages.computeIfAbsent(pUrl, pPage -> new ArrayList<>()).addAll(pAnchors);
+      return this;
+    }
+
+    /**
+     * Writes the pages in the binary format of the links
+     *
+     * @param pOutputStream stream the links are written to
+     * @throws IOException if the links could not be written
+     */
+    void write(@NonNull OutputStream pOutputStream) throws IOException
+    {
+      DataOutputStream output = new DataOutputStream(new BufferedOutputStream(pOutputStream));
+      output.writeInt(MAGIC);
+      output.writeInt(VERSION);
+      output.writeInt(pages.size());
+      for (Map.Entry<String, List<String>> page : pages.entrySet())
+      {
+        output.writeUTF(page.getKey());
+        output.writeInt(page.getValue().size());
+        for (String anchor : page.getValue())
+          output.writeUTF(anchor);
+      }
+      output.flush();
+    }
+
+    /**
+     * @return the links of all added pages, the first page that documents a symbol wins
+     */
+    @NonNull
+    SymbolLinks build()
+    {
+      Map<String, String> links = new HashMap<>();
+      pages.forEach((pUrl, pAnchors) -> {
+        String pageSymbol = getPageSymbol(pUrl);
+        if (!pageSymbol.isEmpty())
+          links.putIfAbsent(pageSymbol, pUrl);
+        for (String anchor : pAnchors)
+        {
+          // static and inner members have ids like ".name" or "~name"
+          String name = anchor.replaceFirst("^[.#~]", "");
+          if (!name.isEmpty())
+            links.putIfAbsent(pageSymbol.isEmpty() ? name : pageSymbol + "." + name, pUrl + "#" + anchor);
+        }
+      });
+      return new SymbolLinks(links);
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package de.adito.aditoweb.nbm.help;
+
+import com.google.common.annotations.VisibleForTesting;
+import lombok.NonNull;
+import org.openide.modules.Places;
+
+import java.io.*;
+import java.util.Properties;
+import java.util.logging.*;
+
+/**
+ * Persistent cache for the results of the npm verifications. Every entry stores the fingerprint of the state that was successfully verified,
+ * so as long as the fingerprint does not change the verification does not have to be executed again.
+ */
+class VerificationCache
+{
+  private static final Logger LOGGER = Logger.getLogger(VerificationCache.class.getName());
+  private static final String FILE_NAME = "verification.properties";
+
+  private final File file;
+  private Properties properties;
+
+  @VisibleForTesting
+  VerificationCache(@NonNull File pFile)
+  {
+    file = pFile;
+  }
+
+  /**
+   * @return the cache that is stored in the help cache directory
+   */
+  @NonNull
+  static VerificationCache getInstance()
+  {
+    return Holder.INSTANCE;
+  }
+
+  /**
+   * Checks if the given key was verified with the given fingerprint
+   *
+   * @param pKey         key of the verification
+   * @param pFingerprint fingerprint of the current state
+   * @return true, if the verification was successful for exactly this fingerprint
+   */
+  synchronized boolean isVerified(@NonNull String pKey, @NonNull String pFingerprint)
+  {
+    return pFingerprint.equals(load().getProperty(pKey));
+  }
+
+  /**
+   * Stores that the verification of the given key was successful for the given fingerprint
+   *
+   * @param pKey         key of the verification
+   * @param pFingerprint fingerprint of the verified state
+   */
+  synchronized void setVerified(@NonNull String pKey, @NonNull String pFingerprint)
+  {
+    if (!pFingerprint.equals(load().setProperty(pKey, pFingerprint)))
+      store();
+  }
+
+  /**
+   * Removes the verification of the given key, so it has to be executed again
+   *
+   * @param pKey key of the verification
+   */
+  synchronized void invalidate(@NonNull String pKey)
+  {
+    if (load().remove(pKey) != null)
+      store();
+  }
+
+  @NonNull
+  private Properties load()
+  {
+    if (properties == null)
+    {
+      properties = new Properties();
+      if (file.isFile())
+      {
+        try (InputStream inputStream = new FileInputStream(file))
+        {
+          properties.load(inputStream);
+        }
+        catch (IOException | IllegalArgumentException pE)
+        {
+          // a broken cache only means that everything gets verified again
+          LOGGER.log(Level.WARNING, "could not read the verification cache " + file, pE);
+          properties.clear();
+        }
+      }
+    }
+    return properties;
+  }
+
+  private void store()
+  {
+    try (OutputStream outputStream = new FileOutputStream(file))
+    {
+      properties.store(outputStream, null);
+    }
+    catch (IOException pE)
+    {
+      LOGGER.log(Level.WARNING, "could not write the verification cache " + file, pE);
+    }
+  }
+
+  /**
+   * Lazy holder, so the cache directory is only resolved when the cache is used for the first time
+   */
+  private static class Holder
+  {
+    private static final VerificationCache INSTANCE = new VerificationCache(new File(Places.getCacheSubdirectory("help"), FILE_NAME));
+  }
+}
@@ -0,0 +1,76 @@
+'use strict';
+/*
+ * Search of the documentation in the ADITO Designer. The documentation is searched by the documentation server of the IDE ("search?q=..."),
+ * so the browser does not have to load the search data of the whole documentation.
+ */
+(function ()
+{
+  const searchUrl = new URL('search', document.currentScript.src);
+  const baseUrl = new URL('./', document.currentScript.src);
+  let requestCount = 0;
+  let timer = null;
+
+  const container = document.createElement('div');
+  container.style.cssText = 'position:fixed;top:8px;right:16px;z-index:1000;width:360px;font-size:14px;';
+  const input = document.createElement('input');
+  input.type = 'search';
+  input.placeholder = 'Search the documentation';
+  input.style.cssText = 'width:100%;box-sizing:border-box;padding:6px 10px;border-radius:4px;border:1px solid #888;';
+  const list = document.createElement('ul');
+  list.style.cssText = 'display:none;list-style:none;margin:4px 0 0;padding:0;max-height:70vh;overflow:auto;background:#fff;color:#222;'
+      + 'border:1px solid #888;border-radius:4px;box-shadow:0 2px 8px rgba(0,0,0,.3);';
+  container.appendChild(input);
+  container.appendChild(list);
+  document.body.appendChild(container);
+
+  function show(results)
+  {
+    list.innerHTML = '';
+    results.forEach(result => {
+      const item = document.createElement('li');
+      item.style.cssText = 'padding:6px 10px;border-bottom:1px solid #eee;';
+      const link = document.createElement('a');
+      link.href = new URL(result.url, baseUrl).href;
+      link.textContent = result.title;
+      link.style.fontWeight = 'bold';
+      const description = document.createElement('div');
+      description.textContent = result.description;
+      description.style.cssText = 'font-size:12px;color:#555;';
+      item.appendChild(link);
+      item.appendChild(description);
+      list.appendChild(item);
+    });
+    list.style.display = results.length ? 'block' : 'none';
+  }
+
+  function search()
+  {
+    const query = input.value.trim();
+    const request = ++requestCount;
+    if (!query)
+    {
+      show([]);
+      return;
+    }
+    fetch(searchUrl.href + '?q=' + encodeURIComponent(query))
+        .then(response => response.json())
+        .then(results => {
+          // an answer to an older query must not replace the results of a newer one
+          if (request === requestCount)
+            show(results);
+        })
+        .catch(() => show([]));
+  }
+
+  input.addEventListener('input', () => {
+    clearTimeout(timer);
+    timer = setTimeout(search, 100);
+  });
+  input.addEventListener('keydown', event => {
+    const first = list.querySelector('a');
+    if (event.key === 'Enter' && first)
+      window.location.href = first.href;
+    else if (event.key === 'Escape')
+      show([]);
+  });
+})();
@@ -0,0 +1,141 @@
+'use strict';
+/*
+ * Long-lived jsdoc process of the ADITO Designer. It loads jsdoc, its plugins and the template once and renders one documentation per request,
+ * so a rendering does not pay for the start of NodeJS and for loading the toolchain again.
+ *
+ * Usage: node jsdoc-worker.js <directory of the jsdoc module>
+ *
+ * Every line of stdin is one request: {"id": 1, "args": ["--configure", "/path/to/jsdoc.json", "--verbose"]}
+ * The output of jsdoc is passed through unchanged. The end of a request is marked by the line "@@jsdoc-worker:done:<id>:<exit code>".
+ * The worker exits when stdin is closed.
+ *
+ * jsdoc, its template and its plugins keep registries in their modules, e.g. the links of jsdoc/util/templateHelper. They are removed from the
+ * module cache after every rendering and loaded again, so no symbol of one documentation leaks into the next. Only the libraries they use stay
+ * loaded, e.g. typescript.
+ */
+const fs = require('fs');
+const path = require('path');
+const readline = require('readline');
+
+const DONE_MARKER = '@@jsdoc-worker:done:';
+const jsdocPath = fs.realpathSync(process.argv[2]);
+
+// the same module lookup as in jsdoc.js, so jsdoc finds its own modules and the plugins
+require = require(path.join(jsdocPath, 'node_modules', 'requizzle'))({
+  requirePaths: {
+    before: [path.join(jsdocPath, 'lib')],
+    after: [path.join(jsdocPath, 'node_modules')]
+  },
+  infect: true
+});
+
+// the worker itself and the module lookup are never unloaded
+const bootstrapModules = new Set(Object.keys(require.cache));
+let env;
+let cli;
+
+/**
+ * Loads jsdoc with a new state
+ */
+function loadJSDoc()
+{
+  env = require(path.join(jsdocPath, 'lib', 'jsdoc', 'env'));
+  env.dirname = jsdocPath;
+  env.pwd = process.cwd();
+  global.env = env;
+  global.app = require(path.join(jsdocPath, 'lib', 'jsdoc', 'app'));
+  cli = require(path.join(jsdocPath, 'cli'));
+}
+
+/**
+ * @return the name of the npm package a module belongs to or null, if the module is not part of a package
+ */
+function getPackageName(module)
+{
+  const segments = module.split(/[\\/]/);
+  const index = segments.lastIndexOf('node_modules');
+  if (index < 0 || index + 1 >= segments.length)
+    return null;
+  const name = segments[index + 1];
+  return name.startsWith('@') && index + 2 < segments.length ? name + '/' + segments[index + 2] : name;
+}
+
+/**
+ * Removes jsdoc, the template and the plugins of the last rendering from the module cache, the libraries they use stay loaded.
+ * Templates also read the destination of the rendering when they are loaded.
+ */
+function unloadJSDoc()
+{
+  const renderingPackages = new Set([getPackageName(path.join(jsdocPath, 'cli.js'))]);
+  if (env.opts && env.opts.template)
+    renderingPackages.add(getPackageName(path.join(path.resolve(env.opts.template), 'publish.js')));
+  ((env.conf && env.conf.plugins) || []).forEach(plugin => {
+    // a plugin is either the path of its module or its name, e.g. "jsdoc-mermaid" or "better-docs/category"
+    const segments = plugin.split(/[\\/]/);
+    renderingPackages.add(path.isAbsolute(plugin) ? getPackageName(plugin)
+                                                  : segments[0].startsWith('@') ? segments[0] + '/' + segments[1] : segments[0]);
+  });
+
+  Object.keys(require.cache)
+      .filter(module => !bootstrapModules.has(module))
+      .filter(module => {
+        const packageName = getPackageName(module);
+        return packageName === null || renderingPackages.has(packageName);
+      })
+      .forEach(module => delete require.cache[module]);
+}
+
+/**
+ * Renders one documentation with the given command line arguments of jsdoc
+ */
+function render(args)
+{
+  return new Promise(resolve => {
+    env.args = args;
+    env.opts = {};
+    env.conf = {};
+    env.sourceFiles = [];
+    env.run = {start: new Date(), finish: null};
+
+    cli.setVersionInfo().loadConfig();
+    cli.configureLogger();
+    cli.logStart();
+    cli.runCommand(errorCode => {
+      cli.logFinish();
+      resolve(errorCode || 0);
+    });
+  });
+}
+
+loadJSDoc();
+
+// the requests are rendered one after another, jsdoc keeps its state in global modules
+let queue = Promise.resolve();
+readline.createInterface({input: process.stdin, terminal: false})
+    .on('line', line => {
+      if (!line.trim())
+        return;
+      const request = JSON.parse(line);
+      queue = queue
+          .then(() => render(request.args))
+          .catch(error => {
+            console.error(error && error.stack ? error.stack : String(error));
+            return 1;
+          })
+          .then(exitCode => {
+            // also a failed rendering may have filled the registries
+            try
+            {
+              unloadJSDoc();
+              loadJSDoc();
+            }
+            catch (error)
+            {
+              // without jsdoc no request can be rendered, the IDE completes the pending requests when the worker exits
+              console.error(error && error.stack ? error.stack : String(error));
+              process.exit(1);
+            }
+            console.log(DONE_MARKER + request.id + ':' + exitCode);
+          });
+    })
+    .on('close', () => queue.then(() => process.exit(0)));
@@ -0,0 +1,148 @@
+package de.adito.aditoweb.nbm.help;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.*;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.zip.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link BundledToolchain}
+ */
+class BundledToolchainTest
+{
+  private static final String RESOURCE_DIRECTORY = "de/adito/aditoweb/nbm/help/";
+
+  @TempDir
+  Path tempDir;
+
+  private Path resources;
+  private Path cache;
+
+  @BeforeEach
+  void init() throws IOException
+  {
+    resources = Files.createDirectories(tempDir.resolve("resources").resolve(RESOURCE_DIRECTORY));
+    cache = tempDir.resolve("cache");
+  }
+
+  @Test
+  void shouldReturnNullWithoutArchive() throws IOException
+  {
+    assertNull(createToolchain().getDirectory());
+    assertFalse(Files.exists(cache));
+  }
+
+  @Test
+  void shouldExtractArchive() throws IOException, NoSuchAlgorithmException
+  {
+    writeArchive("node_modules/jsdoc/jsdoc.js", true);
+
+    Path directory = createToolchain().getDirectory();
+
+    assertNotNull(directory);
+    assertEquals("jsdoc", Files.readString(directory.resolve("node_modules/jsdoc/jsdoc.js")));
+    assertEquals(directory, cache.resolve(checksum(resources.resolve("toolchain.zip"))));
+  }
+
+  /**
+   * Tests that an archive is only extracted once, even by another IDE instance
+   */
+  @Test
+  void shouldExtractOnlyOnce() throws IOException, NoSuchAlgorithmException
+  {
+    writeArchive("node_modules/jsdoc/jsdoc.js", true);
+    Path directory = createToolchain().getDirectory();
+    Files.writeString(directory.resolve("node_modules/jsdoc/jsdoc.js"), "changed");
+
+    assertEquals(directory, createToolchain().getDirectory());
+    assertEquals("changed", Files.readString(directory.resolve("node_modules/jsdoc/jsdoc.js")));
+  }
+
+  /**
+   * Tests that the toolchains of other versions are only removed, if they were not used for a long time, because another IDE instance with
+   * another version of the module may still use them
+   */
+  @Test
+  void shouldOnlyRemoveUnusedVersions() throws IOException, NoSuchAlgorithmException
+  {
+    Path usedVersion = Files.createDirectories(cache.resolve("0".repeat(64)));
+    Files.createFile(usedVersion.resolve(".complete"));
+    Path unusedVersion = Files.createDirectories(cache.resolve("1".repeat(64)));
+    Files.setLastModifiedTime(Files.createFile(unusedVersion.resolve(".complete")), FileTime.from(Instant.now().minus(31, ChronoUnit.DAYS)));
+    writeArchive("node_modules/jsdoc/jsdoc.js", true);
+
+    createToolchain().getDirectory();
+
+    assertTrue(Files.exists(usedVersion));
+    assertFalse(Files.exists(unusedVersion));
+  }
+
+  @Test
+  void shouldRejectCorruptArchive() throws IOException, NoSuchAlgorithmException
+  {
+    writeArchive("node_modules/jsdoc/jsdoc.js", false);
+    BundledToolchain toolchain = createToolchain();
+
+    assertThrows(IOException.class, toolchain::getDirectory);
+    assertThrows(IOException.class, toolchain::getDirectory);
+    try (var entries = Files.list(cache))
+    {
+      assertEquals(0, entries.count());
+    }
+  }
+
+  /**
+   * Tests that an entry can not be written outside of the cache directory
+   */
+  @Test
+  void shouldRejectEntryOutsideOfDirectory() throws IOException, NoSuchAlgorithmException
+  {
+    writeArchive("../outside.js", true);
+
+    assertThrows(IOException.class, () -> createToolchain().getDirectory());
+    assertFalse(Files.exists(cache.resolve("outside.js")));
+  }
+
+  private BundledToolchain createToolchain() throws MalformedURLException
+  {
+    return new BundledToolchain(cache, new URLClassLoader(new URL[]{tempDir.resolve("resources").toUri().toURL()}, null));
+  }
+
+  /**
+   * Writes an archive with one file and its checksum
+   *
+   * @param pEntryName    name of the file in the archive
+   * @param pValidChecksum true, if the checksum should match the archive
+   */
+  private void writeArchive(String pEntryName, boolean pValidChecksum) throws IOException, NoSuchAlgorithmException
+  {
+    Path archive = resources.resolve("toolchain.zip");
+    try (ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(archive)))
+    {
+      output.putNextEntry(new ZipEntry(pEntryName));
+      output.write("jsdoc".getBytes(StandardCharsets.UTF_8));
+      output.closeEntry();
+    }
+    String checksum = pValidChecksum ? checksum(archive) : "f".repeat(64);
+    Files.writeString(resources.resolve("toolchain.zip.sha256"), checksum + " toolchain.zip");
+  }
+
+  private static String checksum(Path pFile) throws IOException, NoSuchAlgorithmException
+  {
+    byte[] digest = MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(pFile));
+    StringBuilder hex = new StringBuilder();
+    for (byte value : digest)
+      hex.append(String.format("%02x", value));
+    return hex.toString();
+  }
+}
@@ -0,0 +1,118 @@
+package de.adito.aditoweb.nbm.help;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link DocumentationArchive}
+ */
+class DocumentationArchiveTest
+{
+  private static final String INDEX_CONTENT = "<html>" + "index ".repeat(100) + "</html>";
+  private static final byte[] IMAGE_CONTENT = {1, 2, 3, 4, 5};
+
+  @TempDir
+  Path tempDir;
+
+  private DocumentationArchive archive;
+
+  @BeforeEach
+  void init() throws IOException
+  {
+    Path documentation = Files.createDirectories(tempDir.resolve("documentations"));
+    Files.writeString(documentation.resolve("index.html"), INDEX_CONTENT);
+    Files.writeString(Files.createDirectories(documentation.resolve("tutorials")).resolve("index.html"), "tutorials");
+    Files.write(Files.createDirectories(documentation.resolve("images")).resolve("logo.png"), IMAGE_CONTENT);
+    Path archiveFile = tempDir.resolve(DocumentationArchive.FILE_NAME);
+    DocumentationArchive.pack(documentation, archiveFile);
+    archive = DocumentationArchive.open(archiveFile);
+  }
+
+  @Test
+  void shouldReadEntries() throws IOException
+  {
+    assertEquals(3, archive.size());
+    assertEquals(INDEX_CONTENT, new String(archive.read(archive.find("index.html")), StandardCharsets.UTF_8));
+    assertArrayEquals(IMAGE_CONTENT, archive.read(archive.find("images/logo.png")));
+  }
+
+  /**
+   * Tests that only text files are compressed and that their deflate data is a valid gzip stream
+   */
+  @Test
+  void shouldProvideGzipData() throws IOException
+  {
+    DocumentationArchive.Entry entry = archive.find("index.html");
+    assertTrue(entry.isCompressed());
+    assertFalse(archive.find("images/logo.png").isCompressed());
+
+    ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+    for (ByteBuffer buffer : archive.getGzipData(entry))
+    {
+      byte[] bytes = new byte[buffer.remaining()];
+      buffer.get(bytes);
+      gzip.write(bytes);
+    }
+
+    assertEquals(entry.getGzipSize(), gzip.size());
+    try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(gzip.toByteArray())))
+    {
+      assertEquals(INDEX_CONTENT, new String(input.readAllBytes(), StandardCharsets.UTF_8));
+    }
+  }
+
+  @ParameterizedTest
+  @CsvSource({"'', index.html", "tutorials, tutorials/index.html", "tutorials/, tutorials/index.html", "./images/../index.html, index.html"})
+  void shouldFindEntry(String pPath, String pExpected)
+  {
+    assertEquals(pExpected, archive.find(pPath).getName());
+  }
+
+  @ParameterizedTest
+  @CsvSource({"missing.html", "images/", "../index.html"})
+  void shouldNotFindMissingEntry(String pPath)
+  {
+    assertNull(archive.find(pPath));
+  }
+
+  @Test
+  void shouldUseDifferentETagsForVariants()
+  {
+    DocumentationArchive.Entry entry = archive.find("index.html");
+
+    assertNotEquals(entry.getETag(false), entry.getETag(true));
+    assertNotEquals(entry.getETag(false), archive.find("tutorials/index.html").getETag(false));
+  }
+
+  /**
+   * Tests that the archive is neither kept open nor mapped, otherwise the store could not remove it on Windows
+   */
+  @Test
+  void shouldNotKeepArchiveOpen() throws IOException
+  {
+    DocumentationArchive.Entry entry = archive.find("index.html");
+    archive.read(entry);
+
+    Files.delete(tempDir.resolve(DocumentationArchive.FILE_NAME));
+
+    assertThrows(IOException.class, () -> archive.read(entry));
+  }
+
+  @Test
+  void shouldRejectInvalidArchive() throws IOException
+  {
+    Path invalid = Files.writeString(tempDir.resolve("invalid.zip"), "no zip");
+
+    assertThrows(IOException.class, () -> DocumentationArchive.open(invalid));
+  }
+}
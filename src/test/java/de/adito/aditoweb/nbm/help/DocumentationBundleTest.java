@@ -0,0 +1,81 @@
+package de.adito.aditoweb.nbm.help;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.zip.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link DocumentationBundle}
+ */
+class DocumentationBundleTest
+{
+  @TempDir
+  Path tempDir;
+
+  private Path documentation;
+
+  @BeforeEach
+  void init() throws IOException
+  {
+    documentation = Files.createDirectories(tempDir.resolve("documentation"));
+    Files.writeString(documentation.resolve("index.html"), "<html>index</html>");
+    Files.write(Files.createDirectories(documentation.resolve("images")).resolve("logo.png"), new byte[]{1, 2, 3});
+  }
+
+  @AfterEach
+  void cleanup()
+  {
+    System.clearProperty(DocumentationBundle.DIRECTORY_PROPERTY);
+  }
+
+  @Test
+  void shouldExtractCreatedBundle() throws IOException
+  {
+    Path bundle = DocumentationBundle.create(documentation, tempDir.resolve("bundles"), "fingerprint");
+    Path target = tempDir.resolve("target");
+
+    DocumentationBundle.extract(bundle, target);
+
+    assertEquals(tempDir.resolve("bundles").resolve("fingerprint.zip"), bundle);
+    assertEquals("<html>index</html>", Files.readString(target.resolve("index.html")));
+    assertArrayEquals(new byte[]{1, 2, 3}, Files.readAllBytes(target.resolve("images/logo.png")));
+  }
+
+  @Test
+  void shouldFindBundleOfFingerprint() throws IOException
+  {
+    Path bundle = DocumentationBundle.create(documentation, tempDir.resolve("bundles"), "fingerprint");
+    assertNull(DocumentationBundle.find("fingerprint"));
+
+    System.setProperty(DocumentationBundle.DIRECTORY_PROPERTY, tempDir.resolve("bundles").toString());
+
+    assertEquals(bundle, DocumentationBundle.find("fingerprint"));
+    assertNull(DocumentationBundle.find("otherFingerprint"));
+  }
+
+  /**
+   * Tests that a bundle can not write files outside of the target directory
+   */
+  @Test
+  void shouldRejectEntryOutsideOfTarget() throws IOException
+  {
+    Path bundle = tempDir.resolve("invalid.zip");
+    try (ZipOutputStream output = new ZipOutputStream(Files.newOutputStream(bundle)))
+    {
+      output.putNextEntry(new ZipEntry("../outside.html"));
+      output.write("outside".getBytes(StandardCharsets.UTF_8));
+      output.closeEntry();
+    }
+    Path target = tempDir.resolve("target");
+
+    assertThrows(IOException.class, () -> DocumentationBundle.extract(bundle, target));
+    assertFalse(Files.exists(tempDir.resolve("outside.html")));
+    assertFalse(Files.exists(target));
+  }
+}
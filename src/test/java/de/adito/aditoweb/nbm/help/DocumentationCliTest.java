@@ -0,0 +1,80 @@
+package de.adito.aditoweb.nbm.help;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link DocumentationCli}
+ */
+class DocumentationCliTest
+{
+  @TempDir
+  Path tempDir;
+
+  private ByteArrayOutputStream output;
+  private DocumentationCli cli;
+
+  @BeforeEach
+  void init()
+  {
+    output = new ByteArrayOutputStream();
+    cli = new DocumentationCli(new PrintStream(output, true, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void shouldParseOptions()
+  {
+    DocumentationCli.Options options = DocumentationCli.Options.parse(new String[]{"--project", "project", "--toolchain", "toolchain",
+                                                                                   "--output", "output", "--node", "/usr/bin/node"});
+
+    assertNotNull(options);
+    assertEquals(Paths.get("project"), options.project);
+    assertEquals(Paths.get("toolchain"), options.toolchain);
+    assertEquals(Paths.get("output"), options.output);
+    assertEquals("/usr/bin/node", options.node);
+  }
+
+  @Test
+  void shouldUseNodeOfPath()
+  {
+    DocumentationCli.Options options = DocumentationCli.Options.parse(new String[]{"--project", "project", "--toolchain", "toolchain",
+                                                                                   "--output", "output"});
+
+    assertNotNull(options);
+    assertEquals("node", options.node);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"", "--project project --toolchain toolchain", "--project project --toolchain toolchain --output",
+                          "--project project --toolchain toolchain --output output --unknown value",
+                          "--project project --project other --toolchain toolchain --output output"})
+  void shouldPrintUsageForInvalidArguments(String pArgs)
+  {
+    assertEquals(DocumentationCli.EXIT_USAGE, cli.run(pArgs.isEmpty() ? new String[0] : pArgs.split(" ")));
+    assertTrue(output.toString(StandardCharsets.UTF_8).startsWith("usage:"));
+  }
+
+  /**
+   * Tests that nothing is rendered, if the project does not contain supported jdito-types
+   */
+  @Test
+  void shouldFailWithoutSupportedJDitoTypes() throws IOException
+  {
+    Path jditoTypes = Files.createDirectories(tempDir.resolve("project/node_modules/@aditosoftware/jdito-types"));
+    Files.writeString(jditoTypes.resolve("package.json"), "{\"version\": \"2022.2.0\"}");
+
+    int exitCode = cli.run(new String[]{"--project", tempDir.resolve("project").toString(), "--toolchain", tempDir.toString(),
+                                        "--output", tempDir.resolve("output").toString()});
+
+    assertEquals(DocumentationCli.EXIT_FAILURE, exitCode);
+    assertFalse(Files.exists(tempDir.resolve("output")));
+  }
+}
@@ -0,0 +1,70 @@
+package de.adito.aditoweb.nbm.help;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link DocumentationIndex}
+ */
+class DocumentationIndexTest
+{
+  @TempDir
+  Path tempDir;
+
+  /**
+   * Tests that projects with the same documentation share one mount and are listed together
+   */
+  @Test
+  void shouldMountIdenticalDocumentationsOnce()
+  {
+    DocumentationIndex index = new DocumentationIndex();
+    index.add("basic", tempDir.resolve("a"));
+    index.add("sales", tempDir.resolve("b"));
+    index.add("service", tempDir.resolve("a"));
+
+    assertEquals(Map.of("basic", tempDir.resolve("a"), "sales", tempDir.resolve("b")), index.getMounts());
+    assertTrue(index.toHtml().contains("<a href=\"basic/\">basic, service</a>"));
+  }
+
+  /**
+   * Tests that the names of the mounts are unique and can be used in a path
+   */
+  @Test
+  void shouldCreateUniqueMountNames()
+  {
+    DocumentationIndex index = new DocumentationIndex();
+    index.add("my project", tempDir.resolve("a"));
+    index.add("my/project", tempDir.resolve("b"));
+    index.add("..", tempDir.resolve("c"));
+
+    assertEquals(Map.of("my_project", tempDir.resolve("a"), "my_project-2", tempDir.resolve("b"), "project..", tempDir.resolve("c")),
+                 index.getMounts());
+  }
+
+  @Test
+  void shouldEscapeProjectNames()
+  {
+    DocumentationIndex index = new DocumentationIndex();
+    index.add("<script>", tempDir.resolve("a"));
+
+    assertFalse(index.toHtml().contains("<script>"));
+  }
+
+  @Test
+  void shouldWriteStartPage() throws IOException
+  {
+    DocumentationIndex index = new DocumentationIndex();
+    index.add("basic", tempDir.resolve("a"));
+
+    Path directory = index.write(tempDir.resolve("index"));
+
+    assertEquals(index.toHtml(), Files.readString(directory.resolve("index.html")));
+    assertEquals(directory, index.write(tempDir.resolve("index")));
+  }
+}
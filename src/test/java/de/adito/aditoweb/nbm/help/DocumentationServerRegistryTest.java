@@ -0,0 +1,105 @@
+package de.adito.aditoweb.nbm.help;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link DocumentationServerRegistry} that reuses the documentation servers of the projects
+ */
+class DocumentationServerRegistryTest
+{
+  @TempDir
+  Path tempDir;
+
+  private DocumentationServerRegistry registry;
+
+  @BeforeEach
+  void init()
+  {
+    registry = new DocumentationServerRegistry(60_000);
+  }
+
+  @AfterEach
+  void tearDown()
+  {
+    registry.closeAll();
+  }
+
+  @Test
+  void shouldReuseRunningServer() throws IOException
+  {
+    DocumentationServer server = registry.getOrStart("project", tempDir);
+
+    assertSame(server, registry.getOrStart("project", tempDir));
+    assertSame(server, registry.find("project"));
+  }
+
+  @Test
+  void shouldStartOneServerPerProject() throws IOException
+  {
+    assertNotSame(registry.getOrStart("project1", tempDir), registry.getOrStart("project2", tempDir));
+  }
+
+  /**
+   * Tests that a server that serves another directory is replaced and stopped
+   */
+  @Test
+  void shouldReplaceServerForOtherRoot() throws IOException
+  {
+    DocumentationServer server = registry.getOrStart("project", tempDir);
+
+    DocumentationServer newServer = registry.getOrStart("project", Files.createDirectories(tempDir.resolve("other")));
+
+    assertNotSame(server, newServer);
+    assertFalse(server.isRunning());
+  }
+
+  @Test
+  void shouldStartNewServerIfStopped() throws IOException
+  {
+    DocumentationServer server = registry.getOrStart("project", tempDir);
+    server.close();
+
+    assertNull(registry.find("project"));
+    assertTrue(registry.getOrStart("project", tempDir).isRunning());
+  }
+
+  @Test
+  void shouldCloseIdleServers() throws IOException
+  {
+    DocumentationServerRegistry idleRegistry = new DocumentationServerRegistry(-1);
+    DocumentationServer server = idleRegistry.getOrStart("project", tempDir);
+
+    idleRegistry.closeIdleServers();
+
+    assertFalse(server.isRunning());
+    assertNull(idleRegistry.find("project"));
+  }
+
+  @Test
+  void shouldKeepActiveServers() throws IOException
+  {
+    DocumentationServer server = registry.getOrStart("project", tempDir);
+
+    registry.closeIdleServers();
+
+    assertTrue(server.isRunning());
+  }
+
+  @Test
+  void shouldCloseAllServers() throws IOException
+  {
+    DocumentationServer server1 = registry.getOrStart("project1", tempDir);
+    DocumentationServer server2 = registry.getOrStart("project2", tempDir);
+
+    registry.closeAll();
+
+    assertFalse(server1.isRunning());
+    assertFalse(server2.isRunning());
+  }
+}
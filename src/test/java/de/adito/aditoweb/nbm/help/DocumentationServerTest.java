@@ -0,0 +1,260 @@
+package de.adito.aditoweb.nbm.help;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link DocumentationServer} that serves the rendered documentation inside the IDE
+ */
+class DocumentationServerTest
+{
+  private static final String INDEX_CONTENT = "<html>index</html>";
+
+  @TempDir
+  Path tempDir;
+
+  private Path root;
+  private DocumentationServer server;
+
+  @BeforeEach
+  void init() throws IOException
+  {
+    root = Files.createDirectories(tempDir.resolve("documentations"));
+    Files.writeString(root.resolve("index.html"), INDEX_CONTENT);
+    Files.writeString(Files.createDirectories(root.resolve("styles")).resolve("main.css"), "body {}");
+    Files.writeString(tempDir.resolve("secret.txt"), "secret");
+    server = DocumentationServer.start(root);
+  }
+
+  @AfterEach
+  void tearDown() throws IOException
+  {
+    server.close();
+  }
+
+  @Test
+  void shouldServeIndexForRoot() throws IOException
+  {
+    HttpURLConnection connection = open("/");
+
+    assertEquals(200, connection.getResponseCode());
+    assertEquals("text/html; charset=utf-8", connection.getContentType());
+    try (InputStream inputStream = connection.getInputStream())
+    {
+      assertEquals(INDEX_CONTENT, new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  void shouldAnswerNotModifiedForMatchingETag() throws IOException
+  {
+    String eTag = open("/styles/main.css").getHeaderField("ETag");
+
+    HttpURLConnection connection = open("/styles/main.css");
+    connection.setRequestProperty("If-None-Match", eTag);
+
+    assertNotNull(eTag);
+    assertEquals(304, connection.getResponseCode());
+  }
+
+  /**
+   * Tests that nothing outside of the root can be requested
+   */
+  @ParameterizedTest
+  @CsvSource({"/missing.html", "/%2e%2e/secret.txt", "/..%2fsecret.txt", "/%zz"})
+  void shouldNotServeFilesOutsideOfRoot(String pPath) throws IOException
+  {
+    assertEquals(404, open(pPath).getResponseCode());
+  }
+
+  /**
+   * Tests that mounted directories are served below their name and that a mount without a trailing slash is redirected,
+   * because the documentation links relative to its directory
+   */
+  @Test
+  void shouldServeMounts() throws IOException
+  {
+    Path mount = Files.createDirectories(tempDir.resolve("mount"));
+    Files.writeString(mount.resolve("index.html"), "<html>mount</html>");
+    server.close();
+    server = DocumentationServer.start(root, Map.of("project", mount));
+
+    HttpURLConnection connection = open("/project/");
+    assertEquals(200, connection.getResponseCode());
+    try (InputStream inputStream = connection.getInputStream())
+    {
+      assertEquals("<html>mount</html>", new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    HttpURLConnection redirect = open("/project");
+    redirect.setInstanceFollowRedirects(false);
+    assertEquals(301, redirect.getResponseCode());
+    assertEquals("/project/", redirect.getHeaderField("Location"));
+
+    assertEquals(404, open("/project/../../secret.txt").getResponseCode());
+    assertTrue(server.serves(root, Map.of("project", mount)));
+    assertFalse(server.serves(root, Map.of()));
+  }
+
+  /**
+   * Tests that a search is answered from the search index of the requested documentation
+   */
+  @Test
+  void shouldAnswerSearch() throws IOException
+  {
+    Path mount = Files.createDirectories(tempDir.resolve("mount"));
+    Files.writeString(mount.resolve("neon.html"), "<html><body><h1>neon</h1><h4 class=\"name\" id=\".openContext\">openContext(pContext)</h4>"
+        + "<div class=\"description\">Opens a context.</div></body></html>");
+    SearchIndex.create(mount);
+    server.close();
+    server = DocumentationServer.start(root, Map.of("project", mount));
+
+    HttpURLConnection connection = open("/project/search?q=neon.openCon");
+    assertEquals(200, connection.getResponseCode());
+    assertEquals("application/json; charset=utf-8", connection.getContentType());
+    try (InputStream inputStream = connection.getInputStream())
+    {
+      assertEquals("[{\"title\":\"neon.openContext\",\"url\":\"neon.html#.openContext\",\"description\":\"Opens a context.\"}]",
+                   new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    try (InputStream inputStream = open("/search?q=neon").getInputStream())
+    {
+      assertEquals("[]", new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+    }
+  }
+
+  /**
+   * Tests that a symbol is resolved to its page in the root or in a mount, also if the documentation is served from an archive
+   */
+  @Test
+  void shouldFindSymbol() throws IOException
+  {
+    Path mount = Files.createDirectories(tempDir.resolve("mount"));
+    Files.writeString(mount.resolve("neon.html"), "<html><body><h1>neon</h1><h4 class=\"name\" id=\".openContext\">openContext()</h4></body></html>");
+    SearchIndex.create(mount);
+    Path archive = tempDir.resolve(DocumentationArchive.FILE_NAME);
+    DocumentationArchive.pack(mount, archive);
+    server.close();
+    server = DocumentationServer.start(root, Map.of("project", mount));
+
+    assertEquals("project/neon.html#.openContext", server.findSymbol("neon.openContext"));
+    assertNull(server.findSymbol("db.cell"));
+
+    server.close();
+    server = DocumentationServer.start(archive);
+    assertEquals("neon.html#.openContext", server.findSymbol("neon.openContext"));
+  }
+
+  /**
+   * Tests that a symbol, that is documented in several mounts, is found in the mount that was registered first
+   */
+  @Test
+  void shouldFindSymbolInOrderOfMounts() throws IOException
+  {
+    Map<String, Path> mounts = new LinkedHashMap<>();
+    for (String name : List.of("zeta", "alpha", "mid"))
+    {
+      Path mount = Files.createDirectories(tempDir.resolve(name));
+      Files.writeString(mount.resolve("neon.html"), "<html><body><h1>neon</h1></body></html>");
+      SearchIndex.create(mount);
+      mounts.put(name, mount);
+    }
+    server.close();
+    server = DocumentationServer.start(root, mounts);
+
+    assertEquals(List.of("zeta", "alpha", "mid"), new ArrayList<>(server.getMounts().keySet()));
+    assertEquals("zeta/neon.html", server.findSymbol("neon"));
+  }
+
+  /**
+   * Tests that every request is logged with its status
+   */
+  @Test
+  void shouldLogRequests() throws Exception
+  {
+    assertEquals(404, open("/missing.html?v=1").getResponseCode());
+
+    // the request is logged after the response was sent
+    String expected = "[server " + server.getPort() + "] GET /missing.html?v=1 404 Not Found";
+    long deadline = System.currentTimeMillis() + 5000;
+    while (ServerLog.getInstance().getLines().stream().noneMatch(pLine -> pLine.contains(expected)) && System.currentTimeMillis() < deadline)
+      Thread.sleep(10);
+    assertTrue(ServerLog.getInstance().getLines().stream().anyMatch(pLine -> pLine.contains(expected)));
+  }
+
+  /**
+   * Tests that a packed documentation is served from its archive and that compressed entries are sent as gzip
+   */
+  @Test
+  void shouldServeArchive() throws IOException
+  {
+    Path archive = tempDir.resolve(DocumentationArchive.FILE_NAME);
+    DocumentationArchive.pack(root, archive);
+    server.close();
+    server = DocumentationServer.start(archive);
+
+    HttpURLConnection connection = open("/");
+    connection.setRequestProperty("Accept-Encoding", "gzip, deflate");
+    assertEquals(200, connection.getResponseCode());
+    assertEquals("gzip", connection.getContentEncoding());
+    assertEquals("text/html; charset=utf-8", connection.getContentType());
+    try (InputStream inputStream = new GZIPInputStream(connection.getInputStream()))
+    {
+      assertEquals(INDEX_CONTENT, new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    HttpURLConnection uncompressed = open("/styles/main.css");
+    assertNull(uncompressed.getContentEncoding());
+    try (InputStream inputStream = uncompressed.getInputStream())
+    {
+      assertEquals("body {}", new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    HttpURLConnection revalidation = open("/styles/main.css");
+    revalidation.setRequestProperty("If-None-Match", uncompressed.getHeaderField("ETag"));
+    assertEquals(304, revalidation.getResponseCode());
+    assertEquals(404, open("/../secret.txt").getResponseCode());
+    assertEquals(404, open("/missing.html").getResponseCode());
+  }
+
+  @ParameterizedTest
+  @CsvSource({"/search?q=neon, neon", "/search?x=1&q=a+b%2Bc, a b+c", "/search, ", "/search?q=%zz, "})
+  void shouldDecodeQueryParameter(String pTarget, String pExpected)
+  {
+    assertEquals(pExpected, new DocumentationServer.Request("GET", pTarget, "HTTP/1.1", Map.of()).getQueryParameter("q"));
+  }
+
+  @Test
+  void shouldStopOnClose() throws IOException
+  {
+    server.close();
+
+    assertFalse(server.isRunning());
+    assertThrows(IOException.class, () -> open("/").getResponseCode());
+  }
+
+  @ParameterizedTest
+  @CsvSource({"index.html, text/html; charset=utf-8", "search.JS, text/javascript; charset=utf-8", "font.woff2, font/woff2",
+      "LICENSE, application/octet-stream"})
+  void shouldDetermineMimeType(String pFileName, String pExpected)
+  {
+    assertEquals(pExpected, DocumentationServer.getMimeType(pFileName));
+  }
+
+  private HttpURLConnection open(String pPath) throws IOException
+  {
+    return (HttpURLConnection) new URL("http://localhost:" + server.getPort() + pPath).openConnection();
+  }
+}
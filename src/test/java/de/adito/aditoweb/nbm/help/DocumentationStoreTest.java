@@ -0,0 +1,158 @@
+package de.adito.aditoweb.nbm.help;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the content-addressed {@link DocumentationStore}
+ */
+class DocumentationStoreTest
+{
+  @TempDir
+  Path storePath;
+
+  private DocumentationStore store;
+
+  @BeforeEach
+  void init()
+  {
+    store = new DocumentationStore(storePath);
+  }
+
+  @Test
+  void shouldRenderMissingDocumentation() throws Exception
+  {
+    Path documentation = store.getOrRender("key", pOutput -> Files.writeString(Files.createDirectories(pOutput).resolve("index.html"), "index"));
+
+    assertTrue(store.contains("key"));
+    assertEquals("index", Files.readString(documentation.resolve("index.html")));
+  }
+
+  /**
+   * Tests that a packed store keeps only the archive of a rendering
+   */
+  @Test
+  void shouldPackRenderedDocumentation() throws Exception
+  {
+    DocumentationStore packedStore = new DocumentationStore(storePath, true);
+
+    Path documentation = packedStore.getOrRender("key", pOutput -> Files.writeString(Files.createDirectories(pOutput).resolve("index.html"), "index"));
+
+    assertEquals(storePath.resolve("key").resolve(DocumentationArchive.FILE_NAME), documentation);
+    assertTrue(Files.isRegularFile(documentation));
+    try (Stream<Path> entries = Files.list(storePath.resolve("key")))
+    {
+      assertEquals(1, entries.count());
+    }
+    DocumentationArchive archive = DocumentationArchive.open(documentation);
+    assertArrayEquals("index".getBytes(), archive.read(archive.find("")));
+  }
+
+  @Test
+  void shouldNotRenderStoredDocumentationAgain() throws Exception
+  {
+    AtomicInteger renderCount = new AtomicInteger();
+    DocumentationStore.IRenderer renderer = pOutput -> {
+      renderCount.incrementAndGet();
+      render(pOutput);
+    };
+
+    store.getOrRender("key", renderer);
+    store.getOrRender("key", renderer);
+    new DocumentationStore(storePath).getOrRender("key", renderer);
+
+    assertEquals(1, renderCount.get());
+  }
+
+  /**
+   * Tests that an aborted rendering leaves nothing behind in the store
+   */
+  @Test
+  void shouldNotStoreFailedRendering() throws IOException
+  {
+    assertThrows(IOException.class, () -> store.getOrRender("key", pOutput -> {
+      Files.createDirectories(pOutput);
+      throw new IOException("jsdoc failed");
+    }));
+
+    assertFalse(store.contains("key"));
+    try (Stream<Path> entries = Files.list(storePath))
+    {
+      assertEquals(0, entries.count());
+    }
+  }
+
+  /**
+   * Tests that a rendering without an index page, e.g. of a jsdoc run that only exited with an error code, is not stored, so it is rendered again
+   */
+  @Test
+  void shouldNotStoreEmptyRendering() throws Exception
+  {
+    assertThrows(IOException.class, () -> store.getOrRender("key", Files::createDirectories));
+
+    assertFalse(store.contains("key"));
+    try (Stream<Path> entries = Files.list(storePath))
+    {
+      assertEquals(0, entries.count());
+    }
+
+    store.getOrRender("key", this::render);
+    assertTrue(store.contains("key"));
+  }
+
+  /**
+   * Tests that a documentation, that is handed out again without rendering, is marked as used
+   */
+  @Test
+  void shouldMarkServedDocumentationAsUsed() throws Exception
+  {
+    Path documentation = store.getOrRender("key", this::render);
+    FileTime outdated = FileTime.fromMillis(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(60));
+    Files.setLastModifiedTime(storePath.resolve("key"), outdated);
+
+    store.markUsed(documentation);
+    store.markUsed(storePath.getParent().resolve("other").resolve("documentations"));
+
+    assertTrue(Files.getLastModifiedTime(storePath.resolve("key")).compareTo(outdated) > 0);
+  }
+
+  @Test
+  void shouldRenderConcurrentRequestsOnlyOnce() throws Exception
+  {
+    AtomicInteger renderCount = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try
+    {
+      Callable<Path> request = () -> store.getOrRender("key", pOutput -> {
+        renderCount.incrementAndGet();
+        render(pOutput);
+      });
+      for (Future<Path> future : executor.invokeAll(Collections.nCopies(8, request)))
+        assertNotNull(future.get());
+    }
+    finally
+    {
+      executor.shutdownNow();
+    }
+
+    assertEquals(1, renderCount.get());
+  }
+
+  /**
+   * Renders a documentation, that only consists of its index page
+   */
+  private void render(Path pOutput) throws IOException
+  {
+    Files.writeString(Files.createDirectories(pOutput).resolve("index.html"), "index");
+  }
+}
@@ -0,0 +1,62 @@
+package de.adito.aditoweb.nbm.help;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link Fingerprint} of values, file states and file contents
+ */
+class FingerprintTest
+{
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void shouldBeStableForSameValues()
+  {
+    assertEquals(new Fingerprint().add("a").add("b").build(), new Fingerprint().add("a").add("b").build());
+  }
+
+  /**
+   * Tests that the values are separated, so "ab" + "" and "a" + "b" do not result in the same fingerprint
+   */
+  @Test
+  void shouldSeparateValues()
+  {
+    assertNotEquals(new Fingerprint().add("ab").add("").build(), new Fingerprint().add("a").add("b").build());
+  }
+
+  @Test
+  void shouldChangeWithFileContent() throws IOException
+  {
+    Path file = Files.writeString(Files.createDirectories(tempDir.resolve("dist/sub")).resolve("types.d.ts"), "declare namespace neon {}");
+    String before = new Fingerprint().addContent(tempDir.resolve("dist")).build();
+
+    Files.writeString(file, "declare namespace db {}");
+
+    assertNotEquals(before, new Fingerprint().addContent(tempDir.resolve("dist")).build());
+  }
+
+  @Test
+  void shouldChangeWithFileName() throws IOException
+  {
+    Path dist = Files.createDirectories(tempDir.resolve("dist"));
+    Path file = Files.writeString(dist.resolve("a.d.ts"), "content");
+    String before = new Fingerprint().addContent(dist).build();
+
+    Files.move(file, dist.resolve("b.d.ts"));
+
+    assertNotEquals(before, new Fingerprint().addContent(dist).build());
+  }
+
+  @Test
+  void shouldHandleMissingPath() throws IOException
+  {
+    assertNotEquals(new Fingerprint().build(), new Fingerprint().addContent(tempDir.resolve("missing")).build());
+  }
+}
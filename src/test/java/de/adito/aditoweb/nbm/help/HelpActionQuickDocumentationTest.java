@@ -0,0 +1,47 @@
+package de.adito.aditoweb.nbm.help;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link HelpActionQuickDocumentation}
+ */
+class HelpActionQuickDocumentationTest
+{
+  private final SymbolIndex index = new SymbolIndex.Builder()
+      .add("neon.openContext", "function openContext(pContext: string): void", "Opens a context.\n@param pContext <name>", "neon.d.ts")
+      .add("neon.openContextWithRecipe", "function openContextWithRecipe(pRecipe: string): void", "Opens a context with a recipe.", "neon.d.ts")
+      .build();
+
+  /**
+   * Tests that the qualified symbol at the caret is found
+   */
+  @ParameterizedTest
+  @CsvSource({"0,var", "4,neon.openContext", "12,neon.openContext", "20,neon.openContext", "26,", "31,x"})
+  void shouldGetSymbolAt(int pPosition, String pExpected)
+  {
+    assertEquals(pExpected, HelpActionQuickDocumentation.getSymbolAt("var neon.openContext(\"a\"); var x", pPosition));
+  }
+
+  @Test
+  void shouldPreferExactMatch()
+  {
+    assertEquals(1, HelpActionQuickDocumentation.findSymbols(index, "neon.opencontext").size());
+    assertEquals(2, HelpActionQuickDocumentation.findSymbols(index, "neon.open").size());
+    assertTrue(HelpActionQuickDocumentation.findSymbols(index, "db").isEmpty());
+  }
+
+  @Test
+  void shouldEscapeHtml()
+  {
+    String html = HelpActionQuickDocumentation.toHtml(List.of(index.find("neon.openContext").get(0)));
+
+    assertTrue(html.contains("<b>@param</b> pContext &lt;name&gt;"));
+    assertTrue(html.contains("<h3>neon.openContext</h3>"));
+  }
+}
@@ -3,8 +3,8 @@ package de.adito.aditoweb.nbm.help;
 import de.adito.aditoweb.nbm.nbide.nbaditointerface.common.IProjectQuery;
 import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.*;
 import lombok.NonNull;
-import org.json.JSONObject;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.*;
 import org.mockito.MockedStatic;
@@ -13,9 +13,12 @@ import org.netbeans.api.project.Project;
 import org.openide.nodes.Node;
 import org.openide.util.Lookup;
 
-import java.io.IOException;
+import java.io.*;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
 import java.util.*;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.*;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -50,12 +53,12 @@ class HelpActionShowDocumentationTest
   /**
    * method for parameterized test that should return true
    *
-   * @return Stream<Arguments> of boolean and class for each parameterized test
+   * @return Stream<Arguments> of boolean and the installed package (as json) for each parameterized test
    */
   @NonNull
   static Stream<Arguments> shouldReturnTrue()
   {
-    return Stream.of(Arguments.of(true, mock(JSONObject.class)), Arguments.of(false, null));
+    return Stream.of(Arguments.of(true, "{\"version\": \"1.0.0\"}"), Arguments.of(false, null));
   }
 
   /**
@@ -85,7 +88,7 @@ class HelpActionShowDocumentationTest
     return Stream.of(
         Arguments.of(true, projectList.stream()),
         Arguments.of(false, emptyProjectsList.stream()),
-        Arguments.of(false, projectsList.stream())
+        Arguments.of(true, projectsList.stream())
     );
   }
 
@@ -116,6 +119,9 @@ class HelpActionShowDocumentationTest
   {
     helpActionShowDocumentation = spy(HelpActionShowDocumentation.class);
     //helpActionShowDocumentation = new HelpActionShowDocumentation();  // todo wenn alles mit spy funktioniert, dann mit echten Konstruktor ausprobieren
+    doReturn(null).when(helpActionShowDocumentation).getBundledToolchain();
+    doReturn(null).when(helpActionShowDocumentation).getPrivateToolchain();
+    doReturn(new ProjectSelectionCache()).when(helpActionShowDocumentation).getProjectSelectionCache();
     environment = mock(INodeJSEnvironment.class);
     executor = mock(INodeJSExecutor.class);
     handle = mock(ProgressHandle.class);
@@ -123,6 +129,35 @@ class HelpActionShowDocumentationTest
     projectQuery = mock(IProjectQuery.class);
   }
 
+  /**
+   * Creates the output of "npm list --json", including the execution path in the first line
+   *
+   * @param pDependencies content of the "dependencies" object or null, if the output should not contain any dependencies
+   * @return the output of npm
+   */
+  @NonNull
+  private static String npmList(String pDependencies)
+  {
+    return "/usr/local/lib\n{\n  \"name\": \"lib\"" + (pDependencies != null ? ",\n  \"dependencies\": {" + pDependencies + "}" : "") + "\n}\n";
+  }
+
+  /**
+   * Lets every npm call of the executor print the given output to its standard output. A warning is printed to the error output, that must not be
+   * mixed into the parsed output. npm exits with an error code, if a listed package is missing.
+   *
+   * @param pOutput standard output of npm
+   */
+  private void stubNpmList(String pOutput) throws IOException
+  {
+    doAnswer(pInvocation -> {
+      OutputStream outputStream = pInvocation.getArgument(2);
+      OutputStream errorStream = pInvocation.getArgument(3);
+      errorStream.write("npm WARN config global `--global`, `--local` are deprecated\n".getBytes(StandardCharsets.UTF_8));
+      outputStream.write(pOutput.getBytes(StandardCharsets.UTF_8));
+      return CompletableFuture.completedFuture(1);
+    }).when(executor).executeAsync(eq(environment), any(), any(), any(), any(), any());
+  }
+
   /**
    * Class for the inheritated asynchronous method
    */
@@ -192,7 +227,7 @@ class HelpActionShowDocumentationTest
 
     @ParameterizedTest
     @MethodSource("de.adito.aditoweb.nbm.help.HelpActionShowDocumentationTest#shouldReturnProjectNodes")
-    void shouldReturnFalseWhenMultipleProjectsSelected(Boolean pExpectedResult, Stream<Project> pProjectList)
+    void shouldEnableForSelectedProjects(Boolean pExpectedResult, Stream<Project> pProjectList)
     {
       try (var mockedStat = mockStatic(IProjectQuery.class))
       {
@@ -203,6 +238,42 @@ class HelpActionShowDocumentationTest
       }
     }
 
+    /**
+     * Tests that the action is disabled, if none of the selected projects has NodeJS
+     */
+    @Test
+    void shouldReturnFalseWhenNoProjectHasNodeJS()
+    {
+      doReturn(Stream.of(mock(Project.class), mock(Project.class))).when(helpActionShowDocumentation).findSelectedProjects(any());
+      doReturn(null).when(helpActionShowDocumentation).getNodeJSExecutor(any());
+
+      assertFalse(helpActionShowDocumentation.enable(new Node[0]));
+    }
+
+    /**
+     * Tests that the project of a node and its NodeJS executor are only queried once, if the same selection is enabled again
+     */
+    @Test
+    void shouldQueryProjectAndNodeJSOnlyOnce()
+    {
+      Project project = mock(Project.class);
+      Lookup lookup = mock(Lookup.class);
+      when(project.getLookup()).thenReturn(lookup);
+      when(lookup.lookupResult(any())).thenAnswer(pInvocation -> mock(Lookup.Result.class));
+      try (var mockedStat = mockStatic(IProjectQuery.class))
+      {
+        doReturn(project).when(projectQuery).findProjects(any(Lookup.Provider.class), eq(IProjectQuery.ReturnType.MULTIPLE_TO_NULL));
+        when(IProjectQuery.getInstance()).thenReturn(projectQuery);
+        doReturn(executor).when(helpActionShowDocumentation).getNodeJSExecutor(project);
+
+        assertTrue(helpActionShowDocumentation.enable(new Node[]{node1}));
+        assertTrue(helpActionShowDocumentation.enable(new Node[]{node1}));
+
+        verify(projectQuery, times(1)).findProjects(any(Lookup.Provider.class), any());
+        verify(helpActionShowDocumentation, times(1)).getNodeJSExecutor(project);
+      }
+    }
+
     /**
      * Tests that the {@link HelpActionShowDocumentation#enable(Node[])} method returns false when the specified project is not found.
      * <p>This test method uses Mockito to mock the {@link IProjectQuery} and the {@link Node} objects,
@@ -283,34 +354,160 @@ class HelpActionShowDocumentationTest
   @Nested
   class ExecuteInstall
   {
+    private VerificationCache verificationCache;
+
     @BeforeEach
     void init()
     {
+      verificationCache = mock(VerificationCache.class);
       doCallRealMethod().when(helpActionShowDocumentation).executeInstall(any(), any(), any(), any(), anyInt());
+      doReturn(verificationCache).when(helpActionShowDocumentation).getVerificationCache();
+      doReturn("fingerprint").when(helpActionShowDocumentation).getToolchainFingerprint(any(), any());
     }
 
     @Test
     void shouldHandleNullHandle()
     {
-      assertDoesNotThrow(() -> helpActionShowDocumentation.executeInstall(environment, executor, null, "test", 1));
+      assertDoesNotThrow(() -> helpActionShowDocumentation.executeInstall(environment, executor, null, List.of("test"), 1));
     }
 
     @Test
     void shouldLogVerifyIfVerifyPackageInstallationTrue() throws IOException, InterruptedException, TimeoutException
     {
-      doReturn(true).when(helpActionShowDocumentation).verifyPackageInstallation(environment, executor, "test");
-      helpActionShowDocumentation.executeInstall(environment, executor, handle, "test", 1);
+      doReturn(List.of()).when(helpActionShowDocumentation).verifyPackageInstallation(environment, executor, List.of("test"));
+      helpActionShowDocumentation.executeInstall(environment, executor, handle, List.of("test"), 1);
       verify(handle).progress(anyString(), anyInt());
-      verify(handle, never()).progress("installing test", 2);
+      verify(handle, never()).progress("installing test", 6);
     }
 
     @Test
     void shouldExecuteInstall() throws IOException, InterruptedException, TimeoutException
     {
-      doReturn(false).when(helpActionShowDocumentation).verifyPackageInstallation(environment, executor, "test");
-      helpActionShowDocumentation.executeInstall(environment, executor, handle, "test", 1);
+      doReturn(CompletableFuture.completedFuture(0)).when(executor).executeAsync(eq(environment), any(), any(), any(), any(), any());
+      doReturn(List.of("test")).when(helpActionShowDocumentation).verifyPackageInstallation(environment, executor, List.of("test"));
+      helpActionShowDocumentation.executeInstall(environment, executor, handle, List.of("test"), 1);
       verify(handle, times(2)).progress(anyString(), anyInt());
     }
+
+    /**
+     * Tests that only the missing packages are installed, with their pinned versions and within a single npm call
+     */
+    @Test
+    void shouldInstallOnlyMissingPackagesInOneCall() throws IOException, InterruptedException, TimeoutException
+    {
+      List<String> packages = List.of("test", "pinned@1.0.0", "other");
+      doReturn(List.of("pinned@1.0.0", "other")).when(helpActionShowDocumentation).verifyPackageInstallation(environment, executor, packages);
+
+      doReturn(CompletableFuture.completedFuture(0)).when(executor).executeAsync(eq(environment), any(), any(), any(), any(), any());
+
+      helpActionShowDocumentation.executeInstall(environment, executor, handle, packages, 1);
+
+      verify(executor).executeAsync(eq(environment), any(), any(), any(), any(), eq("i"), eq("pinned@1.0.0"), eq("other"), eq("-g"));
+    }
+
+    /**
+     * Tests that npm is not executed at all, if the toolchain did not change since the last successful verification
+     */
+    @Test
+    void shouldSkipNpmIfToolchainVerified() throws IOException, InterruptedException, TimeoutException
+    {
+      doReturn(true).when(verificationCache).isVerified(anyString(), eq("fingerprint"));
+
+      helpActionShowDocumentation.executeInstall(environment, executor, handle, List.of("test"), 1);
+
+      verify(helpActionShowDocumentation, never()).verifyPackageInstallation(any(), any(), anyList());
+      verifyNoInteractions(executor);
+    }
+
+    /**
+     * Tests that a successful verification is remembered, but a failed installation is not
+     */
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void shouldRememberOnlySuccessfulVerification(boolean pInstallSuccessful) throws IOException, InterruptedException, TimeoutException
+    {
+      doReturn(List.of("test"), pInstallSuccessful ? List.of() : List.of("test"))
+          .when(helpActionShowDocumentation).verifyPackageInstallation(environment, executor, List.of("test"));
+
+      helpActionShowDocumentation.executeInstall(environment, executor, handle, List.of("test"), 1);
+
+      verify(verificationCache, times(pInstallSuccessful ? 1 : 0)).setVerified(anyString(), eq("fingerprint"));
+    }
+
+    /**
+     * Tests that the private toolchain is installed with npm instead of verifying the global installation
+     */
+    @Test
+    void shouldInstallPrivateToolchain() throws IOException, InterruptedException, TimeoutException
+    {
+      PrivateToolchain privateToolchain = mock(PrivateToolchain.class);
+      doReturn(privateToolchain).when(helpActionShowDocumentation).getPrivateToolchain();
+
+      helpActionShowDocumentation.executeInstall(environment, executor, handle, List.of("test"), 1);
+
+      verify(privateToolchain).install(any());
+      verify(helpActionShowDocumentation, never()).verifyPackageInstallation(any(), any(), anyList());
+    }
+
+    /**
+     * Tests that npm is not executed at all, if the private toolchain of the current manifest is installed
+     */
+    @Test
+    void shouldSkipInstalledPrivateToolchain() throws IOException, InterruptedException, TimeoutException
+    {
+      PrivateToolchain privateToolchain = mock(PrivateToolchain.class);
+      when(privateToolchain.getDirectory()).thenReturn(Paths.get("toolchain"));
+      doReturn(privateToolchain).when(helpActionShowDocumentation).getPrivateToolchain();
+
+      helpActionShowDocumentation.executeInstall(environment, executor, handle, List.of("test"), 1);
+
+      verify(privateToolchain, never()).install(any());
+      verifyNoInteractions(executor);
+    }
+  }
+
+  @Nested
+  class IsToolchainInstalled
+  {
+    private VerificationCache verificationCache;
+
+    @BeforeEach
+    void init()
+    {
+      verificationCache = mock(VerificationCache.class);
+      doReturn(verificationCache).when(helpActionShowDocumentation).getVerificationCache();
+      doReturn("fingerprint").when(helpActionShowDocumentation).getToolchainFingerprint(any(), any());
+    }
+
+    /**
+     * Tests that missing packages of the global installation are only reported, not installed
+     */
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void shouldNotInstallGlobalPackages(boolean pInstalled) throws IOException, InterruptedException, TimeoutException
+    {
+      doReturn(pInstalled ? List.of() : List.of("test")).when(helpActionShowDocumentation).verifyPackageInstallation(environment, executor, List.of("test"));
+
+      assertEquals(pInstalled, helpActionShowDocumentation.isToolchainInstalled(environment, executor, List.of("test")));
+      verifyNoInteractions(executor);
+      verify(verificationCache, times(pInstalled ? 1 : 0)).setVerified(anyString(), eq("fingerprint"));
+    }
+
+    /**
+     * Tests that a missing private toolchain is only reported, not installed
+     */
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void shouldNotInstallPrivateToolchain(boolean pInstalled) throws IOException, InterruptedException, TimeoutException
+    {
+      PrivateToolchain privateToolchain = mock(PrivateToolchain.class);
+      when(privateToolchain.getDirectory()).thenReturn(pInstalled ? Paths.get("toolchain") : null);
+      doReturn(privateToolchain).when(helpActionShowDocumentation).getPrivateToolchain();
+
+      assertEquals(pInstalled, helpActionShowDocumentation.isToolchainInstalled(environment, executor, List.of("test")));
+      verify(privateToolchain, never()).install(any());
+      verifyNoInteractions(executor);
+    }
   }
 
   @Nested
@@ -319,34 +516,109 @@ class HelpActionShowDocumentationTest
     @BeforeEach
     void init() throws IOException, InterruptedException, TimeoutException
     {
-      doCallRealMethod().when(helpActionShowDocumentation).verifyPackageInstallation(any(), any(), anyString());
+      doCallRealMethod().when(helpActionShowDocumentation).verifyPackageInstallation(any(), any(), anyList());
     }
 
     @Test
     void shouldReturnFalse() throws IOException, InterruptedException, TimeoutException
     {
-      try (var JSONObjectMockConstruction = mockConstruction(JSONObject.class, (pJSON, pContext) ->
-          doReturn(null).when(pJSON).optJSONObject("dependencies")))
-      {
-        doReturn("ResultTest").when(executor).executeSync(eq(environment), any(), eq(-1L), eq(false), any());
-        assertFalse(helpActionShowDocumentation.verifyPackageInstallation(environment, executor, "test"));
-      }
+      stubNpmList(npmList(null));
+      assertEquals(List.of("test"), helpActionShowDocumentation.verifyPackageInstallation(environment, executor, List.of("test")));
     }
 
     @ParameterizedTest
     @MethodSource("de.adito.aditoweb.nbm.help.HelpActionShowDocumentationTest#shouldReturnTrue")
-      // todo eigentlich sollte es ohne string-pfad gehen, ramona fragen?
-    void shouldReturnTrue(Boolean pExpected, JSONObject pObject) throws IOException, InterruptedException, TimeoutException
+    void shouldReturnTrue(Boolean pExpected, String pPackage) throws IOException, InterruptedException, TimeoutException
     {
-      try (var JSONObjectMockConstruction = mockConstruction(JSONObject.class, (pJSON, pContext) ->
-      {
-        doReturn(pJSON).when(pJSON).optJSONObject("dependencies");
-        doReturn(pObject).when(pJSON).optJSONObject("test");
-      }))
-      {
-        doReturn("ResultTest").when(executor).executeSync(eq(environment), any(), eq(-1L), eq(false), any());
-        assertEquals(pExpected, helpActionShowDocumentation.verifyPackageInstallation(environment, executor, "test"));
-      }
+      String dependencies = pPackage != null ? "\"test\": " + pPackage : "";
+      stubNpmList(npmList(dependencies));
+      assertEquals(pExpected, helpActionShowDocumentation.verifyPackageInstallation(environment, executor, List.of("test")).isEmpty());
+    }
+
+    /**
+     * Tests that a package, that is installed in another version than the pinned one, counts as missing
+     */
+    @ParameterizedTest
+    @CsvSource({"3.6.11, true", "4.0.2, false", "'', false"})
+    void shouldCompareWithPinnedVersion(String pInstalledVersion, boolean pExpected) throws IOException, InterruptedException, TimeoutException
+    {
+      String dependencies = "\"jsdoc\": {\"version\": \"" + pInstalledVersion + "\"}";
+      stubNpmList(npmList(dependencies));
+      assertEquals(pExpected, helpActionShowDocumentation.verifyPackageInstallation(environment, executor, List.of("jsdoc@3.6.11")).isEmpty());
+    }
+
+    /**
+     * Tests that all packages are checked with a single "npm list" call, that only contains the package names
+     */
+    @Test
+    void shouldListAllPackagesInOneCall() throws IOException, InterruptedException, TimeoutException
+    {
+      stubNpmList(npmList(null));
+
+      helpActionShowDocumentation.verifyPackageInstallation(environment, executor, List.of("test", "jsdoc@3.6.11"));
+
+      verify(executor).executeAsync(eq(environment), any(), any(), any(), any(), eq("list"), eq("test"), eq("jsdoc"), eq("-g"), eq("--json"));
+    }
+
+    /**
+     * Tests that npm list is killed, if the pipeline gets cancelled
+     */
+    @Test
+    void shouldKillNpmListOnCancel() throws IOException
+    {
+      CompletableFuture<Integer> future = new CompletableFuture<>();
+      doReturn(future).when(executor).executeAsync(eq(environment), any(), any(), any(), any(), any());
+
+      Thread.currentThread().interrupt();
+      assertThrows(InterruptedException.class, () -> helpActionShowDocumentation.verifyPackageInstallation(environment, executor, List.of("test")));
+      assertTrue(future.isCancelled());
+    }
+  }
+
+  @Nested
+  class PackageSpecification
+  {
+    @ParameterizedTest
+    @CsvSource({"jsdoc, jsdoc,", "jsdoc@3.6.11, jsdoc, 3.6.11", "@aditosoftware/jdito-types, @aditosoftware/jdito-types,",
+        "@aditosoftware/jdito-types@2023.0.0, @aditosoftware/jdito-types, 2023.0.0"})
+    void shouldSplitNameAndVersion(String pPackage, String pExpectedName, String pExpectedVersion)
+    {
+      assertEquals(pExpectedName, HelpActionShowDocumentation.getPackageName(pPackage));
+      assertEquals(pExpectedVersion, HelpActionShowDocumentation.getPackageVersion(pPackage));
+    }
+  }
+
+  @Nested
+  class CheckProjectJDitoTypesCached
+  {
+    private VerificationCache verificationCache;
+
+    @BeforeEach
+    void init() throws IOException, InterruptedException, TimeoutException
+    {
+      verificationCache = mock(VerificationCache.class);
+      doCallRealMethod().when(helpActionShowDocumentation).checkProjectJDitoTypes(any(), any(), anyString());
+      doReturn(verificationCache).when(helpActionShowDocumentation).getVerificationCache();
+      doReturn("fingerprint").when(helpActionShowDocumentation).getJDitoTypesFingerprint(any(), anyString());
+    }
+
+    @Test
+    void shouldSkipNpmIfVerified() throws IOException, InterruptedException, TimeoutException
+    {
+      doReturn(true).when(verificationCache).isVerified("jditoTypes.project", "fingerprint");
+
+      assertTrue(helpActionShowDocumentation.checkProjectJDitoTypes(environment, executor, "project"));
+      verify(helpActionShowDocumentation, never()).checkProjectJDitoTypes(any(), any());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void shouldRememberOnlySupportedJDitoTypes(boolean pSupported) throws IOException, InterruptedException, TimeoutException
+    {
+      doReturn(pSupported).when(helpActionShowDocumentation).checkProjectJDitoTypes(environment, executor);
+
+      assertEquals(pSupported, helpActionShowDocumentation.checkProjectJDitoTypes(environment, executor, "project"));
+      verify(verificationCache, times(pSupported ? 1 : 0)).setVerified("jditoTypes.project", "fingerprint");
     }
   }
 
@@ -362,43 +634,348 @@ class HelpActionShowDocumentationTest
     @Test
     void shouldReturnFalse() throws IOException, InterruptedException, TimeoutException
     {
-      try (var JSONObjectMockConstruction = mockConstruction(JSONObject.class, (pJSON, pContext) ->
-          doReturn(null).when(pJSON).optJSONObject("dependencies")))
-      {
-        doReturn("ResultTest").when(executor).executeSync(eq(environment), any(), eq(-1L), eq(false), any());
-        assertFalse(helpActionShowDocumentation.checkProjectJDitoTypes(environment, executor));
-      }
+      stubNpmList(npmList(null));
+      assertFalse(helpActionShowDocumentation.checkProjectJDitoTypes(environment, executor));
     }
 
     @ParameterizedTest
     @MethodSource("de.adito.aditoweb.nbm.help.HelpActionShowDocumentationTest#shouldReturnString")
     void shouldReturnTrue(Boolean pExpected, String pObject) throws IOException, InterruptedException, TimeoutException
     {
-      try (var JSONObjectMockConstruction = mockConstruction(JSONObject.class, (pJSON, pContext) ->
+      String dependencies = "\"@aditosoftware/jdito-types\": {\"version\": \"" + pObject + "\"}";
+      stubNpmList(npmList(dependencies));
+      assertEquals(pExpected, helpActionShowDocumentation.checkProjectJDitoTypes(environment, executor));
+    }
+  }
+
+  @Nested
+  class ExecuteJSDoc
+  {
+    @BeforeEach
+    void init() throws IOException, InterruptedException, TimeoutException
+    {
+      doCallRealMethod().when(helpActionShowDocumentation).executeJSDoc(any(), any(), any(), anyString(), anyInt());
+      when(environment.resolveExecBase(any())).thenReturn(new File("/node_modules/jsdoc/jsdoc.js"));
+    }
+
+    /**
+     * Tests that every file parsed by jsdoc advances the progress
+     */
+    @Test
+    void shouldProgressWithParsedFiles() throws IOException, InterruptedException, TimeoutException
+    {
+      when(executor.executeAsync(eq(environment), any(), any(), any(), any(), any())).thenAnswer(pInvocation -> {
+        OutputStream outputStream = pInvocation.getArgument(2);
+        outputStream.write("Parsing a.js\nParsing b.js\nGenerating output\n".getBytes(StandardCharsets.UTF_8));
+        return CompletableFuture.completedFuture(0);
+      });
+
+      helpActionShowDocumentation.executeJSDoc(environment, executor, handle, "", 2);
+
+      verify(executor).executeAsync(eq(environment), any(), any(), any(), any(), anyString(), eq("--configure"), eq("/jsdoc.json"), eq("--verbose"));
+      verify(handle).progress("Parsing a.js", HelpActionShowDocumentation.getRenderWorkUnit(1, 2));
+      verify(handle).progress("Parsing b.js", HelpActionShowDocumentation.getRenderWorkUnit(2, 2));
+      verify(handle, times(2)).progress(anyString(), anyInt());
+    }
+
+    @Test
+    void shouldExecuteBundledJSDoc() throws IOException, InterruptedException, TimeoutException
+    {
+      Path toolchain = Paths.get("toolchain");
+      doReturn(toolchain).when(helpActionShowDocumentation).getBundledToolchain();
+      when(executor.executeAsync(eq(environment), any(), any(), any(), any(), any())).thenReturn(CompletableFuture.completedFuture(0));
+
+      helpActionShowDocumentation.executeJSDoc(environment, executor, handle, "", 2);
+
+      String jsdoc = toolchain.resolve("node_modules").resolve("jsdoc").resolve("jsdoc.js").toAbsolutePath().toString();
+      verify(executor).executeAsync(eq(environment), any(), any(), any(), any(), eq(jsdoc), eq("--configure"), eq("/jsdoc.json"), eq("--verbose"));
+    }
+
+    /**
+     * Tests that jsdoc is executed as one-shot process, if the enabled worker is busy, not available or failed
+     */
+    @Test
+    void shouldFallBackToOneShotProcess() throws IOException, InterruptedException, TimeoutException
+    {
+      doReturn("toolchain").when(helpActionShowDocumentation).getToolchainFingerprint(any(), any());
+      when(executor.executeAsync(eq(environment), any(), any(), any(), any(), any())).thenReturn(CompletableFuture.completedFuture(0));
+
+      try (MockedStatic<JSDocWorker> worker = mockStatic(JSDocWorker.class))
       {
-        doReturn(pJSON).when(pJSON).optJSONObject("dependencies");
-        doReturn(pJSON).when(pJSON).optJSONObject("@aditosoftware/jdito-types");
-        doReturn(pObject).when(pJSON).optString("version", "");
-      }))
+        worker.when(JSDocWorker::isEnabled).thenReturn(true);
+        worker.when(() -> JSDocWorker.render(any(), any(), any(), any(), anyLong(), any(), any())).thenReturn(null);
+
+        helpActionShowDocumentation.executeJSDoc(environment, executor, handle, "", 2);
+
+        worker.verify(() -> JSDocWorker.render(eq(environment), eq(executor), eq("toolchain"), any(), anyLong(), any(), any()));
+      }
+      verify(executor).executeAsync(eq(environment), any(), any(), any(), any(), anyString(), eq("--configure"), eq("/jsdoc.json"), eq("--verbose"));
+    }
+
+    /**
+     * Tests that no jsdoc process is started, if the worker rendered the documentation
+     */
+    @Test
+    void shouldRenderWithWorker() throws IOException, InterruptedException, TimeoutException
+    {
+      doReturn("toolchain").when(helpActionShowDocumentation).getToolchainFingerprint(any(), any());
+
+      try (MockedStatic<JSDocWorker> worker = mockStatic(JSDocWorker.class))
       {
-        doReturn("ResultTest").when(executor).executeSync(eq(environment), any(), eq(-1L), eq(false), any());
-        assertEquals(pExpected, helpActionShowDocumentation.checkProjectJDitoTypes(environment, executor));
+        worker.when(JSDocWorker::isEnabled).thenReturn(true);
+        worker.when(() -> JSDocWorker.render(any(), any(), any(), any(), anyLong(), any(), any())).thenReturn(0);
+
+        helpActionShowDocumentation.executeJSDoc(environment, executor, handle, "", 2);
       }
+      verify(executor, never()).executeAsync(any(), any(), any(), any(), any(), any());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"0, 10, 20", "5, 10, 57", "10, 10, 95", "20, 10, 95", "3, 0, 20"})
+    void shouldCalculateRenderWorkUnit(int pParsedFiles, int pFileCount, int pExpected)
+    {
+      assertEquals(pExpected, HelpActionShowDocumentation.getRenderWorkUnit(pParsedFiles, pFileCount));
     }
   }
 
   @Nested
-  class ExecuteJSDoc
+  class PrepareDocumentation
+  {
+    private Project project;
+
+    @BeforeEach
+    void init() throws IOException, InterruptedException, TimeoutException
+    {
+      project = mock(Project.class, RETURNS_DEEP_STUBS);
+      when(project.getProjectDirectory().getName()).thenReturn("project");
+      when(project.getProjectDirectory().getPath()).thenReturn("projectPath");
+      doCallRealMethod().when(helpActionShowDocumentation).prepareDocumentation(any(), any());
+      doReturn(executor).when(helpActionShowDocumentation).getNodeJSExecutor(project);
+      doReturn(environment).when(helpActionShowDocumentation).getNodeJSEnvironment(project);
+      doNothing().when(helpActionShowDocumentation).executeInstall(any(), any(), any(), any(), anyInt());
+      doReturn("sourceFingerprint").when(helpActionShowDocumentation).getSourceFingerprint("projectPath");
+    }
+
+    @Test
+    void shouldNotRenderUnsupportedJDitoTypes() throws IOException, InterruptedException, TimeoutException
+    {
+      doReturn(false).when(helpActionShowDocumentation).checkProjectJDitoTypes(environment, executor, "projectPath");
+
+      assertNull(helpActionShowDocumentation.prepareDocumentation(project, handle));
+      verify(helpActionShowDocumentation, never()).renderDocumentation(any(), any(), any(), anyString(), anyString());
+    }
+
+    @Test
+    void shouldInstallToolchainAndRender() throws IOException, InterruptedException, TimeoutException
+    {
+      Path documentation = Paths.get("documentation");
+      doReturn(true).when(helpActionShowDocumentation).checkProjectJDitoTypes(environment, executor, "projectPath");
+      doReturn(documentation).when(helpActionShowDocumentation).renderDocumentation(environment, executor, null, "projectPath", "sourceFingerprint");
+
+      assertEquals(documentation, helpActionShowDocumentation.prepareDocumentation(project, null));
+      verify(helpActionShowDocumentation).executeInstall(environment, executor, null, HelpActionShowDocumentation.REQUIRED_PACKAGES, 5);
+    }
+
+    /**
+     * Tests that a toolchain bundled with the module is not verified or installed with npm
+     */
+    @Test
+    void shouldNotInstallBundledToolchain() throws IOException, InterruptedException, TimeoutException
+    {
+      Path documentation = Paths.get("documentation");
+      doReturn(Paths.get("toolchain")).when(helpActionShowDocumentation).getBundledToolchain();
+      doReturn(true).when(helpActionShowDocumentation).checkProjectJDitoTypes(environment, executor, "projectPath");
+      doReturn(documentation).when(helpActionShowDocumentation).renderDocumentation(environment, executor, null, "projectPath", "sourceFingerprint");
+
+      assertEquals(documentation, helpActionShowDocumentation.prepareDocumentation(project, null));
+      verify(helpActionShowDocumentation, never()).executeInstall(any(), any(), any(), any(), anyInt());
+    }
+
+    /**
+     * Tests that a missing toolchain is not installed, if the installation is not allowed, e.g. for a rendering in the background
+     */
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void shouldRenderOnlyWithInstalledToolchain(boolean pInstalled) throws IOException, InterruptedException, TimeoutException
+    {
+      Path documentation = Paths.get("documentation");
+      doReturn(true).when(helpActionShowDocumentation).checkProjectJDitoTypes(environment, executor, "projectPath");
+      doReturn(pInstalled).when(helpActionShowDocumentation).isToolchainInstalled(environment, executor, HelpActionShowDocumentation.REQUIRED_PACKAGES);
+      doReturn(documentation).when(helpActionShowDocumentation).renderDocumentation(environment, executor, null, "projectPath", "sourceFingerprint");
+
+      assertEquals(pInstalled ? documentation : null, helpActionShowDocumentation.prepareDocumentation(project, null, false));
+      verify(helpActionShowDocumentation, never()).executeInstall(any(), any(), any(), any(), anyInt());
+      verify(helpActionShowDocumentation, times(pInstalled ? 1 : 0)).renderDocumentation(any(), any(), any(), anyString(), anyString());
+    }
+
+    /**
+     * Tests that a failing stage fails the whole preparation with its original exception
+     */
+    @Test
+    void shouldPassOnExceptionOfStage() throws IOException, InterruptedException, TimeoutException
+    {
+      doThrow(new TimeoutException()).when(helpActionShowDocumentation).checkProjectJDitoTypes(environment, executor, "projectPath");
+
+      assertThrows(TimeoutException.class, () -> helpActionShowDocumentation.prepareDocumentation(project, handle));
+      verify(helpActionShowDocumentation, never()).renderDocumentation(any(), any(), any(), anyString(), anyString());
+    }
+
+    @Test
+    void shouldFailWithoutNodeJS()
+    {
+      doReturn(null).when(helpActionShowDocumentation).getNodeJSEnvironment(project);
+
+      assertThrows(IOException.class, () -> helpActionShowDocumentation.prepareDocumentation(project, handle));
+    }
+  }
+
+  @Nested
+  class PrepareDocumentations
   {
+    private Project project1;
+    private Project project2;
+
+    @BeforeEach
+    void init() throws IOException, InterruptedException, TimeoutException
+    {
+      project1 = mock(Project.class, RETURNS_DEEP_STUBS);
+      project2 = mock(Project.class, RETURNS_DEEP_STUBS);
+      when(project1.getProjectDirectory().getName()).thenReturn("project1");
+      when(project2.getProjectDirectory().getName()).thenReturn("project2");
+      doCallRealMethod().when(helpActionShowDocumentation).prepareDocumentations(any(), any(), any());
+    }
+
+    /**
+     * Tests that the documentation of every project is prepared and the progress advances with every project
+     */
+    @Test
+    void shouldPrepareEveryProject() throws IOException, InterruptedException, TimeoutException
+    {
+      doReturn(Paths.get("documentation1")).when(helpActionShowDocumentation).prepareDocumentation(project1, null);
+      doReturn(Paths.get("documentation2")).when(helpActionShowDocumentation).prepareDocumentation(project2, null);
+
+      List<Project> unsupported = new ArrayList<>();
+      Map<Project, Path> documentations = helpActionShowDocumentation.prepareDocumentations(List.of(project1, project2), handle, unsupported);
+
+      assertEquals(Map.of(project1, Paths.get("documentation1"), project2, Paths.get("documentation2")), documentations);
+      assertTrue(unsupported.isEmpty());
+      verify(handle).switchToDeterminate(2);
+      verify(handle, times(2)).progress(anyString(), anyInt());
+    }
+
+    /**
+     * Tests that a project with unsupported jdito-types does not hide the documentations of the other projects
+     */
     @Test
-    void shouldExecuteJSDoc() throws IOException, InterruptedException, TimeoutException
+    void shouldSkipUnsupportedProjects() throws IOException, InterruptedException, TimeoutException
     {
+      doReturn(Paths.get("documentation1")).when(helpActionShowDocumentation).prepareDocumentation(project1, null);
+      doReturn(null).when(helpActionShowDocumentation).prepareDocumentation(project2, null);
 
-      doReturn("ResultTest")
-          .when(executor)
-          .executeSync(eq(environment), any(), eq(-1L), eq("/node_modules/jsdoc/jsdoc.js"), eq("--configure"), eq("/jsdoc.json"), eq("--verbose"));
+      List<Project> unsupported = new ArrayList<>();
+      Map<Project, Path> documentations = helpActionShowDocumentation.prepareDocumentations(List.of(project1, project2), handle, unsupported);
 
-      assertTrue(true);
+      assertEquals(Map.of(project1, Paths.get("documentation1")), documentations);
+      assertEquals(List.of(project2), unsupported);
+    }
+
+  }
+
+  @Nested
+  class RenderDocumentation
+  {
+    @TempDir
+    Path storePath;
+
+    @BeforeEach
+    void init() throws IOException, InterruptedException, TimeoutException
+    {
+      doCallRealMethod().when(helpActionShowDocumentation).renderDocumentation(any(), any(), any(), anyString(), anyString());
+      doReturn(new DocumentationStore(storePath)).when(helpActionShowDocumentation).getDocumentationStore();
+      doReturn("fingerprint").when(helpActionShowDocumentation).getRenderFingerprint(any(), anyString());
+      //the store only keeps renderings with an index page
+      doAnswer(pInvocation -> {
+        Files.writeString(Files.createDirectories(pInvocation.getArgument(2, Path.class)).resolve("index.html"), "index");
+        return "jsDocPath";
+      }).when(helpActionShowDocumentation).moveAndOverwriteJSDocContent(anyString(), any(), any());
+      doNothing().when(helpActionShowDocumentation).executeJSDoc(any(), any(), any(), anyString(), anyInt());
+    }
+
+    @Test
+    void shouldRenderIntoStore() throws IOException, InterruptedException, TimeoutException
+    {
+      Path documentation = helpActionShowDocumentation.renderDocumentation(environment, executor, null, "projectPath", "sourceFingerprint");
+
+      assertTrue(documentation.startsWith(storePath.resolve("fingerprint")));
+      verify(helpActionShowDocumentation).executeJSDoc(environment, executor, null, "jsDocPath", 0);
+    }
+
+    /**
+     * Tests that projects with the same input share one rendering
+     */
+    @Test
+    void shouldRenderSameInputOnlyOnce() throws IOException, InterruptedException, TimeoutException
+    {
+      Path documentation1 = helpActionShowDocumentation.renderDocumentation(environment, executor, null, "projectPath1", "sourceFingerprint");
+      Path documentation2 = helpActionShowDocumentation.renderDocumentation(environment, executor, null, "projectPath2", "sourceFingerprint");
+
+      assertEquals(documentation1, documentation2);
+      verify(helpActionShowDocumentation, times(1)).executeJSDoc(any(), any(), any(), anyString(), anyInt());
+    }
+
+    @Test
+    void shouldRenderAgainIfInputChanged() throws IOException, InterruptedException, TimeoutException
+    {
+      helpActionShowDocumentation.renderDocumentation(environment, executor, null, "projectPath", "sourceFingerprint");
+      doReturn("otherFingerprint").when(helpActionShowDocumentation).getRenderFingerprint(any(), anyString());
+
+      helpActionShowDocumentation.renderDocumentation(environment, executor, null, "projectPath", "sourceFingerprint");
+
+      verify(helpActionShowDocumentation, times(2)).executeJSDoc(any(), any(), any(), anyString(), anyInt());
+    }
+
+    /**
+     * Tests that a bundle, that was rendered outside the IDE for the same sources, is imported instead of rendering the documentation
+     */
+    @Test
+    void shouldImportBundle(@TempDir Path pBundles) throws IOException, InterruptedException, TimeoutException
+    {
+      Path rendered = Files.createDirectories(pBundles.resolve("rendered"));
+      Files.writeString(rendered.resolve("index.html"), "<html>bundle</html>");
+      DocumentationBundle.create(rendered, pBundles, "sourceFingerprint");
+      System.setProperty(DocumentationBundle.DIRECTORY_PROPERTY, pBundles.toString());
+      try
+      {
+        Path documentation = helpActionShowDocumentation.renderDocumentation(environment, executor, null, "projectPath", "sourceFingerprint");
+
+        assertEquals("<html>bundle</html>", Files.readString(documentation.resolve("index.html")));
+        verify(helpActionShowDocumentation, never()).executeJSDoc(any(), any(), any(), anyString(), anyInt());
+      }
+      finally
+      {
+        System.clearProperty(DocumentationBundle.DIRECTORY_PROPERTY);
+      }
+    }
+
+    /**
+     * Tests that every rendering writes its own jsdoc.json next to its destination, so projects with the same name that are rendered in parallel
+     * do not overwrite the configuration of each other
+     */
+    @Test
+    void shouldWriteConfigurationPerRendering(@TempDir Path pProject) throws IOException
+    {
+      doCallRealMethod().when(helpActionShowDocumentation).moveAndOverwriteJSDocContent(anyString(), any(), any());
+      doReturn("/toolchain").when(helpActionShowDocumentation).getAbsolutePathOfModule(any(), anyString(), anyString());
+      Path destination1 = storePath.resolve(".tmp-key-1").resolve("documentations");
+      Path destination2 = storePath.resolve(".tmp-key-2").resolve("documentations");
+
+      String configuration1 = helpActionShowDocumentation.moveAndOverwriteJSDocContent(pProject.toString(), environment, destination1);
+      String configuration2 = helpActionShowDocumentation.moveAndOverwriteJSDocContent(pProject.toString(), environment, destination2);
+
+      assertEquals(destination1.getParent().toAbsolutePath(), Paths.get(configuration1));
+      assertEquals(destination2.getParent().toAbsolutePath(), Paths.get(configuration2));
+      assertTrue(Files.readString(destination1.getParent().resolve(JSDocConfiguration.FILE_NAME)).contains(".tmp-key-1/documentations"));
+      assertTrue(Files.readString(destination2.getParent().resolve(JSDocConfiguration.FILE_NAME)).contains(".tmp-key-2/documentations"));
     }
   }
 
@@ -481,4 +1058,20 @@ class HelpActionShowDocumentationTest
       }
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Test class for {@link HelpActionShowDocumentation#getDocumentationURI(int, String)}
+   */
+  @Nested
+  class GetDocumentationURI
+  {
+    @ParameterizedTest
+    @CsvSource({"neon.html#.openContext, http://localhost:8080/neon.html#.openContext",
+                "project/utils.html#~format, http://localhost:8080/project/utils.html#~format",
+                "tutorials/start.html, http://localhost:8080/tutorials/start.html", ", http://localhost:8080"})
+    void shouldLinkToSymbol(String pLink, String pExpected) throws URISyntaxException
+    {
+      assertEquals(pExpected, HelpActionShowDocumentation.getDocumentationURI(8080, pLink).toString());
+    }
+  }
+}
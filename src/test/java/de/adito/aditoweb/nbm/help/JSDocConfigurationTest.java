@@ -0,0 +1,114 @@
+package de.adito.aditoweb.nbm.help;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link JSDocConfiguration}
+ */
+class JSDocConfigurationTest
+{
+  @TempDir
+  Path tempDir;
+
+  /**
+   * Tests that the plugins are replaced by their name and not by their position
+   */
+  @Test
+  void shouldReplacePluginByName()
+  {
+    JSDocConfiguration configuration = JSDocConfiguration.fromTemplate()
+        .setPlugin("better-docs/typescript", "/toolchain/better-docs/typescript")
+        .setPlugin("better-docs/category", "/toolchain/better-docs/category.js")
+        .setPlugin("other-plugin", "/toolchain/other-plugin");
+
+    assertEquals(List.of("plugins/markdown", "jsdoc-mermaid", "/toolchain/better-docs/category.js", "/toolchain/better-docs/typescript",
+                         "/toolchain/other-plugin"), configuration.getPlugins());
+  }
+
+  /**
+   * Tests that every configuration is an independent copy of the template
+   */
+  @Test
+  void shouldNotChangeTemplate()
+  {
+    JSDocConfiguration.fromTemplate().setSources("/project/dist").setThemeOption("title", "changed");
+
+    JSDocConfiguration configuration = JSDocConfiguration.fromTemplate();
+    assertEquals(List.of("./node_modules/@aditosoftware/jdito-types/dist"), configuration.getSources());
+    assertEquals("Documentation", configuration.getThemeOption("title"));
+  }
+
+  /**
+   * Tests that objects of the overrides are merged, other values are replaced and null removes a value
+   */
+  @Test
+  void shouldMergeOverrides() throws IOException
+  {
+    JSDocConfiguration configuration = JSDocConfiguration.parse("{\"plugins\": [\"a\"], \"opts\": {\"theme_opts\": {\"title\": \"Title\", "
+                                                                    + "\"default_theme\": \"dark\", \"footer\": \"Footer\"}}}")
+        .merge("{\"plugins\": [\"b\"], \"opts\": {\"theme_opts\": {\"default_theme\": \"light\", \"footer\": null}}}");
+
+    assertEquals(List.of("b"), configuration.getPlugins());
+    assertEquals("Title", configuration.getThemeOption("title"));
+    assertEquals("light", configuration.getThemeOption("default_theme"));
+    assertNull(configuration.getThemeOption("footer"));
+  }
+
+  /**
+   * Tests that the values the rendering depends on win over the overrides of a project
+   */
+  @Test
+  void shouldSetNamedValuesAfterOverrides() throws IOException
+  {
+    Files.writeString(tempDir.resolve(JSDocConfiguration.PROJECT_OVERRIDES_FILE_NAME),
+                      "{\"source\": {\"include\": [\"other\"]}, \"opts\": {\"theme_opts\": {\"base_url\": \"http://host/\", \"title\": \"Project\"}}}");
+
+    JSDocConfiguration configuration = JSDocConfiguration.fromTemplate()
+        .merge(JSDocConfiguration.readProjectOverrides(tempDir.toString()))
+        .setSources("/project/dist")
+        .setThemeOption("base_url", "./");
+
+    assertEquals(List.of("/project/dist"), configuration.getSources());
+    assertEquals("./", configuration.getThemeOption("base_url"));
+    assertEquals("Project", configuration.getThemeOption("title"));
+  }
+
+  @Test
+  void shouldReadMissingProjectOverrides() throws IOException
+  {
+    assertNull(JSDocConfiguration.readProjectOverrides(tempDir.toString()));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"[]", "{", "\"text\""})
+  void shouldRejectInvalidOverrides(String pOverrides)
+  {
+    assertThrows(IOException.class, () -> JSDocConfiguration.fromTemplate().merge(pOverrides));
+  }
+
+  @Test
+  void shouldWrite() throws IOException
+  {
+    Path file = tempDir.resolve("project").resolve(JSDocConfiguration.FILE_NAME);
+    JSDocConfiguration configuration = JSDocConfiguration.fromTemplate().setDestination(tempDir.resolve("output"));
+
+    configuration.write(file);
+    configuration.setThemeOption("title", "changed").write(file);
+
+    assertEquals(new String(configuration.toBytes(), StandardCharsets.UTF_8), Files.readString(file));
+    try (var files = Files.list(file.getParent()))
+    {
+      assertEquals(1, files.count());
+    }
+  }
+}
@@ -0,0 +1,297 @@
+package de.adito.aditoweb.nbm.help;
+
+import com.google.gson.JsonParser;
+import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.invocation.InvocationOnMock;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for {@link JSDocWorker}
+ */
+class JSDocWorkerTest
+{
+  private static final String DONE_MARKER = "@@jsdoc-worker:done:";
+
+  private INodeJSExecutor executor;
+  private CompletableFuture<Integer> process;
+  private List<String> lines;
+
+  @BeforeEach
+  void init()
+  {
+    executor = mock(INodeJSExecutor.class);
+    process = new CompletableFuture<>();
+    lines = Collections.synchronizedList(new ArrayList<>());
+  }
+
+  /**
+   * Tests that a request is a single line of json, even if the arguments contain line separators or quotes
+   */
+  @Test
+  void shouldCreateRequestInOneLine()
+  {
+    String request = JSDocWorker.createRequest(7, "--configure", "C:\\path with \"quotes\"\n/jsdoc.json");
+
+    assertFalse(request.contains("\n"));
+    assertEquals("{\"id\":7,\"args\":[\"--configure\",\"C:\\\\path with \\\"quotes\\\"\\n/jsdoc.json\"]}", request);
+  }
+
+  @Test
+  void shouldBeDisabledByDefault()
+  {
+    assertFalse(JSDocWorker.isEnabled());
+  }
+
+  /**
+   * Tests that the output of jsdoc is passed on and the done marker ends the request with the exit code of jsdoc
+   */
+  @Test
+  void shouldCompleteRequestWithDoneMarker() throws Exception
+  {
+    JSDocWorker worker = startWorker(pId -> List.of("Parsing a.js", DONE_MARKER + pId + ":3"));
+
+    assertEquals(3, worker.render(5000, lines::add, "--configure", "jsdoc.json"));
+    assertEquals(List.of("Parsing a.js"), lines);
+    assertEquals(3, worker.render(5000, lines::add, "--configure", "jsdoc.json"), "the worker renders more than one documentation");
+    worker.close();
+  }
+
+  /**
+   * Tests that only the done marker with the id of the current request ends it, other and malformed markers are ignored
+   */
+  @Test
+  void shouldMatchDoneMarkerById() throws Exception
+  {
+    JSDocWorker worker = startWorker(pId -> List.of(DONE_MARKER + (pId + 1) + ":5", DONE_MARKER + "broken", "Generating output",
+                                                    DONE_MARKER + pId + ":0"));
+
+    assertEquals(0, worker.render(5000, lines::add));
+    assertEquals(List.of("Generating output"), lines);
+    worker.close();
+  }
+
+  /**
+   * Tests that a request does not wait for its timeout, if the process of the worker exits during the rendering
+   */
+  @Test
+  void shouldFailPendingRequestWhenWorkerExits() throws Exception
+  {
+    JSDocWorker worker = startWorker(pId -> null);
+
+    assertThrows(IOException.class, () -> worker.render(60_000, lines::add));
+    assertThrows(IOException.class, () -> worker.render(60_000, lines::add), "a worker that exited can not render anymore");
+  }
+
+  /**
+   * Tests that a worker, whose rendering exceeds the timeout, is stopped, because the state of jsdoc is unknown then
+   */
+  @Test
+  void shouldStopWorkerOnTimeout() throws Exception
+  {
+    JSDocWorker worker = startWorker(pId -> List.of("Parsing a.js"));
+
+    assertThrows(TimeoutException.class, () -> worker.render(100, lines::add));
+    assertTrue(process.isDone());
+  }
+
+  /**
+   * Tests with the script of the worker and a minimal jsdoc, whose template helper collects the links of all symbols like the real one, that the
+   * second rendering of a warm worker does not contain the symbols of the first one
+   */
+  @Test
+  void shouldNotLeakSymbolsBetweenRenderings(@TempDir Path pTempDir) throws Exception
+  {
+    Assumptions.assumeTrue(isNodeAvailable(), "NodeJS is not available");
+    Path modules = createMinimalJSDoc(pTempDir.resolve("node_modules"));
+    Path script = pTempDir.resolve("jsdoc-worker.js");
+    try (InputStream input = Objects.requireNonNull(getClass().getResourceAsStream("jsdoc-worker.js")))
+    {
+      Files.copy(input, script);
+    }
+    when(executor.executeAsync(any(), any(), any(), any(), any(), any())).thenAnswer(this::startNode);
+    JSDocWorker worker = new JSDocWorker(mock(INodeJSEnvironment.class), executor, "toolchain", script.toString(),
+                                         modules.resolve("jsdoc").toString());
+    try
+    {
+      for (String symbol : List.of("first", "second"))
+      {
+        Path configuration = pTempDir.resolve(symbol + ".json");
+        Files.writeString(configuration, "{\"opts\": {\"template\": \"" + json(modules.resolve("theme")) + "\", \"destination\": \""
+            + json(Files.createDirectories(pTempDir.resolve(symbol))) + "\"}, \"symbols\": [\"" + symbol + "\"]}");
+        assertEquals(0, worker.render(30_000, lines::add, "--configure", configuration.toString()));
+      }
+    }
+    finally
+    {
+      worker.close();
+    }
+
+    assertEquals("first", Files.readString(pTempDir.resolve("first").resolve("links.txt")));
+    assertEquals("second", Files.readString(pTempDir.resolve("second").resolve("links.txt")));
+  }
+
+  /**
+   * Starts a worker with a simulated NodeJS process, that answers every request with the given lines
+   *
+   * @param pResponses output for the id of a request or null, if the process should exit on the request
+   * @return the worker
+   */
+  private JSDocWorker startWorker(Function<Integer, List<String>> pResponses) throws IOException
+  {
+    when(executor.executeAsync(any(), any(), any(), any(), any(), any())).thenAnswer(pInvocation -> {
+      OutputStream output = pInvocation.getArgument(2);
+      InputStream input = pInvocation.getArgument(4);
+      Thread thread = new Thread(() -> simulateProcess(input, output, pResponses));
+      thread.setDaemon(true);
+      thread.start();
+      return process;
+    });
+    return new JSDocWorker(mock(INodeJSEnvironment.class), executor, "toolchain", "jsdoc-worker.js", "jsdoc");
+  }
+
+  private void simulateProcess(InputStream pInput, OutputStream pOutput, Function<Integer, List<String>> pResponses)
+  {
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(pInput, StandardCharsets.UTF_8)))
+    {
+      String request;
+      while ((request = reader.readLine()) != null)
+      {
+        List<String> response = pResponses.apply(JsonParser.parseString(request).getAsJsonObject().get("id").getAsInt());
+        if (response == null)
+        {
+          process.complete(1);
+          return;
+        }
+        for (String line : response)
+          pOutput.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+      }
+      process.complete(0);
+    }
+    catch (IOException pE)
+    {
+      process.completeExceptionally(pE);
+    }
+  }
+
+  /**
+   * Writes a minimal jsdoc with the modules the worker uses and a template, that writes the links of the template helper into "links.txt"
+   *
+   * @param pModules node_modules directory
+   * @return the node_modules directory
+   */
+  private static Path createMinimalJSDoc(Path pModules) throws IOException
+  {
+    Path jsdoc = pModules.resolve("jsdoc");
+    write(jsdoc.resolve("node_modules/requizzle/index.js"), "module.exports = () => require;");
+    write(jsdoc.resolve("lib/jsdoc/env.js"), "module.exports = {opts: {}, conf: {}};");
+    write(jsdoc.resolve("lib/jsdoc/app.js"), "module.exports = {};");
+    write(jsdoc.resolve("lib/jsdoc/util/templateHelper.js"), "exports.links = [];");
+    write(jsdoc.resolve("cli.js"),
+          "const fs = require('fs');",
+          "const path = require('path');",
+          "const env = require('./lib/jsdoc/env');",
+          "const helper = require('./lib/jsdoc/util/templateHelper');",
+          "const cli = module.exports = {};",
+          "cli.setVersionInfo = () => cli;",
+          "cli.loadConfig = () => {",
+          "  env.conf = JSON.parse(fs.readFileSync(env.args[env.args.indexOf('--configure') + 1], 'utf8'));",
+          "  env.opts = env.conf.opts;",
+          "  return cli;",
+          "};",
+          "cli.configureLogger = () => cli;",
+          "cli.logStart = () => cli;",
+          "cli.logFinish = () => cli;",
+          "cli.runCommand = callback => {",
+          "  env.conf.symbols.forEach(symbol => helper.links.push(symbol));",
+          "  require(path.join(path.resolve(env.opts.template), 'publish.js')).publish();",
+          "  callback(0);",
+          "};");
+    write(pModules.resolve("theme/publish.js"),
+          "const fs = require('fs');",
+          "const path = require('path');",
+          "const env = require('../jsdoc/lib/jsdoc/env');",
+          "const helper = require('../jsdoc/lib/jsdoc/util/templateHelper');",
+          "exports.publish = () => fs.writeFileSync(path.join(env.opts.destination, 'links.txt'), helper.links.join(','));");
+    return pModules;
+  }
+
+  private static void write(Path pFile, String... pLines) throws IOException
+  {
+    Files.createDirectories(pFile.getParent());
+    Files.write(pFile, List.of(pLines));
+  }
+
+  /**
+   * @return the path as content of a json string
+   */
+  private static String json(Path pPath)
+  {
+    return pPath.toAbsolutePath().toString().replace('\\', '/');
+  }
+
+  private static boolean isNodeAvailable()
+  {
+    try
+    {
+      return new ProcessBuilder("node", "--version").start().waitFor() == 0;
+    }
+    catch (IOException | InterruptedException pE)
+    {
+      return false;
+    }
+  }
+
+  /**
+   * Executes the arguments of {@link INodeJSExecutor#executeAsync} with the NodeJS of the machine
+   */
+  private CompletableFuture<Integer> startNode(InvocationOnMock pInvocation) throws IOException
+  {
+    List<String> command = new ArrayList<>(List.of("node"));
+    for (Object argument : Arrays.asList(pInvocation.getArguments()).subList(5, pInvocation.getArguments().length))
+      command.addAll(argument instanceof String[] ? Arrays.asList((String[]) argument) : List.of((String) argument));
+    Process node = new ProcessBuilder(command).redirectErrorStream(true).start();
+    OutputStream output = pInvocation.getArgument(2);
+    InputStream input = pInvocation.getArgument(4);
+    startDaemon(() -> node.getInputStream().transferTo(output));
+    startDaemon(() -> {
+      // every request has to reach the worker immediately
+      byte[] buffer = new byte[1024];
+      for (int count; (count = input.read(buffer)) >= 0; )
+      {
+        node.getOutputStream().write(buffer, 0, count);
+        node.getOutputStream().flush();
+      }
+      node.getOutputStream().close();
+      return null;
+    });
+    return node.onExit().thenApply(Process::exitValue);
+  }
+
+  private static void startDaemon(Callable<?> pCallable)
+  {
+    Thread thread = new Thread(() -> {
+      try
+      {
+        pCallable.call();
+      }
+      catch (Exception pE)
+      {
+        // the process exited
+      }
+    });
+    thread.setDaemon(true);
+    thread.start();
+  }
+}
@@ -0,0 +1,113 @@
+package de.adito.aditoweb.nbm.help;
+
+import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.*;
+import io.reactivex.rxjava3.subjects.BehaviorSubject;
+import org.junit.jupiter.api.*;
+import org.mockito.MockedStatic;
+import org.netbeans.api.project.Project;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for {@link NodeJSEnvironmentCache}
+ */
+class NodeJSEnvironmentCacheTest
+{
+  private Project project;
+  private INodeJSProvider provider;
+  private BehaviorSubject<Optional<INodeJSEnvironment>> environments;
+  private List<Project> changedProjects;
+  private NodeJSEnvironmentCache cache;
+  private MockedStatic<INodeJSProvider> providerStatic;
+
+  @BeforeEach
+  void init()
+  {
+    project = mock(Project.class, RETURNS_DEEP_STUBS);
+    provider = mock(INodeJSProvider.class);
+    environments = BehaviorSubject.create();
+    when(provider.current()).thenReturn(environments);
+    providerStatic = mockStatic(INodeJSProvider.class);
+    providerStatic.when(() -> INodeJSProvider.findInstance(project)).thenReturn(Optional.of(provider));
+    changedProjects = new ArrayList<>();
+    cache = new NodeJSEnvironmentCache(changedProjects::add);
+  }
+
+  @AfterEach
+  void cleanup()
+  {
+    providerStatic.close();
+  }
+
+  @Test
+  void shouldSubscribeOnce()
+  {
+    INodeJSEnvironment environment = mock(INodeJSEnvironment.class);
+    environments.onNext(Optional.of(environment));
+
+    assertSame(environment, cache.get(project, 1000));
+    assertSame(environment, cache.get(project, 1000));
+    assertSame(environment, cache.getLatest(project));
+
+    verify(provider, times(1)).current();
+    assertTrue(changedProjects.isEmpty());
+  }
+
+  @Test
+  void shouldKeepLatestEnvironment()
+  {
+    INodeJSEnvironment first = mock(INodeJSEnvironment.class);
+    INodeJSEnvironment second = mock(INodeJSEnvironment.class);
+    environments.onNext(Optional.of(first));
+    cache.get(project, 1000);
+
+    environments.onNext(Optional.of(second));
+
+    assertSame(second, cache.getLatest(project));
+    assertEquals(List.of(project), changedProjects);
+  }
+
+  /**
+   * Tests that the first call does not wait longer than its timeout, if the provider did not publish an environment yet
+   */
+  @Test
+  void shouldNotWaitForeverForFirstEnvironment()
+  {
+    assertNull(cache.get(project, 10));
+    assertNull(cache.getLatest(project));
+
+    INodeJSEnvironment environment = mock(INodeJSEnvironment.class);
+    environments.onNext(Optional.of(environment));
+
+    assertSame(environment, cache.getLatest(project));
+    assertTrue(changedProjects.isEmpty());
+  }
+
+  @Test
+  void shouldReturnNullWithoutProvider()
+  {
+    providerStatic.when(() -> INodeJSProvider.findInstance(project)).thenReturn(Optional.empty());
+
+    assertNull(cache.get(project, 1000));
+  }
+
+  /**
+   * Tests that the subscription of a closed project is released
+   */
+  @Test
+  void shouldReleaseClosedProjects()
+  {
+    environments.onNext(Optional.empty());
+    cache.get(project, 1000);
+    assertTrue(environments.hasObservers());
+
+    cache.retain(List.of(project));
+    assertTrue(environments.hasObservers());
+
+    cache.retain(List.of());
+    assertFalse(environments.hasObservers());
+  }
+}
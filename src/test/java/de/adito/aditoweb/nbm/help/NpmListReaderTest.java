@@ -0,0 +1,73 @@
+package de.adito.aditoweb.nbm.help;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link NpmListReader}
+ */
+class NpmListReaderTest
+{
+  private static final String OUTPUT = "/usr/local/lib\n"
+      + "{\n"
+      + "  \"name\": \"lib\",\n"
+      + "  \"problems\": [\"invalid: jsdoc\"],\n"
+      + "  \"dependencies\": {\n"
+      + "    \"other\": {\"version\": \"1.0.0\", \"dependencies\": {\"jsdoc\": {\"version\": \"4.0.0\"}}},\n"
+      + "    \"jsdoc\": {\"version\": \"3.6.11\", \"dependencies\": {\"marked\": {\"version\": \"4.0.10\"}}},\n"
+      + "    \"@aditosoftware/jdito-types\": {\"resolved\": \"file:../jdito-types\", \"version\": \"2023.1.0\"},\n"
+      + "    \"linked\": {\"resolved\": \"file:../linked\"}\n"
+      + "  }\n"
+      + "}\n";
+
+  /**
+   * Tests that only the top level dependencies are read, nested dependencies with the same name are ignored
+   */
+  @Test
+  void shouldReadTopLevelVersions() throws IOException
+  {
+    Map<String, String> versions = NpmListReader.readVersions(OUTPUT, Set.of("jsdoc", "@aditosoftware/jdito-types", "marked", "missing"));
+
+    assertEquals(Map.of("jsdoc", "3.6.11", "@aditosoftware/jdito-types", "2023.1.0"), versions);
+  }
+
+  @Test
+  void shouldReadPackageWithoutVersion() throws IOException
+  {
+    assertEquals(Map.of("linked", ""), NpmListReader.readVersions(OUTPUT, Set.of("linked")));
+  }
+
+  /**
+   * Tests that the reading stops as soon as all packages are found, so the rest of the output is not even looked at
+   */
+  @Test
+  void shouldStopWhenAllPackagesAreFound() throws IOException
+  {
+    String truncatedOutput = OUTPUT.substring(0, OUTPUT.indexOf("\"@aditosoftware")) + "this is not json";
+
+    assertEquals(Map.of("jsdoc", "3.6.11"), NpmListReader.readVersions(truncatedOutput, Set.of("jsdoc")));
+    assertThrows(IOException.class, () -> NpmListReader.readVersions(truncatedOutput, Set.of("jsdoc", "linked")));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"", "ResultTest", "/usr/local/lib\n{}", "{\"dependencies\": {}}", "/usr/local/lib\n{\"name\": \"lib\"}"})
+  void shouldFindNothingWithoutDependencies(String pOutput) throws IOException
+  {
+    assertTrue(NpmListReader.readVersions(pOutput, Set.of("jsdoc")).isEmpty());
+  }
+
+  /**
+   * Tests that the output is read, even if npm does not print the execution path first
+   */
+  @Test
+  void shouldReadOutputWithoutExecutionPath() throws IOException
+  {
+    assertEquals(Map.of("jsdoc", "3.6.11"), NpmListReader.readVersions(OUTPUT.substring(OUTPUT.indexOf('{')), Set.of("jsdoc")));
+  }
+}
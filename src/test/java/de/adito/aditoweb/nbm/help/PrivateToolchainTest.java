@@ -0,0 +1,202 @@
+package de.adito.aditoweb.nbm.help;
+
+import com.google.gson.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link PrivateToolchain}
+ */
+class PrivateToolchainTest
+{
+  private static final String RESOURCE_DIRECTORY = "de/adito/aditoweb/nbm/help/toolchain/";
+
+  @TempDir
+  Path tempDir;
+
+  private Path resources;
+  private Path cache;
+  private List<List<String>> npmCalls;
+
+  @BeforeEach
+  void init() throws IOException
+  {
+    resources = Files.createDirectories(tempDir.resolve("resources").resolve(RESOURCE_DIRECTORY));
+    Files.writeString(resources.resolve("package.json"), "{\"dependencies\": {\"jsdoc\": \"3.6.11\"}}");
+    cache = tempDir.resolve("cache");
+    npmCalls = new ArrayList<>();
+  }
+
+  @Test
+  void shouldNotBeInstalledInitially() throws IOException
+  {
+    assertNull(createToolchain().getDirectory());
+  }
+
+  @Test
+  void shouldInstallIntoPrefix() throws IOException, InterruptedException, TimeoutException
+  {
+    PrivateToolchain toolchain = createToolchain();
+
+    Path directory = toolchain.install(this::npm);
+
+    assertEquals(cache.resolve(toolchain.getManifestHash()), directory);
+    assertEquals(directory, toolchain.getDirectory());
+    assertEquals("jsdoc", Files.readString(directory.resolve("node_modules/jsdoc/jsdoc.js")));
+    assertEquals("install", npmCalls.get(0).get(0));
+  }
+
+  /**
+   * Tests that npm is only executed once, also for another IDE instance
+   */
+  @Test
+  void shouldInstallOnlyOnce() throws IOException, InterruptedException, TimeoutException
+  {
+    createToolchain().install(this::npm);
+
+    createToolchain().install(this::npm);
+
+    assertEquals(1, npmCalls.size());
+  }
+
+  /**
+   * Tests that the toolchains of other versions are only removed, if they were not used for a long time, because another IDE instance with
+   * another version of the module may still use them
+   */
+  @Test
+  void shouldOnlyRemoveUnusedVersions() throws IOException, InterruptedException, TimeoutException
+  {
+    Path usedVersion = Files.createDirectories(cache.resolve("0".repeat(64)));
+    Files.createFile(usedVersion.resolve(".complete"));
+    Path unusedVersion = Files.createDirectories(cache.resolve("1".repeat(64)));
+    Files.setLastModifiedTime(Files.createFile(unusedVersion.resolve(".complete")), FileTime.from(Instant.now().minus(31, ChronoUnit.DAYS)));
+    Path runningInstallation = Files.createDirectories(cache.resolve(".tmp-1"));
+
+    createToolchain().install(this::npm);
+
+    assertTrue(Files.exists(usedVersion));
+    assertTrue(Files.exists(runningInstallation));
+    assertFalse(Files.exists(unusedVersion));
+  }
+
+  @Test
+  void shouldMarkToolchainAsUsed() throws IOException, InterruptedException, TimeoutException
+  {
+    PrivateToolchain toolchain = createToolchain();
+    Path marker = toolchain.install(this::npm).resolve(".complete");
+    FileTime lastUsed = FileTime.from(Instant.now().minus(31, ChronoUnit.DAYS));
+    Files.setLastModifiedTime(marker, lastUsed);
+
+    toolchain.getDirectory();
+
+    assertTrue(Files.getLastModifiedTime(marker).compareTo(lastUsed) > 0);
+  }
+
+  /**
+   * Tests that the globally installed toolchain is pinned to the same versions as the manifest of the private toolchain
+   */
+  @Test
+  void shouldPinGlobalPackagesToManifest() throws IOException
+  {
+    Map<String, String> dependencies = readDependencies(readShippedResource("package.json"));
+
+    assertEquals(dependencies.size(), HelpActionShowDocumentation.REQUIRED_PACKAGES.size());
+    for (String requiredPackage : HelpActionShowDocumentation.REQUIRED_PACKAGES)
+      assertEquals(dependencies.get(HelpActionShowDocumentation.getPackageName(requiredPackage)),
+                   HelpActionShowDocumentation.getPackageVersion(requiredPackage), requiredPackage);
+  }
+
+  @Test
+  void shouldInstallLockedVersions() throws IOException, InterruptedException, TimeoutException
+  {
+    PrivateToolchain withoutLockfile = createToolchain();
+    Files.writeString(resources.resolve("package-lock.json"), "{\"lockfileVersion\": 3}");
+    PrivateToolchain withLockfile = createToolchain();
+
+    withLockfile.install(this::npm);
+
+    assertNotEquals(withoutLockfile.getManifestHash(), withLockfile.getManifestHash());
+    assertEquals("ci", npmCalls.get(0).get(0));
+  }
+
+  @Test
+  void shouldNotKeepFailedInstallation() throws IOException
+  {
+    PrivateToolchain toolchain = createToolchain();
+
+    assertThrows(IOException.class, () -> toolchain.install(pArgs -> 1));
+    assertNull(toolchain.getDirectory());
+    try (var entries = Files.list(cache))
+    {
+      assertEquals(0, entries.count());
+    }
+  }
+
+  /**
+   * Tests that the shipped lockfile locks exactly the manifest, otherwise "npm ci" refuses to install the toolchain.
+   * A release build fails without the lockfile (maven profile release-toolchain), a development build may not contain it yet.
+   */
+  @Test
+  void shouldLockManifest() throws IOException
+  {
+    InputStream lockfile = getClass().getClassLoader().getResourceAsStream(RESOURCE_DIRECTORY + "package-lock.json");
+    Assumptions.assumeTrue(lockfile != null, "the lockfile of the toolchain is missing, create it with: mvn -P toolchain-lockfile generate-resources");
+    lockfile.close();
+
+    JsonObject root = readShippedResource("package-lock.json").getAsJsonObject("packages").getAsJsonObject("");
+    assertEquals(readDependencies(readShippedResource("package.json")), readDependencies(root));
+  }
+
+  /**
+   * @param pName name of a resource of the toolchain, that is shipped with the module
+   * @return the parsed resource
+   */
+  private JsonObject readShippedResource(String pName) throws IOException
+  {
+    try (Reader reader = new InputStreamReader(Objects.requireNonNull(getClass().getClassLoader().getResourceAsStream(RESOURCE_DIRECTORY + pName)),
+                                               StandardCharsets.UTF_8))
+    {
+      return JsonParser.parseReader(reader).getAsJsonObject();
+    }
+  }
+
+  /**
+   * @param pPackage package.json or the root package of a lockfile
+   * @return the versions of the dependencies by their name
+   */
+  private static Map<String, String> readDependencies(JsonObject pPackage)
+  {
+    Map<String, String> dependencies = new HashMap<>();
+    pPackage.getAsJsonObject("dependencies").entrySet().forEach(pEntry -> dependencies.put(pEntry.getKey(), pEntry.getValue().getAsString()));
+    return dependencies;
+  }
+
+  private PrivateToolchain createToolchain() throws MalformedURLException
+  {
+    return new PrivateToolchain(cache, new URLClassLoader(new URL[]{tempDir.resolve("resources").toUri().toURL()}, null));
+  }
+
+  /**
+   * Simulates npm, that installs jsdoc into the given prefix
+   */
+  private int npm(String... pArgs) throws IOException
+  {
+    npmCalls.add(List.of(pArgs));
+    Path prefix = Paths.get(pArgs[Arrays.asList(pArgs).indexOf("--prefix") + 1]);
+    assertTrue(Files.isRegularFile(prefix.resolve("package.json")));
+    Files.writeString(Files.createDirectories(prefix.resolve("node_modules/jsdoc")).resolve("jsdoc.js"), "jsdoc");
+    return 0;
+  }
+}
@@ -0,0 +1,124 @@
+package de.adito.aditoweb.nbm.help;
+
+import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.*;
+import org.junit.jupiter.api.*;
+import org.mockito.ArgumentCaptor;
+import org.netbeans.api.project.Project;
+import org.openide.nodes.Node;
+import org.openide.util.*;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for {@link ProjectSelectionCache}
+ */
+class ProjectSelectionCacheTest
+{
+  private ProjectSelectionCache cache;
+  private Project project;
+  private Lookup.Result<INodeJSExecutor> executorResult;
+  private Lookup.Result<INodeJSProvider> providerResult;
+  private AtomicInteger queries;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void init()
+  {
+    cache = new ProjectSelectionCache();
+    project = mock(Project.class);
+    Lookup lookup = mock(Lookup.class);
+    executorResult = mock(Lookup.Result.class);
+    providerResult = mock(Lookup.Result.class);
+    when(project.getLookup()).thenReturn(lookup);
+    when(lookup.lookupResult(INodeJSExecutor.class)).thenReturn(executorResult);
+    when(lookup.lookupResult(INodeJSProvider.class)).thenReturn(providerResult);
+    queries = new AtomicInteger();
+  }
+
+  @Test
+  void shouldQueryProjectOfNodeOnce()
+  {
+    Node node = mock(Node.class);
+    Node otherNode = mock(Node.class);
+
+    assertSame(project, cache.getProject(node, pNode -> countQuery(project)));
+    assertSame(project, cache.getProject(node, pNode -> countQuery(project)));
+    assertNull(cache.getProject(otherNode, pNode -> countQuery(null)));
+    assertNull(cache.getProject(otherNode, pNode -> countQuery(null)));
+
+    assertEquals(2, queries.get());
+  }
+
+  @Test
+  void shouldCacheAvailability()
+  {
+    assertTrue(cache.isNodeJSAvailable(project, countingQuery(true)));
+    assertTrue(cache.isNodeJSAvailable(project, countingQuery(false)));
+
+    assertEquals(1, queries.get());
+  }
+
+  /**
+   * Tests that the availability is queried again, after the NodeJS executor or provider of the project changed
+   */
+  @Test
+  void shouldInvalidateAvailabilityOnLookupChange()
+  {
+    cache.isNodeJSAvailable(project, countingQuery(false));
+    ArgumentCaptor<LookupListener> listener = ArgumentCaptor.forClass(LookupListener.class);
+    verify(executorResult).addLookupListener(listener.capture());
+    verify(providerResult).addLookupListener(listener.getValue());
+
+    listener.getValue().resultChanged(mock(LookupEvent.class));
+
+    assertTrue(cache.isNodeJSAvailable(project, countingQuery(true)));
+    assertEquals(2, queries.get());
+  }
+
+  @Test
+  void shouldStopListeningWhenCleared()
+  {
+    Node node = mock(Node.class);
+    cache.getProject(node, pNode -> countQuery(project));
+    cache.isNodeJSAvailable(project, countingQuery(true));
+
+    cache.clear();
+
+    verify(executorResult).removeLookupListener(any());
+    verify(providerResult).removeLookupListener(any());
+    cache.getProject(node, pNode -> countQuery(project));
+    cache.isNodeJSAvailable(project, countingQuery(true));
+    assertEquals(4, queries.get());
+  }
+
+  /**
+   * Tests that nothing is cached for a project without a lookup, because a change of NodeJS could not be noticed
+   */
+  @Test
+  void shouldNotCacheWithoutLookup()
+  {
+    Project projectWithoutLookup = mock(Project.class);
+
+    assertTrue(cache.isNodeJSAvailable(projectWithoutLookup, countingQuery(true)));
+    assertFalse(cache.isNodeJSAvailable(projectWithoutLookup, countingQuery(false)));
+  }
+
+  private Project countQuery(Project pResult)
+  {
+    queries.incrementAndGet();
+    return pResult;
+  }
+
+  private Predicate<Project> countingQuery(boolean pResult)
+  {
+    return pProject -> {
+      queries.incrementAndGet();
+      return pResult;
+    };
+  }
+}
@@ -0,0 +1,120 @@
+package de.adito.aditoweb.nbm.help;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link SearchIndex}
+ */
+class SearchIndexTest
+{
+  private static final String NEON_PAGE = String.join(
+      "\n",
+      "<html><head><title>neon - Documentation</title></head><body>",
+      "<h1 class=\"page-title\">neon</h1>",
+      "<div class=\"description\"><p>Functions for the <b>client</b>.</p></div>",
+      "<h4 class=\"name\" id=\".openContext\"><span class=\"type-signature\">(static) </span>openContext(pContext)</h4>",
+      "<div class=\"description\">Opens a context.</div>",
+      "<h4 class=\"name\" id=\".openContextWithRecipe\">openContextWithRecipe(pRecipe)</h4>",
+      "<div class=\"description\">Opens a context with a recipe &amp; a record.</div>",
+      "<h4 class=\"name\" id=\".refresh\">refresh()</h4>",
+      "</body></html>");
+
+  @TempDir
+  Path documentation;
+
+  private SearchIndex index;
+
+  @BeforeEach
+  void init() throws IOException
+  {
+    Files.writeString(documentation.resolve("neon.html"), NEON_PAGE);
+    Files.writeString(Files.createDirectories(documentation.resolve("tutorials")).resolve("start.html"),
+                      "<html><head><title>Getting started</title></head><body><p>How to open a context.</p></body></html>");
+    index = SearchIndex.create(documentation);
+  }
+
+  @Test
+  void shouldIndexPagesAndMembers()
+  {
+    assertEquals(5, index.size());
+    assertEquals(List.of("neon.openContext", "neon.openContextWithRecipe"), getTitles(index.search("neon.openContext", 10)));
+  }
+
+  /**
+   * Tests that the best matching title comes first and that the last term of a query is a prefix
+   */
+  @Test
+  void shouldRankResults()
+  {
+    List<SearchIndex.Result> results = index.search("context", 10);
+
+    assertEquals(List.of("neon.openContext", "neon.openContextWithRecipe", "Getting started"), getTitles(results));
+    assertEquals("neon.html#.openContext", results.get(0).getUrl());
+    assertEquals("Opens a context.", results.get(0).getDescription());
+    assertEquals(List.of("neon.openContextWithRecipe"), getTitles(index.search("open reci", 10)));
+    assertEquals(1, index.search("context", 1).size());
+  }
+
+  @Test
+  void shouldUseSignatureWithoutDescription()
+  {
+    SearchIndex.Result result = index.search("refresh", 10).get(0);
+
+    assertEquals("neon.refresh", result.getTitle());
+    assertEquals("refresh()", result.getDescription());
+  }
+
+  @Test
+  void shouldFindNothingForUnknownTerms()
+  {
+    assertTrue(index.search("db", 10).isEmpty());
+    assertTrue(index.search("  ", 10).isEmpty());
+  }
+
+  /**
+   * Tests that every page loads the search script relative to its directory
+   */
+  @Test
+  void shouldAddSearchScript() throws IOException
+  {
+    assertTrue(Files.readString(documentation.resolve("neon.html")).contains("<script src=\"docs-search.js\" defer></script></body>"));
+    assertTrue(Files.readString(documentation.resolve("tutorials/start.html")).contains("<script src=\"../docs-search.js\" defer></script>"));
+    assertTrue(Files.isRegularFile(documentation.resolve(SearchIndex.SCRIPT_NAME)));
+    assertEquals(SearchIndex.addScript(NEON_PAGE, 0), SearchIndex.addScript(SearchIndex.addScript(NEON_PAGE, 0), 0));
+  }
+
+  @Test
+  void shouldLoadWrittenIndex() throws IOException
+  {
+    SearchIndex loadedIndex = SearchIndex.load(documentation);
+
+    assertEquals(index.size(), loadedIndex.size());
+    assertEquals(getTitles(index.search("open", 10)), getTitles(loadedIndex.search("open", 10)));
+    assertEquals(0, SearchIndex.load(documentation.resolve("tutorials")).size());
+  }
+
+  /**
+   * Tests that the symbol links are extracted from the same pages
+   */
+  @Test
+  void shouldWriteSymbolLinks() throws IOException
+  {
+    SymbolLinks links = SymbolLinks.load(documentation);
+
+    assertEquals("neon.html#.openContextWithRecipe", links.find("neon.openContextWithRecipe"));
+    assertEquals("tutorials/start.html", links.find("start"));
+  }
+
+  private static List<String> getTitles(List<SearchIndex.Result> pResults)
+  {
+    return pResults.stream().map(SearchIndex.Result::getTitle).collect(Collectors.toList());
+  }
+}
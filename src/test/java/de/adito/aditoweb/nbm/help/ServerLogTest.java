@@ -0,0 +1,77 @@
+package de.adito.aditoweb.nbm.help;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.List;
+import java.util.stream.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link ServerLog}
+ */
+class ServerLogTest
+{
+  @TempDir
+  Path tempDir;
+
+  /**
+   * Tests that only the most recent lines are kept
+   */
+  @Test
+  void shouldKeepMostRecentLines()
+  {
+    ServerLog log = new ServerLog(3, null, 0);
+    for (int i = 1; i <= 5; i++)
+      log.log("test", "line " + i);
+
+    List<String> lines = log.getLines();
+    assertEquals(3, lines.size());
+    for (int i = 0; i < 3; i++)
+      assertTrue(lines.get(i).endsWith("[test] line " + (i + 3)), lines.get(i));
+    assertNull(log.getDirectory());
+  }
+
+  @Test
+  void shouldShortenLongLines()
+  {
+    ServerLog log = new ServerLog(3, null, 0);
+
+    log.log("test", "x".repeat(5000));
+
+    assertTrue(log.getLines().get(0).length() < 1100);
+  }
+
+  /**
+   * Tests that the lines are written into rotating files, that do not exceed their limit
+   */
+  @Test
+  void shouldRotateLogFiles() throws IOException
+  {
+    ServerLog log = new ServerLog(3, tempDir, 1000);
+    try
+    {
+      for (int i = 0; i < 100; i++)
+        log.log("test", "line " + i);
+    }
+    finally
+    {
+      log.close();
+    }
+
+    List<Path> files;
+    try (Stream<Path> list = Files.list(tempDir))
+    {
+      files = list.filter(pFile -> pFile.getFileName().toString().endsWith(".log")).collect(Collectors.toList());
+    }
+    assertEquals(tempDir, log.getDirectory());
+    assertEquals(3, files.size());
+    // a file is rotated after the line, that exceeds its limit
+    for (Path file : files)
+      assertTrue(Files.size(file) <= 1100);
+    assertTrue(Files.readString(tempDir.resolve("server.0.log")).contains("line 99"));
+  }
+}
@@ -0,0 +1,83 @@
+package de.adito.aditoweb.nbm.help;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link StagePipeline}
+ */
+class StagePipelineTest
+{
+  /**
+   * Tests that independent stages run at the same time
+   */
+  @Test
+  void shouldRunStagesConcurrently() throws Exception
+  {
+    CountDownLatch bothStarted = new CountDownLatch(2);
+    Callable<Boolean> stage = () -> {
+      bothStarted.countDown();
+      return bothStarted.await(5, TimeUnit.SECONDS);
+    };
+
+    try (StagePipeline pipeline = new StagePipeline("test"))
+    {
+      Future<Boolean> first = pipeline.start("first", stage);
+      Future<Boolean> second = pipeline.start("second", stage);
+
+      assertTrue(StagePipeline.await(first));
+      assertTrue(StagePipeline.await(second));
+    }
+  }
+
+  /**
+   * Tests that the exception of a stage is passed on unchanged
+   */
+  @Test
+  void shouldPassOnExceptionOfStage()
+  {
+    try (StagePipeline pipeline = new StagePipeline("test"))
+    {
+      assertThrows(TimeoutException.class, () -> pipeline.run("timeout", () -> {
+        throw new TimeoutException();
+      }));
+      assertThrows(IOException.class, () -> pipeline.run("io", () -> {
+        throw new IOException();
+      }));
+    }
+  }
+
+  /**
+   * Tests that closing the pipeline interrupts the stages that are still running
+   */
+  @Test
+  void shouldInterruptRunningStagesOnClose() throws Exception
+  {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    Future<Void> stage;
+    try (StagePipeline pipeline = new StagePipeline("test"))
+    {
+      stage = pipeline.start("blocking", () -> {
+        started.countDown();
+        try
+        {
+          new CountDownLatch(1).await();
+        }
+        catch (InterruptedException pE)
+        {
+          interrupted.countDown();
+        }
+        return null;
+      });
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+    }
+
+    assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    assertThrows(InterruptedException.class, () -> StagePipeline.await(stage));
+  }
+}
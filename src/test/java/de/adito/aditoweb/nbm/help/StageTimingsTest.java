@@ -0,0 +1,81 @@
+package de.adito.aditoweb.nbm.help;
+
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link StageTimings}
+ */
+class StageTimingsTest
+{
+  /**
+   * Tests that the stages of the pipeline and the stages inside of them are recorded in the run of the thread that started the pipeline
+   */
+  @Test
+  void shouldRecordStagesOfPipeline() throws Exception
+  {
+    StageTimings timings;
+    try (StageTimings run = StageTimings.start("test"); StagePipeline pipeline = new StagePipeline("test"))
+    {
+      timings = run;
+      pipeline.run("outer", () -> {
+        try (StageTimings.Stage stage = StageTimings.stage("inner"))
+        {
+          stage.succeeded();
+        }
+        return null;
+      });
+      assertThrows(IOException.class, () -> pipeline.run("failing", () -> {
+        throw new IOException();
+      }));
+    }
+
+    List<String> stages = timings.getTimings().stream().map(StageTimings.Timing::getStage).collect(Collectors.toList());
+    assertEquals(List.of("outer", "inner", "failing"), stages);
+    assertFalse(timings.getTimings().get(2).isSuccessful());
+    assertTrue(timings.getDurationMillis() >= 0);
+    assertTrue(timings.getSummary().matches("test #\\d+ took \\d+ ms: outer \\d+ ms, inner \\d+ ms, failing \\d+ ms \\(failed\\)"), timings.getSummary());
+  }
+
+  /**
+   * Tests that a stage without a run is not recorded anywhere and does not fail
+   */
+  @Test
+  void shouldIgnoreStageWithoutRun()
+  {
+    assertNull(StageTimings.current());
+
+    try (StageTimings.Stage stage = StageTimings.stage("background"))
+    {
+      stage.succeeded();
+    }
+
+    assertNull(StageTimings.current());
+  }
+
+  /**
+   * Tests that only the most recent runs are kept
+   */
+  @Test
+  void shouldKeepRecentRuns()
+  {
+    StageTimings last = null;
+    for (int i = 0; i < 30; i++)
+    {
+      try (StageTimings run = StageTimings.start("run " + i))
+      {
+        last = run;
+      }
+    }
+
+    List<StageTimings> history = StageTimings.getHistory();
+    assertEquals(20, history.size());
+    assertSame(last, history.get(history.size() - 1));
+    assertNull(StageTimings.current());
+  }
+}
@@ -0,0 +1,113 @@
+package de.adito.aditoweb.nbm.help;
+
+import de.adito.aditoweb.nbm.nbide.nbaditointerface.javascript.node.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for {@link StreamingExecution}
+ */
+class StreamingExecutionTest
+{
+  private INodeJSEnvironment environment;
+  private INodeJSExecutor executor;
+
+  @BeforeEach
+  void init()
+  {
+    environment = mock(INodeJSEnvironment.class);
+    executor = mock(INodeJSExecutor.class);
+  }
+
+  /**
+   * Tests that the standard and the error output are passed line by line and the exit code is returned
+   */
+  @Test
+  void shouldStreamLinesAndReturnExitCode() throws Exception
+  {
+    when(executor.executeAsync(any(), any(), any(), any(), any(), any())).thenAnswer(pInvocation -> {
+      OutputStream outputStream = pInvocation.getArgument(2);
+      OutputStream errorStream = pInvocation.getArgument(3);
+      outputStream.write("first\r\nsec".getBytes(StandardCharsets.UTF_8));
+      outputStream.write("ond\nlast".getBytes(StandardCharsets.UTF_8));
+      errorStream.write("error\n".getBytes(StandardCharsets.UTF_8));
+      return CompletableFuture.completedFuture(2);
+    });
+    List<String> lines = new ArrayList<>();
+
+    assertEquals(2, StreamingExecution.execute(environment, executor, INodeJSExecBase.node(), 1000, lines::add, "test"));
+    assertEquals(List.of("first", "second", "error", "last"), lines);
+  }
+
+  /**
+   * Tests that a process exceeding its timeout is cancelled
+   */
+  @Test
+  void shouldCancelOnTimeout() throws Exception
+  {
+    CompletableFuture<Integer> future = new CompletableFuture<>();
+    when(executor.executeAsync(any(), any(), any(), any(), any(), any())).thenReturn(future);
+
+    assertThrows(TimeoutException.class, () -> StreamingExecution.execute(environment, executor, INodeJSExecBase.node(), 10, pLine -> {}, "test"));
+    assertTrue(future.isCancelled());
+  }
+
+  /**
+   * Tests that a process is cancelled, if the waiting thread gets interrupted
+   */
+  @Test
+  void shouldCancelOnInterrupt() throws Exception
+  {
+    CompletableFuture<Integer> future = new CompletableFuture<>();
+    when(executor.executeAsync(any(), any(), any(), any(), any(), any())).thenReturn(future);
+
+    Thread.currentThread().interrupt();
+    assertThrows(InterruptedException.class, () -> StreamingExecution.execute(environment, executor, INodeJSExecBase.node(), 1000, pLine -> {}, "test"));
+    assertTrue(future.isCancelled());
+  }
+
+  /**
+   * Tests that only the process of the cancelled execution is killed, not the process of another execution running in parallel
+   */
+  @Test
+  void shouldOnlyKillOwnProcess(@TempDir Path pTempDir) throws Exception
+  {
+    Path script = Files.writeString(pTempDir.resolve("Sleep.java"),
+                                    "class Sleep { public static void main(String[] a) throws Exception { Thread.sleep(60000); } }");
+    List<Process> processes = new ArrayList<>();
+    StreamingExecution.StartedProcess first = startJava(script, "first", processes);
+    StreamingExecution.StartedProcess second = startJava(script, "second", processes);
+    try
+    {
+      second.destroy();
+
+      assertTrue(processes.get(1).waitFor(10, TimeUnit.SECONDS));
+      assertTrue(processes.get(0).isAlive());
+    }
+    finally
+    {
+      first.destroy();
+      processes.forEach(Process::destroyForcibly);
+    }
+  }
+
+  private static StreamingExecution.StartedProcess startJava(Path pScript, String pMarker, List<Process> pProcesses) throws IOException
+  {
+    String java = ProcessHandle.current().info().command().orElse("java");
+    return StreamingExecution.start(() -> {
+      Process process = new ProcessBuilder(java, pScript.toString(), pMarker).start();
+      pProcesses.add(process);
+      return process.onExit().thenApply(Process::exitValue);
+    }, new String[]{pScript.toString(), pMarker});
+  }
+}
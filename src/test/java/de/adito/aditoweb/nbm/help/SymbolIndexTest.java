@@ -0,0 +1,80 @@
+package de.adito.aditoweb.nbm.help;
+
+import org.junit.jupiter.api.*;
+
+import java.io.*;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link SymbolIndex}
+ */
+class SymbolIndexTest
+{
+  private SymbolIndex index;
+
+  @BeforeEach
+  void init()
+  {
+    index = new SymbolIndex.Builder()
+        .add("neon.openContext", "function openContext(pContext: string): void", "Opens a context.", "neon.d.ts")
+        .add("db.cell", "function cell(pSql: string): string", "Returns a cell.", "db.d.ts")
+        .add("neon.openContext", "function openContext(pContext: string, pId: string): void", "Opens a context.", "neon.d.ts")
+        .add("neon.OPERATINGSTATE_NEW", "const OPERATINGSTATE_NEW: string", "New.", "neon.d.ts")
+        .build();
+  }
+
+  /**
+   * Tests that all overloads of a symbol are found, ignoring the case
+   */
+  @Test
+  void shouldFindOverloads()
+  {
+    List<SymbolIndex.Symbol> symbols = index.find("NEON.openContext");
+
+    assertEquals(2, symbols.size());
+    assertTrue(symbols.stream().allMatch(pSymbol -> pSymbol.getName().equals("neon.openContext")));
+    assertTrue(index.find("neon.open").isEmpty());
+  }
+
+  @Test
+  void shouldFindByPrefix()
+  {
+    assertEquals(List.of("neon.openContext", "neon.openContext", "neon.OPERATINGSTATE_NEW"), getNames(index.findByPrefix("neon.o", 10)));
+    assertEquals(List.of("neon.openContext"), getNames(index.findByPrefix("neon.o", 1)));
+    assertTrue(index.findByPrefix("x", 10).isEmpty());
+  }
+
+  /**
+   * Tests that the persisted index contains the same symbols and stores every string only once
+   */
+  @Test
+  void shouldReadWrittenIndex() throws IOException
+  {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    index.write(output);
+
+    SymbolIndex readIndex = SymbolIndex.read(new ByteArrayInputStream(output.toByteArray()));
+
+    assertEquals(index.size(), readIndex.size());
+    SymbolIndex.Symbol symbol = readIndex.find("db.cell").get(0);
+    assertEquals("function cell(pSql: string): string", symbol.getSignature());
+    assertEquals("Returns a cell.", symbol.getDocumentation());
+    assertEquals("db.d.ts", symbol.getSource());
+    List<SymbolIndex.Symbol> overloads = readIndex.find("neon.openContext");
+    assertSame(overloads.get(0).getDocumentation(), overloads.get(1).getDocumentation());
+  }
+
+  @Test
+  void shouldRejectOtherFormat()
+  {
+    assertThrows(IOException.class, () -> SymbolIndex.read(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5, 6, 7, 8})));
+  }
+
+  private static List<String> getNames(List<SymbolIndex.Symbol> pSymbols)
+  {
+    return pSymbols.stream().map(SymbolIndex.Symbol::getName).collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,118 @@
+package de.adito.aditoweb.nbm.help;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link SymbolIndexer}
+ */
+class SymbolIndexerTest
+{
+  private static final String DECLARATION = String.join(
+      "\n",
+      "/**",
+      " * Functions for the client.",
+      " */",
+      "export declare namespace neon {",
+      "    /**",
+      "     * Opens a context.",
+      "     * @param pContext name of the context",
+      "     */",
+      "    function openContext(pContext: string): void;",
+      "    /** The state of a new record. */",
+      "    const OPERATINGSTATE_NEW: string;",
+      "    /** Refreshes the view. */ function refresh(): void;",
+      "    /**",
+      "     * Closes the view.",
+      "     */ function closeView(): void;",
+      "    function undocumented(): void;",
+      "    class Table {",
+      "        /** Returns a cell. */",
+      "        cell(pSql: string): string;",
+      "    }",
+      "}",
+      "/**",
+      " * Returns a row.",
+      " * @memberof db",
+      " */",
+      "export function row(pSql: string): string[];");
+
+  @TempDir
+  Path dist;
+
+  private SymbolIndex index;
+
+  @BeforeEach
+  void init() throws IOException
+  {
+    Files.writeString(dist.resolve("neon.d.ts"), DECLARATION);
+    Files.writeString(Files.createDirectories(dist.resolve("lib")).resolve("neon.js"),
+                      "/**\n * Opens a context.\n * @memberof neon\n */\nfunction openContext(pContext) { return \"}\"; }\n"
+                          + "/** Closes the context. */\nexports.closeContext = function (pContext) {};\n");
+    index = SymbolIndexer.index(dist);
+  }
+
+  /**
+   * Tests that the symbols are qualified with their namespace and class
+   */
+  @Test
+  void shouldQualifySymbols()
+  {
+    SymbolIndex.Symbol openContext = index.find("neon.openContext").get(0);
+
+    assertEquals("function openContext(pContext: string): void", openContext.getSignature());
+    assertEquals("Opens a context.\n@param pContext name of the context", openContext.getDocumentation());
+    assertEquals("neon.d.ts", openContext.getSource());
+    assertEquals(1, index.find("neon.OPERATINGSTATE_NEW").size());
+    assertEquals(1, index.find("neon.Table.cell").size());
+    assertEquals(1, index.find("neon").size());
+  }
+
+  /**
+   * Tests that a declaration, that follows the end of its comment on the same line, is indexed
+   */
+  @Test
+  void shouldIndexDeclarationAfterComment()
+  {
+    SymbolIndex.Symbol refresh = index.find("neon.refresh").get(0);
+
+    assertEquals("function refresh(): void", refresh.getSignature());
+    assertEquals("Refreshes the view.", refresh.getDocumentation());
+    assertEquals("Closes the view.", index.find("neon.closeView").get(0).getDocumentation());
+    assertEquals(1, index.find("neon.Table.cell").size());
+  }
+
+  @Test
+  void shouldUseMemberOfTag()
+  {
+    assertEquals("function row(pSql: string): string[]", index.find("db.row").get(0).getSignature());
+  }
+
+  @Test
+  void shouldIndexOnlyDocumentedSymbols()
+  {
+    assertTrue(index.find("neon.undocumented").isEmpty());
+    assertTrue(index.find("neon.Table").isEmpty());
+  }
+
+  /**
+   * Tests that the compiled sources only add the symbols that are not declared in the declaration files
+   */
+  @Test
+  void shouldPreferDeclarationFiles()
+  {
+    assertEquals(1, index.find("neon.openContext").size());
+    assertEquals("lib/neon.js", index.find("closeContext").get(0).getSource());
+  }
+
+  @Test
+  void shouldReturnEmptyIndexWithoutDist() throws IOException
+  {
+    assertEquals(0, SymbolIndexer.index(dist.resolve("missing")).size());
+  }
+}
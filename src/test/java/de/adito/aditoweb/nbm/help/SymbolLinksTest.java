@@ -0,0 +1,79 @@
+package de.adito.aditoweb.nbm.help;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for {@link SymbolLinks}
+ */
+class SymbolLinksTest
+{
+  private SymbolLinks.Builder builder;
+  private SymbolLinks links;
+
+  @BeforeEach
+  void init()
+  {
+    builder = new SymbolLinks.Builder();
+    SymbolLinks.index("neon.html", "<h1 class=\"page-title\">neon</h1><h4 class=\"name\" id=\".openContext\">openContext()</h4>"
+        + "<h4 class=\"name\" id=\"refresh\">refresh()</h4>", builder);
+    SymbolLinks.index("global.html", "<h1>Global</h1><h4 class=\"name\" id=\"logging\">logging</h4>", builder);
+    SymbolLinks.index("module-utils.Text.html", "<h4 class=\"name\" id=\"~format\">format()</h4>", builder);
+    links = builder.build();
+  }
+
+  @ParameterizedTest
+  @CsvSource({"neon, neon.html", "neon.openContext, neon.html#.openContext", "neon.refresh, neon.html#refresh", "logging, global.html#logging",
+              "utils.Text.format, module-utils.Text.html#~format"})
+  void shouldFindSymbol(String pSymbol, String pExpected)
+  {
+    assertEquals(pExpected, links.find(pSymbol));
+  }
+
+  /**
+   * Tests that a symbol, that is not documented itself, is linked to the page of its nearest documented parent
+   */
+  @Test
+  void shouldFallBackToParent()
+  {
+    assertEquals("neon.html#.openContext", links.find("neon.openContext.length"));
+    assertEquals("neon.html", links.find("neon.missing"));
+    assertNull(links.find("db.cell"));
+    assertNull(links.find(" "));
+  }
+
+  @Test
+  void shouldReadWrittenLinks() throws IOException
+  {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    builder.write(output);
+
+    SymbolLinks readLinks = SymbolLinks.read(new ByteArrayInputStream(output.toByteArray()));
+
+    assertEquals(links.size(), readLinks.size());
+    assertEquals("neon.html#.openContext", readLinks.find("neon.openContext"));
+    assertThrows(IOException.class, () -> SymbolLinks.read(new ByteArrayInputStream(new byte[8])));
+  }
+
+  @Test
+  void shouldLoadEmptyLinksWithoutFile(@TempDir Path pDocumentation) throws IOException
+  {
+    assertEquals(0, SymbolLinks.load(pDocumentation).size());
+  }
+
+  @Test
+  void shouldDerivePageSymbol()
+  {
+    assertEquals(List.of("neon", "", "utils.Text", "Context"),
+                 List.of(SymbolLinks.getPageSymbol("neon.html"), SymbolLinks.getPageSymbol("global.html"),
+                         SymbolLinks.getPageSymbol("module-utils.Text.html"), SymbolLinks.getPageSymbol("classes/Context.html")));
+  }
+}
@@ -0,0 +1,75 @@
+package de.adito.aditoweb.nbm.help;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the persistent {@link VerificationCache}
+ */
+class VerificationCacheTest
+{
+  private static final String KEY = "toolchain";
+  private static final String FINGERPRINT = "fingerprint";
+
+  @TempDir
+  Path tempDir;
+
+  private File cacheFile;
+
+  @BeforeEach
+  void init()
+  {
+    cacheFile = tempDir.resolve("verification.properties").toFile();
+  }
+
+  @Test
+  void shouldNotBeVerifiedInitially()
+  {
+    assertFalse(new VerificationCache(cacheFile).isVerified(KEY, FINGERPRINT));
+  }
+
+  @Test
+  void shouldBeVerifiedOnlyForSameFingerprint()
+  {
+    VerificationCache cache = new VerificationCache(cacheFile);
+
+    cache.setVerified(KEY, FINGERPRINT);
+
+    assertTrue(cache.isVerified(KEY, FINGERPRINT));
+    assertFalse(cache.isVerified(KEY, "otherFingerprint"));
+    assertFalse(cache.isVerified("otherKey", FINGERPRINT));
+  }
+
+  /**
+   * Tests that a verification survives a restart, i.e. a new instance on the same file
+   */
+  @Test
+  void shouldPersistVerification()
+  {
+    new VerificationCache(cacheFile).setVerified(KEY, FINGERPRINT);
+
+    assertTrue(new VerificationCache(cacheFile).isVerified(KEY, FINGERPRINT));
+  }
+
+  @Test
+  void shouldInvalidateVerification()
+  {
+    new VerificationCache(cacheFile).setVerified(KEY, FINGERPRINT);
+    new VerificationCache(cacheFile).invalidate(KEY);
+
+    assertFalse(new VerificationCache(cacheFile).isVerified(KEY, FINGERPRINT));
+  }
+
+  @Test
+  void shouldIgnoreBrokenCacheFile() throws Exception
+  {
+    Files.writeString(cacheFile.toPath(), "\\u00");
+
+    assertFalse(new VerificationCache(cacheFile).isVerified(KEY, FINGERPRINT));
+  }
+}